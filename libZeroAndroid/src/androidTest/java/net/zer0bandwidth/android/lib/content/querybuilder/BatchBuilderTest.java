@@ -0,0 +1,187 @@
+package net.zer0bandwidth.android.lib.content.querybuilder;
+
+import android.content.ContentProviderResult;
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.net.Uri;
+import android.support.test.runner.AndroidJUnit4;
+import android.test.ProviderTestCase2;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Exercises {@link BatchBuilder}.
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@RunWith( AndroidJUnit4.class )
+public class BatchBuilderTest
+extends ProviderTestCase2<MockContentProvider>
+{
+	@SuppressWarnings( "unused" ) // sAuthority is intentionally ignored
+	public BatchBuilderTest()
+	{
+		super( MockContentProvider.class,
+				QueryBuilderTest.MockContext.AUTHORITY ) ;
+	}
+
+	@Override
+	@Before
+	public void setUp()
+	throws Exception
+	{ super.setUp() ; }
+
+	/** Creates a set of values to be written. */
+	protected static ContentValues makeValues( String sValue )
+	{
+		ContentValues vals = new ContentValues() ;
+		vals.put( "foo", sValue ) ;
+		return vals ;
+	}
+
+	/** Exercises the validation of operations added to a batch. */
+	@Test
+	public void testAdd()
+	{
+		ContentResolver rslv = this.getMockContentResolver() ;
+		BatchBuilder batch = QueryBuilder.batch( rslv ) ;
+		assertEquals( -1, batch.lastIndex() ) ;
+		assertNull( batch.getAuthority() ) ;
+
+		IllegalStateException xState = null ;
+		try { batch.allowYield() ; }
+		catch( IllegalStateException x ) { xState = x ; }
+		assertNotNull( xState ) ;
+
+		QueryBuilder.UnboundException xUnbound = null ;
+		try { batch.add( QueryBuilder.insert() ) ; }
+		catch( QueryBuilder.UnboundException x ) { xUnbound = x ; }
+		assertNotNull( xUnbound ) ;
+
+		Uri uri = QueryBuilderTest.MockContext.getMockURI() ;
+		batch.add( QueryBuilder.insert().setValues( makeValues("bar") ), uri ) ;
+		assertEquals( 1, batch.size() ) ;
+		assertEquals( QueryBuilderTest.MockContext.AUTHORITY,
+				batch.getAuthority() ) ;
+
+		IllegalArgumentException xArg = null ;
+		try { batch.withBackReference( "parent_id", 0 ) ; }
+		catch( IllegalArgumentException x ) { xArg = x ; }
+		assertNotNull( xArg ) ;                 // Can't refer to itself.
+
+		xArg = null ;
+		try { batch.add( QueryBuilder.delete(), Uri.parse("content://net.bar/baz") ) ; }
+		catch( IllegalArgumentException x ) { xArg = x ; }
+		assertNotNull( xArg ) ;                 // Different authority.
+		assertEquals( 1, batch.size() ) ;
+		// A SelectionBuilder isn't a BatchableQuery, so can't even be added.
+	}
+
+	/**
+	 * Exercises {@link BatchBuilder#execute()} for a batch of insertions only,
+	 * which should use {@link ContentResolver#bulkInsert}.
+	 */
+	@Test
+	public void testBulkInsert()
+	{
+		ContentResolver rslv = this.getMockContentResolver() ;
+		Uri uri = QueryBuilderTest.MockContext.getMockURI() ;
+		BatchBuilder batch = QueryBuilder.batch( rslv ) ;
+		for( int i = 0 ; i < 5 ; i++ )
+		{
+			batch.add( QueryBuilder.insertInto( rslv, uri )
+					.setValues( makeValues( Integer.toString(i) ) ) ) ;
+		}
+		assertTrue( batch.isBulkInsert() ) ;
+		ContentProviderResult[] aResults = batch.execute() ;
+		assertEquals( 1, aResults.length ) ;
+		assertEquals( 5, BatchBuilder.countRowsAffected( aResults ) ) ;
+		assertEquals( 1, this.getProvider().m_nBulkInserts ) ;
+		assertEquals( 0, this.getProvider().m_nBatches ) ;
+
+		batch.setBulkInsertAllowed( false ) ;
+		assertFalse( batch.isBulkInsert() ) ;
+		aResults = batch.execute() ;
+		assertEquals( 5, aResults.length ) ;
+		assertEquals( MockContentProvider.EXPECTED_INSERT_URI, aResults[0].uri ) ;
+		assertEquals( 1, this.getProvider().m_nBatches ) ;
+	}
+
+	/**
+	 * Verifies that a batch of insertions which would not fit in a single
+	 * {@link ContentResolver#bulkInsert} transaction is applied as a batch,
+	 * rather than being split.
+	 */
+	@Test
+	public void testBulkInsertOverBudget()
+	{
+		ContentResolver rslv = this.getMockContentResolver() ;
+		Uri uri = QueryBuilderTest.MockContext.getMockURI() ;
+		// Each row is marshalled as about 80KB of UTF-16 text.
+		final String sLarge = new String( new char[40*1024] ).replace( '\0', 'x' ) ;
+		BatchBuilder batch = QueryBuilder.batch( rslv ) ;
+		for( int i = 0 ; i < 4 ; i++ )
+		{
+			assertTrue( batch.size() == 0 || batch.isBulkInsert() ) ;
+			batch.add( QueryBuilder.insertInto( rslv, uri )
+					.setValues( makeValues(sLarge) ) ) ;
+		}
+		assertFalse( batch.isBulkInsert() ) ;
+
+		ContentProviderResult[] aResults = batch.execute() ;
+		assertEquals( 4, aResults.length ) ;
+		assertEquals( 0, this.getProvider().m_nBulkInserts ) ;
+		assertEquals( 1, this.getProvider().m_nBatches ) ;
+
+		batch = QueryBuilder.batch( rslv ) ;
+		for( int i = 0 ; i <= InsertionBuilder.MAX_BULK_CHUNK_ROWS ; i++ )
+		{
+			batch.add( QueryBuilder.insertInto( rslv, uri )
+					.setValues( makeValues("a") ) ) ;
+		}
+		assertFalse( batch.isBulkInsert() ) ;
+	}
+
+	/**
+	 * Exercises {@link BatchBuilder#execute()} for a mixed batch with a
+	 * back-reference.
+	 */
+	@Test
+	public void testApplyBatch()
+	{
+		ContentResolver rslv = this.getMockContentResolver() ;
+		Uri uri = QueryBuilderTest.MockContext.getMockURI() ;
+		BatchBuilder batch = QueryBuilder.batch( rslv ).setYieldInterval( 2 ) ;
+		assertEquals( 0, batch.execute().length ) ;         // Trivially empty.
+
+		batch.add( QueryBuilder.insertInto( rslv, uri )
+				.setValues( makeValues("parent") ) ) ;
+		final int nParent = batch.lastIndex() ;
+		batch.add( QueryBuilder.update( rslv, uri )
+					.setValues( makeValues("updated") )
+					.where( "foo=?", "bar" ) )
+			.add( QueryBuilder.deleteFrom( rslv, uri ).deleteAll() )
+			.allowYield()
+			.add( QueryBuilder.insertInto( rslv, uri )
+					.setValues( makeValues("child") ) )
+			.withBackReference( "parent_id", nParent )
+			;
+		assertFalse( batch.isBulkInsert() ) ;
+
+		ContentProviderResult[] aResults = batch.execute() ;
+		assertEquals( 4, aResults.length ) ;
+		assertEquals( MockContentProvider.EXPECTED_INSERT_URI, aResults[0].uri ) ;
+		assertEquals( MockContentProvider.EXPECTED_UPDATE_COUNT,
+				aResults[1].count.intValue() ) ;
+		assertEquals( MockContentProvider.EXPECTED_DELETE_COUNT,
+				aResults[2].count.intValue() ) ;
+		assertEquals( 1 + MockContentProvider.EXPECTED_UPDATE_COUNT
+				+ MockContentProvider.EXPECTED_DELETE_COUNT + 1,
+				BatchBuilder.countRowsAffected( aResults ) ) ;
+
+		ContentValues vals = this.getProvider().m_valsLastInserted ;
+		assertEquals( "child", vals.getAsString( "foo" ) ) ;
+		assertEquals( 42L, vals.getAsLong( "parent_id" ).longValue() ) ;
+	}
+}
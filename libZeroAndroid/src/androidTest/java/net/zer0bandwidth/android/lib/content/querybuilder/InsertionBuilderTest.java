@@ -10,6 +10,9 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Exercises {@link InsertionBuilder}.
  * @since zer0bandwidth-net/android 0.1.7 (#39)
@@ -46,4 +49,42 @@ extends ProviderTestCase2<MockContentProvider>
 		uriInserted = qb.setValues( vals ).execute() ;
 		assertEquals( MockContentProvider.EXPECTED_INSERT_URI, uriInserted ) ;
 	}
+
+	/** Exercises {@link InsertionBuilder#executeBulk}. */
+	@Test
+	public void testExecuteBulk()
+	throws Exception // Any uncaught exception is a failure.
+	{
+		ContentResolver rslv = this.getMockContentResolver() ;
+		Uri uri = QueryBuilderTest.MockContext.getMockURI() ;
+		InsertionBuilder qb = new InsertionBuilder( rslv, uri ) ;
+		assertEquals( 0, qb.executeBulk() ) ;           // No values supplied.
+		assertEquals( 0, this.getProvider().m_nBulkInserts ) ;
+
+		List<ContentValues> avals = new ArrayList<>() ;
+		for( int i = 0 ; i < 10 ; i++ )
+		{
+			ContentValues vals = new ContentValues() ;
+			vals.put( "foo", "bar" + i ) ;
+			avals.add(vals) ;
+		}
+		qb.addValues( avals.get(0), avals.get(1) )
+		  .addValues( avals.subList( 2, avals.size() ) ) ;
+		assertEquals( 10, qb.getBulkValues().size() ) ;
+		assertNull( qb.execute() ) ;   // Bulk values are ignored by execute().
+
+		assertEquals( 10, qb.executeBulk() ) ;
+		assertEquals( 1, this.getProvider().m_nBulkInserts ) ;
+
+		// With a tiny budget, each row is sent by itself.
+		assertEquals( 10, qb.setBulkTransactionBudget(1).executeBulk() ) ;
+		assertEquals( 11, this.getProvider().m_nBulkInserts ) ;
+
+		// A value set with setValues() is written first.
+		ContentValues valsFirst = new ContentValues() ;
+		valsFirst.put( "foo", "first" ) ;
+		qb.setValues( valsFirst ).setBulkTransactionBudget(0) ;
+		assertEquals( valsFirst, qb.getBulkValues().get(0) ) ;
+		assertEquals( 11, qb.executeBulk() ) ;
+	}
 }
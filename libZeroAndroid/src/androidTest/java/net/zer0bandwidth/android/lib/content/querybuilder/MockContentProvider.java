@@ -1,6 +1,9 @@
 package net.zer0bandwidth.android.lib.content.querybuilder;
 
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
 import android.content.ContentValues;
+import android.content.OperationApplicationException;
 import android.database.Cursor;
 import android.net.Uri;
 import android.os.Build;
@@ -22,7 +25,7 @@ extends android.test.mock.MockContentProvider
 	public static final int EXPECTED_DELETE_COUNT = 4 ;
 
 	public static final Uri EXPECTED_INSERT_URI =
-			Uri.parse( "content://net.foo/bar/baz" ) ;
+			Uri.parse( "content://net.foo/bar/baz/42" ) ;
 
 	public static final int EXPECTED_SELECT_CURSOR_SIZE = 5 ;
 
@@ -44,6 +47,18 @@ extends android.test.mock.MockContentProvider
 
 	protected boolean m_bBrokenSelect = false ;
 
+	/** The values most recently passed to {@link #insert}. */
+	public ContentValues m_valsLastInserted = null ;
+
+	/** The number of calls to {@link #applyBatch}. */
+	public int m_nBatches = 0 ;
+
+	/** The number of calls to {@link #bulkInsert}. */
+	public int m_nBulkInserts = 0 ;
+
+	/** The sort order most recently passed to {@link #query}. */
+	public String m_sLastSortOrder = null ;
+
 	/** Allows the caller to force selection queries to be broken. */
 	public MockContentProvider setBrokenSelect( boolean b )
 	{ m_bBrokenSelect = b ; return this ; }
@@ -56,7 +71,26 @@ extends android.test.mock.MockContentProvider
 	/** @return {@link #EXPECTED_INSERT_URI} */
 	@Override
 	public Uri insert( Uri uri, ContentValues vals )
-	{ return EXPECTED_INSERT_URI ; }
+	{ m_valsLastInserted = vals ; return EXPECTED_INSERT_URI ; }
+
+	/** @return the number of rows supplied */
+	@Override
+	public int bulkInsert( Uri uri, ContentValues[] avals )
+	{ ++m_nBulkInserts ; return avals.length ; }
+
+	/** Applies each operation in turn, as the default provider would. */
+	@Override
+	public ContentProviderResult[] applyBatch(
+			ArrayList<ContentProviderOperation> aOps )
+	throws OperationApplicationException
+	{
+		++m_nBatches ;
+		ContentProviderResult[] aResults =
+				new ContentProviderResult[aOps.size()] ;
+		for( int i = 0 ; i < aOps.size() ; i++ )
+			aResults[i] = aOps.get(i).apply( this, aResults, i ) ;
+		return aResults ;
+	}
 
 	/** @return {@link #EXPECTED_SELECT_CURSOR} */
 	@Override
@@ -65,6 +99,7 @@ extends android.test.mock.MockContentProvider
 	{
 		if( Build.VERSION.SDK_INT > 16 && m_bBrokenSelect )
 			throw new OperationCanceledException() ;
+		m_sLastSortOrder = sOrderBy ;
 		return EXPECTED_SELECT_CURSOR ;
 	}
 
@@ -0,0 +1,123 @@
+package net.zer0bandwidth.android.lib.content.querybuilder;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.CancellationSignal;
+import android.support.annotation.RequiresApi;
+import android.support.test.runner.AndroidJUnit4;
+import android.test.ProviderTestCase2;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Exercises {@link PagedQuery}.
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@RunWith( AndroidJUnit4.class )
+@RequiresApi(16)
+public class PagedQueryTest
+extends ProviderTestCase2<MockContentProvider>
+{
+	@SuppressWarnings( "unused" ) // sAuthority is intentionally ignored
+	public PagedQueryTest()
+	{
+		super( MockContentProvider.class,
+				QueryBuilderTest.MockContext.AUTHORITY ) ;
+	}
+
+	@Override
+	@Before
+	public void setUp()
+	throws Exception
+	{ super.setUp() ; }
+
+	/** Exercises the constructor's validation. */
+	@Test
+	public void testConstructor()
+	{
+		QueryBuilder.UnboundException xUnbound = null ;
+		try { new PagedQuery( new SelectionBuilder(), 10 ) ; }
+		catch( QueryBuilder.UnboundException x ) { xUnbound = x ; }
+		assertNotNull( xUnbound ) ;
+
+		IllegalArgumentException xArg = null ;
+		try
+		{
+			new PagedQuery( new SelectionBuilder(
+					this.getMockContentResolver(),
+					QueryBuilderTest.MockContext.getMockURI() ), 0 ) ;
+		}
+		catch( IllegalArgumentException x ) { xArg = x ; }
+		assertNotNull( xArg ) ;
+	}
+
+	/**
+	 * Exercises {@link PagedQuery#fetch}, {@link PagedQuery#prefetch}, and
+	 * {@link PagedQuery#abandon}. The mock provider always returns the same
+	 * cursor, so every page is "full" when the page size matches its size.
+	 */
+	@Test
+	public void testFetchAndPrefetch()
+	{
+		ContentResolver rslv = this.getMockContentResolver() ;
+		Uri uri = QueryBuilderTest.MockContext.getMockURI() ;
+		final int nPageSize = MockContentProvider.EXPECTED_SELECT_CURSOR_SIZE ;
+		PagedQuery pager = new PagedQuery(
+				new SelectionBuilder( rslv, uri ).orderBy( "id" ), nPageSize )
+			.setPrefetchAhead( 2 )
+			;
+		try
+		{
+			Cursor crs = pager.fetch(0) ;
+			assertNotNull( crs ) ;
+			assertEquals( nPageSize, crs.getCount() ) ;
+			synchronized( pager.m_mapPrefetches )
+			{
+				assertTrue( pager.m_mapPrefetches.containsKey(1) ) ;
+				assertTrue( pager.m_mapPrefetches.containsKey(2) ) ;
+			}
+
+			crs = pager.fetch(1) ;                   // Taken from the prefetch.
+			assertNotNull( crs ) ;
+			assertEquals( nPageSize, crs.getCount() ) ;
+
+			pager.abandon(2).abandon(3) ;
+			synchronized( pager.m_mapPrefetches )
+			{ assertFalse( pager.m_mapPrefetches.containsKey(2) ) ; }
+
+			CancellationSignal sig = new CancellationSignal() ;
+			sig.cancel() ;
+			assertNull( pager.fetch( 5, sig ) ) ;
+		}
+		finally
+		{ pager.close() ; }
+		synchronized( pager.m_mapPrefetches )
+		{ assertTrue( pager.m_mapPrefetches.isEmpty() ) ; }
+	}
+
+	/**
+	 * Verifies that a pager does not prefetch beyond a page that is shorter
+	 * than the page size.
+	 */
+	@Test
+	public void testLastPage()
+	{
+		ContentResolver rslv = this.getMockContentResolver() ;
+		Uri uri = QueryBuilderTest.MockContext.getMockURI() ;
+		PagedQuery pager = new PagedQuery( new SelectionBuilder( rslv, uri ),
+				MockContentProvider.EXPECTED_SELECT_CURSOR_SIZE + 1 )
+			.setPrefetchAhead( 1 )
+			;
+		try
+		{
+			assertNotNull( pager.fetch(0) ) ;
+			synchronized( pager.m_mapPrefetches )
+			{ assertTrue( pager.m_mapPrefetches.isEmpty() ) ; }
+		}
+		finally
+		{ pager.close() ; }
+	}
+}
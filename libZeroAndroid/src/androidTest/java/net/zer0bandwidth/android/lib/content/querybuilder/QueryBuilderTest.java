@@ -7,6 +7,8 @@ import android.net.Uri;
 import android.support.test.InstrumentationRegistry;
 import android.support.test.runner.AndroidJUnit4;
 
+import net.zer0bandwidth.android.lib.database.querybuilder.WhereExpression;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -209,6 +211,24 @@ public class QueryBuilderTest
 		assertNull( qb.getWhereParams() ) ;
 	}
 
+	/**
+	 * Exercises {@link QueryBuilder#whereExpr(WhereExpression)}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testWhereExpression()
+	{
+		QueryBuilder qb = new MockQueryBuilder() ;
+		qb.whereExpr( WhereExpression.and( WhereExpression.eq( "foo", "bar" ),
+				WhereExpression.in( "baz", 1, 2 ) ) ) ;
+		assertEquals( "foo=? AND baz IN (?, ?)", qb.getWhereFormat() ) ;
+		assertEquals( 3, qb.getWhereParams().length ) ;
+		assertEquals( "2", qb.getWhereParams()[2] ) ;
+		qb.whereExpr( null ) ;
+		assertNull( qb.getWhereFormat() ) ;
+		assertNull( qb.getWhereParams() ) ;
+	}
+
 	/**
 	 * Exercises {@link QueryBuilder#execute},
 	 * {@link QueryBuilder#executeOn(ContentResolver, Uri)}, and
@@ -0,0 +1,106 @@
+package net.zer0bandwidth.android.lib.content.querybuilder;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.support.test.runner.AndroidJUnit4;
+import android.test.ProviderTestCase2;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Exercises {@link QueryCache}.
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@RunWith( AndroidJUnit4.class )
+public class QueryCacheTest
+extends ProviderTestCase2<MockContentProvider>
+{
+	@SuppressWarnings( "unused" ) // sAuthority is intentionally ignored
+	public QueryCacheTest()
+	{
+		super( MockContentProvider.class,
+				QueryBuilderTest.MockContext.AUTHORITY ) ;
+	}
+
+	@Override
+	@Before
+	public void setUp()
+	throws Exception
+	{ super.setUp() ; }
+
+	/** Exercises the normalization of {@link SelectionBuilder#getCacheKey}. */
+	@Test
+	public void testCacheKey()
+	{
+		Uri uri = QueryBuilderTest.MockContext.getMockURI() ;
+		String sKey = new SelectionBuilder().where( "a=?", "b" )
+				.orderBy( "c" ).getCacheKey(uri) ;
+		assertEquals( sKey, new SelectionBuilder().where( "a=?", "b" )
+				.orderBy( "c" ).getCacheKey(uri) ) ;
+		assertFalse( sKey.equals( new SelectionBuilder().where( "a=?", "b,c" )
+				.getCacheKey(uri) ) ) ;
+		assertFalse( sKey.equals( new SelectionBuilder().where( "a=?", "b" )
+				.orderBy( "c" ).limit( 5 ).getCacheKey(uri) ) ) ;
+		assertFalse( sKey.equals( new SelectionBuilder().where( "a=?", "b" )
+				.orderBy( "c" ).getCacheKey( Uri.parse( "content://foo" ) ) ) ) ;
+	}
+
+	/**
+	 * Exercises hits, misses, and invalidation of a cache attached to a
+	 * {@link SelectionBuilder}.
+	 */
+	@Test
+	public void testHitsAndInvalidation()
+	{
+		ContentResolver rslv = this.getMockContentResolver() ;
+		Uri uri = QueryBuilderTest.MockContext.getMockURI() ;
+		QueryCache cache = new QueryCache() ;
+		SelectionBuilder qb = new SelectionBuilder( rslv, uri ).cachedIn(cache) ;
+
+		Cursor crs = qb.execute() ;
+		assertEquals( MockContentProvider.EXPECTED_SELECT_CURSOR_SIZE,
+				crs.getCount() ) ;
+		assertEquals( 0, cache.getHitCount() ) ;
+		assertEquals( 1, cache.getMissCount() ) ;
+		assertEquals( 1, cache.getObservedCount() ) ;
+		assertTrue( cache.getSizeBytes() > 0 ) ;
+
+		Cursor crsHit = qb.execute() ;
+		assertEquals( 1, cache.getHitCount() ) ;
+		assertEquals( MockContentProvider.EXPECTED_SELECT_CURSOR_SIZE,
+				crsHit.getCount() ) ;
+		assertTrue( crsHit.moveToFirst() ) ;
+		MockContentProvider.EXPECTED_SELECT_CURSOR.moveToFirst() ;
+		assertEquals( MockContentProvider.EXPECTED_SELECT_CURSOR.getString(
+				MockContentProvider.EXPECTED_SELECT_CURSOR.getColumnIndex("id") ),
+			crsHit.getString( crsHit.getColumnIndex("id") ) ) ;
+
+		cache.invalidate(uri) ;
+		assertEquals( 1, cache.getInvalidationCount() ) ;
+		assertEquals( 0, cache.getSizeBytes() ) ;
+		assertEquals( 0, cache.getObservedCount() ) ;
+		qb.execute() ;
+		assertEquals( 2, cache.getMissCount() ) ;
+
+		cache.clear() ;
+		assertEquals( 0, cache.getObservedCount() ) ;
+	}
+
+	/** Verifies that results larger than the entry bound aren't cached. */
+	@Test
+	public void testOversized()
+	{
+		ContentResolver rslv = this.getMockContentResolver() ;
+		Uri uri = QueryBuilderTest.MockContext.getMockURI() ;
+		QueryCache cache = new QueryCache().setMaxEntryBytes( 64 ) ;
+		Cursor crs = new SelectionBuilder( rslv, uri ).cachedIn(cache).execute() ;
+		assertEquals( MockContentProvider.EXPECTED_SELECT_CURSOR_SIZE,
+				crs.getCount() ) ;
+		assertEquals( 1, cache.getOversizedCount() ) ;
+		assertEquals( 0, cache.getSizeBytes() ) ;
+		assertEquals( 0, cache.getObservedCount() ) ;
+	}
+}
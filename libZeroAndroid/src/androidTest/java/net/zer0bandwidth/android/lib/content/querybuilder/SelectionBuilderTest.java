@@ -9,6 +9,9 @@ import android.support.annotation.RequiresApi;
 import android.support.test.runner.AndroidJUnit4;
 import android.test.ProviderTestCase2;
 
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLightable;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteColumn;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -17,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import static net.zer0bandwidth.android.lib.content.ContentUtils.QUERY_ORDER_ASCENDING;
 import static net.zer0bandwidth.android.lib.content.ContentUtils.QUERY_ORDER_DESCENDING;
 
 /**
@@ -160,6 +164,129 @@ extends ProviderTestCase2<MockContentProvider>
 		*/
 	}
 
+	/**
+	 * Exercises {@link SelectionBuilder#limit}, {@link SelectionBuilder#offset},
+	 * and {@link SelectionBuilder#page}, and the rendering of the fallback sort
+	 * specification.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testPaging()
+	{
+		SelectionBuilder qb = new SelectionBuilder() ;
+		assertEquals( SelectionBuilder.NO_LIMIT, qb.getLimit() ) ;
+		assertEquals( 0, qb.getOffset() ) ;
+		qb.limit( -5 ).offset( -5 ) ;
+		assertEquals( SelectionBuilder.NO_LIMIT, qb.getLimit() ) ;
+		assertEquals( 0, qb.getOffset() ) ;
+		qb.page( 2, 10 ) ;
+		assertEquals( 10, qb.getLimit() ) ;
+		assertEquals( 20, qb.getOffset() ) ;
+
+		IllegalArgumentException xArg = null ;
+		try { qb.page( 0, 0 ) ; }
+		catch( IllegalArgumentException x ) { xArg = x ; }
+		assertNotNull( xArg ) ;
+
+		assertEquals( SelectionBuilder.FALLBACK_PAGE_SORT + " LIMIT 10 OFFSET 20",
+				qb.getPagedSortSpecString( 10, 20 ) ) ;
+		qb.orderBy( "foo", QUERY_ORDER_DESCENDING ) ;
+		assertEquals( "foo " + QUERY_ORDER_DESCENDING + " LIMIT 10",
+				qb.getPagedSortSpecString( 10, 0 ) ) ;
+		assertEquals( "foo " + QUERY_ORDER_DESCENDING + " LIMIT -1 OFFSET 5",
+				qb.getPagedSortSpecString( SelectionBuilder.NO_LIMIT, 5 ) ) ;
+	}
+
+	/**
+	 * Exercises the execution of a paged query. The mock provider doesn't
+	 * report that it honors paging arguments, so the query should always end
+	 * up using the fallback sort specification.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	@RequiresApi(16)
+	public void testExecutePaged()
+	{
+		ContentResolver rslv = this.getMockContentResolver() ;
+		Uri uri = QueryBuilderTest.MockContext.getMockURI() ;
+		SelectionBuilder qb = new SelectionBuilder( rslv, uri )
+				.orderBy( "foo" ) ;
+		assertNotNull( qb.execute() ) ;
+		assertEquals( "foo " + QUERY_ORDER_ASCENDING,
+				this.getProvider().m_sLastSortOrder ) ;
+		assertNotNull( qb.page( 1, 3 ).execute() ) ;
+		assertEquals( "foo " + QUERY_ORDER_ASCENDING + " LIMIT 3 OFFSET 3",
+				this.getProvider().m_sLastSortOrder ) ;
+		assertNotNull( qb.page( 2, 3 ).executeOrCancel( new CancellationSignal() ) ) ;
+		assertEquals( "foo " + QUERY_ORDER_ASCENDING + " LIMIT 3 OFFSET 6",
+				this.getProvider().m_sLastSortOrder ) ;
+	}
+
+	/**
+	 * A schematic class corresponding to the rows of
+	 * {@link MockContentProvider#EXPECTED_SELECT_CURSOR}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static class MockRow
+	implements SQLightable
+	{
+		@SQLiteColumn( name = "id" )
+		public String m_sID = null ;
+
+		@SQLiteColumn( name = "intval" )
+		public int m_nValue = -1 ;
+
+		@SuppressWarnings( "unused" ) // used reflexively
+		public MockRow() {}
+	}
+
+	/**
+	 * Exercises {@link SelectionBuilder#executeAs(Class)},
+	 * {@link SelectionBuilder#executeAsList(Class)}, and the ways of consuming
+	 * a {@link SchematicCursor}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testExecuteAs()
+	{
+		ContentResolver rslv = this.getMockContentResolver() ;
+		Uri uri = QueryBuilderTest.MockContext.getMockURI() ;
+		final int nCount = MockContentProvider.EXPECTED_SELECT_CURSOR_SIZE ;
+		SchematicCursor<MockRow> crs =
+				new SelectionBuilder( rslv, uri ).executeAs( MockRow.class ) ;
+		assertNotNull( crs ) ;
+		assertEquals( 2, crs.m_aColumns.size() ) ;
+		assertEquals( 2, crs.m_anIndices.length ) ;
+		for( int c = 0 ; c < crs.m_anIndices.length ; c++ )
+		{
+			assertEquals( crs.getWrappedCursor().getColumnIndex(
+					crs.m_aColumns.get(c).getName() ), crs.m_anIndices[c] ) ;
+		}
+		assertEquals( crs.getWrappedCursor().getColumnIndex( "intval" ),
+				crs.getColumnIndex( "intval" ) ) ;
+		assertEquals( -1, crs.getColumnIndex( "nope" ) ) ;
+
+		int i = 0 ;
+		for( MockRow row : crs )
+		{
+			assertNotNull( row.m_sID ) ;
+			assertEquals( i++, row.m_nValue ) ;
+		}
+		assertEquals( nCount, i ) ;
+
+		List<MockRow> aLazy = crs.asList() ;
+		assertEquals( nCount, aLazy.size() ) ;
+		assertEquals( 3, aLazy.get(3).m_nValue ) ;
+		assertSame( aLazy.get(3), aLazy.get(3) ) ;
+
+		List<MockRow> aRows = new SelectionBuilder( rslv, uri )
+				.executeAsList( MockRow.class ) ;
+		assertEquals( nCount, aRows.size() ) ;
+		assertEquals( nCount - 1, aRows.get( nCount - 1 ).m_nValue ) ;
+		assertSame( SelectionBuilder.getReflection( MockRow.class ),
+				SelectionBuilder.getReflection( MockRow.class ) ) ;
+	}
+
 	/**
 	 * Exercises {@link SelectionBuilder#toBundle}.
 	 * @since zer0bandwidth-net/android 0.1.7 (#50)
@@ -194,7 +194,12 @@ implements Cursor
 
 	@Override
 	public String[] getColumnNames()
-	{ return m_aValues.get(m_nPosition).keySet().toArray( new String[0] ) ; }
+	{ // Like a real cursor, answer even when not positioned on a row.
+		if( m_aValues.isEmpty() ) return new String[0] ;
+		final int nRow = ( m_nPosition < 0 || m_nPosition >= m_aValues.size() ?
+				0 : m_nPosition ) ;
+		return m_aValues.get(nRow).keySet().toArray( new String[0] ) ;
+	}
 
 	@Override
 	public int getColumnCount()
@@ -259,8 +264,14 @@ implements Cursor
 	@Override
 	public int getType( int nIndex )
 	{
-		// Not worth implementing in the scope of this issue.
-		throw new UnsupportedOperationException() ;
+		Object o = m_aValues.get(m_nPosition)
+		                    .get( this.getColumnNames()[nIndex] ) ;
+		if( o == null ) return FIELD_TYPE_NULL ;
+		if( o instanceof byte[] ) return FIELD_TYPE_BLOB ;
+		if( o instanceof Float || o instanceof Double ) return FIELD_TYPE_FLOAT ;
+		if( o instanceof Number || o instanceof Boolean )
+			return FIELD_TYPE_INTEGER ;
+		return FIELD_TYPE_STRING ;
 	}
 
 	@Override
@@ -0,0 +1,218 @@
+package net.zer0bandwidth.android.lib.database.querybuilder;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.test.runner.AndroidJUnit4;
+
+import net.zer0bandwidth.android.lib.database.MinimalUnitTestDBPortal;
+import net.zer0bandwidth.android.lib.database.SQLitePortal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static junit.framework.Assert.* ;
+
+import static net.zer0bandwidth.android.lib.database.MinimalUnitTestDBPortal.TEST_TABLE_NAME ;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.INSERT_FAILED;
+
+/**
+ * Exercises {@link CompiledQuery} and its implementations, as produced by the
+ * query builders.
+ * @see CompiledStatement
+ * @see CompiledSelection
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@RunWith( AndroidJUnit4.class )
+public class CompiledQueryTest
+{
+	/** Persistent handle on the test DB portal. */
+	private MinimalUnitTestDBPortal m_dbh ;
+
+	/** Persistent handle on the database under the portal. */
+	private SQLiteDatabase m_db ;
+
+	/** Creates the database portal for each test. */
+	@Before
+	public void setUp()
+	{
+		m_dbh = MinimalUnitTestDBPortal.getInstrumentedInstance(
+					CompiledQueryTest.class.getSimpleName() ) ;
+		m_dbh.openDB() ;
+		//noinspection StatementWithEmptyBody
+		while( ! m_dbh.isConnected() ) ; // Wait for a connection.
+		m_db = m_dbh.getDB() ;
+		QueryBuilder.deleteFrom( m_db, TEST_TABLE_NAME ).deleteAll().execute() ;
+	}
+
+	/** Closes the database after each test. */
+	@After
+	public void finish()
+	{ m_dbh.closeDB().close() ; }
+
+	/** Exercises {@link CompiledQuery#countParams}. */
+	@Test
+	public void testCountParams()
+	{
+		assertEquals( 0, CompiledQuery.countParams( null ) ) ;
+		assertEquals( 0, CompiledQuery.countParams( "SELECT * FROM t" ) ) ;
+		assertEquals( 2, CompiledQuery.countParams( "a=? AND b=?" ) ) ;
+		assertEquals( 1, CompiledQuery.countParams( "a='?' AND \"?\"=?" ) ) ;
+	}
+
+	/** Exercises the SQL rendered by each builder's {@code compileOn()}. */
+	@Test
+	public void testRenderedSQL()
+	{
+		ContentValues vals = new ContentValues() ;
+		vals.put( "a_string_field", "foo" ) ;
+		vals.put( "a_int_field", 5 ) ;
+
+		CompiledQuery<Long> qInsert = QueryBuilder.insertInto( m_db, TEST_TABLE_NAME )
+				.setValues( vals )
+				.onConflict( SQLiteDatabase.CONFLICT_IGNORE )
+				.compile()
+				;
+		assertEquals( "INSERT OR IGNORE INTO unittestdata (a_int_field, a_string_field) VALUES (?, ?)",
+				qInsert.getSQL() ) ;
+		assertEquals( 2, qInsert.getParameterCount() ) ;
+		qInsert.close() ;
+
+		CompiledQuery<Integer> qUpdate = QueryBuilder.update( m_db, TEST_TABLE_NAME )
+				.setValues( vals )
+				.where( "id=?", "1" )
+				.compile()
+				;
+		assertEquals( "UPDATE unittestdata SET a_int_field=?, a_string_field=? WHERE id=?",
+				qUpdate.getSQL() ) ;
+		assertEquals( 3, qUpdate.getParameterCount() ) ;
+		qUpdate.close() ;
+
+		CompiledQuery<Integer> qDelete = QueryBuilder.deleteFrom( m_db, TEST_TABLE_NAME )
+				.where( "id=?", "1" )
+				.compile()
+				;
+		assertEquals( "DELETE FROM unittestdata WHERE id=?", qDelete.getSQL() ) ;
+		qDelete.close() ;
+
+		CompiledQuery<Cursor> qSelect = QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME )
+				.distinct()
+				.columns( "id", "a_int_field" )
+				.where( "a_int_field>?", "1" )
+				.orderBy( "id" )
+				.limit( 5 )
+				.compile()
+				;
+		assertEquals( "SELECT DISTINCT id, a_int_field FROM unittestdata WHERE a_int_field>? ORDER BY id ASC LIMIT 5",
+				qSelect.getSQL() ) ;
+		qSelect.close() ;
+	}
+
+	/**
+	 * Executes compiled statements and selections repeatedly with new
+	 * bindings.
+	 */
+	@Test
+	public void testRepeatedExecution()
+	{
+		ContentValues vals = new ContentValues() ;
+		vals.put( "a_string_field", "" ) ;
+		vals.put( "a_int_field", 0 ) ;
+		CompiledQuery<Long> qInsert = QueryBuilder.insertInto( m_db, TEST_TABLE_NAME )
+				.setValues( vals ).compile() ;
+		long[] anIDs = new long[10] ;
+		for( int i = 0 ; i < anIDs.length ; i++ )
+		{
+			anIDs[i] = qInsert.bind( 1, i ).bind( 2, "row" + i ).execute() ;
+			assertTrue( anIDs[i] != INSERT_FAILED ) ;
+		}
+		qInsert.close() ;
+
+		CompiledQuery<Cursor> qSelect = QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME )
+				.where( "id=?", "" ).compile() ;
+		for( int i = 0 ; i < anIDs.length ; i++ )
+		{
+			Cursor crs = qSelect.bind( 1, anIDs[i] ).execute() ;
+			assertTrue( crs.moveToFirst() ) ;
+			assertEquals( i, crs.getInt( crs.getColumnIndex( "a_int_field" ) ) ) ;
+			assertEquals( "row" + i,
+					crs.getString( crs.getColumnIndex( "a_string_field" ) ) ) ;
+			SQLitePortal.closeCursor( crs ) ;
+		}
+
+		CompiledQuery<Integer> qUpdate = QueryBuilder.update( m_db, TEST_TABLE_NAME )
+				.setValues( vals ).where( "id=?", "" ).compile() ;
+		assertEquals( 1, (int)( qUpdate.bind( 1, 42L ).bind( 2, "updated" )
+				.bind( 3, anIDs[0] ).execute() ) ) ;
+		qUpdate.close() ;
+		Cursor crs = qSelect.bind( 1, anIDs[0] ).execute() ;
+		assertTrue( crs.moveToFirst() ) ;
+		assertEquals( 42, crs.getInt( crs.getColumnIndex( "a_int_field" ) ) ) ;
+		SQLitePortal.closeCursor( crs ) ;
+		qSelect.close() ;
+
+		CompiledQuery<Integer> qDelete = QueryBuilder.deleteFrom( m_db, TEST_TABLE_NAME )
+				.where( "id=?", "" ).compile() ;
+		int nDeleted = 0 ;
+		for( long nID : anIDs )
+			nDeleted += qDelete.bind( 1, nID ).execute() ;
+		qDelete.close() ;
+		assertEquals( anIDs.length, nDeleted ) ;
+	}
+
+	/**
+	 * Verifies that selections bind {@code NULL} and binary values, which
+	 * {@link SQLiteDatabase#rawQuery} alone can't pass, and reject bad
+	 * indices.
+	 */
+	@Test
+	public void testSelectionBindings()
+	{
+		ContentValues vals = new ContentValues() ;
+		vals.put( "a_int_field", 1 ) ;
+		QueryBuilder.insertInto( m_db, TEST_TABLE_NAME ).setValues( vals ).execute() ;
+		vals.put( "a_string_field", "foo" ) ;
+		QueryBuilder.insertInto( m_db, TEST_TABLE_NAME ).setValues( vals ).execute() ;
+
+		CompiledQuery<Cursor> q = QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME )
+				.where( "a_string_field IS ?", "" ).compile() ;
+		Cursor crs = q.bindNull( 1 ).execute() ;
+		assertEquals( 1, crs.getCount() ) ;
+		SQLitePortal.closeCursor( crs ) ;
+		crs = q.bind( 1, "foo" ).execute() ;
+		assertEquals( 1, crs.getCount() ) ;
+		SQLitePortal.closeCursor( crs ) ;
+		crs = q.clearBindings().execute() ;          // Unbound is also NULL.
+		assertEquals( 1, crs.getCount() ) ;
+		SQLitePortal.closeCursor( crs ) ;
+		q.close() ;
+
+		q = QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME )
+				.where( "CAST( a_string_field AS BLOB )=?", "" ).compile() ;
+		crs = q.bind( 1, new byte[] { 'f', 'o', 'o' } ).execute() ;
+		assertEquals( 1, crs.getCount() ) ;
+		SQLitePortal.closeCursor( crs ) ;
+
+		// Numbers are bound as numbers, even where no affinity applies.
+		q = QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME )
+				.where( "abs( a_int_field )=?", "" ).compile() ;
+		crs = q.bind( 1, 1L ).execute() ;
+		assertEquals( 2, crs.getCount() ) ;
+		SQLitePortal.closeCursor( crs ) ;
+		crs = q.bind( 1, 1.0d ).execute() ;
+		assertEquals( 2, crs.getCount() ) ;
+		SQLitePortal.closeCursor( crs ) ;
+
+		IllegalArgumentException xBounds = null ;
+		try { q.bind( 2, 1L ) ; }
+		catch( IllegalArgumentException x ) { xBounds = x ; }
+		assertNotNull( xBounds ) ;
+
+		QueryBuilder.UnboundException xUnbound = null ;
+		try { QueryBuilder.selectFrom( TEST_TABLE_NAME ).compile() ; }
+		catch( QueryBuilder.UnboundException x ) { xUnbound = x ; }
+		assertNotNull( xUnbound ) ;
+	}
+}
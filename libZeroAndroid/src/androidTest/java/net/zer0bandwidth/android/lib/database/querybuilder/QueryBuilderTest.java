@@ -15,6 +15,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 
 import static junit.framework.Assert.* ;
@@ -22,7 +23,10 @@ import static junit.framework.Assert.* ;
 import static net.zer0bandwidth.android.lib.database.MinimalUnitTestDBPortal.TEST_TABLE_NAME ;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.COLUMN_NOT_FOUND;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.INSERT_FAILED;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_COUNT;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_ORDER_ASC;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_ORDER_DESC;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_SELECT_ALL_COLUMNS;
 
 /**
  * Exercises query builders.
@@ -599,4 +603,351 @@ public class QueryBuilderTest
 		bldr.m_mapOrderBy = null ; // might break the class under normal ops?
 		assertNull( bldr.getOrderByClause() ) ;
 	}
+
+	/**
+	 * Exercises {@link QueryBuilder#withParams}, {@link QueryBuilder#reset},
+	 * and {@link SelectionBuilder#template}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testReusableBuilders()
+	{
+		InsertionBuilder bldrInsert = QueryBuilder.insertInto( m_db, TEST_TABLE_NAME ) ;
+		long[] anIDs = new long[3] ;
+		for( int i = 0 ; i < anIDs.length ; i++ )
+			anIDs[i] = bldrInsert.setValues( getTestableValues() ).execute() ;
+
+		SelectionBuilder bldr = QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME )
+				.columns( "id", "a_string_field" )
+				.where( "id=?", "" )
+				.orderBy( "id" )
+				;
+		final String[] asColumns = bldr.getColumnList() ;
+		final String sOrderBy = bldr.getOrderByClause() ;
+		for( long nID : anIDs )
+		{
+			Cursor crs = bldr.withParams( Long.toString(nID) ).execute() ;
+			assertTrue( crs.moveToFirst() ) ;
+			assertEquals( nID, crs.getLong( crs.getColumnIndex( "id" ) ) ) ;
+			SQLitePortal.closeCursor( crs ) ;
+		}
+		assertSame( asColumns, bldr.getColumnList() ) ;   // not re-rendered
+		assertSame( sOrderBy, bldr.getOrderByClause() ) ;
+
+		SelectionBuilder bldrCopy = bldr.template().withParams( "-1" ) ;
+		bldrCopy.columns( "a_int_field" ) ;
+		assertEquals( 3, bldrCopy.getColumnList().length ) ;
+		assertEquals( 2, bldr.getColumnList().length ) ;
+		assertEquals( Long.toString( anIDs[anIDs.length-1] ),
+				bldr.getWhereParams()[0] ) ;
+		Cursor crs = bldrCopy.execute() ;
+		assertEquals( 0, crs.getCount() ) ;
+		SQLitePortal.closeCursor( crs ) ;
+
+		bldr.reset() ;
+		assertEquals( "SELECT * FROM unittestdata ;", bldr.toString() ) ;
+		crs = bldr.execute() ;                        // binding was retained
+		assertTrue( crs.getCount() >= anIDs.length ) ;
+		SQLitePortal.closeCursor( crs ) ;
+
+		IllegalStateException xCaught = null ;
+		try { bldr.withParams( "1" ) ; }
+		catch( IllegalStateException x ) { xCaught = x ; }
+		assertNotNull( xCaught ) ;
+	}
+
+	/**
+	 * Exercises {@link InsertionBuilder#addRows} and
+	 * {@link InsertionBuilder#executeBatchOn}, with enough rows to require
+	 * several statements, and a change of column set partway through.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testBatchInsertion()
+	{
+		QueryBuilder.deleteFrom( m_db, TEST_TABLE_NAME ).deleteAll().execute() ;
+		final int nRows = 1200 ;
+		ArrayList<ContentValues> aRows = new ArrayList<>( nRows ) ;
+		for( int i = 0 ; i < nRows ; i++ )
+		{
+			ContentValues vals = getTestableValues() ;
+			vals.put( "a_int_field", i ) ;
+			if( i >= 1000 ) vals.remove( "a_boolint_field" ) ;
+			aRows.add( vals ) ;
+		}
+		InsertionBuilder bldr = QueryBuilder.insertInto( m_db, TEST_TABLE_NAME )
+				.addRows( aRows ) ;
+		InsertionBuilder.BatchResult res = bldr.executeBatch() ;
+		assertFalse( res.bFailed ) ;
+		assertEquals( nRows, res.nRowsInserted ) ;
+		assertEquals( nRows - 1, res.nLastRowID - res.nFirstRowID ) ;
+
+		Cursor crs = QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME )
+				.columns( "id", "a_int_field" )
+				.orderBy( "id" )
+				.execute()
+				;
+		assertEquals( nRows, crs.getCount() ) ;
+		assertTrue( crs.moveToFirst() ) ;
+		assertEquals( res.nFirstRowID, crs.getLong(0) ) ;
+		assertEquals( 0, crs.getInt(1) ) ;
+		assertTrue( crs.moveToLast() ) ;
+		assertEquals( res.nLastRowID, crs.getLong(0) ) ;
+		assertEquals( nRows - 1, crs.getInt(1) ) ;
+		SQLitePortal.closeCursor( crs ) ;
+		final long nLastRowID = res.nLastRowID ;
+
+		// A failed row rolls back the whole batch.
+		ContentValues valsBogus = new ContentValues() ;
+		valsBogus.put( "no_such_column", 1 ) ;
+		res = bldr.reset().addRow( getTestableValues() ).addRow( valsBogus )
+				.executeBatch() ;
+		assertTrue( res.bFailed ) ;
+		assertEquals( 0, res.nRowsInserted ) ;
+		crs = QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME ).execute() ;
+		assertEquals( nRows, crs.getCount() ) ;
+		SQLitePortal.closeCursor( crs ) ;
+
+		// A batch of one row behaves as an ordinary insertion.
+		long nID = bldr.reset().addRow( getTestableValues() ).execute() ;
+		assertEquals( nLastRowID + 1, nID ) ;
+
+		// No ID range is reported if a row was skipped by the conflict clause.
+		ContentValues valsDuplicate = getTestableValues() ;
+		valsDuplicate.put( "id", nID ) ;
+		res = bldr.reset().onConflict( SQLiteDatabase.CONFLICT_IGNORE )
+				.addRow( getTestableValues() ).addRow( valsDuplicate )
+				.executeBatch() ;
+		assertFalse( res.bFailed ) ;
+		assertEquals( 1, res.nRowsInserted ) ;
+		assertEquals( nID + 1, res.nLastRowID ) ;
+		assertEquals( INSERT_FAILED, res.nFirstRowID ) ;
+
+		// ...or if any row specified its own ID.
+		ContentValues valsExplicit = getTestableValues() ;
+		valsExplicit.put( "id", nID + 100 ) ;
+		res = bldr.reset().addRow( valsExplicit ).addRow( getTestableValues() )
+				.executeBatch() ;
+		assertFalse( res.bFailed ) ;
+		assertEquals( 2, res.nRowsInserted ) ;
+		assertEquals( INSERT_FAILED, res.nFirstRowID ) ;
+	}
+
+	/**
+	 * Exercises {@link DeletionBuilder#whereIn} and
+	 * {@link UpdateBuilder#whereIn}, with sets large enough to require
+	 * several {@code IN} lists, and then a temporary table.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testWhereIn()
+	{
+		QueryBuilder.deleteFrom( m_db, TEST_TABLE_NAME ).deleteAll().execute() ;
+		final int nRows = QueryBuilder.WHERE_IN_TEMP_TABLE_THRESHOLD + 500 ;
+		InsertionBuilder bldrInsert = QueryBuilder.insertInto( m_db, TEST_TABLE_NAME ) ;
+		for( int i = 0 ; i < nRows ; i++ )
+		{
+			ContentValues vals = getTestableValues() ;
+			vals.put( "a_int_field", i ) ;
+			bldrInsert.addRow( vals ) ;
+		}
+		InsertionBuilder.BatchResult res = bldrInsert.executeBatch() ;
+		assertEquals( nRows, res.nRowsInserted ) ;
+
+		ArrayList<Long> anIDs = new ArrayList<>() ;
+		for( long nID = res.nFirstRowID ; nID < res.nFirstRowID + 2500 ; nID++ )
+			anIDs.add( nID ) ;
+
+		// Update 2500 rows, of which only the even ones match the WHERE clause.
+		ContentValues valsUpdate = new ContentValues() ;
+		valsUpdate.put( "a_string_field", "updated" ) ;
+		int nUpdated = QueryBuilder.update( m_db, TEST_TABLE_NAME )
+				.setValues( valsUpdate )
+				.where( "a_int_field % ? = 0", "2" )
+				.whereIn( "id", anIDs )
+				.execute()
+				;
+		assertEquals( 1250, nUpdated ) ;
+
+		// Delete those 2500 rows by key.
+		assertEquals( 2500, (int)( QueryBuilder.deleteFrom( m_db, TEST_TABLE_NAME )
+				.whereIn( "id", anIDs ).execute() ) ) ;
+		assertEquals( 0, (int)( QueryBuilder.deleteFrom( m_db, TEST_TABLE_NAME )
+				.whereIn( "id", new ArrayList<Long>() ).execute() ) ) ;
+
+		// Delete the rest through a temporary table.
+		anIDs.clear() ;
+		for( long nID = res.nFirstRowID ; nID <= res.nLastRowID ; nID++ )
+			anIDs.add( nID ) ;
+		assertTrue( anIDs.size() > QueryBuilder.WHERE_IN_TEMP_TABLE_THRESHOLD ) ;
+		assertEquals( nRows - 2500, (int)( QueryBuilder.deleteFrom( m_db, TEST_TABLE_NAME )
+				.whereIn( "id", anIDs ).execute() ) ) ;
+		Cursor crs = QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME ).execute() ;
+		assertEquals( 0, crs.getCount() ) ;
+		SQLitePortal.closeCursor( crs ) ;
+	}
+
+	/**
+	 * Exercises the aggregate methods of {@link SelectionBuilder}, including
+	 * the subquery form used for distinct and limited selections.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testAggregates()
+	{
+		QueryBuilder.deleteFrom( m_db, TEST_TABLE_NAME ).deleteAll().execute() ;
+		assertEquals( 0L, QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME ).count() ) ;
+		assertTrue( Double.isNaN( QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME )
+				.avg( "a_int_field" ) ) ) ;
+		assertTrue( Double.isNaN( QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME )
+				.maxAsDouble( "a_int_field" ) ) ) ;
+		assertEquals( 0.0d, QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME )
+				.sumAsDouble( "a_int_field" ), 0.0d ) ;
+
+		ContentValues vals = new ContentValues() ;
+		for( int i = 1 ; i <= 10 ; i++ )
+		{
+			vals.put( "a_int_field", i ) ;
+			vals.put( "a_string_field", ( i % 2 == 0 ? "even" : "odd" ) ) ;
+			QueryBuilder.insertInto( m_db, TEST_TABLE_NAME )
+					.setValues( vals ).execute() ;
+		}
+
+		SelectionBuilder bldr = QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME ) ;
+		assertEquals( "SELECT COUNT(*) FROM " + TEST_TABLE_NAME,
+				bldr.renderAggregateSQL( SQL_COUNT, SQL_SELECT_ALL_COLUMNS ) ) ;
+		assertEquals( 10L, bldr.count() ) ;
+		assertEquals( 55L, bldr.sum( "a_int_field" ) ) ;
+		assertEquals( 1L, bldr.min( "a_int_field" ) ) ;
+		assertEquals( 10L, bldr.max( "a_int_field" ) ) ;
+		assertEquals( 5.5d, bldr.avg( "a_int_field" ), 0.0001d ) ;
+
+		// Fractional values are kept by the double variants.
+		assertEquals( 13L, bldr.sum( "a_int_field/4.0" ) ) ;
+		assertEquals( 13.75d, bldr.sumAsDouble( "a_int_field/4.0" ), 0.0001d ) ;
+		assertEquals( 0.25d, bldr.minAsDouble( "a_int_field/4.0" ), 0.0001d ) ;
+		assertEquals( 2.5d, bldr.maxAsDoubleOn( m_db, "a_int_field/4.0" ), 0.0001d ) ;
+
+		bldr.where( "a_string_field=?", "even" ) ;
+		assertEquals( 5L, bldr.count() ) ;
+		assertEquals( 30L, bldr.sum( "a_int_field" ) ) ;
+		assertEquals( 2L, bldr.minOn( m_db, "a_int_field" ) ) ;
+
+		SelectionBuilder bldrLimited = QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME )
+				.orderBy( "a_int_field", SQL_ORDER_DESC )
+				.limit( 3 )
+				;
+		assertEquals( 3L, bldrLimited.count() ) ;
+		assertEquals( 27L, bldrLimited.sum( "a_int_field" ) ) ;
+		assertEquals( 2L, QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME )
+				.distinct().columns( "a_string_field" ).count() ) ;
+
+		// A subquery with explicit columns can still aggregate other columns,
+		// unless it is distinct, in which case they would change its rows.
+		assertEquals( 27L, QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME )
+				.columns( "a_string_field" )
+				.orderBy( "a_int_field", SQL_ORDER_DESC )
+				.limit( 3 )
+				.sum( "a_int_field" ) ) ;
+		assertEquals( 55L, QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME )
+				.columns( "a_int_field" ).distinct( true ).sum( "a_int_field" ) ) ;
+		IllegalStateException xDistinct = null ;
+		try
+		{
+			QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME )
+				.columns( "a_string_field" ).distinct( true ).sum( "a_int_field" ) ;
+		}
+		catch( IllegalStateException x ) { xDistinct = x ; }
+		assertNotNull( xDistinct ) ;
+
+		CompiledStatement.ForLong q = QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME )
+				.where( "a_int_field>?", "0" )
+				.compileAggregateOn( m_db, SQL_COUNT, SQL_SELECT_ALL_COLUMNS ) ;
+		assertEquals( 10L, q.executeForLong() ) ;
+		q.bind( 1, 7L ) ;
+		assertEquals( 3L, q.executeForLong() ) ;
+		q.close() ;
+
+		QueryBuilder.UnboundException xUnbound = null ;
+		try { QueryBuilder.selectFrom( TEST_TABLE_NAME ).count() ; }
+		catch( QueryBuilder.UnboundException x ) { xUnbound = x ; }
+		assertNotNull( xUnbound ) ;
+	}
+
+	/**
+	 * Exercises {@link QueryBuilder#toSQL()}, {@link QueryBuilder#explainOn},
+	 * and the {@link QueryInstrument} installed by
+	 * {@link QueryBuilder#setInstrument}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testInstrumentation()
+	{
+		ContentValues vals = new ContentValues() ;
+		vals.put( "a_string_field", "bar" ) ;
+		vals.put( "a_boolint_field", true ) ;
+		UpdateBuilder bldrUpdate = QueryBuilder.update( TEST_TABLE_NAME )
+				.setValues( vals )
+				.where( "id=?", "1" )
+				;
+		assertEquals( "UPDATE unittestdata SET a_boolint_field=?, a_string_field=? WHERE id=?",
+				bldrUpdate.toSQL() ) ;
+		String[] asArgs = bldrUpdate.getBindArgs() ;
+		assertEquals( 3, asArgs.length ) ;
+		assertEquals( "1", asArgs[0] ) ;
+		assertEquals( "bar", asArgs[1] ) ;
+		assertEquals( "DELETE FROM unittestdata WHERE id IN (?, ?)",
+				QueryBuilder.deleteFrom( TEST_TABLE_NAME )
+					.whereIn( "id", Arrays.asList( 1, 2 ) )
+					.toSQL() ) ;
+
+		assertTrue( QueryInstrument.isFullScan( QueryBuilder
+				.selectFrom( TEST_TABLE_NAME )
+				.where( "a_int_field=?", "5" )
+				.explainOn( m_db ) ) ) ;
+		assertFalse( QueryInstrument.isFullScan( QueryBuilder
+				.selectFrom( TEST_TABLE_NAME )
+				.where( "id=?", "5" )
+				.explainOn( m_db ) ) ) ;
+
+		final ArrayList<QueryInstrument.Execution> aExecs = new ArrayList<>() ;
+		QueryBuilder.setInstrument( new QueryInstrument(
+				new QueryInstrument.Sink()
+				{
+					@Override
+					public void onQueryExecuted( QueryInstrument.Execution exec )
+					{ aExecs.add( exec ) ; }
+				}).setExplainAll( true ) ) ;
+		try
+		{
+			final long nID = QueryBuilder.insertInto( m_db, TEST_TABLE_NAME )
+					.setValues( getTestableValues() ).execute() ;
+			ContentValues valsDuplicate = getTestableValues() ;
+			valsDuplicate.put( "id", nID ) ;
+			QueryBuilder.insertInto( m_db, TEST_TABLE_NAME )
+					.onConflict( SQLiteDatabase.CONFLICT_IGNORE )
+					.addRow( getTestableValues() ).addRow( valsDuplicate )
+					.execute() ;
+			Cursor crs = QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME )
+					.where( "a_int_field=?", "5" )
+					.execute() ;
+			SQLitePortal.closeCursor( crs ) ;
+		}
+		finally
+		{ QueryBuilder.setInstrument( null ) ; }
+
+		assertEquals( 3, aExecs.size() ) ;
+		assertEquals( 3, aExecs.get(0).nArgs ) ;
+		assertEquals( 1L, aExecs.get(0).nResultCount ) ;
+		assertEquals( 1L, aExecs.get(1).nResultCount ) ;  // One row was ignored.
+		QueryInstrument.Execution exec = aExecs.get(2) ;
+		assertEquals( TEST_TABLE_NAME, exec.sTableName ) ;
+		assertEquals( "SELECT * FROM unittestdata WHERE a_int_field=?", exec.sSQL ) ;
+		assertEquals( 1, exec.nArgs ) ;
+		assertTrue( exec.nResultCount > 0 ) ;
+		assertTrue( exec.nElapsedNanos > 0 ) ;
+		assertNotNull( exec.asPlan ) ;
+		assertTrue( exec.bFullScan ) ;
+		assertFalse( exec.bSlow ) ;
+	}
 }
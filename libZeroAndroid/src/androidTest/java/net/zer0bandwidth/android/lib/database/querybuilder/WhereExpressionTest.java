@@ -0,0 +1,168 @@
+package net.zer0bandwidth.android.lib.database.querybuilder;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.test.runner.AndroidJUnit4;
+
+import net.zer0bandwidth.android.lib.database.MinimalUnitTestDBPortal;
+import net.zer0bandwidth.android.lib.database.SQLitePortal;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLightable;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.Fargle;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.GregorianCalendar;
+
+import static junit.framework.Assert.* ;
+
+import static net.zer0bandwidth.android.lib.database.MinimalUnitTestDBPortal.TEST_TABLE_NAME ;
+import static net.zer0bandwidth.android.lib.database.querybuilder.WhereExpression.* ;
+
+/**
+ * Exercises {@link WhereExpression}.
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@RunWith( AndroidJUnit4.class )
+public class WhereExpressionTest
+{
+	/** Persistent handle on the test DB portal. */
+	private MinimalUnitTestDBPortal m_dbh ;
+
+	/** Persistent handle on the database under the portal. */
+	private SQLiteDatabase m_db ;
+
+	/** Creates the database portal for each test. */
+	@Before
+	public void setUp()
+	{
+		m_dbh = MinimalUnitTestDBPortal.getInstrumentedInstance(
+					WhereExpressionTest.class.getSimpleName() ) ;
+		m_dbh.openDB() ;
+		//noinspection StatementWithEmptyBody
+		while( ! m_dbh.isConnected() ) ; // Wait for a connection.
+		m_db = m_dbh.getDB() ;
+		QueryBuilder.deleteFrom( m_db, TEST_TABLE_NAME ).deleteAll().execute() ;
+	}
+
+	/** Closes the database after each test. */
+	@After
+	public void finish()
+	{ m_dbh.closeDB().close() ; }
+
+	/** Exercises the rendering of each operator. */
+	@Test
+	public void testRendering()
+	{
+		assertEquals( "a=?", eq( "a", 1 ).getFormat() ) ;
+		assertEquals( "a IS NULL", eq( "a", null ).getFormat() ) ;
+		assertEquals( "a<>?", ne( "a", 1 ).getFormat() ) ;
+		assertEquals( "a IS NOT NULL", ne( "a", null ).getFormat() ) ;
+		assertEquals( "a<?", lt( "a", 1 ).getFormat() ) ;
+		assertEquals( "a<=?", le( "a", 1 ).getFormat() ) ;
+		assertEquals( "a>?", gt( "a", 1 ).getFormat() ) ;
+		assertEquals( "a>=?", ge( "a", 1 ).getFormat() ) ;
+		assertEquals( "a IN (?, ?, ?)", in( "a", 1, 2, 3 ).getFormat() ) ;
+		assertEquals( "a IN (?, ?)", in( "a", Arrays.asList( 1, 2 ) ).getFormat() ) ;
+		assertEquals( "a BETWEEN ? AND ?", between( "a", 1, 5 ).getFormat() ) ;
+		assertEquals( "a IS NULL", isNull( "a" ).getFormat() ) ;
+
+		WhereExpression x = and( eq( "a", "foo" ),
+				or( gt( "b", 3 ), isNull( "c" ) ), between( "d", 1, 2 ) ) ;
+		assertEquals( "a=? AND (b>? OR c IS NULL) AND d BETWEEN ? AND ?",
+				x.getFormat() ) ;
+		assertTrue( x.getFormat() == x.getFormat() ) ;           // cached
+		String[] asParams = x.getParams() ;
+		assertEquals( 4, asParams.length ) ;
+		assertEquals( "foo", asParams[0] ) ;
+		assertEquals( "3", asParams[1] ) ;
+		assertEquals( "1", asParams[2] ) ;
+		assertEquals( "2", asParams[3] ) ;
+		assertTrue( asParams == x.getParams() ) ;                // cached
+
+		assertEquals( "a=?", and( eq( "a", 1 ) ).getFormat() ) ;
+		assertEquals( "a=? OR b=?",
+				and( or( eq( "a", 1 ), eq( "b", 2 ) ) ).getFormat() ) ;
+
+		SQLightable.Reflection.Column col =
+				SQLightable.Reflection.reflect( Fargle.class )
+				                      .getColumn( "fargle_num" ) ;
+		assertEquals( "fargle_num>?", gt( col, 42 ).getFormat() ) ;
+	}
+
+	/** Verifies that the SQL depends only on the shape of the expression. */
+	@Test
+	public void testIdenticalShapes()
+	{
+		WhereExpression x1 = and( eq( "a", "foo" ), in( "b", 1, 2 ) ) ;
+		WhereExpression x2 = and( eq( "a", "bar" ), in( "b", 3, 4 ) ) ;
+		assertEquals( x1.getFormat(), x2.getFormat() ) ;
+		assertFalse( Arrays.equals( x1.getParams(), x2.getParams() ) ) ;
+	}
+
+	/** Verifies the conversion of values to parameter strings. */
+	@Test
+	public void testParamConversion()
+	{
+		assertEquals( "1", eq( "a", true ).getParams()[0] ) ;
+		assertEquals( "0", eq( "a", false ).getParams()[0] ) ;
+		GregorianCalendar cal = new GregorianCalendar() ;
+		assertEquals( Long.toString( cal.getTimeInMillis() ),
+				eq( "a", cal ).getParams()[0] ) ;
+		assertEquals( Long.toString( cal.getTimeInMillis() ),
+				eq( "a", cal.getTime() ).getParams()[0] ) ;
+		assertEquals( 0, isNull( "a" ).getParams().length ) ;
+
+		IllegalArgumentException xNull = null ;
+		try { gt( "a", null ) ; }
+		catch( IllegalArgumentException x ) { xNull = x ; }
+		assertNotNull( xNull ) ;
+
+		IllegalArgumentException xEmpty = null ;
+		try { and() ; }
+		catch( IllegalArgumentException x ) { xEmpty = x ; }
+		assertNotNull( xEmpty ) ;
+	}
+
+	/** Executes queries on a database using expressions. */
+	@Test
+	public void testExecution()
+	{
+		ContentValues vals = new ContentValues() ;
+		for( int i = 0 ; i < 10 ; i++ )
+		{
+			vals.put( "a_int_field", i ) ;
+			vals.put( "a_boolint_field", ( i % 2 == 0 ) ) ;
+			if( i < 8 ) vals.put( "a_string_field", "row" + i ) ;
+			else vals.putNull( "a_string_field" ) ;
+			QueryBuilder.insertInto( m_db, TEST_TABLE_NAME )
+					.setValues( vals ).execute() ;
+		}
+
+		Cursor crs = QueryBuilder.selectFrom( m_db, TEST_TABLE_NAME )
+				.whereExpr( and( eq( "a_boolint_field", true ),
+						or( between( "a_int_field", 2, 4 ),
+							isNull( "a_string_field" ) ) ) )
+				.orderBy( "a_int_field" )
+				.execute()
+				;
+		assertEquals( 3, crs.getCount() ) ;             // 2, 4, and 8
+		crs.moveToLast() ;
+		assertEquals( 8, crs.getInt( crs.getColumnIndex( "a_int_field" ) ) ) ;
+		SQLitePortal.closeCursor( crs ) ;
+
+		vals.clear() ;
+		vals.put( "a_string_field", "updated" ) ;
+		assertEquals( 3, (int)( QueryBuilder.update( m_db, TEST_TABLE_NAME )
+				.setValues( vals )
+				.whereExpr( in( "a_int_field", 1, 3, 5 ) )
+				.execute() ) ) ;
+		assertEquals( 2, (int)( QueryBuilder.deleteFrom( m_db, TEST_TABLE_NAME )
+				.whereExpr( ge( "a_int_field", 8 ) )
+				.execute() ) ) ;
+	}
+}
@@ -2,11 +2,13 @@ package net.zer0bandwidth.android.lib.database.sqlitehouse;
 
 import android.support.test.runner.AndroidJUnit4;
 
+import net.zer0bandwidth.android.lib.database.sqlitehouse.refractor.ExternalBlob;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.refractor.RefractorMap;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.nio.ByteBuffer;
 import java.util.GregorianCalendar;
 
 import static junit.framework.Assert.assertEquals;
@@ -66,5 +68,12 @@ public class RefractorMapTest
 				map.getSQLiteColumnTypeFor( java.sql.Date.class ) ) ;
 		assertEquals( "INTEGER",
 				map.getSQLiteColumnTypeFor( GregorianCalendar.class ) ) ;
+
+		assertEquals( "BLOB",
+				map.getSQLiteColumnTypeFor( byte[].class ) ) ;
+		assertEquals( "BLOB",
+				map.getSQLiteColumnTypeFor( ByteBuffer.class ) ) ;
+		assertEquals( "BLOB",
+				map.getSQLiteColumnTypeFor( ExternalBlob.class ) ) ;
 	}
 }
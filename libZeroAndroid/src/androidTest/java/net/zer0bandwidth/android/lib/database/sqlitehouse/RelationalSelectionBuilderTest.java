@@ -0,0 +1,177 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import net.zer0bandwidth.android.lib.database.sqlitehouse.exceptions.SchematicException;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.Blargh;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.RelationalSpecClass;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.Snarfle;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.Snarfling;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouseTest.connectTo;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouseTest.delete;
+
+/**
+ * Exercises {@link RelationalSelectionBuilder}.
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@RunWith( AndroidJUnit4.class )
+public class RelationalSelectionBuilderTest
+{
+	/**
+	 * Inserts two snarfles, the first of which has three snarflings and the
+	 * second of which has none.
+	 * @param dbh the database
+	 * @return the IDs of the two snarfles
+	 */
+	protected long[] populate( RelationalSpecClass dbh )
+	{
+		long nFirst = dbh.insert( new Snarfle( "first" ) ) ;
+		long nSecond = dbh.insert( new Snarfle( "second" ) ) ;
+		for( int i = 0 ; i < 3 ; i++ )
+			dbh.insert( new Snarfling( nFirst, "child" + i ) ) ;
+		return new long[] { nFirst, nSecond } ;
+	}
+
+	/**
+	 * Exercises the one-to-many case, in which the related class refers to
+	 * the selected class.
+	 */
+	@Test
+	public void testOneToMany()
+	{
+		delete( RelationalSpecClass.class ) ;
+		RelationalSpecClass dbh = RelationalSpecClass.getTestInstance() ;
+		try
+		{
+			connectTo(dbh) ;
+			long[] anIDs = this.populate( dbh ) ;
+			RelationalSelectionBuilder.Results<Snarfle> res =
+				dbh.selectFrom( Snarfle.class )
+					.with( Snarfling.class )
+					.orderBy( SQLiteHouse.MAGIC_ID_COLUMN_NAME )
+					.executeRelated()
+					;
+			List<Snarfle> aRows = res.getRows() ;
+			assertEquals( 2, aRows.size() ) ;
+			assertEquals( anIDs[0], aRows.get(0).getRowID() ) ;
+			List<Snarfling> aChildren =
+					res.getRelated( aRows.get(0), Snarfling.class ) ;
+			assertEquals( 3, aChildren.size() ) ;
+			for( Snarfling child : aChildren )
+				assertEquals( anIDs[0], child.getSnarfleID() ) ;
+			assertTrue( res.getRelated( aRows.get(1), Snarfling.class ).isEmpty() ) ;
+			assertNull( res.getFirstRelated( aRows.get(1), Snarfling.class ) ) ;
+
+			// An explicit projection must still include the linking column,
+			// without changing the projection of the builder itself.
+			RelationalSelectionBuilder<Snarfle> q = dbh.selectFrom( Snarfle.class ) ;
+			q.columns( "snarfle_name" )
+				.where( "snarfle_name=?", "first" ) ;
+			q.with( Snarfling.class ) ;
+			final String sSQL = q.toSQL() ;
+			res = q.executeRelated() ;
+			assertEquals( 1, res.getRows().size() ) ;
+			assertEquals( 3, res.getRelated( res.getRows().get(0),
+					Snarfling.class ).size() ) ;
+			assertEquals( sSQL, q.toSQL() ) ;
+			res = q.executeRelated() ;          // ...and may be executed again.
+			assertEquals( 3, res.getRelated( res.getRows().get(0),
+					Snarfling.class ).size() ) ;
+		}
+		finally
+		{ dbh.close() ; }
+	}
+
+	/**
+	 * Exercises the many-to-one case, in which the selected class refers to
+	 * the related class.
+	 */
+	@Test
+	public void testManyToOne()
+	{
+		delete( RelationalSpecClass.class ) ;
+		RelationalSpecClass dbh = RelationalSpecClass.getTestInstance() ;
+		try
+		{
+			connectTo(dbh) ;
+			long[] anIDs = this.populate( dbh ) ;
+			RelationalSelectionBuilder.Results<Snarfling> res =
+				dbh.selectFrom( Snarfling.class )
+					.with( Snarfle.class )
+					.executeRelated()
+					;
+			assertEquals( 3, res.getRows().size() ) ;
+			Snarfle parent = null ;
+			for( Snarfling child : res.getRows() )
+			{
+				List<Snarfle> aParents = res.getRelated( child, Snarfle.class ) ;
+				assertEquals( 1, aParents.size() ) ;
+				assertEquals( anIDs[0], aParents.get(0).getRowID() ) ;
+				assertEquals( "first", aParents.get(0).getName() ) ;
+				if( parent == null ) parent = aParents.get(0) ;
+				else assertSame( parent, aParents.get(0) ) ; // loaded once
+			}
+		}
+		finally
+		{ dbh.close() ; }
+	}
+
+	/**
+	 * Verifies that an empty selection yields empty, but loaded, results.
+	 */
+	@Test
+	public void testEmptySelection()
+	{
+		delete( RelationalSpecClass.class ) ;
+		RelationalSpecClass dbh = RelationalSpecClass.getTestInstance() ;
+		try
+		{
+			connectTo(dbh) ;
+			RelationalSelectionBuilder.Results<Snarfle> res =
+				dbh.selectFrom( Snarfle.class )
+					.with( Snarfling.class )
+					.executeRelated()
+					;
+			assertTrue( res.getRows().isEmpty() ) ;
+			try
+			{
+				res.getRelated( new Snarfle( "orphan" ), Blargh.class ) ;
+				fail( "Should have rejected a class that wasn't loaded." ) ;
+			}
+			catch( IllegalArgumentException x ) { /* expected */ }
+		}
+		finally
+		{ dbh.close() ; }
+	}
+
+	/**
+	 * Verifies that {@link RelationalSelectionBuilder#with} rejects a class
+	 * that isn't related to the selected class.
+	 */
+	@Test
+	public void testNoRelationship()
+	{
+		delete( RelationalSpecClass.class ) ;
+		RelationalSpecClass dbh = RelationalSpecClass.getTestInstance() ;
+		try
+		{
+			connectTo(dbh) ;
+			dbh.selectFrom( Snarfle.class ).with( Blargh.class ) ;
+			fail( "Should have thrown a SchematicException." ) ;
+		}
+		catch( SchematicException x ) { /* expected */ }
+		finally
+		{ dbh.close() ; }
+	}
+}
@@ -0,0 +1,111 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteFullText;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.exceptions.SchematicException;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.Blargh;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.FullTextSpecClass;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.Scribble;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouseTest.connectTo;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouseTest.delete;
+
+/**
+ * Exercises the full-text index maintained for columns annotated with
+ * {@link SQLiteFullText}.
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@RunWith( AndroidJUnit4.class )
+public class SQLiteHouseFullTextTest
+{
+	/**
+	 * Verifies the reflection of full-text columns.
+	 */
+	@Test
+	public void testReflection()
+	{
+		SQLightable.Reflection<Scribble> tbl =
+				SQLightable.Reflection.reflect( Scribble.class ) ;
+		assertTrue( tbl.hasFullTextIndex() ) ;
+		assertEquals( "scribbles_fts", tbl.getFullTextTableName() ) ;
+		List<SQLightable.Reflection<Scribble>.Column> acol =
+				tbl.getFullTextColumns() ;
+		assertEquals( 2, acol.size() ) ;
+		assertEquals( "scribble_title", acol.get(0).getName() ) ;
+		assertEquals( "scribble_body", acol.get(1).getName() ) ;
+		assertFalse( tbl.getColumn( "scribble_author" ).isFullText() ) ;
+		assertEquals( 4, tbl.getFullTextCreationSQL().size() ) ;
+		assertFalse( SQLightable.Reflection.reflect( Blargh.class )
+				.hasFullTextIndex() ) ;
+	}
+
+	/**
+	 * Exercises {@link SQLiteHouse#match(Class, String, int)}, including the
+	 * triggers which keep the index synchronized with the table.
+	 */
+	@Test
+	public void testMatch()
+	{
+		delete( FullTextSpecClass.class ) ;
+		FullTextSpecClass dbh = FullTextSpecClass.getTestInstance() ;
+		try
+		{
+			connectTo(dbh) ;
+			dbh.insert( new Scribble( "Weather", "rain and more rain", "anne" ) ) ;
+			dbh.insert( new Scribble( "Lunch", "a sandwich in the rain", "bob" ) ) ;
+			dbh.insert( new Scribble( "Dinner", "soup", "rain" ) ) ;
+
+			// The author column is not indexed, so "Dinner" doesn't match.
+			List<Scribble> aResults = dbh.match( Scribble.class, "rain" ) ;
+			assertEquals( 2, aResults.size() ) ;
+			assertEquals( "Weather", aResults.get(0).getTitle() ) ;
+			assertEquals( "Lunch", aResults.get(1).getTitle() ) ;
+			assertEquals( "anne", aResults.get(0).getAuthor() ) ;
+
+			aResults = dbh.match( Scribble.class, "rain", 1 ) ;
+			assertEquals( 1, aResults.size() ) ;
+			assertEquals( "Weather", aResults.get(0).getTitle() ) ;
+
+			assertTrue( dbh.match( Scribble.class, "blizzard" ).isEmpty() ) ;
+
+			// Updates and deletions must be reflected in the index.
+			Scribble scrLunch = dbh.match( Scribble.class, "sandwich" ).get(0) ;
+			dbh.update( scrLunch.setBody( "a sandwich in the sun" ) ) ;
+			assertEquals( 1, dbh.match( Scribble.class, "rain" ).size() ) ;
+			assertEquals( 1, dbh.match( Scribble.class, "sun" ).size() ) ;
+			dbh.delete( scrLunch ) ;
+			assertTrue( dbh.match( Scribble.class, "sandwich" ).isEmpty() ) ;
+		}
+		finally
+		{ dbh.close() ; }
+	}
+
+	/**
+	 * Verifies that a class without full-text columns can't be searched.
+	 */
+	@Test
+	public void testMatchWithoutIndex()
+	{
+		delete( FullTextSpecClass.class ) ;
+		FullTextSpecClass dbh = FullTextSpecClass.getTestInstance() ;
+		try
+		{
+			connectTo(dbh) ;
+			dbh.match( Blargh.class, "anything" ) ;
+			fail( "Should have thrown a SchematicException." ) ;
+		}
+		catch( SchematicException x ) { /* expected */ }
+		finally
+		{ dbh.close() ; }
+	}
+}
@@ -11,16 +11,19 @@ import net.zer0bandwidth.android.lib.database.SQLiteColumnInfo;
 import net.zer0bandwidth.android.lib.database.SQLitePortal;
 import net.zer0bandwidth.android.lib.database.querybuilder.DeletionBuilder;
 import net.zer0bandwidth.android.lib.database.querybuilder.QueryBuilder;
+import net.zer0bandwidth.android.lib.database.querybuilder.WhereExpression;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteDatabaseSpec;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteTable;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.exceptions.IntrospectionException;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.exceptions.SchematicException;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.refractor.StringLens;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.Blargh;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.BlobSpecClass;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.BorkBorkBork;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.Dargle;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.Fargle;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.Flargle;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.Smargle;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.UpgradeSpecClass;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.ValidSpecClass;
 
@@ -28,7 +31,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -361,6 +366,227 @@ public class SQLiteHouseTest
 		{ SQLitePortal.closeCursor(crs) ; dbh.close() ; }
 	}
 
+	/**
+	 * Exercises {@link SQLiteHouse#update(SQLightable)} with change tracking
+	 * enabled, verifying that only the changed columns are written.
+	 */
+	@Test
+	public void testUpdateWithChangeTracking()
+	{
+		delete( ValidSpecClass.class ) ;
+		ValidSpecClass dbh = ValidSpecClass.getTestInstance() ;
+		Cursor crs = null ;
+		try
+		{
+			connectTo(dbh) ;
+			dbh.enableChangeTracking() ;
+			dbh.insert( new Fargle( 1, "one", 100 ) ) ;
+			Fargle fargle = dbh.search( new Fargle( 1, null, 0 ) ) ;
+			assertNotNull( fargle ) ;
+			assertEquals( 1, dbh.getChangeTracker().size( Fargle.class ) ) ;
+
+			// Nothing has changed yet, so nothing should be written.
+			assertEquals( 0, dbh.update(fargle) ) ;
+
+			// Change a column behind the house's back. Because the object's
+			// own value for that column hasn't changed, the next update
+			// should leave it alone.
+			ContentValues vals = new ContentValues() ;
+			vals.put( "fargle_num", 200 ) ;
+			QueryBuilder.update( dbh.getDB(), "fargles" )
+					.setValues(vals)
+					.where( "fargle_id=?", "1" )
+					.execute()
+					;
+
+			assertEquals( 1, dbh.update( fargle.setString("uno") ) ) ;
+			crs = QueryBuilder.selectFrom( dbh.getDB(), "fargles" )
+					.where( "fargle_id=?", "1" )
+					.execute()
+					;
+			assertTrue( crs.moveToFirst() ) ;
+			assertEquals( "uno",
+					crs.getString( crs.getColumnIndex("fargle_string") ) ) ;
+			assertEquals( 200,
+					crs.getInt( crs.getColumnIndex("fargle_num") ) ) ;
+			crs.close() ;
+
+			// Without tracking, every column is written again.
+			dbh.disableChangeTracking() ;
+			assertNull( dbh.getChangeTracker() ) ;
+			assertEquals( 1, dbh.update(fargle) ) ;
+			crs = QueryBuilder.selectFrom( dbh.getDB(), "fargles" )
+					.where( "fargle_id=?", "1" )
+					.execute()
+					;
+			assertTrue( crs.moveToFirst() ) ;
+			assertEquals( 100,
+					crs.getInt( crs.getColumnIndex("fargle_num") ) ) ;
+		}
+		finally
+		{ SQLitePortal.closeCursor(crs) ; dbh.close() ; }
+	}
+
+	/**
+	 * Verifies that, when change tracking is enabled, a byte array or buffer
+	 * that is edited in place is still recognized as changed, and written.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testUpdateBlobInPlaceWithChangeTracking()
+	{
+		delete( BlobSpecClass.class ) ;
+		BlobSpecClass dbh = BlobSpecClass.getTestInstance() ;
+		try
+		{
+			connectTo(dbh) ;
+			dbh.enableChangeTracking() ;
+			dbh.insert( new Smargle( 1, new byte[] { 1, 2, 3 },
+					ByteBuffer.wrap( new byte[] { 4, 5, 6 } ) ) ) ;
+			Smargle smargle = dbh.search( new Smargle( 1, null, null ) ) ;
+			assertNotNull( smargle ) ;
+			assertEquals( 0, dbh.update(smargle) ) ;
+
+			smargle.m_abBytes[0] = 7 ;
+			assertEquals( 1, dbh.update(smargle) ) ;
+			smargle.m_bufBuffer.put( 0, (byte)8 ) ;
+			assertEquals( 1, dbh.update(smargle) ) ;
+			assertEquals( 0, dbh.update(smargle) ) ;
+
+			dbh.getChangeTracker().clear() ;
+			Smargle smargleRead = dbh.search( new Smargle( 1, null, null ) ) ;
+			assertTrue( Arrays.equals( new byte[] { 7, 2, 3 },
+					smargleRead.m_abBytes ) ) ;
+			assertEquals( ByteBuffer.wrap( new byte[] { 8, 5, 6 } ),
+					smargleRead.m_bufBuffer ) ;
+		}
+		finally
+		{ dbh.close() ; }
+	}
+
+	/**
+	 * Verifies that, when change tracking is enabled, a row read from a
+	 * projected cursor is snapshotted only for the columns that were read, so
+	 * that its other columns are still written by the next update.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testUpdateProjectedWithChangeTracking()
+	{
+		delete( ValidSpecClass.class ) ;
+		ValidSpecClass dbh = ValidSpecClass.getTestInstance() ;
+		Cursor crs = null ;
+		try
+		{
+			connectTo(dbh) ;
+			dbh.enableChangeTracking() ;
+			dbh.insert( new Fargle( 1, "one", 100 ) ) ;
+			dbh.getChangeTracker().clear() ;
+			crs = dbh.selectFrom( Fargle.class )
+					.columns( "fargle_id", "fargle_string" )
+					.execute()
+					;
+			List<Fargle> aResults = dbh.processResultSet( Fargle.class, crs ) ;
+			crs.close() ;
+			assertEquals( 1, dbh.getChangeTracker().size( Fargle.class ) ) ;
+
+			// The unread column holds the constructor's default, but it was
+			// never snapshotted, so it must not be mistaken for unchanged.
+			assertEquals( 1, dbh.update( aResults.get(0) ) ) ;
+			crs = QueryBuilder.selectFrom( dbh.getDB(), "fargles" )
+					.where( "fargle_id=?", "1" )
+					.execute()
+					;
+			assertTrue( crs.moveToFirst() ) ;
+			assertEquals( 42,
+					crs.getInt( crs.getColumnIndex("fargle_num") ) ) ;
+			crs.close() ;
+
+			// A projection without the key column can't be tracked at all.
+			dbh.getChangeTracker().clear() ;
+			crs = dbh.selectFrom( Fargle.class )
+					.columns( "fargle_string" )
+					.execute()
+					;
+			dbh.processResultSet( Fargle.class, crs ) ;
+			assertEquals( 0, dbh.getChangeTracker().size( Fargle.class ) ) ;
+		}
+		finally
+		{ SQLitePortal.closeCursor(crs) ; dbh.close() ; }
+	}
+
+	/**
+	 * Exercises {@link SQLiteHouse#enableMetrics()} and the
+	 * {@link TableMetrics} registry.
+	 */
+	@Test
+	public void testMetrics()
+	{
+		delete( ValidSpecClass.class ) ;
+		ValidSpecClass dbh = ValidSpecClass.getTestInstance() ;
+		try
+		{
+			connectTo(dbh) ;
+			assertNull( dbh.getMetrics() ) ;
+			dbh.enableMetrics() ;
+			TableMetrics metrics = dbh.getMetrics() ;
+			assertNotNull( metrics ) ;
+			dbh.enableMetrics() ;                  // Should keep the registry.
+			assertTrue( metrics == dbh.getMetrics() ) ;
+
+			long nID = dbh.insert( new Dargle( "foo", true, 1 ) ) ;
+			dbh.insert( new Dargle( "bar", false, 2 ) ) ;
+			assertNotNull( dbh.select( Dargle.class, nID ) ) ;
+			assertNull( dbh.select( Dargle.class, -1L ) ) ;
+
+			TableMetrics.OperationStats stats =
+				metrics.getStats( Dargle.class, TableMetrics.Operation.INSERT ) ;
+			assertNotNull( stats ) ;
+			assertEquals( 2, stats.getCount() ) ;
+			assertEquals( 2, stats.getRows() ) ;
+			stats = metrics.getStats( Dargle.class, TableMetrics.Operation.SELECT ) ;
+			assertEquals( 2, stats.getCount() ) ;
+			assertEquals( 1, stats.getRows() ) ;
+			assertNull( metrics.getStats( Fargle.class,
+					TableMetrics.Operation.INSERT ) ) ;
+
+			List<TableMetrics.Entry> aEntries = metrics.snapshot() ;
+			assertEquals( 2, aEntries.size() ) ;
+			assertEquals( TableMetrics.Operation.INSERT, aEntries.get(0).op ) ;
+			assertEquals( "dargles", aEntries.get(0).sTableName ) ;
+			assertTrue( aEntries.get(0).nP99Micros <= aEntries.get(0).nMaxMicros ) ;
+			assertTrue( metrics.dump().contains( "dargles INSERT count=2" ) ) ;
+
+			metrics.reset() ;
+			assertTrue( metrics.snapshot().isEmpty() ) ;
+			dbh.disableMetrics() ;
+			assertNull( dbh.getMetrics() ) ;
+			dbh.insert( new Dargle( "baz", true, 3 ) ) ;   // Should not fail.
+			assertTrue( metrics.snapshot().isEmpty() ) ;
+		}
+		finally
+		{ dbh.close() ; }
+	}
+
+	/**
+	 * Exercises {@link TableMetrics.LatencyHistogram}.
+	 */
+	@Test
+	public void testLatencyHistogram()
+	{
+		TableMetrics.LatencyHistogram hist = new TableMetrics.LatencyHistogram() ;
+		assertEquals( 0, hist.getPercentile( 0.5d ) ) ;
+		for( long n = 1 ; n <= 1000 ; n++ ) hist.record(n) ;
+		assertEquals( 1000, hist.getCount() ) ;
+		assertEquals( 1000, hist.getMax() ) ;
+		assertEquals( 500.5d, hist.getMean() ) ;
+		final long nP50 = hist.getPercentile( 0.5d ) ;
+		assertTrue( nP50 >= 500 && nP50 <= 500 * 9 / 8 ) ;
+		final long nP99 = hist.getPercentile( 0.99d ) ;
+		assertTrue( nP99 >= 990 && nP99 <= 1000 ) ;
+		assertEquals( 1000, hist.getPercentile( 1.0d ) ) ;
+	}
+
 	/**
 	 * Exercises {@link SQLiteHouse#update(Class)}.
 	 */
@@ -638,6 +864,42 @@ public class SQLiteHouseTest
 		{ SQLitePortal.closeCursor(crs) ; dbh.close() ; }
 	}
 
+	/**
+	 * Exercises {@link SQLiteHouse#processResultSet(Class, Cursor)} and
+	 * {@link SQLiteHouse#fromProjectedCursor(Cursor, Class)} with a selection
+	 * that omits some of the table's columns.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testProcessProjectedResultSet()
+	{
+		delete( ValidSpecClass.class ) ;
+		ValidSpecClass dbh = ValidSpecClass.getTestInstance() ;
+		Cursor crs = null ;
+		try
+		{
+			connectTo(dbh) ;
+			dbh.insert( new Fargle( 1, "one", 100 ) ) ;
+			dbh.insert( new Fargle( 2, "two", 200 ) ) ;
+			crs = dbh.selectFrom( Fargle.class )
+					.columns( "fargle_id", "fargle_string" )
+					.orderBy( "fargle_id" )
+					.execute()
+					;
+			List<Fargle> aResults = dbh.processResultSet( Fargle.class, crs ) ;
+			assertEquals( 2, aResults.size() ) ;
+			// The unselected column retains the constructor's default value.
+			assertTrue( (new Fargle( 1, "one", 42 )).equals( aResults.get(0) ) ) ;
+			assertTrue( (new Fargle( 2, "two", 42 )).equals( aResults.get(1) ) ) ;
+
+			assertTrue( crs.moveToFirst() ) ;
+			Fargle fargle = dbh.fromProjectedCursor( crs, Fargle.class ) ;
+			assertTrue( (new Fargle( 1, "one", 42 )).equals( fargle ) ) ;
+		}
+		finally
+		{ SQLitePortal.closeCursor(crs) ; dbh.close() ; }
+	}
+
 	/**
 	 * Exercises {@link SQLiteHouse#delete(SQLightable)}.
 	 */
@@ -688,6 +950,99 @@ public class SQLiteHouseTest
 		assertNotNull( xSchema ) ;
 	}
 
+	/**
+	 * Exercises {@link SQLiteHouse#updateAll} and
+	 * {@link SQLiteHouse#deleteAll}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testUpdateAllAndDeleteAll()
+	{
+		delete( ValidSpecClass.class ) ;
+		ValidSpecClass dbh = ValidSpecClass.getTestInstance() ;
+		Cursor crs = null ;
+		try
+		{
+			connectTo(dbh) ;
+			List<Dargle> aDargles = new ArrayList<>() ;
+			for( int i = 0 ; i < 5 ; i++ )
+			{
+				Dargle dargle =
+						new Dargle( UUID.randomUUID().toString(), true, i ) ;
+				dbh.insert(dargle) ;
+				aDargles.add(dargle) ;
+			}
+			List<Dargle> aFirstThree = aDargles.subList( 0, 3 ) ;
+
+			ContentValues vals = new ContentValues() ;
+			vals.put( "is_dargly", SQLitePortal.boolToInt(false) ) ;
+			assertEquals( 3, dbh.updateAll( aFirstThree, vals ) ) ;
+			crs = dbh.selectFrom( Dargle.class )
+					.where( "is_dargly=?", "0" )
+					.execute()
+					;
+			assertEquals( 3, crs.getCount() ) ;
+			crs.close() ;
+
+			assertEquals( 3, dbh.deleteAll( aFirstThree ) ) ;
+			assertEquals( 0, dbh.deleteAll( aFirstThree ) ) ;
+			assertEquals( 2, dbh.deleteAll( aDargles ) ) ;
+			assertEquals( 0, dbh.deleteAll( new ArrayList<Dargle>() ) ) ;
+
+			List<SQLightable> aMixed = new ArrayList<>() ;
+			aMixed.add( new Dargle( "mixed", true, 0 ) ) ;
+			aMixed.add( new Blargh( "mixed" ) ) ;
+			SchematicException xSchema = null ;
+			try { dbh.deleteAll( aMixed ) ; }
+			catch( SchematicException x ) { xSchema = x ; }
+			assertNotNull( xSchema ) ;
+		}
+		finally
+		{ SQLitePortal.closeCursor(crs) ; dbh.close() ; }
+	}
+
+	/**
+	 * Exercises {@link SQLiteHouse#count}, {@link SQLiteHouse#sum},
+	 * {@link SQLiteHouse#min}, {@link SQLiteHouse#max}, and
+	 * {@link SQLiteHouse#avg}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testAggregates()
+	{
+		delete( ValidSpecClass.class ) ;
+		ValidSpecClass dbh = ValidSpecClass.getTestInstance() ;
+		try
+		{
+			connectTo(dbh) ;
+			assertEquals( 0L, dbh.count( Dargle.class ) ) ;
+			long nFirstID = -1L ;
+			long nLastID = -1L ;
+			for( int i = 0 ; i < 5 ; i++ )
+			{
+				nLastID = dbh.insert( new Dargle( "dargle" + i, ( i < 2 ), i ) ) ;
+				if( i == 0 ) nFirstID = nLastID ;
+			}
+			assertEquals( 5L, dbh.count( Dargle.class ) ) ;
+			assertEquals( 2L, dbh.count( Dargle.class,
+					WhereExpression.eq( "is_dargly", true ) ) ) ;
+			assertEquals( 3L, dbh.selectFrom( Dargle.class )
+					.where( "is_dargly=?", "0" ).count() ) ;
+			assertEquals( nFirstID, dbh.min( Dargle.class, SQLiteHouse.MAGIC_ID_COLUMN_NAME ) ) ;
+			assertEquals( nLastID, dbh.max( Dargle.class, SQLiteHouse.MAGIC_ID_COLUMN_NAME ) ) ;
+			assertEquals( nFirstID * 5 + 10,
+					dbh.sum( Dargle.class, SQLiteHouse.MAGIC_ID_COLUMN_NAME ) ) ;
+			assertEquals( nFirstID + 2.0d,
+					dbh.avg( Dargle.class, SQLiteHouse.MAGIC_ID_COLUMN_NAME ), 0.0001d ) ;
+			assertEquals( nFirstID * 5 + 10.0d,
+					dbh.sumAsDouble( Dargle.class, SQLiteHouse.MAGIC_ID_COLUMN_NAME ), 0.0001d ) ;
+			assertEquals( nLastID + 0.0d,
+					dbh.maxAsDouble( Dargle.class, SQLiteHouse.MAGIC_ID_COLUMN_NAME ), 0.0001d ) ;
+		}
+		finally
+		{ dbh.close() ; }
+	}
+
 	/**
 	 * Exercises {@link SQLiteHouse#deleteFrom(Class)}.
 	 */
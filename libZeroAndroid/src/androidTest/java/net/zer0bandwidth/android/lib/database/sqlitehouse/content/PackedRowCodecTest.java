@@ -0,0 +1,114 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.content;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.support.test.runner.AndroidJUnit4;
+
+import net.zer0bandwidth.android.lib.database.sqlitehouse.content.exceptions.SQLiteContentException;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Exercises {@link PackedRowCodec}.
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@RunWith( AndroidJUnit4.class )
+public class PackedRowCodecTest
+{
+	protected static final String[] COLUMNS =
+		{ "n", "d", "s", "ab", "x" } ;
+
+	protected static final Object[][] ROWS =
+	{
+		{ 0L, 0.0d, "", new byte[0], null },
+		{ -1L, -1.5d, "foo", new byte[] { 1, 2, 3 }, null },
+		{ 300L, Math.PI, "h\u00e9llo \u2603", new byte[] { -128, 127 }, null },
+		{ Long.MIN_VALUE, Double.MAX_VALUE, null, null, null },
+		{ Long.MAX_VALUE, Double.NaN, "bar", null, null }
+	};
+
+	protected static byte[] pack( String[] asColumns )
+	{
+		MatrixCursor crs = new MatrixCursor( COLUMNS ) ;
+		for( Object[] aoRow : ROWS )
+			crs.addRow( aoRow ) ;
+		PackedRowCodec.Packer packer =
+				new PackedRowCodec.Packer( crs, asColumns ) ;
+		int nBytes = packer.size() ;
+		while( crs.moveToNext() )
+			nBytes += packer.pack(crs) ;
+		crs.close() ;
+		assertEquals( ROWS.length, packer.getRowCount() ) ;
+		assertEquals( nBytes, packer.size() ) ;
+		return packer.toByteArray() ;
+	}
+
+	/** Verifies that every storage class survives a round trip. */
+	@Test
+	public void testRoundTrip()
+	{
+		Cursor crs = PackedRowCodec.unpack( pack( COLUMNS ) ) ;
+		assertTrue( Arrays.equals( COLUMNS, crs.getColumnNames() ) ) ;
+		assertEquals( ROWS.length, crs.getCount() ) ;
+		for( Object[] aoRow : ROWS )
+		{
+			assertTrue( crs.moveToNext() ) ;
+			assertEquals( ((Long)(aoRow[0])).longValue(), crs.getLong(0) ) ;
+			assertEquals( ((Double)(aoRow[1])), crs.getDouble(1) ) ;
+			if( aoRow[2] == null ) assertTrue( crs.isNull(2) ) ;
+			else assertEquals( aoRow[2], crs.getString(2) ) ;
+			if( aoRow[3] == null ) assertTrue( crs.isNull(3) ) ;
+			else assertTrue( Arrays.equals( ((byte[])(aoRow[3])), crs.getBlob(3) ) ) ;
+			assertTrue( crs.isNull(4) ) ;
+		}
+		crs.close() ;
+	}
+
+	/** Verifies that only the requested columns are packed, in that order. */
+	@Test
+	public void testProjection()
+	{
+		Cursor crs = PackedRowCodec.unpack( pack( new String[] { "s", "n" } ) ) ;
+		assertTrue( Arrays.equals( new String[] { "s", "n" },
+				crs.getColumnNames() ) ) ;
+		assertTrue( crs.moveToPosition(1) ) ;
+		assertEquals( "foo", crs.getString(0) ) ;
+		assertEquals( -1L, crs.getLong(1) ) ;
+		crs.close() ;
+	}
+
+	/** Verifies that unknown versions and damaged blocks are rejected. */
+	@Test
+	public void testMalformed()
+	{
+		byte[] ab = pack( COLUMNS ) ;
+
+		SQLiteContentException xVersion = null ;
+		byte[] abVersion = ab.clone() ;
+		abVersion[0] = ((byte)( PackedRowCodec.FORMAT_VERSION + 1 )) ;
+		try { PackedRowCodec.unpack( abVersion ) ; }
+		catch( SQLiteContentException x ) { xVersion = x ; }
+		assertNotNull( xVersion ) ;
+
+		SQLiteContentException xTruncated = null ;
+		try { PackedRowCodec.unpack( Arrays.copyOf( ab, ab.length - 1 ) ) ; }
+		catch( SQLiteContentException x ) { xTruncated = x ; }
+		assertNotNull( xTruncated ) ;
+
+		SQLiteContentException xType = null ;
+		byte[] abType = new byte[] { PackedRowCodec.FORMAT_VERSION, 1, 1, 'x', 9 } ;
+		try { PackedRowCodec.unpack( abType ) ; }
+		catch( SQLiteContentException x ) { xType = x ; }
+		assertNotNull( xType ) ;
+		assertNull( xType.getCause() ) ;
+		assertTrue( xType.getMessage().contains( "[9]" ) ) ;
+	}
+}
@@ -20,8 +20,10 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertNotNull;
 import static junit.framework.Assert.assertNull;
 import static junit.framework.Assert.assertTrue;
@@ -29,12 +31,29 @@ import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.DELETE_FAILED;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.INSERT_FAILED;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_ORDER_DESC;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.UPDATE_FAILED;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.ENCODING_PACKED;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_ACCEPT_STREAM;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_BATCH_ID;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_BATCH_OPERATION;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_BATCH_SIZE;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_CHUNK_FINAL;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_CHUNK_OFFSET;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_CHUNK_SEQUENCE;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_INSERT_ROW_IDS;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_RESULT_ENCODING;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_RESULT_ROW_COUNT;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_RESULT_STREAM;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_SCHEMA_CLASS_DATA;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_SCHEMA_CLASS_NAME;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_SELECTION_ID;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_DELETE;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_DELETE_BATCH;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_INSERT;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_INSERT_BATCH;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_UPDATE;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_UPDATE_BATCH;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_NOTIFY_BATCH;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_NOTIFY_BATCH_FAILED;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_RECEIVE_SELECTION;
 
 /**
@@ -303,6 +322,293 @@ public class SQLiteHouseKeeperTest
 				qbKeeper.toString() ) ;
 	}
 
+	/**
+	 * Exercises {@link SQLiteHouseKeeper#sendSelectionResults(Class, Cursor)},
+	 * verifying that results are split into chunks by row count and by size.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testSendSelectionResultsChunked()
+	{
+		SQLiteHouseTest.connectTo(m_house) ;
+		for( int i = 1 ; i <= 25 ; i++ )
+			m_house.insert( new Fargle( i, "testSendSelectionResultsChunked()", i ) ) ;
+		final ArrayList<Intent> asigChunks = new ArrayList<>() ;
+		SQLiteHouseKeeper<ValidSpecClass> keeper =
+			new SQLiteHouseKeeper<ValidSpecClass>( m_ctx, ValidSpecClass.class, m_house )
+			{
+				@Override
+				protected void sendResultChunk( Intent sig )
+				{ asigChunks.add(sig) ; }
+			};
+		keeper.m_api = m_api ;
+
+		keeper.setResultChunkLimits( 10, SQLiteHouseKeeper.DEFAULT_CHUNK_BYTES ) ;
+		Cursor crs = m_house.selectFrom(Fargle.class).execute() ;
+		assertEquals( 3, keeper.sendSelectionResults( Fargle.class, crs ) ) ;
+		crs.close() ;
+		assertEquals( 3, asigChunks.size() ) ;
+		String sSelectionID = asigChunks.get(0).getStringExtra(
+				m_api.getFormattedExtraTag( EXTRA_SELECTION_ID ) ) ;
+		assertNotNull( sSelectionID ) ;
+		for( int i = 0 ; i < 3 ; i++ )
+		{
+			Intent sig = asigChunks.get(i) ;
+			assertEquals( sSelectionID, sig.getStringExtra(
+					m_api.getFormattedExtraTag( EXTRA_SELECTION_ID ) ) ) ;
+			assertEquals( 25, sig.getIntExtra(
+					m_api.getFormattedExtraTag( EXTRA_RESULT_ROW_COUNT ), -1 ) ) ;
+			assertEquals( i, sig.getIntExtra(
+					m_api.getFormattedExtraTag( EXTRA_CHUNK_SEQUENCE ), -1 ) ) ;
+			assertEquals( i * 10, sig.getIntExtra(
+					m_api.getFormattedExtraTag( EXTRA_CHUNK_OFFSET ), -1 ) ) ;
+			assertEquals( i == 2, sig.getBooleanExtra(
+					m_api.getFormattedExtraTag( EXTRA_CHUNK_FINAL ), false ) ) ;
+			assertEquals(( i == 2 ? 5 : 10 ), sig.getParcelableArrayExtra(
+					m_api.getFormattedExtraTag( EXTRA_SCHEMA_CLASS_DATA ) ).length ) ;
+		}
+
+		asigChunks.clear() ;
+		keeper.setResultChunkLimits( 100, 1 ) ;     // Every row is "too large".
+		crs = m_house.selectFrom(Fargle.class).execute() ;
+		assertEquals( 25, keeper.sendSelectionResults( Fargle.class, crs ) ) ;
+		crs.close() ;
+		for( Intent sig : asigChunks )
+		{
+			assertEquals( 1, sig.getParcelableArrayExtra(
+					m_api.getFormattedExtraTag( EXTRA_SCHEMA_CLASS_DATA ) ).length ) ;
+		}
+	}
+
+	/**
+	 * Exercises {@link SQLiteHouseKeeper#sendPackedSelectionResults} via
+	 * {@link SQLiteHouseKeeper#sendSelectionResults(Class, Cursor, String)}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testSendPackedSelectionResults()
+	{
+		SQLiteHouseTest.connectTo(m_house) ;
+		for( int i = 1 ; i <= 25 ; i++ )
+			m_house.insert( new Fargle( i, "testSendPackedSelectionResults()", -i ) ) ;
+		final ArrayList<Intent> asigChunks = new ArrayList<>() ;
+		SQLiteHouseKeeper<ValidSpecClass> keeper =
+			new SQLiteHouseKeeper<ValidSpecClass>( m_ctx, ValidSpecClass.class, m_house )
+			{
+				@Override
+				protected void sendResultChunk( Intent sig )
+				{ asigChunks.add(sig) ; }
+			};
+		keeper.m_api = m_api ;
+
+		keeper.setResultChunkLimits( 10, SQLiteHouseKeeper.DEFAULT_CHUNK_BYTES ) ;
+		Cursor crs = m_house.selectFrom(Fargle.class).execute() ;
+		assertEquals( 3, keeper.sendSelectionResults(
+				Fargle.class, crs, ENCODING_PACKED ) ) ;
+		crs.close() ;
+		assertEquals( 3, asigChunks.size() ) ;
+		SQLightable.Reflection<Fargle> tbl = m_api.reflect(Fargle.class) ;
+		int nRow = 0 ;
+		for( int i = 0 ; i < 3 ; i++ )
+		{
+			Intent sig = asigChunks.get(i) ;
+			assertEquals( ENCODING_PACKED, sig.getStringExtra(
+					m_api.getFormattedExtraTag( EXTRA_RESULT_ENCODING ) ) ) ;
+			assertEquals( i * 10, sig.getIntExtra(
+					m_api.getFormattedExtraTag( EXTRA_CHUNK_OFFSET ), -1 ) ) ;
+			assertEquals( i == 2, sig.getBooleanExtra(
+					m_api.getFormattedExtraTag( EXTRA_CHUNK_FINAL ), false ) ) ;
+			Cursor crsChunk = PackedRowCodec.unpack( sig.getByteArrayExtra(
+					m_api.getFormattedExtraTag( EXTRA_SCHEMA_CLASS_DATA ) ) ) ;
+			assertEquals(( i == 2 ? 5 : 10 ), crsChunk.getCount() ) ;
+			List<SQLightable.Reflection<Fargle>.Column> aColumns =
+					tbl.getColumnsPresentIn(crsChunk) ;
+			while( crsChunk.moveToNext() )
+			{
+				++nRow ;
+				assertTrue( tbl.fromCursor( crsChunk, aColumns ).equals(
+					new Fargle( nRow, "testSendPackedSelectionResults()", -nRow ) ) ) ;
+			}
+			crsChunk.close() ;
+		}
+		assertEquals( 25, nRow ) ;
+
+		asigChunks.clear() ;
+		keeper.setResultChunkLimits( 100, 1 ) ;     // Every row is "too large".
+		crs = m_house.selectFrom(Fargle.class).execute() ;
+		assertEquals( 25, keeper.sendSelectionResults(
+				Fargle.class, crs, ENCODING_PACKED ) ) ;
+		crs.close() ;
+	}
+
+	/**
+	 * Exercises {@link SQLiteHouseKeeper#shouldStreamResults} and
+	 * {@link SQLiteHouseKeeper#streamSelectionResults}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testStreamSelectionResults()
+	{
+		SQLiteHouseTest.connectTo(m_house) ;
+		for( int i = 1 ; i <= 25 ; i++ )
+			m_house.insert( new Fargle( i, "testStreamSelectionResults()", i ) ) ;
+		final ArrayList<Intent> asigSent = new ArrayList<>() ;
+		SQLiteHouseKeeper<ValidSpecClass> keeper =
+			new SQLiteHouseKeeper<ValidSpecClass>( m_ctx, ValidSpecClass.class, m_house )
+			{
+				@Override
+				protected void sendResultChunk( Intent sig )
+				{ asigSent.add(sig) ; }
+			};
+		keeper.m_api = m_api ;
+		Intent sigRequest = new Intent() ;
+		Cursor crs = m_house.selectFrom(Fargle.class).execute() ;
+		assertFalse( keeper.shouldStreamResults( sigRequest, crs ) ) ;
+		keeper.streamResultsThrough( "net.zer0bandwidth.test.selections", 10 ) ;
+		assertFalse( keeper.shouldStreamResults( sigRequest, crs ) ) ;
+		sigRequest.putExtra(
+				m_api.getFormattedExtraTag( EXTRA_ACCEPT_STREAM ), true ) ;
+		assertTrue( keeper.shouldStreamResults( sigRequest, crs ) ) ;
+		keeper.streamResultsThrough( "net.zer0bandwidth.test.selections", 25 ) ;
+		assertFalse( keeper.shouldStreamResults( sigRequest, crs ) ) ;
+
+		String sSelectionID = keeper.streamSelectionResults( Fargle.class, crs ) ;
+		assertEquals( 1, asigSent.size() ) ;
+		Intent sig = asigSent.get(0) ;
+		assertEquals( sSelectionID, sig.getStringExtra(
+				m_api.getFormattedExtraTag( EXTRA_SELECTION_ID ) ) ) ;
+		assertEquals( 25, sig.getIntExtra(
+				m_api.getFormattedExtraTag( EXTRA_RESULT_ROW_COUNT ), -1 ) ) ;
+		assertFalse( sig.hasExtra(
+				m_api.getFormattedExtraTag( EXTRA_SCHEMA_CLASS_DATA ) ) ) ;
+		assertEquals( SelectionStreamProvider.getStreamUri(
+					"net.zer0bandwidth.test.selections", sSelectionID ).toString(),
+				sig.getStringExtra(
+					m_api.getFormattedExtraTag( EXTRA_RESULT_STREAM ) ) ) ;
+		SelectionStreamProvider.StagedSelection sel =
+				SelectionStreamProvider.claim( sSelectionID ) ;
+		assertNotNull( sel ) ;
+		assertEquals( 25, sel.crs.getCount() ) ;
+		sel.crs.close() ;
+	}
+
+	/**
+	 * Exercises {@link SQLiteHouseKeeper#applyBatch} via
+	 * {@link SQLiteHouseKeeper#onReceive}, verifying that each batch is
+	 * answered by a single summary, and that a failed batch is rolled back.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testApplyBatch()
+	{
+		SQLiteHouseTest.connectTo(m_house) ;
+		final ArrayList<Intent> asigSent = new ArrayList<>() ;
+		SQLiteHouseKeeper<ValidSpecClass> keeper =
+			new SQLiteHouseKeeper<ValidSpecClass>( m_ctx, ValidSpecClass.class, m_house )
+			{
+				@Override
+				protected synchronized <SC extends SQLightable> void notifyBatchApplied(
+						Class<SC> cls, String sOperation, String sBatchID,
+						int nBatchSize, int nAffected, long[] anRowIDs )
+				{
+					asigSent.add( this.buildBatchSummary( cls, sOperation,
+							sBatchID, nBatchSize, nAffected, anRowIDs ) ) ;
+				}
+
+				@Override
+				protected synchronized void notifyBatchFailed( String sClass,
+						String sOperation, String sBatchID )
+				{
+					asigSent.add( new Intent( m_api.getFormattedRelayAction(
+							RELAY_NOTIFY_BATCH_FAILED ) ) ) ;
+				}
+			};
+		keeper.m_api = m_api ;
+		m_house.enableChangeTracking() ;
+
+		ArrayList<Fargle> aoBatch = new ArrayList<>() ;
+		for( int i = 1 ; i <= 10 ; i++ )
+			aoBatch.add( new Fargle( i, "testApplyBatch()", i ) ) ;
+		keeper.onReceive( m_ctx,
+				this.buildBatchSignal( KEEPER_INSERT_BATCH, aoBatch, "ins" ) ) ;
+		assertEquals( 1, asigSent.size() ) ;
+		Intent sig = asigSent.get(0) ;
+		assertEquals( m_api.getFormattedRelayAction( RELAY_NOTIFY_BATCH ),
+				sig.getAction() ) ;
+		assertEquals( "ins", sig.getStringExtra(
+				m_api.getFormattedExtraTag( EXTRA_BATCH_ID ) ) ) ;
+		assertEquals( KEEPER_INSERT_BATCH, sig.getStringExtra(
+				m_api.getFormattedExtraTag( EXTRA_BATCH_OPERATION ) ) ) ;
+		assertEquals( 10, sig.getIntExtra(
+				m_api.getFormattedExtraTag( EXTRA_BATCH_SIZE ), -1 ) ) ;
+		assertEquals( 10, sig.getIntExtra(
+				m_api.getFormattedExtraTag( EXTRA_RESULT_ROW_COUNT ), -1 ) ) ;
+		long[] anRowIDs = sig.getLongArrayExtra(
+				m_api.getFormattedExtraTag( EXTRA_INSERT_ROW_IDS ) ) ;
+		assertEquals( 10, anRowIDs.length ) ;
+		for( long nRowID : anRowIDs )
+			assertFalse( nRowID == INSERT_FAILED ) ;
+		Cursor crs = m_house.selectFrom(Fargle.class).execute() ;
+		assertEquals( 10, crs.getCount() ) ;
+		crs.close() ;
+
+		for( Fargle o : aoBatch )
+			o.setString( "testApplyBatch() UPDATED" ) ;
+		asigSent.clear() ;
+		keeper.onReceive( m_ctx,
+				this.buildBatchSignal( KEEPER_UPDATE_BATCH, aoBatch, "upd" ) ) ;
+		assertEquals( 1, asigSent.size() ) ;
+		assertEquals( 10, asigSent.get(0).getIntExtra(
+				m_api.getFormattedExtraTag( EXTRA_RESULT_ROW_COUNT ), -1 ) ) ;
+		assertFalse( asigSent.get(0).hasExtra(
+				m_api.getFormattedExtraTag( EXTRA_INSERT_ROW_IDS ) ) ) ;
+		assertEquals( "testApplyBatch() UPDATED",
+				m_house.select( Fargle.class, anRowIDs[4] ).getString() ) ;
+
+		ArrayList<Fargle> aoClash = new ArrayList<>() ;
+		aoClash.add( new Fargle( 11, "testApplyBatch() new", 11 ) ) ;
+		aoClash.add( new Fargle( 1, "testApplyBatch() clash", 1 ) ) ;
+		asigSent.clear() ;
+		keeper.onReceive( m_ctx,            // kicker: duplicate primary key
+				this.buildBatchSignal( KEEPER_INSERT_BATCH, aoClash, "clash" ) ) ;
+		assertEquals( 1, asigSent.size() ) ;
+		assertEquals( m_api.getFormattedRelayAction( RELAY_NOTIFY_BATCH_FAILED ),
+				asigSent.get(0).getAction() ) ;
+		crs = m_house.selectFrom(Fargle.class).execute() ;
+		assertEquals( 10, crs.getCount() ) ;             // Fargle 11 rolled back.
+		crs.close() ;
+		// Snapshots written inside the rolled-back transaction are discarded.
+		assertEquals( 0, m_house.getChangeTracker().size( Fargle.class ) ) ;
+
+		asigSent.clear() ;
+		keeper.onReceive( m_ctx, this.buildBatchSignal(
+				KEEPER_DELETE_BATCH, aoBatch.subList( 0, 4 ), "del" ) ) ;
+		assertEquals( 1, asigSent.size() ) ;
+		assertEquals( 4, asigSent.get(0).getIntExtra(
+				m_api.getFormattedExtraTag( EXTRA_RESULT_ROW_COUNT ), -1 ) ) ;
+		crs = m_house.selectFrom(Fargle.class).execute() ;
+		assertEquals( 6, crs.getCount() ) ;
+		crs.close() ;
+	}
+
+	/** Builds a batch signal as the relay would send it. */
+	protected Intent buildBatchSignal( String sOperation, List<Fargle> aoBatch,
+			String sBatchID )
+	{
+		Intent sig = new Intent() ;
+		sig.setAction( m_api.getFormattedKeeperAction( sOperation ) ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_SCHEMA_CLASS_NAME ),
+				Fargle.class.getCanonicalName() ) ;
+		SQLightable.Reflection<Fargle> tbl = m_api.reflect(Fargle.class) ;
+		Bundle[] abndlRows = new Bundle[aoBatch.size()] ;
+		for( int i = 0 ; i < abndlRows.length ; i++ )
+			abndlRows[i] = tbl.toBundle( aoBatch.get(i) ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_SCHEMA_CLASS_DATA ),
+				abndlRows ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_BATCH_ID ), sBatchID ) ;
+		return sig ;
+	}
+
 	/** Exercises {@link SQLiteHouseKeeper#buildResultBroadcast}. */
 	@Test
 	public void testBuildResultBroadcast()
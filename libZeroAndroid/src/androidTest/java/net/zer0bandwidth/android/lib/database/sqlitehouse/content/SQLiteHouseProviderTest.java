@@ -0,0 +1,191 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.content;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.net.Uri;
+import android.support.test.runner.AndroidJUnit4;
+
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouseTest;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.Fargle;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.ValidSpecClass;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Exercises {@link SQLiteHouseProvider}.
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@RunWith( AndroidJUnit4.class )
+public class SQLiteHouseProviderTest
+{
+	protected static final String AUTHORITY =
+			"net.zer0bandwidth.android.lib.test.provider" ;
+
+	/** A provider bound to the test instance of {@link ValidSpecClass}. */
+	public static class TestProvider
+	extends SQLiteHouseProvider<ValidSpecClass>
+	{
+		public TestProvider()
+		{ super( ValidSpecClass.class, AUTHORITY ) ; }
+
+		@Override
+		protected ValidSpecClass createHouse()
+		{ return ValidSpecClass.getTestInstance() ; }
+	}
+
+	protected TestProvider m_prov = null ;
+	protected Uri m_uriFargles = null ;
+
+	@Before
+	public void setup()
+	{
+		m_prov = new TestProvider() ;
+		m_prov.attachInfo( ValidSpecClass.getTestInstance().getContext(), null ) ;
+		SQLiteHouseTest.connectTo( m_prov.getHouse() ) ;
+		m_uriFargles = SQLiteHouseProvider.getContentUri( AUTHORITY, Fargle.class ) ;
+	}
+
+	@After
+	public void teardown()
+	{
+		m_prov.getHouse().close() ;
+		SQLiteHouseTest.delete( ValidSpecClass.class ) ;
+	}
+
+	protected static ContentValues fargle( String s, int z )
+	{
+		ContentValues vals = new ContentValues() ;
+		vals.put( "fargle_id", z ) ;
+		vals.put( "fargle_string", s ) ;
+		vals.put( "fargle_num", z ) ;
+		return vals ;
+	}
+
+	/**
+	 * Exercises {@link SQLiteHouseProvider#getContentUri},
+	 * {@link SQLiteHouseProvider#getType}, and the rejection of unknown URIs.
+	 */
+	@Test
+	public void testURIs()
+	{
+		assertEquals( "content://" + AUTHORITY + "/fargles",
+				m_uriFargles.toString() ) ;
+		assertEquals( ContentResolver.CURSOR_DIR_BASE_TYPE
+				+ "/vnd." + AUTHORITY + ".fargles",
+			m_prov.getType( m_uriFargles ) ) ;
+		assertEquals( ContentResolver.CURSOR_ITEM_BASE_TYPE
+				+ "/vnd." + AUTHORITY + ".fargles",
+			m_prov.getType( ContentUris.withAppendedId( m_uriFargles, 1 ) ) ) ;
+
+		IllegalArgumentException xUnknown = null ;
+		try
+		{
+			m_prov.query( Uri.parse( "content://" + AUTHORITY + "/nothing" ),
+					null, null, null, null ) ;
+		}
+		catch( IllegalArgumentException x ) { xUnknown = x ; }
+		assertNotNull( xUnknown ) ;
+	}
+
+	/**
+	 * Exercises {@link SQLiteHouseProvider#insert},
+	 * {@link SQLiteHouseProvider#query}, {@link SQLiteHouseProvider#update},
+	 * and {@link SQLiteHouseProvider#delete}, on both table and row URIs.
+	 */
+	@Test
+	public void testCRUD()
+	{
+		Uri uriRow = m_prov.insert( m_uriFargles, fargle( "testCRUD()", 1 ) ) ;
+		assertNotNull( uriRow ) ;
+		m_prov.insert( m_uriFargles, fargle( "testCRUD() other", 2 ) ) ;
+
+		Cursor crs = m_prov.query( m_uriFargles, null, null, null, null ) ;
+		assertEquals( 2, crs.getCount() ) ;
+		crs.close() ;
+		crs = m_prov.query( uriRow, null, null, null, null ) ;
+		assertEquals( 1, crs.getCount() ) ;
+		crs.moveToFirst() ;
+		assertEquals( "testCRUD()",
+				crs.getString( crs.getColumnIndex( "fargle_string" ) ) ) ;
+		crs.close() ;
+
+		assertEquals( 1, m_prov.update( uriRow,
+				fargle( "testCRUD() UPDATED", 3 ), null, null ) ) ;
+		assertEquals( 0, m_prov.update( uriRow, fargle( "nope", 4 ),
+				"fargle_num=?", new String[] { "1" } ) ) ;
+
+		assertEquals( 1, m_prov.delete( uriRow, null, null ) ) ;
+		assertEquals( 1, m_prov.delete( m_uriFargles, null, null ) ) ;
+
+		IllegalArgumentException xRowInsert = null ;
+		try { m_prov.insert( uriRow, fargle( "nope", 5 ) ) ; }
+		catch( IllegalArgumentException x ) { xRowInsert = x ; }
+		assertNotNull( xRowInsert ) ;
+	}
+
+	/**
+	 * Exercises {@link SQLiteHouseProvider#bulkInsert} and
+	 * {@link SQLiteHouseProvider#applyBatch}.
+	 */
+	@Test
+	public void testBulkAndBatch()
+	throws Exception
+	{
+		ContentValues[] avals = new ContentValues[10] ;
+		for( int i = 0 ; i < avals.length ; i++ )
+			avals[i] = fargle( "testBulkAndBatch()", i ) ;
+		assertEquals( 10, m_prov.bulkInsert( m_uriFargles, avals ) ) ;
+		assertEquals( 0, m_prov.bulkInsert( m_uriFargles, new ContentValues[0] ) ) ;
+
+		ArrayList<ContentProviderOperation> aOps = new ArrayList<>() ;
+		aOps.add( ContentProviderOperation.newInsert( m_uriFargles )
+				.withValues( fargle( "testBulkAndBatch() batch", 100 ) )
+				.build() ) ;
+		aOps.add( ContentProviderOperation.newDelete( m_uriFargles )
+				.withSelection( "fargle_num<?", new String[] { "5" } )
+				.withYieldAllowed( true )
+				.build() ) ;
+		ContentProviderResult[] aResults = m_prov.applyBatch( aOps ) ;
+		assertEquals( 2, aResults.length ) ;
+		assertNotNull( aResults[0].uri ) ;
+		assertEquals( 5, aResults[1].count.intValue() ) ;
+		assertNull( m_prov.m_tlPendingChanges.get() ) ;
+
+		Cursor crs = m_prov.query( m_uriFargles, null, null, null, null ) ;
+		assertEquals( 6, crs.getCount() ) ;
+		crs.close() ;
+		assertTrue( m_prov.getHouse().getSchemaClasses().contains( Fargle.class ) ) ;
+	}
+
+	/**
+	 * Exercises {@link SQLiteHouseProvider#flushPendingChanges}, which sends
+	 * the notifications for the committed part of a batch while deferral
+	 * continues.
+	 */
+	@Test
+	public void testFlushPendingChanges()
+	{
+		assertTrue( m_prov.deferChanges() ) ;
+		m_prov.notifyChange( m_uriFargles ) ;
+		assertEquals( 1, m_prov.m_tlPendingChanges.get().size() ) ;
+		m_prov.flushPendingChanges() ;
+		assertNotNull( m_prov.m_tlPendingChanges.get() ) ;   // still deferring
+		assertEquals( 0, m_prov.m_tlPendingChanges.get().size() ) ;
+		m_prov.sendPendingChanges( false ) ;
+		assertNull( m_prov.m_tlPendingChanges.get() ) ;
+	}
+}
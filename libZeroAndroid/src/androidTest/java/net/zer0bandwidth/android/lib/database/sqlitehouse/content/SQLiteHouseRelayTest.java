@@ -2,7 +2,10 @@ package net.zer0bandwidth.android.lib.database.sqlitehouse.content;
 
 import android.content.Context;
 import android.content.Intent;
+import android.database.MatrixCursor;
+import android.net.Uri;
 import android.os.Bundle;
+import android.os.ParcelFileDescriptor;
 import android.os.Parcelable;
 import android.support.test.InstrumentationRegistry;
 import android.support.test.runner.AndroidJUnit4;
@@ -10,6 +13,7 @@ import android.util.Log;
 
 import net.zer0bandwidth.android.lib.content.querybuilder.SelectionBuilder;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLightable;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouse;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.Blargh;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.Dargle;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.testschema.Fargle;
@@ -19,23 +23,33 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertNotNull;
 import static junit.framework.Assert.assertNull;
 import static junit.framework.Assert.assertTrue;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_ORDER_DESC;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_BATCH_ID;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_BATCH_OPERATION;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_INSERT_ROW_ID;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_INSERT_ROW_IDS;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_RESULT_ROW_COUNT;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_SCHEMA_CLASS_DATA;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_SCHEMA_CLASS_NAME;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_SELECTION_QUERY_SPEC;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_DELETE;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_INSERT;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_INSERT_BATCH;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_SELECT;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_UPDATE;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_UPDATE_BATCH;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_NOTIFY_BATCH;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_NOTIFY_BATCH_FAILED;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_NOTIFY_DELETE;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_NOTIFY_DELETE_FAILED;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_NOTIFY_INSERT;
@@ -216,6 +230,299 @@ public class SQLiteHouseRelayTest
 		m_relay.onReceive( m_ctx, sig ) ;          // Gets processed and logged.
 	} // Complete execution implies success.
 
+	/**
+	 * Exercises the delivery of chunked selection results to both plain
+	 * listeners, which receive the reassembled result set, and
+	 * {@link SQLiteHouseRelay.ChunkListener}s, which receive each chunk.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testOnSelectionChunks()
+	{
+		m_relay.register(m_api) ;
+		final ArrayList<Fargle> aoReassembled = new ArrayList<>() ;
+		final ArrayList<Integer> anChunkOffsets = new ArrayList<>() ;
+		m_relay.addListener( new MockRelayListener()
+			{
+				@Override
+				public <SC extends SQLightable> void onRowsSelected(
+						Class<SC> cls, int nTotalCount, List<SC> aoRows )
+				{
+					assertEquals( 5, nTotalCount ) ;
+					for( SC o : aoRows )
+						aoReassembled.add( ((Fargle)(o)) ) ;
+				}
+			});
+		m_relay.addListener( new ChunkRelayListener()
+			{
+				@Override
+				public <SC extends SQLightable> void onRowsSelected(
+						Class<SC> cls, String sSelectionID, int nTotalCount,
+						int nOffset, List<SC> aoRows, boolean bFinal )
+				{
+					if( "sel".equals( sSelectionID ) )
+						anChunkOffsets.add( nOffset ) ;
+				}
+			});
+
+		SQLiteHouseKeeper<?> keeper =
+				new SQLiteHouseKeeper<>( m_ctx, SQLiteHouse.class, null ) ;
+		keeper.m_api = m_api ;
+		SQLightable.Reflection<Fargle> tbl = m_api.reflect(Fargle.class) ;
+		ArrayList<Bundle> abndlFirst = new ArrayList<>() ;
+		ArrayList<Bundle> abndlSecond = new ArrayList<>() ;
+		for( int i = 0 ; i < 5 ; i++ )
+		{
+			(( i < 3 ) ? abndlFirst : abndlSecond ).add(
+					tbl.toBundle( new Fargle( i, "chunk", i ) ) ) ;
+		}
+
+		// Deliver the final chunk first, to show that order doesn't matter.
+		m_relay.onReceive( m_ctx, keeper.buildResultChunk(
+				Fargle.class, "sel", 5, 1, 3, abndlSecond, true ) ) ;
+		assertTrue( aoReassembled.isEmpty() ) ;
+		assertEquals( 1, m_relay.m_mapPendingSelections.size() ) ;
+		m_relay.onReceive( m_ctx, keeper.buildResultChunk(
+				Fargle.class, "sel", 5, 0, 0, abndlFirst, false ) ) ;
+		assertEquals( 0, m_relay.m_mapPendingSelections.size() ) ;
+		assertEquals( 5, aoReassembled.size() ) ;
+		for( int i = 0 ; i < 5 ; i++ )
+			assertTrue( aoReassembled.get(i).equals( new Fargle( i, "chunk", i ) ) ) ;
+		assertEquals( 2, anChunkOffsets.size() ) ;
+		assertEquals( 3, anChunkOffsets.get(0).intValue() ) ;
+		assertEquals( 0, anChunkOffsets.get(1).intValue() ) ;
+
+		// Only the selection that the keeper reports as failed is abandoned.
+		m_relay.onReceive( m_ctx, keeper.buildResultChunk(
+				Fargle.class, "sel2", 5, 0, 0, abndlFirst, false ) ) ;
+		m_relay.onReceive( m_ctx, keeper.buildResultChunk(
+				Fargle.class, "sel3", 5, 0, 0, abndlFirst, false ) ) ;
+		assertEquals( 2, m_relay.m_mapPendingSelections.size() ) ;
+		m_relay.onReceive( m_ctx, keeper.buildSelectionFailedSignal(
+				Fargle.class.getCanonicalName(), "sel2" ) ) ;
+		assertEquals( 1, m_relay.m_mapPendingSelections.size() ) ;
+		assertTrue( m_relay.m_mapPendingSelections.containsKey( "sel3" ) ) ;
+
+		// Without an ID, all of the class's incomplete selections are abandoned.
+		m_relay.onReceive( m_ctx, keeper.buildSelectionFailedSignal(
+				Fargle.class.getCanonicalName(), null ) ) ;
+		assertEquals( 0, m_relay.m_mapPendingSelections.size() ) ;
+	}
+
+	/**
+	 * Exercises the delivery of selection results that were packed by
+	 * {@link PackedRowCodec}. Columns which the schematic class does not define
+	 * are ignored.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testOnPackedSelection()
+	{
+		m_relay.register(m_api) ;
+		final ArrayList<Fargle> aoSelected = new ArrayList<>() ;
+		m_relay.addListener( new MockRelayListener()
+			{
+				@Override
+				public <SC extends SQLightable> void onRowsSelected(
+						Class<SC> cls, int nTotalCount, List<SC> aoRows )
+				{
+					assertEquals( 3, nTotalCount ) ;
+					for( SC o : aoRows )
+						aoSelected.add( ((Fargle)(o)) ) ;
+				}
+			});
+
+		MatrixCursor crs = new MatrixCursor( new String[]
+			{ "fargle_id", "fargle_string", "fargle_num", "not_a_fargle" } ) ;
+		for( int i = 0 ; i < 3 ; i++ )
+			crs.addRow( new Object[] { i, "packed", -i, "ignored" } ) ;
+		PackedRowCodec.Packer packer = new PackedRowCodec.Packer( crs,
+				crs.getColumnNames() ) ;
+		while( crs.moveToNext() )
+			packer.pack(crs) ;
+		crs.close() ;
+
+		SQLiteHouseKeeper<?> keeper =
+				new SQLiteHouseKeeper<>( m_ctx, SQLiteHouse.class, null ) ;
+		keeper.m_api = m_api ;
+		m_relay.onReceive( m_ctx, keeper.buildResultChunk(
+				Fargle.class, "packed", 3, 0, 0, packer.toByteArray(), true ) ) ;
+		assertEquals( 3, aoSelected.size() ) ;
+		for( int i = 0 ; i < 3 ; i++ )
+			assertTrue( aoSelected.get(i).equals( new Fargle( i, "packed", -i ) ) ) ;
+	}
+
+	/**
+	 * Exercises {@link SQLiteHouseRelay#readStream}, reading from a
+	 * {@link SelectionStreamProvider} directly rather than through a resolver,
+	 * and delivering rows on the calling thread.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testReadStream()
+	{
+		final SelectionStreamProvider prov = new SelectionStreamProvider() ;
+		SQLiteHouseRelay relay = new SQLiteHouseRelay( m_ctx )
+			{
+				@Override
+				protected InputStream openResultStream( Uri uri )
+				throws IOException
+				{
+					return new ParcelFileDescriptor.AutoCloseInputStream(
+							prov.openFile( uri, "r" ) ) ;
+				}
+
+				@Override
+				protected void post( Runnable r )
+				{ r.run() ; }
+			};
+		relay.register(m_api) ;
+		final ArrayList<Fargle> aoSelected = new ArrayList<>() ;
+		final boolean[] abFailed = { false } ;
+		relay.addListener( new MockRelayListener()
+			{
+				@Override
+				public <SC extends SQLightable> void onRowsSelected(
+						Class<SC> cls, int nTotalCount, List<SC> aoRows )
+				{
+					assertEquals( 25, nTotalCount ) ;
+					for( SC o : aoRows )
+						aoSelected.add( ((Fargle)(o)) ) ;
+				}
+
+				@Override
+				public void onSelectFailed()
+				{ abFailed[0] = true ; }
+			});
+
+		MatrixCursor crs = new MatrixCursor( new String[]
+			{ "fargle_id", "fargle_string", "fargle_num" } ) ;
+		for( int i = 0 ; i < 25 ; i++ )
+			crs.addRow( new Object[] { i, "streamed", i * 2 } ) ;
+		SelectionStreamProvider.stage( "streamed", crs, crs.getColumnNames(),
+				10, Integer.MAX_VALUE, SelectionStreamProvider.DEFAULT_STAGE_TIMEOUT ) ;
+		Uri uri = SelectionStreamProvider.getStreamUri( "test", "streamed" ) ;
+		assertEquals( 3, relay.readStream( Fargle.class, "streamed", 25, uri ) ) ;
+		assertEquals( 25, aoSelected.size() ) ;
+		for( int i = 0 ; i < 25 ; i++ )
+			assertTrue( aoSelected.get(i).equals( new Fargle( i, "streamed", i * 2 ) ) ) ;
+		assertFalse( abFailed[0] ) ;
+
+		// The selection has already been claimed, so the stream can't open.
+		assertEquals( 0, relay.readStream( Fargle.class, "streamed", 25, uri ) ) ;
+		assertTrue( abFailed[0] ) ;
+		relay.unregister() ;
+	}
+
+	/**
+	 * A {@link SQLiteHouseRelay.ChunkListener} whose other callbacks behave
+	 * like those of {@link MockRelayListener}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	private abstract class ChunkRelayListener
+	extends MockRelayListener
+	implements SQLiteHouseRelay.ChunkListener
+	{}
+
+	/**
+	 * Exercises {@link SQLiteHouseRelay#buildBatchSignal}, to verify that we
+	 * are constructing the {@link Intent} correctly.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testBatchSignal()
+	{
+		m_relay.register(m_api) ;
+		ArrayList<Fargle> aoBatch = new ArrayList<>() ;
+		for( int i = 1 ; i <= 3 ; i++ )
+			aoBatch.add( new Fargle( i, "Insert these!", i ) ) ;
+		Intent sig = m_relay.buildBatchSignal(
+				KEEPER_INSERT_BATCH, Fargle.class, aoBatch, "batch" ) ;
+		assertEquals( m_api.getFormattedKeeperAction( KEEPER_INSERT_BATCH ),
+				sig.getAction() ) ;
+		assertEquals( "batch", sig.getStringExtra(
+				m_api.getFormattedExtraTag( EXTRA_BATCH_ID ) ) ) ;
+		List<Fargle> aoFromSig = m_api.getBatchFromBundles( sig, Fargle.class ) ;
+		assertEquals( 3, aoFromSig.size() ) ;
+		for( int i = 0 ; i < 3 ; i++ )
+			assertTrue( aoBatch.get(i).equals( aoFromSig.get(i) ) ) ;
+	}
+
+	/**
+	 * Exercises {@link SQLiteHouseRelay#onBatchApplied(Intent)} and
+	 * {@link SQLiteHouseRelay#onBatchFailed(Intent)} via
+	 * {@link SQLiteHouseRelay#onReceive}, verifying that a
+	 * {@link SQLiteHouseRelay.BatchListener} receives the summary, while a
+	 * plain listener receives the equivalent row-by-row callbacks.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testOnBatch()
+	{
+		m_relay.register(m_api) ;
+		final ArrayList<Long> anInserted = new ArrayList<>() ;
+		m_relay.addListener( new MockRelayListener()
+			{
+				@Override
+				public void onRowInserted( long nRowID )
+				{ anInserted.add( nRowID ) ; }
+			});
+		final ArrayList<String> asBatches = new ArrayList<>() ;
+		m_relay.addListener( new BatchRelayListener()
+			{
+				@Override
+				public void onBatchApplied( String sOperation,
+						String sBatchID, int nCount, long[] anRowIDs )
+				{
+					asBatches.add( sBatchID ) ;
+					assertEquals( KEEPER_INSERT_BATCH, sOperation ) ;
+					assertEquals( 3, nCount ) ;
+					assertEquals( 3, anRowIDs.length ) ;
+				}
+
+				@Override
+				public void onBatchFailed( String sOperation, String sBatchID )
+				{ asBatches.add( "failed:" + sBatchID ) ; }
+			});
+
+		Intent sig = new Intent() ;
+		sig.setAction( m_api.getFormattedRelayAction( RELAY_NOTIFY_BATCH ) ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_SCHEMA_CLASS_NAME ),
+				Fargle.class.getCanonicalName() ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_BATCH_OPERATION ),
+				KEEPER_INSERT_BATCH ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_BATCH_ID ), "batch" ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_RESULT_ROW_COUNT ), 3 ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_INSERT_ROW_IDS ),
+				new long[] { 7L, 8L, 9L } ) ;
+		m_relay.onReceive( m_ctx, sig ) ;
+		assertEquals( 3, anInserted.size() ) ;
+		assertEquals( 8L, anInserted.get(1).longValue() ) ;
+		assertEquals( 1, asBatches.size() ) ;
+		assertEquals( "batch", asBatches.get(0) ) ;
+
+		sig = new Intent() ;
+		sig.setAction(
+				m_api.getFormattedRelayAction( RELAY_NOTIFY_BATCH_FAILED ) ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_BATCH_OPERATION ),
+				KEEPER_UPDATE_BATCH ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_BATCH_ID ), "doomed" ) ;
+		RuntimeException xFailed = null ;
+		try { m_relay.onReceive( m_ctx, sig ) ; }
+		catch( RuntimeException x ) { xFailed = x ; }
+		assertNotNull( xFailed ) ;        // MockRelayListener.onUpdateFailed()
+	}
+
+	/**
+	 * A {@link SQLiteHouseRelay.BatchListener} whose other callbacks behave
+	 * like those of {@link MockRelayListener}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	private abstract class BatchRelayListener
+	extends MockRelayListener
+	implements SQLiteHouseRelay.BatchListener
+	{}
+
 	/**
 	 * Exercises {@link SQLiteHouseRelay#onInsertFailed} via
 	 * {@link SQLiteHouseRelay#onReceive}.
@@ -390,6 +697,8 @@ public class SQLiteHouseRelayTest
 		String[] asOrderByDirs = bndl.getStringArray("order_by_dirs") ;
 		assertNotNull(asOrderByDirs) ;
 		assertEquals( SQL_ORDER_DESC, asOrderByDirs[0] ) ;
+		assertEquals( SQLiteHouseSignalAPI.ENCODING_PACKED,
+				m_api.negotiateResultEncoding(sig) ) ;
 	}
 
 	/**
@@ -21,12 +21,16 @@ import static junit.framework.Assert.assertTrue;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.DEFAULT_EXTRA_TAG_FORMAT;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.DEFAULT_KEEPER_ACTION_FORMAT;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.DEFAULT_RELAY_ACTION_FORMAT;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.ENCODING_BUNDLE;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.ENCODING_PACKED;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_ACCEPT_ENCODINGS;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_SCHEMA_CLASS_DATA;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_SCHEMA_CLASS_NAME;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_ACTIONS;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_INSERT;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_ACTIONS;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_NOTIFY_INSERT;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RESULT_ENCODINGS;
 
 /**
  * Exercises {@link SQLiteHouseSignalAPI}.
@@ -317,6 +321,27 @@ public class SQLiteHouseSignalAPITest
 		assertNotNull( xContent ) ;
 	}
 
+	/**
+	 * Exercises {@link SQLiteHouseSignalAPI#negotiateResultEncoding} and
+	 * {@link SQLiteHouseSignalAPI#setResultEncodings}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Test
+	public void testNegotiateResultEncoding()
+	{
+		final String sExtra = m_api.getFormattedExtraTag( EXTRA_ACCEPT_ENCODINGS ) ;
+		Intent sig = new Intent() ;
+		assertEquals( ENCODING_BUNDLE, m_api.negotiateResultEncoding(sig) ) ;
+		sig.putExtra( sExtra, new String[] { "foo", ENCODING_BUNDLE } ) ;
+		assertEquals( ENCODING_BUNDLE, m_api.negotiateResultEncoding(sig) ) ;
+		sig.putExtra( sExtra, new String[] { ENCODING_BUNDLE, ENCODING_PACKED } ) ;
+		assertEquals( ENCODING_PACKED, m_api.negotiateResultEncoding(sig) ) ;
+		m_api.setResultEncodings( new String[] { ENCODING_BUNDLE } ) ;
+		assertEquals( ENCODING_BUNDLE, m_api.negotiateResultEncoding(sig) ) ;
+		m_api.setResultEncodings( null ) ;
+		assertEquals( RESULT_ENCODINGS, m_api.getResultEncodings() ) ;
+	}
+
 	/** Exercises {@link SQLiteHouseSignalAPI#reflect(Class)}. */
 	@Test
 	public void testReflectClass()
@@ -0,0 +1,182 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.content;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Exercises {@link SelectionStreamProvider}.
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@RunWith( AndroidJUnit4.class )
+public class SelectionStreamProviderTest
+{
+	protected static final String AUTHORITY =
+			"net.zer0bandwidth.android.lib.test.selections" ;
+
+	protected SelectionStreamProvider m_prov = null ;
+
+	@Before
+	public void setup()
+	{
+		m_prov = new SelectionStreamProvider() ;
+		synchronized( SelectionStreamProvider.s_mapStaged )
+		{
+			for( SelectionStreamProvider.StagedSelection sel :
+					SelectionStreamProvider.s_mapStaged.values() )
+			{ SelectionStreamProvider.discard( sel ) ; }
+			SelectionStreamProvider.s_mapStaged.clear() ;
+		}
+	}
+
+	protected static MatrixCursor rows( int nCount )
+	{
+		MatrixCursor crs = new MatrixCursor( new String[] { "n", "s" } ) ;
+		for( int i = 0 ; i < nCount ; i++ )
+			crs.addRow( new Object[] { i, "row" + i } ) ;
+		return crs ;
+	}
+
+	/**
+	 * Exercises {@link SelectionStreamProvider#openFile}, reading a staged
+	 * selection back through the pipe.
+	 */
+	@Test
+	public void testOpenFile()
+	throws IOException
+	{
+		SelectionStreamProvider.stage( "sel", rows(25), new String[] { "s" },
+				10, Integer.MAX_VALUE, SelectionStreamProvider.DEFAULT_STAGE_TIMEOUT ) ;
+		Uri uri = SelectionStreamProvider.getStreamUri( AUTHORITY, "sel" ) ;
+		assertEquals( "content://" + AUTHORITY + "/selections/sel",
+				uri.toString() ) ;
+
+		DataInputStream in = new DataInputStream( new BufferedInputStream(
+				new ParcelFileDescriptor.AutoCloseInputStream(
+						m_prov.openFile( uri, "r" ) ) ) ) ;
+		int nRow = 0 ;
+		byte[] abFrame ;
+		while(( abFrame = SelectionStreamProvider.readFrame(in) ) != null )
+		{
+			Cursor crs = PackedRowCodec.unpack( abFrame ) ;
+			assertEquals( 1, crs.getColumnCount() ) ;
+			assertEquals(( nRow < 20 ? 10 : 5 ), crs.getCount() ) ;
+			while( crs.moveToNext() )
+				assertEquals( "row" + nRow++, crs.getString(0) ) ;
+			crs.close() ;
+		}
+		in.close() ;
+		assertEquals( 25, nRow ) ;
+
+		FileNotFoundException xClaimed = null ;          // Can be opened once.
+		try { m_prov.openFile( uri, "r" ) ; }
+		catch( FileNotFoundException x ) { xClaimed = x ; }
+		assertNotNull( xClaimed ) ;
+
+		SelectionStreamProvider.stage( "sel", rows(1), new String[] { "s" },
+				10, 10, SelectionStreamProvider.DEFAULT_STAGE_TIMEOUT ) ;
+		FileNotFoundException xMode = null ;
+		try { m_prov.openFile( uri, "w" ) ; }
+		catch( FileNotFoundException x ) { xMode = x ; }
+		assertNotNull( xMode ) ;
+	}
+
+	/** Verifies that stale and excess selections are discarded. */
+	@Test
+	public void testDiscard()
+	{
+		Cursor crsExpired = rows(1) ;
+		SelectionStreamProvider.stage( "expired", crsExpired,
+				new String[] { "n" }, 10, 10, 0L ) ;
+		assertNull( SelectionStreamProvider.claim( "expired" ) ) ;
+		assertTrue( crsExpired.isClosed() ) ;
+
+		Cursor crsOldest = rows(1) ;
+		SelectionStreamProvider.stage( "oldest", crsOldest,
+				new String[] { "n" }, 10, 10,
+				SelectionStreamProvider.DEFAULT_STAGE_TIMEOUT ) ;
+		for( int i = 0 ; i < SelectionStreamProvider.MAX_STAGED_SELECTIONS ; i++ )
+		{
+			SelectionStreamProvider.stage( "sel" + i, rows(1),
+					new String[] { "n" }, 10, 10,
+					SelectionStreamProvider.DEFAULT_STAGE_TIMEOUT ) ;
+		}
+		assertTrue( crsOldest.isClosed() ) ;
+		assertEquals( SelectionStreamProvider.MAX_STAGED_SELECTIONS,
+				SelectionStreamProvider.s_mapStaged.size() ) ;
+		SelectionStreamProvider.StagedSelection sel =
+				SelectionStreamProvider.claim( "sel0" ) ;
+		assertNotNull( sel ) ;
+		assertFalse( sel.crs.isClosed() ) ;
+		sel.crs.close() ;
+	}
+
+	/**
+	 * Verifies that an unopened selection is discarded when it expires, even
+	 * if nothing else is staged or claimed.
+	 */
+	@Test
+	public void testScheduledExpiry()
+	throws InterruptedException
+	{
+		Cursor crs = rows(1) ;
+		SelectionStreamProvider.stage( "stale", crs, new String[] { "n" },
+				10, 10, 50L ) ;
+		for( int i = 0 ; i < 40 && ! crs.isClosed() ; i++ )
+			Thread.sleep( 50L ) ;
+		assertTrue( crs.isClosed() ) ;
+		synchronized( SelectionStreamProvider.s_mapStaged )
+		{ assertFalse( SelectionStreamProvider.s_mapStaged.containsKey( "stale" ) ) ; }
+	}
+
+	/** Verifies that frame lengths outside the allowed range are rejected. */
+	@Test
+	public void testReadFrameLimits()
+	throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream() ;
+		DataOutputStream out = new DataOutputStream( bytes ) ;
+		out.writeInt( SelectionStreamProvider.MAX_FRAME_BYTES + 1 ) ;
+		out.writeInt( -1 ) ;
+		out.flush() ;
+		DataInputStream in = new DataInputStream(
+				new ByteArrayInputStream( bytes.toByteArray() ) ) ;
+		IOException xTooLong = null ;
+		try { SelectionStreamProvider.readFrame(in) ; }
+		catch( IOException x ) { xTooLong = x ; }
+		assertNotNull( xTooLong ) ;
+		IOException xNegative = null ;
+		try { SelectionStreamProvider.readFrame(in) ; }
+		catch( IOException x ) { xNegative = x ; }
+		assertNotNull( xNegative ) ;
+
+		IOException xWrite = null ;
+		try
+		{
+			SelectionStreamProvider.writeFrame( out,
+					new byte[SelectionStreamProvider.MAX_FRAME_BYTES + 1] ) ;
+		}
+		catch( IOException x ) { xWrite = x ; }
+		assertNotNull( xWrite ) ;
+	}
+}
@@ -0,0 +1,181 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.refractor;
+
+import android.content.ContentValues;
+import android.os.Bundle;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import net.zer0bandwidth.android.lib.database.MockCursor;
+import net.zer0bandwidth.android.lib.database.SQLiteSyntax;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * Exercises {@link ByteArrayLens}, {@link ByteBufferLens}, and
+ * {@link ExternalFileLens}.
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@RunWith( AndroidJUnit4.class )
+public class BlobLensesTest
+{
+	/** A lens with a tiny threshold, so that small values are externalized. */
+	public static class TinyThresholdLens extends ExternalFileLens
+	{
+		@Override
+		protected File getStorageDirectory()
+		{
+			return new File( InstrumentationRegistry.getTargetContext()
+					.getCacheDir(), "blob_lens_test" ) ;
+		}
+
+		@Override
+		protected int getThreshold()
+		{ return 4 ; }
+	}
+
+	protected static final byte[] BYTES = { 0x00, 0x1F, (byte)0xA0, 0x7F } ;
+
+	@Test
+	public void testByteArrayLens()
+	{
+		ByteArrayLens lens = new ByteArrayLens() ;
+		assertEquals( SQLiteSyntax.SQLITE_TYPE_BLOB, lens.getSQLiteDataType() ) ;
+		assertEquals( "X'001FA07F'", lens.toSQLiteString( BYTES ) ) ;
+		assertEquals( "X''", lens.getSQLiteDefaultString() ) ;
+		assertEquals( SQLiteSyntax.SQLITE_NULL, lens.toSQLiteString(null) ) ;
+
+		ContentValues vals = new ContentValues() ;
+		lens.addToContentValues( vals, "foo", BYTES ) ;
+		MockCursor crs = new MockCursor(vals) ;
+		crs.moveToFirst() ;
+		assertTrue( Arrays.equals( BYTES, lens.fromCursor( crs, "foo" ) ) ) ;
+
+		Bundle bndl = new Bundle() ;
+		lens.addToBundle( bndl, "foo", BYTES ) ;
+		assertTrue( Arrays.equals( BYTES, lens.fromBundle( bndl, "foo" ) ) ) ;
+	}
+
+	@Test
+	public void testByteBufferLens()
+	{
+		ByteBufferLens lens = new ByteBufferLens() ;
+		assertEquals( SQLiteSyntax.SQLITE_TYPE_BLOB, lens.getSQLiteDataType() ) ;
+
+		// Only the remaining bytes are written, and the position is untouched.
+		ByteBuffer buf = ByteBuffer.wrap( new byte[] { 0x01, 0x02, 0x03 } ) ;
+		buf.position(1) ;
+		assertEquals( "X'0203'", lens.toSQLiteString(buf) ) ;
+		assertEquals( 1, buf.position() ) ;
+
+		ContentValues vals = new ContentValues() ;
+		lens.addToContentValues( vals, "foo", buf ) ;
+		MockCursor crs = new MockCursor(vals) ;
+		crs.moveToFirst() ;
+		ByteBuffer bufRead = lens.fromCursor( crs, "foo" ) ;
+		assertEquals( 2, bufRead.remaining() ) ;
+		assertEquals( 0x02, bufRead.get() ) ;
+		assertEquals( 0x03, bufRead.get() ) ;
+	}
+
+	@Test
+	public void testExternalFileLensInline()
+	throws IOException
+	{
+		ExternalFileLens lens = new TinyThresholdLens() ;
+		ExternalBlob blob = new ExternalBlob( BYTES ) ; // exactly at threshold
+		ContentValues vals = new ContentValues() ;
+		lens.addToContentValues( vals, "foo", blob ) ;
+		assertFalse( blob.isExternal() ) ;
+		assertTrue( vals.get("foo") instanceof byte[] ) ;
+
+		MockCursor crs = new MockCursor(vals) ;
+		crs.moveToFirst() ;
+		ExternalBlob blobRead = lens.fromCursor( crs, "foo" ) ;
+		assertFalse( blobRead.isExternal() ) ;
+		assertTrue( Arrays.equals( BYTES, blobRead.getBytes() ) ) ;
+	}
+
+	@Test
+	public void testExternalFileLensExternal()
+	throws IOException
+	{
+		ExternalFileLens lens = new TinyThresholdLens() ;
+		byte[] abBig = { 1, 2, 3, 4, 5, 6, 7, 8 } ;
+		ExternalBlob blob = new ExternalBlob( abBig ) ;
+		ContentValues vals = new ContentValues() ;
+		lens.addToContentValues( vals, "foo", blob ) ;    // Conversion alone...
+		assertFalse( blob.isExternal() ) ;             // ...never writes a file.
+		assertTrue( vals.get("foo") instanceof byte[] ) ;
+
+		assertTrue( lens.prepareForWrite(blob) == blob ) ;
+		assertTrue( blob.isExternal() ) ;
+		assertTrue( blob.getFile().exists() ) ;
+		lens.addToContentValues( vals, "foo", blob ) ;
+		// The path is stored relative to the lens's storage directory.
+		assertEquals( blob.getFile().getName(), vals.get("foo") ) ;
+		assertEquals( "'" + blob.getFile().getName() + "'",
+				lens.toSQLiteString(blob) ) ;
+
+		MockCursor crs = new MockCursor(vals) ;
+		crs.moveToFirst() ;
+		ExternalBlob blobRead = lens.fromCursor( crs, "foo" ) ;
+		assertTrue( blobRead.isExternal() ) ;
+		assertEquals( abBig.length, blobRead.length() ) ;
+		assertTrue( Arrays.equals( abBig, blobRead.getBytes() ) ) ;
+
+		Bundle bndl = new Bundle() ;
+		lens.addToBundle( bndl, "foo", blobRead ) ;
+		assertTrue( Arrays.equals( abBig,
+				lens.fromBundle( bndl, "foo" ).getBytes() ) ) ;
+
+		assertTrue( blobRead.deleteFile() ) ;
+		assertFalse( blob.getFile().exists() ) ;
+	}
+
+	/**
+	 * Verifies that quotes in stored paths are escaped, and that files
+	 * outside the storage directory are stored by absolute path.
+	 */
+	@Test
+	public void testExternalFileLensPaths()
+	{
+		ExternalFileLens lens = new TinyThresholdLens() ;
+		ExternalBlob blob = new ExternalBlob(
+				new File( lens.getStorageDirectory(), "it's.blob" ) ) ;
+		assertEquals( "'it''s.blob'", lens.toSQLiteString(blob) ) ;
+		assertEquals( "it's.blob",
+				lens.fromStoredPath( "it's.blob" ).getName() ) ;
+		assertEquals( lens.getStorageDirectory().getAbsolutePath(),
+				lens.fromStoredPath( "it's.blob" ).getParentFile()
+					.getAbsolutePath() ) ;
+
+		File fElsewhere = new File( "/elsewhere/foo.blob" ) ;
+		assertEquals( fElsewhere.getAbsolutePath(),
+				lens.toStoredPath( fElsewhere ) ) ;
+		assertEquals( fElsewhere, lens.fromStoredPath(
+				fElsewhere.getAbsolutePath() ) ) ;
+	}
+
+	@Test
+	public void testExternalFileLensNull()
+	{
+		ExternalFileLens lens = new ExternalFileLens() ;
+		ContentValues vals = new ContentValues() ;
+		lens.addToContentValues( vals, "foo", null ) ;
+		MockCursor crs = new MockCursor(vals) ;
+		crs.moveToFirst() ;
+		assertNull( lens.fromCursor( crs, "foo" ) ) ;
+		assertEquals( SQLiteSyntax.SQLITE_NULL, lens.toSQLiteString(null) ) ;
+	}
+}
@@ -18,6 +18,7 @@ import java.util.Calendar;
 import java.util.GregorianCalendar;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 
 /**
  * Exercises {@link CalendarLens}
@@ -123,4 +124,34 @@ public class CalendarLensTest
 		cal.setTimeInMillis( 987654321L ) ;
 		assertEquals( cal, m_lens.fromBundle( bndl, "foo" ) ) ;
 	}
+
+	/**
+	 * Exercises {@link CachedGregorianCalendarLens}, verifying that each
+	 * calendar is a distinct clone of the prototype.
+	 */
+	@Test
+	public void testCachedCalendarLens()
+	{
+		CachedGregorianCalendarLens lens = new CachedGregorianCalendarLens() ;
+		ContentValues vals = new ContentValues() ;
+		vals.put( "foo", 123456789L ) ;
+		MockCursor crs = new MockCursor(vals) ;
+		crs.moveToFirst() ;
+		GregorianCalendar calFirst = lens.fromCursor( crs, "foo" ) ;
+		GregorianCalendar calSecond = lens.fromCursor( crs, "foo" ) ;
+		Calendar cal = new GregorianCalendar() ;
+		cal.setTimeInMillis( 123456789L ) ;
+		assertEquals( cal, calFirst ) ;
+		assertEquals( cal, calSecond ) ;
+		assertNotSame( calFirst, calSecond ) ;
+
+		calFirst.setTimeInMillis( 0L ) ; // must not affect later instances
+		assertEquals( cal, lens.fromCursor( crs, "foo" ) ) ;
+		assertEquals( 0L,
+				lens.refreshPrototype().getSQLiteDefaultValue().getTimeInMillis() ) ;
+
+		Bundle bndl = new Bundle() ;
+		lens.addToBundle( bndl, "foo", calSecond ) ;
+		assertEquals( cal, lens.fromBundle( bndl, "foo" ) ) ;
+	}
 }
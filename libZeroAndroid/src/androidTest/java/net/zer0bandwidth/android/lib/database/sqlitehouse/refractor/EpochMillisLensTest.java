@@ -0,0 +1,85 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.refractor;
+
+import android.content.ContentValues;
+import android.support.test.runner.AndroidJUnit4;
+
+import net.zer0bandwidth.android.lib.database.MockCursor;
+import net.zer0bandwidth.android.lib.database.SQLiteSyntax;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLightable;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteColumn;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteTable;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.reflect.Field;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Exercises {@link EpochMillisLens}.
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@RunWith( AndroidJUnit4.class )
+public class EpochMillisLensTest
+{
+	/** A one-off schematic class with both primitive and boxed timestamps. */
+	@SQLiteTable( value = "timestamps" )
+	private class Timestamps
+	implements SQLightable
+	{
+		@SQLiteColumn( name = "ts_primitive", refractor = EpochMillisLens.class )
+		public long m_tsPrimitive = 123456789L ;
+
+		@SQLiteColumn( name = "ts_boxed", refractor = EpochMillisLens.class )
+		public Long m_tsBoxed = null ;
+	}
+
+	protected EpochMillisLens m_lens = new EpochMillisLens() ;
+
+	@Test
+	public void testGetSQLiteDataType()
+	{
+		assertEquals( SQLiteSyntax.SQLITE_TYPE_INT,
+				m_lens.getSQLiteDataType() ) ;
+	}
+
+	@Test
+	public void testGetValueFrom()
+	throws IllegalAccessException
+	{
+		Timestamps o = new Timestamps() ;
+		SQLightable.Reflection<Timestamps> tbl =
+				SQLightable.Reflection.reflect( Timestamps.class ) ;
+		Field fldPrimitive = tbl.getField( "ts_primitive" ) ;
+		Field fldBoxed = tbl.getField( "ts_boxed" ) ;
+		assertEquals( 123456789L,
+				(long)( m_lens.getValueFrom( o, fldPrimitive ) ) ) ;
+		assertNull( m_lens.getValueFrom( o, fldBoxed ) ) ;
+		o.m_tsBoxed = 987654321L ;
+		assertEquals( 987654321L, (long)( m_lens.getValueFrom( o, fldBoxed ) ) ) ;
+	}
+
+	/**
+	 * Verifies that values written by this lens can be read by
+	 * {@link DateLens}, and vice versa.
+	 */
+	@Test
+	public void testCompatibleWithDateLens()
+	{
+		ContentValues vals = new ContentValues() ;
+		m_lens.addToContentValues( vals, "foo", 123456789L ) ;
+		(new DateLens()).addToContentValues( vals, "bar", new Date(987654321L) ) ;
+		m_lens.addToContentValues( vals, "baz", null ) ;
+		assertTrue( vals.containsKey("baz") ) ;
+		assertNull( vals.get("baz") ) ;
+		MockCursor crs = new MockCursor(vals) ;
+		crs.moveToFirst() ;
+		assertEquals( new Date(123456789L),
+				(new DateLens()).fromCursor( crs, "foo" ) ) ;
+		assertEquals( 987654321L, (long)( m_lens.fromCursor( crs, "bar" ) ) ) ;
+	}
+}
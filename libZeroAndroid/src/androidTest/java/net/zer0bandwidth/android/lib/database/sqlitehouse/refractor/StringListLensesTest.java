@@ -13,8 +13,10 @@ import java.util.Collections;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
 
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_NULL ;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_TYPE_BLOB ;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_TYPE_TEXT ;
 
 /**
@@ -101,4 +103,71 @@ public class StringListLensesTest
 			assertEquals( asTestValues.get(n), asReturned.get(n) ) ;
 	}
 
+	/**
+	 * Exercises {@link BinaryStringsListLens}, including items that contain
+	 * delimiters, multi-byte characters, empty strings, and nulls.
+	 */
+	@Test
+	public void testBinaryArrayList()
+	{
+		BinaryStringsListLens lens = new BinaryStringsListLens() ;
+
+		final ArrayList<String> asTestValues = getTestList() ;
+		Collections.addAll( asTestValues, "a,b\fc", "\u00e9t\u00e9", "", null ) ;
+
+		assertEquals( SQLITE_TYPE_BLOB, lens.getSQLiteDataType() ) ;
+		assertEquals( SQLITE_NULL, lens.toSQLiteString(null) ) ;
+		ArrayList<String> asSmall = new ArrayList<>() ;
+		Collections.addAll( asSmall, "ab", null ) ;
+		assertEquals( "X'0203616200'", lens.toSQLiteString( asSmall ) ) ;
+
+		ContentValues vals = new ContentValues() ;
+		lens.addToContentValues( vals, "test_null", null ) ;
+		assertNull( vals.get("test_null") ) ;
+		lens.addToContentValues( vals, "test_nonnull", asTestValues ) ;
+		assertTrue( vals.get("test_nonnull") instanceof byte[] ) ;
+
+		MockCursor crs = new MockCursor( vals ) ;
+		crs.moveToFirst() ;
+		assertNull( lens.fromCursor( crs, "test_null" ) ) ;
+		ArrayList<String> asReturned = lens.fromCursor( crs, "test_nonnull" ) ;
+		assertEquals( asTestValues.size(), asReturned.size() ) ;
+		for( int n = 0 ; n < asTestValues.size() ; n++ )
+			assertEquals( asTestValues.get(n), asReturned.get(n) ) ;
+
+		assertEquals( 0, lens.decode( lens.encode(
+				new ArrayList<String>() ) ).size() ) ;
+		assertNull( lens.getMigrationFilter( "foo" ) ) ;
+	}
+
+	/**
+	 * Exercises the legacy-format reading and migration of
+	 * {@link BinaryStringsListLens.FromCommaDelim}.
+	 */
+	@Test
+	public void testBinaryArrayListMigration()
+	{
+		BinaryStringsListLens lens = new BinaryStringsListLens.FromCommaDelim() ;
+		assertEquals( "typeof(foo)='text'", lens.getMigrationFilter( "foo" ) ) ;
+
+		ContentValues vals = new ContentValues() ;
+		vals.put( "foo", "foo,bar,baz" ) ;
+		MockCursor crs = new MockCursor( vals ) ;
+		crs.moveToFirst() ;
+
+		// Legacy text is still readable before migration.
+		ArrayList<String> asReturned = lens.fromCursor( crs, "foo" ) ;
+		assertEquals( getTestList(), asReturned ) ;
+
+		// Migration rewrites the value in the binary format.
+		ContentValues valsMigrated = new ContentValues() ;
+		lens.migrate( crs, "foo", valsMigrated ) ;
+		assertTrue( valsMigrated.get("foo") instanceof byte[] ) ;
+		assertEquals( getTestList(),
+				lens.decode( valsMigrated.getAsByteArray("foo") ) ) ;
+
+		// Trailing empty items are discarded, as with String.split().
+		assertEquals( 3, lens.fromLegacyString( "a,,b,," ).size() ) ;
+		assertEquals( 1, lens.fromLegacyString( "" ).size() ) ;
+	}
 }
@@ -0,0 +1,35 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.testschema;
+
+import android.support.test.InstrumentationRegistry;
+
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouse;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteDatabaseSpec;
+
+/**
+ * Defines a database containing the {@code BLOB} columns of {@link Smargle}.
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@SQLiteDatabaseSpec(
+		database_name = "blob_spec_class_db",
+		schema_version = 1,
+		classes = { Smargle.class }
+)
+public class BlobSpecClass
+extends SQLiteHouse<BlobSpecClass>
+{
+	/**
+	 * Constructs an instance of the test DB class, bound to the test
+	 * environment's instrumentation context.
+	 * @return an instance of the test DB class
+	 */
+	public static BlobSpecClass getTestInstance()
+	{
+		return SQLiteHouse.Factory.init().getInstance(
+				BlobSpecClass.class,
+				InstrumentationRegistry.getTargetContext()
+			);
+	}
+
+	protected BlobSpecClass( Factory factory )
+	{ super(factory) ; }
+}
@@ -0,0 +1,36 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.testschema;
+
+import android.support.test.InstrumentationRegistry;
+
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouse;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteDatabaseSpec;
+
+/**
+ * Defines a database in which {@link Scribble} has a full-text index, and
+ * {@link Blargh} does not.
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@SQLiteDatabaseSpec(
+		database_name = "full_text_spec_class_db",
+		schema_version = 1,
+		classes = { Scribble.class, Blargh.class }
+)
+public class FullTextSpecClass
+extends SQLiteHouse<FullTextSpecClass>
+{
+	/**
+	 * Constructs an instance of the test DB class, bound to the test
+	 * environment's instrumentation context.
+	 * @return an instance of the test DB class
+	 */
+	public static FullTextSpecClass getTestInstance()
+	{
+		return SQLiteHouse.Factory.init().getInstance(
+				FullTextSpecClass.class,
+				InstrumentationRegistry.getTargetContext()
+			);
+	}
+
+	protected FullTextSpecClass( Factory factory )
+	{ super(factory) ; }
+}
@@ -0,0 +1,36 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.testschema;
+
+import android.support.test.InstrumentationRegistry;
+
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouse;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteDatabaseSpec;
+
+/**
+ * Defines a database in which {@link Snarfling} refers to {@link Snarfle}
+ * through a foreign key, and {@link Blargh} is related to neither.
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@SQLiteDatabaseSpec(
+		database_name = "relational_spec_class_db",
+		schema_version = 1,
+		classes = { Snarfle.class, Snarfling.class, Blargh.class }
+)
+public class RelationalSpecClass
+extends SQLiteHouse<RelationalSpecClass>
+{
+	/**
+	 * Constructs an instance of the test DB class, bound to the test
+	 * environment's instrumentation context.
+	 * @return an instance of the test DB class
+	 */
+	public static RelationalSpecClass getTestInstance()
+	{
+		return SQLiteHouse.Factory.init().getInstance(
+				RelationalSpecClass.class,
+				InstrumentationRegistry.getTargetContext()
+			);
+	}
+
+	protected RelationalSpecClass( Factory factory )
+	{ super(factory) ; }
+}
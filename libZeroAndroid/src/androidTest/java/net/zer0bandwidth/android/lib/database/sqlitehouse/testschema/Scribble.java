@@ -0,0 +1,61 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.testschema;
+
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLightable;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouse;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteColumn;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteFullText;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteTable;
+
+/**
+ * Serves as the schematic class for
+ * {@link net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouseFullTextTest}.
+ * The title and body are full-text indexed; the author is not.
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@SQLiteTable( "scribbles" )
+public class Scribble
+implements SQLightable
+{
+	/** Contains the auto-incremented ID of the row. */
+	@SQLiteColumn( name = SQLiteHouse.MAGIC_ID_COLUMN_NAME, index = 0 )
+	protected long m_nRowID = -1 ;
+
+	/** Should be discovered as full-text column {@code scribble_title}. */
+	@SQLiteColumn( name = "scribble_title", index = 1 )
+	@SQLiteFullText
+	protected String m_sTitle = null ;
+
+	/** Should be discovered as full-text column {@code scribble_body}. */
+	@SQLiteColumn( name = "scribble_body", index = 2 )
+	@SQLiteFullText
+	protected String m_sBody = null ;
+
+	/** Should be discovered as a column, but not indexed. */
+	@SQLiteColumn( name = "scribble_author", index = 3 )
+	protected String m_sAuthor = null ;
+
+	@SuppressWarnings( "unused" ) // Invoked implicitly by reflection.
+	public Scribble() {}
+
+	public Scribble( String sTitle, String sBody, String sAuthor )
+	{
+		m_sTitle = sTitle ;
+		m_sBody = sBody ;
+		m_sAuthor = sAuthor ;
+	}
+
+	public long getRowID()
+	{ return m_nRowID ; }
+
+	public String getTitle()
+	{ return m_sTitle ; }
+
+	public String getBody()
+	{ return m_sBody ; }
+
+	public Scribble setBody( String sBody )
+	{ m_sBody = sBody ; return this ; }
+
+	public String getAuthor()
+	{ return m_sAuthor ; }
+}
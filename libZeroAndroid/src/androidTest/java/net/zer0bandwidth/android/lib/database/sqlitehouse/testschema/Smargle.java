@@ -0,0 +1,39 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.testschema;
+
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLightable;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteColumn;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLitePrimaryKey;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteTable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Data table class with {@code BLOB} columns, whose values may be edited in
+ * place.
+ * @see BlobSpecClass
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@SQLiteTable( "smargles" )
+public class Smargle
+implements SQLightable
+{
+	@SQLiteColumn( name = "smargle_id", index = 0, is_nullable = false )
+	@SQLitePrimaryKey
+	public int m_nSmargleID ;
+
+	@SQLiteColumn( name = "smargle_bytes", index = 1 )
+	public byte[] m_abBytes = null ;
+
+	@SQLiteColumn( name = "smargle_buffer", index = 2 )
+	public ByteBuffer m_bufBuffer = null ;
+
+	@SuppressWarnings("unused") // used reflexively
+	public Smargle() {}
+
+	public Smargle( int nID, byte[] ab, ByteBuffer buf )
+	{
+		m_nSmargleID = nID ;
+		m_abBytes = ab ;
+		m_bufBuffer = buf ;
+	}
+}
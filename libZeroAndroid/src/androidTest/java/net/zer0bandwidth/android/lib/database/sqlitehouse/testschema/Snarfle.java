@@ -0,0 +1,40 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.testschema;
+
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLightable;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouse;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteColumn;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteTable;
+
+/**
+ * Serves as the "parent" schematic class for
+ * {@link net.zer0bandwidth.android.lib.database.sqlitehouse.RelationalSelectionBuilderTest}.
+ * Rows of {@link Snarfling} refer to rows of this class by its magic row ID.
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@SQLiteTable( "snarfles" )
+public class Snarfle
+implements SQLightable
+{
+	/** Contains the auto-incremented ID of the row. */
+	@SQLiteColumn( name = SQLiteHouse.MAGIC_ID_COLUMN_NAME, index = 0 )
+	protected long m_nRowID = -1 ;
+
+	/** Should be discovered as column {@code snarfle_name}. */
+	@SQLiteColumn( name = "snarfle_name", index = 1 )
+	protected String m_sName = null ;
+
+	@SuppressWarnings( "unused" ) // Invoked implicitly by reflection.
+	public Snarfle() {}
+
+	public Snarfle( String sName )
+	{ m_sName = sName ; }
+
+	public long getRowID()
+	{ return m_nRowID ; }
+
+	public Snarfle setRowID( long nID )
+	{ m_nRowID = nID ; return this ; }
+
+	public String getName()
+	{ return m_sName ; }
+}
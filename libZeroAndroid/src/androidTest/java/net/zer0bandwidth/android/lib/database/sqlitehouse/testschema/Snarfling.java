@@ -0,0 +1,50 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.testschema;
+
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLightable;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouse;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteColumn;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteForeignKey;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteTable;
+
+/**
+ * Serves as the "child" schematic class for
+ * {@link net.zer0bandwidth.android.lib.database.sqlitehouse.RelationalSelectionBuilderTest}.
+ * Each row refers to a row of {@link Snarfle} through a
+ * {@link SQLiteForeignKey} column.
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@SQLiteTable( "snarflings" )
+public class Snarfling
+implements SQLightable
+{
+	/** Contains the auto-incremented ID of the row. */
+	@SQLiteColumn( name = SQLiteHouse.MAGIC_ID_COLUMN_NAME, index = 0 )
+	protected long m_nRowID = -1 ;
+
+	/** Refers to the magic row ID of a {@link Snarfle}. */
+	@SQLiteColumn( name = "snarfle_id", index = 1 )
+	@SQLiteForeignKey( Snarfle.class )
+	protected long m_nSnarfleID = -1 ;
+
+	/** Should be discovered as column {@code snarfling_label}. */
+	@SQLiteColumn( name = "snarfling_label", index = 2 )
+	protected String m_sLabel = null ;
+
+	@SuppressWarnings( "unused" ) // Invoked implicitly by reflection.
+	public Snarfling() {}
+
+	public Snarfling( long nSnarfleID, String sLabel )
+	{
+		m_nSnarfleID = nSnarfleID ;
+		m_sLabel = sLabel ;
+	}
+
+	public long getRowID()
+	{ return m_nRowID ; }
+
+	public long getSnarfleID()
+	{ return m_nSnarfleID ; }
+
+	public String getLabel()
+	{ return m_sLabel ; }
+}
@@ -0,0 +1,454 @@
+package net.zer0bandwidth.android.lib.content.querybuilder;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Parcel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects several {@link InsertionBuilder}, {@link UpdateBuilder}, and
+ * {@link DeletionBuilder} instances into a batch of
+ * {@link ContentProviderOperation}s, which the provider applies in a single
+ * transaction, through a single call to {@link ContentResolver#applyBatch}.
+ *
+ * <p>Executing each builder separately costs one binder transaction per row;
+ * a batch costs one transaction in total. All operations in a batch must
+ * address the same authority.</p>
+ *
+ * <p>An operation may take values from the result of an earlier operation in
+ * the same batch, by calling {@link #withBackReference} immediately after
+ * adding it. This is typically used to insert a child row which refers to the
+ * ID of a parent row inserted earlier in the batch.</p>
+ *
+ * <p>A long batch holds the provider's transaction for its whole duration.
+ * The provider may be allowed to commit and yield to other threads at certain
+ * points, either at a regular interval ({@link #setYieldInterval}) or after
+ * specific operations ({@link #allowYield}).</p>
+ *
+ * <p>If every operation in the batch is an insertion at the same URI, with no
+ * back-references, and the rows fit within a single bulk insertion
+ * transaction (see {@link InsertionBuilder#DEFAULT_BULK_TRANSACTION_BUDGET}
+ * and {@link InsertionBuilder#MAX_BULK_CHUNK_ROWS}), then the batch is
+ * instead executed with a single call to {@link ContentResolver#bulkInsert},
+ * which is cheaper to marshal. A larger batch is always applied with
+ * {@link ContentResolver#applyBatch}, rather than being split into several
+ * bulk insertions, so that it remains a single batch. Bulk insertion can be
+ * disabled with {@link #setBulkInsertAllowed}, if the caller needs the URI of
+ * each inserted row.</p>
+ *
+ * <h3>Examples</h3>
+ *
+ * <p>Insert a parent row and its children.</p>
+ *
+ * <pre>
+ *     BatchBuilder batch = QueryBuilder.batch( rslv )
+ *         .add( QueryBuilder.insertInto( rslv, uriParents ).setValues( valsParent ) ) ;
+ *     final int nParent = batch.lastIndex() ;
+ *     for( ContentValues vals : aChildValues )
+ *     {
+ *         batch.add( QueryBuilder.insertInto( rslv, uriChildren ).setValues( vals ) )
+ *              .withBackReference( "parent_id", nParent ) ;
+ *     }
+ *     ContentProviderResult[] aResults = batch.execute() ;
+ * </pre>
+ *
+ * <p>Insert many rows, yielding every hundred rows.</p>
+ *
+ * <pre>
+ *     BatchBuilder batch = QueryBuilder.batch( rslv ).setYieldInterval( 100 ) ;
+ *     for( ContentValues vals : aSeveralValues )
+ *         batch.add( QueryBuilder.insert().setValues( vals ), uri ) ;
+ *     int nInserted = BatchBuilder.countRowsAffected( batch.execute() ) ;
+ * </pre>
+ *
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@SuppressWarnings( "unused" )                              // This is a library.
+public class BatchBuilder
+{
+/// Inner classes //////////////////////////////////////////////////////////////
+
+	/**
+	 * One operation of the batch. The operation is captured when the builder
+	 * is added to the batch; later changes to the builder are not reflected.
+	 */
+	protected static class Entry
+	{
+		/** The builder from which the operation was created. */
+		public final QueryBuilder<?,?> q ;
+
+		/** The URI at which the operation is applied. */
+		public final Uri uri ;
+
+		/** The values to be written, if any, as captured from the builder. */
+		public final ContentValues vals ;
+
+		/** The builder of the operation itself. */
+		public final ContentProviderOperation.Builder bldr ;
+
+		/** Indicates whether the operation uses any back-references. */
+		public boolean bHasBackReferences = false ;
+
+		/** Indicates whether the provider may yield after this operation. */
+		public boolean bYieldAllowed = false ;
+
+		protected <Q extends QueryBuilder<?,?> & BatchableQuery> Entry(
+				Q q, Uri uri )
+		{
+			this.q = q ;
+			this.uri = uri ;
+			this.vals = ( q.m_valsToWrite == null ? null :
+					new ContentValues( q.m_valsToWrite ) ) ;
+			this.bldr = q.toOperation(uri) ;
+		}
+	}
+
+/// Static constants ///////////////////////////////////////////////////////////
+
+	/**
+	 * Indicates that the provider should not yield at regular intervals.
+	 * @see #setYieldInterval(int)
+	 */
+	public static final int NO_YIELD_INTERVAL = 0 ;
+
+/// Static methods /////////////////////////////////////////////////////////////
+
+	/**
+	 * Counts the rows affected by a batch, based on its results. Each result
+	 * which reports a URI counts as one row; each result which reports a count
+	 * adds that count.
+	 * @param aResults the results of {@link #execute()}
+	 * @return the total number of rows inserted, updated, or deleted
+	 */
+	public static int countRowsAffected( ContentProviderResult[] aResults )
+	{
+		if( aResults == null ) return 0 ;
+		int nRows = 0 ;
+		for( ContentProviderResult res : aResults )
+		{
+			if( res == null ) continue ;
+			if( res.count != null ) nRows += res.count ;
+			else if( res.uri != null ) ++nRows ;
+		}
+		return nRows ;
+	}
+
+/// Instance members ///////////////////////////////////////////////////////////
+
+	/** The {@link ContentResolver} through which the batch is applied. */
+	protected ContentResolver m_rslv = null ;
+
+	/**
+	 * The authority of the provider to which the batch is sent. This is taken
+	 * from the URI of the first operation.
+	 */
+	protected String m_sAuthority = null ;
+
+	/** The operations of the batch, in order. */
+	protected List<Entry> m_aEntries = new ArrayList<>() ;
+
+	/** The number of operations between regular yield points, if any. */
+	protected int m_nYieldInterval = NO_YIELD_INTERVAL ;
+
+	/**
+	 * Indicates whether a batch consisting only of insertions at a single URI
+	 * may be executed with {@link ContentResolver#bulkInsert}.
+	 */
+	protected boolean m_bBulkInsertAllowed = true ;
+
+/// Constructors ///////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a batch which will be applied through the specified resolver.
+	 * @param rslv the resolver through which the batch should be applied
+	 * @throws QueryBuilder.UnboundException if the resolver is null
+	 */
+	public BatchBuilder( ContentResolver rslv )
+	throws QueryBuilder.UnboundException
+	{
+		if( rslv == null )
+		{
+			throw new QueryBuilder.UnboundException(
+					"A content resolver is required." ) ;
+		}
+		m_rslv = rslv ;
+	}
+
+	/**
+	 * Creates a batch which will be applied through the resolver found in the
+	 * specified context.
+	 * @param ctx a context which can provide a {@link ContentResolver}
+	 * @throws QueryBuilder.UnboundException if the context is null
+	 */
+	public BatchBuilder( Context ctx )
+	throws QueryBuilder.UnboundException
+	{ this( QueryBuilder.getContentResolver(ctx) ) ; }
+
+/// Construction ///////////////////////////////////////////////////////////////
+
+	/**
+	 * Adds an operation to the batch, at the URI to which its builder is
+	 * bound.
+	 * @param q an insertion, update, or deletion builder
+	 * @return (fluid)
+	 * @throws QueryBuilder.UnboundException if the builder is not bound to a
+	 *  URI
+	 * @throws IllegalArgumentException if the URI is for a different authority
+	 *  than the rest of the batch
+	 */
+	public <Q extends QueryBuilder<?,?> & BatchableQuery> BatchBuilder add( Q q )
+	throws QueryBuilder.UnboundException
+	{ return this.add( q, q.m_uri ) ; }
+
+	/**
+	 * Adds an operation to the batch, at the specified URI.
+	 * @param q an insertion, update, or deletion builder
+	 * @param uri the URI at which the operation should be applied
+	 * @return (fluid)
+	 * @throws QueryBuilder.UnboundException if the URI is null
+	 * @throws IllegalArgumentException if the URI is for a different authority
+	 *  than the rest of the batch
+	 */
+	public <Q extends QueryBuilder<?,?> & BatchableQuery> BatchBuilder add(
+			Q q, Uri uri )
+	throws QueryBuilder.UnboundException
+	{
+		if( q == null )
+			throw new IllegalArgumentException( "Builder must not be null." ) ;
+		if( uri == null )
+			throw new QueryBuilder.UnboundException( "A valid URI is required." ) ;
+		final String sAuthority = uri.getAuthority() ;
+		if( m_sAuthority == null )
+			m_sAuthority = sAuthority ;
+		else if( ! m_sAuthority.equals( sAuthority ) )
+		{
+			throw new IllegalArgumentException( (new StringBuilder())
+					.append( "Authority [" ).append( sAuthority )
+					.append( "] does not match batch authority [" )
+					.append( m_sAuthority ).append( "]." )
+					.toString()
+				);
+		}
+		m_aEntries.add( new Entry( q, uri ) ) ;
+		return this ;
+	}
+
+	/**
+	 * Specifies that a column of the most recently added operation should take
+	 * its value from the result of an earlier operation in the batch. If that
+	 * result is a URI, then the value is the ID at the end of that URI; if it
+	 * is a count, then the value is that count.
+	 * @param sColumn the column whose value is supplied by the back-reference
+	 * @param nIndex the index of the earlier operation in the batch
+	 * @return (fluid)
+	 * @throws IllegalStateException if no operation has been added
+	 * @throws IllegalArgumentException if the index does not refer to an
+	 *  earlier operation
+	 */
+	public BatchBuilder withBackReference( String sColumn, int nIndex )
+	{
+		final Entry entry = this.getLastEntry() ;
+		if( nIndex < 0 || nIndex >= this.lastIndex() )
+		{
+			throw new IllegalArgumentException( (new StringBuilder())
+					.append( "Back-reference index " ).append( nIndex )
+					.append( " must refer to an earlier operation." )
+					.toString()
+				);
+		}
+		entry.bldr.withValueBackReference( sColumn, nIndex ) ;
+		entry.bHasBackReferences = true ;
+		return this ;
+	}
+
+	/**
+	 * Allows the provider to commit its transaction and yield to other threads
+	 * after the most recently added operation.
+	 * @return (fluid)
+	 * @throws IllegalStateException if no operation has been added
+	 */
+	public BatchBuilder allowYield()
+	{
+		this.getLastEntry().bYieldAllowed = true ;
+		return this ;
+	}
+
+	/**
+	 * Allows the provider to commit its transaction and yield to other threads
+	 * at a regular interval. The batch is then no longer atomic as a whole;
+	 * each segment between yield points is applied atomically.
+	 * @param nInterval the number of operations between yield points, or
+	 *  {@link #NO_YIELD_INTERVAL}
+	 * @return (fluid)
+	 */
+	public BatchBuilder setYieldInterval( int nInterval )
+	{
+		m_nYieldInterval = ( nInterval < 0 ? NO_YIELD_INTERVAL : nInterval ) ;
+		return this ;
+	}
+
+	/**
+	 * Specifies whether a batch consisting only of insertions at a single URI
+	 * may be executed with {@link ContentResolver#bulkInsert}. This is allowed
+	 * by default. Disable it if the caller needs the URI of each inserted row.
+	 * @param b whether bulk insertion is allowed
+	 * @return (fluid)
+	 */
+	public BatchBuilder setBulkInsertAllowed( boolean b )
+	{ m_bBulkInsertAllowed = b ; return this ; }
+
+	/**
+	 * Accesses the number of operations in the batch.
+	 * @return the number of operations
+	 */
+	public int size()
+	{ return m_aEntries.size() ; }
+
+	/**
+	 * Accesses the index of the most recently added operation, for use in
+	 * later back-references.
+	 * @return the index of the last operation, or {@code -1} if the batch is
+	 *  empty
+	 */
+	public int lastIndex()
+	{ return m_aEntries.size() - 1 ; }
+
+	/**
+	 * Accesses the authority to which the batch will be sent.
+	 * @return the authority, or {@code null} if the batch is empty
+	 */
+	public String getAuthority()
+	{ return m_sAuthority ; }
+
+	/**
+	 * Accesses the most recently added operation.
+	 * @return the last entry of the batch
+	 * @throws IllegalStateException if the batch is empty
+	 */
+	protected Entry getLastEntry()
+	{
+		if( m_aEntries.isEmpty() )
+			throw new IllegalStateException( "No operation has been added." ) ;
+		return m_aEntries.get( m_aEntries.size() - 1 ) ;
+	}
+
+/// Execution //////////////////////////////////////////////////////////////////
+
+	/**
+	 * Determines whether the batch will be executed with
+	 * {@link ContentResolver#bulkInsert}: that is, whether bulk insertion is
+	 * allowed, every operation is an insertion of explicit values at the
+	 * same URI, with no back-references, and the rows fit within a single
+	 * bulk insertion transaction.
+	 * @return {@code true} if the batch can be inserted in bulk
+	 */
+	public boolean isBulkInsert()
+	{
+		if( ! m_bBulkInsertAllowed || m_aEntries.isEmpty() ) return false ;
+		final Uri uri = m_aEntries.get(0).uri ;
+		for( Entry entry : m_aEntries )
+		{
+			if( ! ( entry.q instanceof InsertionBuilder )
+			 || entry.bHasBackReferences
+			 || entry.vals == null
+			 || ! uri.equals( entry.uri ) )
+				return false ;
+		}
+		return this.fitsInOneBulkInsert() ;
+	}
+
+	/**
+	 * Determines whether the values of the batch's operations fit within a
+	 * single {@link ContentResolver#bulkInsert} transaction, as bounded by
+	 * {@link InsertionBuilder#DEFAULT_BULK_TRANSACTION_BUDGET} and
+	 * {@link InsertionBuilder#MAX_BULK_CHUNK_ROWS}.
+	 * @return {@code true} if the rows can be sent in one transaction
+	 */
+	protected boolean fitsInOneBulkInsert()
+	{
+		if( m_aEntries.size() > InsertionBuilder.MAX_BULK_CHUNK_ROWS )
+			return false ;
+		int nBytes = 0 ;
+		final Parcel pcl = Parcel.obtain() ;
+		try
+		{
+			for( Entry entry : m_aEntries )
+			{
+				nBytes += InsertionBuilder.measureRow( pcl, entry.vals ) ;
+				if( nBytes > InsertionBuilder.DEFAULT_BULK_TRANSACTION_BUDGET )
+					return false ;
+			}
+		}
+		finally
+		{ pcl.recycle() ; }
+		return true ;
+	}
+
+	/**
+	 * Builds the list of operations to be applied, marking the yield points.
+	 * @return the operations of the batch
+	 */
+	protected ArrayList<ContentProviderOperation> buildOperations()
+	{
+		ArrayList<ContentProviderOperation> aOps =
+				new ArrayList<>( m_aEntries.size() ) ;
+		for( int i = 0 ; i < m_aEntries.size() ; i++ )
+		{
+			final Entry entry = m_aEntries.get(i) ;
+			final boolean bYield = ( entry.bYieldAllowed
+				|| ( m_nYieldInterval > 0 && i > 0 && i % m_nYieldInterval == 0 ) ) ;
+			aOps.add( entry.bldr.withYieldAllowed( bYield ).build() ) ;
+		}
+		return aOps ;
+	}
+
+	/**
+	 * Applies the batch.
+	 *
+	 * <p>If the batch is executed with a single call to
+	 * {@link ContentResolver#bulkInsert} (see {@link #isBulkInsert()}), then
+	 * the result is an array containing a single result, whose {@code count}
+	 * is the number of rows inserted.
+	 * Otherwise, the result is that of {@link ContentResolver#applyBatch},
+	 * with one result per operation. In either case,
+	 * {@link #countRowsAffected} gives the total number of rows affected.</p>
+	 *
+	 * @return the results of the batch; empty if the batch is empty
+	 * @throws QueryBuilder.ExecutionException if the batch fails
+	 */
+	public ContentProviderResult[] execute()
+	throws QueryBuilder.ExecutionException
+	{
+		if( m_aEntries.isEmpty() ) return new ContentProviderResult[0] ;
+		try
+		{
+			if( this.isBulkInsert() )
+			{
+				final ContentValues[] avals = new ContentValues[m_aEntries.size()] ;
+				for( int i = 0 ; i < avals.length ; i++ )
+					avals[i] = m_aEntries.get(i).vals ;
+				final int nInserted =
+						m_rslv.bulkInsert( m_aEntries.get(0).uri, avals ) ;
+				return new ContentProviderResult[]
+					{ new ContentProviderResult( nInserted ) } ;
+			}
+			else
+				return m_rslv.applyBatch( m_sAuthority, this.buildOperations() ) ;
+		}
+		catch( Exception x )
+		{
+			throw new QueryBuilder.ExecutionException( (new StringBuilder())
+					.append( "Batch of " ).append( m_aEntries.size() )
+					.append( " operations on [" ).append( m_sAuthority )
+					.append( "] failed." )
+					.toString()
+				, x );
+		}
+	}
+}
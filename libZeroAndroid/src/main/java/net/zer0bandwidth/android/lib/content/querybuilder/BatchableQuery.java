@@ -0,0 +1,28 @@
+package net.zer0bandwidth.android.lib.content.querybuilder;
+
+import android.content.ContentProviderOperation;
+import android.net.Uri;
+
+/**
+ * Implemented by the query builders whose queries can be expressed as a
+ * {@link ContentProviderOperation}, and thus added to a {@link BatchBuilder}:
+ * insertions, updates, and deletions. A {@link SelectionBuilder} can't be
+ * applied as part of a batch, so it doesn't implement this interface, and the
+ * compiler rejects any attempt to add one.
+ * @see BatchBuilder#add(QueryBuilder, Uri)
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+public interface BatchableQuery
+{
+	/**
+	 * Converts the query that has been built by the implementation class into
+	 * a {@link ContentProviderOperation}, which can be applied as part of a
+	 * batch. The caller may add further attributes, such as back-references,
+	 * before building the operation.
+	 * @param uri the URI at which the operation should be applied
+	 * @return a builder for the equivalent operation
+	 * @throws QueryBuilder.UnboundException if the URI is null
+	 */
+	ContentProviderOperation.Builder toOperation( Uri uri )
+	throws QueryBuilder.UnboundException ;
+}
@@ -1,5 +1,6 @@
 package net.zer0bandwidth.android.lib.content.querybuilder;
 
+import android.content.ContentProviderOperation;
 import android.content.ContentResolver;
 import android.content.Context;
 import android.net.Uri;
@@ -32,6 +33,7 @@ import android.net.Uri;
  */
 public class DeletionBuilder
 extends QueryBuilder<DeletionBuilder,Integer>
+implements BatchableQuery
 {
 	public DeletionBuilder( ContentResolver rslv, Uri uri )
 	{ super( rslv, uri ) ; }
@@ -61,4 +63,18 @@ extends QueryBuilder<DeletionBuilder,Integer>
 		return rslv.delete( uri,
 				this.getWhereFormat(), this.getWhereParams() ) ;
 	}
+
+	/**
+	 * Converts the deletion into a batch operation.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Override
+	public ContentProviderOperation.Builder toOperation( Uri uri )
+	throws UnboundException
+	{
+		if( uri == null )
+			throw new UnboundException( "A valid URI is required." ) ;
+		return ContentProviderOperation.newDelete(uri)
+				.withSelection( this.getWhereFormat(), this.getWhereParams() ) ;
+	}
 }
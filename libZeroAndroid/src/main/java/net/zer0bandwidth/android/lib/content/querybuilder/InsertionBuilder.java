@@ -1,8 +1,16 @@
 package net.zer0bandwidth.android.lib.content.querybuilder;
 
+import android.content.ContentProviderOperation;
 import android.content.ContentResolver;
+import android.content.ContentValues;
 import android.content.Context;
 import android.net.Uri;
+import android.os.Parcel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Builds an insertion query against a given {@link ContentResolver} and
@@ -34,10 +42,21 @@ import android.net.Uri;
  *     }
  * </pre>
  *
+ * <p>Insert a collection of rows in bulk, if the caller doesn't need the URI
+ * of each row. The rows are sent in as few transactions as possible.</p>
+ *
+ * <pre>
+ *     int nInserted = QueryBuilder.insertInto( rslv, uri )
+ *         .addValues( aSeveralValues )
+ *         .executeBulk()
+ *         ;
+ * </pre>
+ *
  * @since zer0bandwidth-net/android 0.1.7 (#39)
  */
 public class InsertionBuilder
 extends QueryBuilder<InsertionBuilder,Uri>
+implements BatchableQuery
 {
 	protected static final String LOG_TAG =
 			InsertionBuilder.class.getSimpleName() ;
@@ -45,6 +64,101 @@ extends QueryBuilder<InsertionBuilder,Uri>
 
 	public static final Uri FAILED = null ;
 
+	/**
+	 * The default number of bytes of row data to be sent in each
+	 * {@link ContentResolver#bulkInsert} transaction. The binder transaction
+	 * buffer is about 1MB, and is shared by all transactions in progress in
+	 * the process, so each transaction should use only a fraction of it.
+	 * @see #setBulkTransactionBudget(int)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final int DEFAULT_BULK_TRANSACTION_BUDGET = 256 * 1024 ;
+
+	/**
+	 * The largest number of rows to be sent in each
+	 * {@link ContentResolver#bulkInsert} transaction, however small they are,
+	 * so that the provider's transaction does not lock out other threads for
+	 * too long.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final int MAX_BULK_CHUNK_ROWS = 1000 ;
+
+	/**
+	 * Rows to be written by {@link #executeBulk}, in addition to the row set
+	 * by {@link #setValues}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected List<ContentValues> m_avalsBulk = null ;
+
+	/**
+	 * The number of bytes of row data to be sent in each bulk insertion
+	 * transaction.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected int m_nBulkBudget = DEFAULT_BULK_TRANSACTION_BUDGET ;
+
+	/**
+	 * Measures the size of a row, as it would be marshalled into a binder
+	 * transaction.
+	 * @param pcl a parcel which may be reused for the measurement
+	 * @param vals the row
+	 * @return the size of the row in bytes
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected static int measureRow( Parcel pcl, ContentValues vals )
+	{
+		pcl.setDataPosition(0) ;
+		pcl.setDataSize(0) ;
+		vals.writeToParcel( pcl, 0 ) ;
+		return pcl.dataSize() ;
+	}
+
+	/**
+	 * Inserts rows with {@link ContentResolver#bulkInsert}, splitting them into
+	 * chunks so that no single transaction exceeds the specified budget. The
+	 * size of each row is measured as it would be marshalled, so a chunk may
+	 * hold many small rows, or only a few large ones. A row which alone
+	 * exceeds the budget is sent in a chunk by itself.
+	 * @param rslv the resolver through which the rows should be inserted
+	 * @param uri the URI at which the rows should be inserted
+	 * @param avals the rows to be inserted
+	 * @param nBudget the maximum number of bytes of row data per transaction
+	 * @return the total number of rows inserted, as reported by the provider
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected static int bulkInsert( ContentResolver rslv, Uri uri,
+			List<ContentValues> avals, int nBudget )
+	{
+		if( avals == null || avals.isEmpty() ) return 0 ;
+		int nInserted = 0 ;
+		List<ContentValues> avalsChunk = new ArrayList<>() ;
+		int nChunkBytes = 0 ;
+		final Parcel pcl = Parcel.obtain() ;
+		try
+		{
+			for( ContentValues vals : avals )
+			{
+				final int nRowBytes = measureRow( pcl, vals ) ;
+				if( ! avalsChunk.isEmpty()
+				 && ( nChunkBytes + nRowBytes > nBudget
+				   || avalsChunk.size() >= MAX_BULK_CHUNK_ROWS ) )
+				{
+					nInserted += rslv.bulkInsert( uri, avalsChunk.toArray(
+							new ContentValues[avalsChunk.size()] ) ) ;
+					avalsChunk.clear() ;
+					nChunkBytes = 0 ;
+				}
+				avalsChunk.add(vals) ;
+				nChunkBytes += nRowBytes ;
+			}
+		}
+		finally
+		{ pcl.recycle() ; }
+		nInserted += rslv.bulkInsert( uri,
+				avalsChunk.toArray( new ContentValues[avalsChunk.size()] ) ) ;
+		return nInserted ;
+	}
+
 	public InsertionBuilder( ContentResolver rslv, Uri uri )
 	{ super( rslv, uri ) ; }
 
@@ -68,4 +182,120 @@ extends QueryBuilder<InsertionBuilder,Uri>
 		if( m_valsToWrite == null ) return null ;
 		return rslv.insert( uri, m_valsToWrite ) ;
 	}
+
+	/**
+	 * Adds rows to be written by {@link #executeBulk}. These rows are ignored
+	 * by {@link #execute}, which inserts only the row set by
+	 * {@link #setValues}.
+	 * @param avals the rows to be added
+	 * @return (fluid)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public InsertionBuilder addValues( ContentValues... avals )
+	{
+		if( avals == null ) return this ;
+		return this.addValues( Arrays.asList( avals ) ) ;
+	}
+
+	/**
+	 * Adds rows to be written by {@link #executeBulk}. These rows are ignored
+	 * by {@link #execute}, which inserts only the row set by
+	 * {@link #setValues}.
+	 * @param avals the rows to be added
+	 * @return (fluid)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public InsertionBuilder addValues( Collection<ContentValues> avals )
+	{
+		if( avals == null ) return this ;
+		if( m_avalsBulk == null ) m_avalsBulk = new ArrayList<>( avals.size() ) ;
+		for( ContentValues vals : avals )
+			if( vals != null ) m_avalsBulk.add(vals) ;
+		return this ;
+	}
+
+	/**
+	 * Sets the number of bytes of row data to be sent in each bulk insertion
+	 * transaction.
+	 * @param nBytes the budget, in bytes; if not positive, the
+	 *  {@link #DEFAULT_BULK_TRANSACTION_BUDGET default} is restored
+	 * @return (fluid)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public InsertionBuilder setBulkTransactionBudget( int nBytes )
+	{
+		m_nBulkBudget = ( nBytes > 0 ? nBytes : DEFAULT_BULK_TRANSACTION_BUDGET ) ;
+		return this ;
+	}
+
+	/**
+	 * Gathers the rows to be written by {@link #executeBulk}: the row set by
+	 * {@link #setValues}, if any, followed by those added by
+	 * {@link #addValues}.
+	 * @return the rows to be written
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public List<ContentValues> getBulkValues()
+	{
+		List<ContentValues> avals = new ArrayList<>() ;
+		if( m_valsToWrite != null ) avals.add( m_valsToWrite ) ;
+		if( m_avalsBulk != null ) avals.addAll( m_avalsBulk ) ;
+		return avals ;
+	}
+
+	/**
+	 * Inserts all of the builder's rows with
+	 * {@link ContentResolver#bulkInsert}, using the {@link ContentResolver}
+	 * and {@link Uri} to which the builder has been bound.
+	 * @return the number of rows inserted
+	 * @throws UnboundException if the data context binding is inadequate
+	 * @throws ExecutionException if the underlying insertion fails
+	 * @see #getBulkValues()
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public int executeBulk()
+	throws UnboundException, ExecutionException
+	{ return this.executeBulkOn( m_rslv, m_uri ) ; }
+
+	/**
+	 * Inserts all of the builder's rows with
+	 * {@link ContentResolver#bulkInsert}, using the supplied
+	 * {@link ContentResolver} and {@link Uri}. The rows are split into as few
+	 * transactions as their measured size allows.
+	 * @param rslv the resolver through which the rows should be inserted
+	 * @param uri the URI at which the rows should be inserted
+	 * @return the number of rows inserted
+	 * @throws UnboundException if the data context binding is inadequate
+	 * @throws ExecutionException if the underlying insertion fails
+	 * @see #getBulkValues()
+	 * @see #setBulkTransactionBudget(int)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public int executeBulkOn( ContentResolver rslv, Uri uri )
+	throws UnboundException, ExecutionException
+	{
+		validateDataContextBinding( rslv, uri ) ;
+		try
+		{ return bulkInsert( rslv, uri, this.getBulkValues(), m_nBulkBudget ) ; }
+		catch( Exception x )
+		{ throw new ExecutionException( this.getClass(), x ) ; }
+	}
+
+	/**
+	 * Converts the insertion into a batch operation. Unlike
+	 * {@link #executeQuery}, an insertion without values is not skipped, since
+	 * that would shift the indices of the batch's back-references.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Override
+	public ContentProviderOperation.Builder toOperation( Uri uri )
+	throws UnboundException
+	{
+		if( uri == null )
+			throw new UnboundException( "A valid URI is required." ) ;
+		ContentProviderOperation.Builder bldr =
+				ContentProviderOperation.newInsert(uri) ;
+		if( m_valsToWrite != null ) bldr.withValues( m_valsToWrite ) ;
+		return bldr ;
+	}
 }
@@ -0,0 +1,394 @@
+package net.zer0bandwidth.android.lib.content.querybuilder;
+
+import android.database.Cursor;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.support.annotation.RequiresApi;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+import static net.zer0bandwidth.android.lib.database.SQLitePortal.closeCursor;
+
+/**
+ * <b><i>(API 16+)</i></b> Reads the results of a {@link SelectionBuilder}
+ * one page at a time, so that a large result set never has to be copied
+ * across the process boundary at once.
+ *
+ * <p>Each page is selected with the builder's
+ * {@link SelectionBuilder#page(int, int) paging} facility, under its own
+ * {@link CancellationSignal}. Pages may be prefetched on a background thread,
+ * either explicitly with {@link #prefetch}, or automatically after each
+ * {@link #fetch} (see {@link #setPrefetchAhead}). A prefetched page which is
+ * no longer needed can be {@link #abandon abandoned}: its query is cancelled
+ * if it is still in progress, and its cursor is closed if it is not.</p>
+ *
+ * <p>The builder is shared by all pages, and must not be changed while the
+ * pager is in use. For stable pages, the builder should be sorted on a unique
+ * key.</p>
+ *
+ * <h3>Example</h3>
+ *
+ * <pre>
+ *     PagedQuery pager = new PagedQuery( QueryBuilder.selectFrom( rslv, uri )
+ *             .orderBy( "entity_id" ), 100 )
+ *         .setPrefetchAhead( 1 )
+ *         ;
+ *     try
+ *     {
+ *         Cursor crs ;
+ *         for( int nPage = 0 ; ( crs = pager.fetch( nPage ) ) != null ; nPage++ )
+ *         {
+ *             try { if( ! processPage( crs ) ) break ; }
+ *             finally { crs.close() ; }
+ *         }
+ *     }
+ *     finally { pager.close() ; }
+ * </pre>
+ *
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@RequiresApi(16)
+@SuppressWarnings( "unused" )                              // This is a library.
+public class PagedQuery
+{
+	protected static final String LOG_TAG = PagedQuery.class.getSimpleName() ;
+
+/// Inner classes //////////////////////////////////////////////////////////////
+
+	/**
+	 * A page which is being selected in the background. Ownership of its
+	 * cursor passes either to the consumer, through {@link #take}, or back to
+	 * the prefetch, which closes it if it has been {@link #abandon abandoned}.
+	 */
+	protected class Prefetch
+	implements Callable<Cursor>
+	{
+		/** The index of the page. */
+		protected final int m_nPage ;
+
+		/** The signal which cancels the page's query. */
+		protected final CancellationSignal m_sig = new CancellationSignal() ;
+
+		/** The task which executes the page's query. */
+		protected final FutureTask<Cursor> m_task = new FutureTask<>(this) ;
+
+		/** Indicates that the page is no longer wanted. */
+		protected boolean m_bAbandoned = false ;
+
+		/** The page's results, until they are taken or closed. */
+		protected Cursor m_crsResult = null ;
+
+		protected Prefetch( int nPage )
+		{ m_nPage = nPage ; }
+
+		@Override
+		public Cursor call()
+		{
+			final Cursor crs = PagedQuery.this.queryPage( m_nPage, m_sig ) ;
+			synchronized( this )
+			{
+				if( m_bAbandoned )
+				{
+					closeCursor(crs) ;
+					return null ;
+				}
+				m_crsResult = crs ;
+				return crs ;
+			}
+		}
+
+		/**
+		 * Waits for the page's results, and takes ownership of them.
+		 * @return the page's results, or {@code null} if the query was
+		 *  cancelled
+		 * @throws QueryBuilder.ExecutionException if the query failed
+		 */
+		protected Cursor take()
+		throws QueryBuilder.ExecutionException
+		{
+			try { m_task.get() ; }
+			catch( InterruptedException xInterrupt )
+			{
+				this.abandon() ;
+				Thread.currentThread().interrupt() ;
+				return null ;
+			}
+			catch( java.util.concurrent.ExecutionException x )
+			{
+				throw new QueryBuilder.ExecutionException(
+						LOG_TAG, x.getCause() ) ;
+			}
+			synchronized( this )
+			{
+				final Cursor crs = m_crsResult ;
+				m_crsResult = null ;
+				return crs ;
+			}
+		}
+
+		/**
+		 * Cancels the page's query, or closes its results if the query has
+		 * already finished.
+		 */
+		protected void abandon()
+		{
+			final Cursor crs ;
+			synchronized( this )
+			{
+				m_bAbandoned = true ;
+				crs = m_crsResult ;
+				m_crsResult = null ;
+			}
+			m_sig.cancel() ;
+			closeCursor(crs) ;
+		}
+	}
+
+/// Instance members ///////////////////////////////////////////////////////////
+
+	/** The selection from which pages are read. */
+	protected final SelectionBuilder m_q ;
+
+	/** The number of results per page. */
+	protected final int m_nPageSize ;
+
+	/** The executor on which pages are prefetched. */
+	protected final Executor m_exec ;
+
+	/**
+	 * Indicates whether {@link #m_exec} was created by this instance, and
+	 * should therefore be shut down when it is closed.
+	 */
+	protected final boolean m_bOwnsExecutor ;
+
+	/** The pages which have been prefetched, or are being prefetched. */
+	protected final Map<Integer,Prefetch> m_mapPrefetches = new HashMap<>() ;
+
+	/** The number of pages to be prefetched after each page is fetched. */
+	protected int m_nPrefetchAhead = 0 ;
+
+/// Constructors ///////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a pager which prefetches pages on its own background thread.
+	 * @param q the selection from which pages are read; must be bound to a
+	 *  resolver and URI
+	 * @param nPageSize the number of results per page
+	 * @throws QueryBuilder.UnboundException if the builder is unbound
+	 */
+	public PagedQuery( SelectionBuilder q, int nPageSize )
+	throws QueryBuilder.UnboundException
+	{ this( q, nPageSize, null ) ; }
+
+	/**
+	 * Creates a pager which prefetches pages on the specified executor.
+	 * @param q the selection from which pages are read; must be bound to a
+	 *  resolver and URI
+	 * @param nPageSize the number of results per page
+	 * @param exec the executor on which pages are prefetched; if
+	 *  {@code null}, then the pager creates its own single thread
+	 * @throws QueryBuilder.UnboundException if the builder is unbound
+	 */
+	public PagedQuery( SelectionBuilder q, int nPageSize, Executor exec )
+	throws QueryBuilder.UnboundException
+	{
+		if( q == null )
+			throw new IllegalArgumentException( "Builder must not be null." ) ;
+		if( nPageSize < 1 )
+			throw new IllegalArgumentException( "Page size must be positive." ) ;
+		QueryBuilder.validateDataContextBinding( q.m_rslv, q.m_uri ) ;
+		m_q = q ;
+		m_nPageSize = nPageSize ;
+		m_bOwnsExecutor = ( exec == null ) ;
+		m_exec = ( exec == null ? Executors.newSingleThreadExecutor() : exec ) ;
+	}
+
+/// Configuration //////////////////////////////////////////////////////////////
+
+	/**
+	 * Sets the number of pages to be prefetched after each page is fetched.
+	 * Prefetching stops once a page is found to be the last.
+	 * @param nPages the number of pages to be prefetched, or zero
+	 * @return (fluid)
+	 */
+	public PagedQuery setPrefetchAhead( int nPages )
+	{
+		m_nPrefetchAhead = Math.max( 0, nPages ) ;
+		return this ;
+	}
+
+	/**
+	 * Accesses the number of results per page.
+	 * @return the page size
+	 */
+	public int getPageSize()
+	{ return m_nPageSize ; }
+
+/// Paging /////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Selects one page of results, on the calling thread.
+	 * @param nPage the index of the page
+	 * @param sig the signal which would cancel the query
+	 * @return the page's results, or {@code null} if the query was cancelled
+	 */
+	protected Cursor queryPage( int nPage, CancellationSignal sig )
+	{
+		if( sig.isCanceled() ) return null ;
+		try
+		{
+			return m_q.queryOn( m_q.m_rslv, m_q.m_uri,
+					m_nPageSize, nPage * m_nPageSize, sig ) ;
+		}
+		catch( OperationCanceledException xCancel )
+		{
+			Log.i( LOG_TAG, (new StringBuilder())
+					.append( "Query for page " ).append( nPage )
+					.append( " cancelled while in progress." )
+					.toString()
+				);
+			return null ;
+		}
+	}
+
+	/**
+	 * Fetches one page of results. If the page has been prefetched, then its
+	 * results are taken from the prefetch, waiting if necessary; otherwise,
+	 * the page is selected on the calling thread. The caller owns the cursor,
+	 * and must close it.
+	 * @param nPage the index of the page, starting from zero
+	 * @return the page's results, or {@code null} if the page is past the end
+	 *  of the results or its query was cancelled
+	 * @throws QueryBuilder.ExecutionException if the query fails
+	 */
+	public Cursor fetch( int nPage )
+	throws QueryBuilder.ExecutionException
+	{ return this.fetch( nPage, new CancellationSignal() ) ; }
+
+	/**
+	 * Fetches one page of results, allowing the query to be cancelled in
+	 * response to the specified signal. If the page has been prefetched, then
+	 * cancelling the signal abandons the prefetch.
+	 * @param nPage the index of the page, starting from zero
+	 * @param sig the signal which would cancel the query
+	 * @return the page's results, or {@code null} if the page is past the end
+	 *  of the results or its query was cancelled
+	 * @throws QueryBuilder.ExecutionException if the query fails
+	 * @see SelectionBuilder#executeOrCancel(CancellationSignal)
+	 */
+	public Cursor fetch( int nPage, CancellationSignal sig )
+	throws QueryBuilder.ExecutionException
+	{
+		if( nPage < 0 )
+			throw new IllegalArgumentException( "Page index must not be negative." ) ;
+		final Prefetch pf ;
+		synchronized( m_mapPrefetches )
+		{ pf = m_mapPrefetches.remove( nPage ) ; }
+
+		Cursor crs ;
+		if( pf != null )
+		{
+			sig.setOnCancelListener( new CancellationSignal.OnCancelListener()
+				{
+					@Override
+					public void onCancel()
+					{ pf.abandon() ; }
+				});
+			crs = pf.take() ;
+			sig.setOnCancelListener( null ) ;
+		}
+		else
+		{
+			try { crs = this.queryPage( nPage, sig ) ; }
+			catch( Exception x )
+			{ throw new QueryBuilder.ExecutionException( LOG_TAG, x ) ; }
+		}
+
+		if( crs == null ) return null ;
+		final int nCount = crs.getCount() ;
+		if( nCount == 0 )
+		{
+			closeCursor(crs) ;
+			return null ;
+		}
+		if( nCount == m_nPageSize )
+		{ // There may be more pages.
+			for( int i = 1 ; i <= m_nPrefetchAhead ; i++ )
+				this.prefetch( nPage + i ) ;
+		}
+		return crs ;
+	}
+
+	/**
+	 * Begins selecting a page in the background, if it is not already being
+	 * prefetched. Its results are later taken by {@link #fetch}, or discarded
+	 * by {@link #abandon}.
+	 * @param nPage the index of the page, starting from zero
+	 * @return (fluid)
+	 */
+	public PagedQuery prefetch( int nPage )
+	{
+		if( nPage < 0 ) return this ;
+		final Prefetch pf ;
+		synchronized( m_mapPrefetches )
+		{
+			if( m_mapPrefetches.containsKey( nPage ) ) return this ;
+			pf = new Prefetch( nPage ) ;
+			m_mapPrefetches.put( nPage, pf ) ;
+		}
+		m_exec.execute( pf.m_task ) ;
+		return this ;
+	}
+
+	/**
+	 * Abandons a prefetched page. If its query is still in progress, then it
+	 * is cancelled; if it has finished, then its results are closed.
+	 * @param nPage the index of the page
+	 * @return (fluid)
+	 */
+	public PagedQuery abandon( int nPage )
+	{
+		final Prefetch pf ;
+		synchronized( m_mapPrefetches )
+		{ pf = m_mapPrefetches.remove( nPage ) ; }
+		if( pf != null ) pf.abandon() ;
+		return this ;
+	}
+
+	/**
+	 * Abandons all prefetched pages.
+	 * @return (fluid)
+	 */
+	public PagedQuery abandonAll()
+	{
+		final List<Prefetch> aPrefetches ;
+		synchronized( m_mapPrefetches )
+		{
+			aPrefetches = new ArrayList<>( m_mapPrefetches.values() ) ;
+			m_mapPrefetches.clear() ;
+		}
+		for( Prefetch pf : aPrefetches ) pf.abandon() ;
+		return this ;
+	}
+
+	/**
+	 * Abandons all prefetched pages, and shuts down the pager's own
+	 * background thread, if it created one. Cursors already returned by
+	 * {@link #fetch} are not affected.
+	 */
+	public void close()
+	{
+		this.abandonAll() ;
+		if( m_bOwnsExecutor )
+			((ExecutorService)m_exec).shutdown() ;
+	}
+}
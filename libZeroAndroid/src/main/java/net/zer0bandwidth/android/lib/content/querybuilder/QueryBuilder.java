@@ -5,6 +5,8 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.net.Uri;
 
+import net.zer0bandwidth.android.lib.database.querybuilder.WhereExpression;
+
 import java.util.Collection;
 
 /**
@@ -242,6 +244,31 @@ public abstract class QueryBuilder<I extends QueryBuilder, R>
 	throws UnboundException
 	{ return new DeletionBuilder( ctx, uri ) ; }
 
+	/**
+	 * Kicks off construction of a batch of write operations, which will be
+	 * applied in a single transaction by the provider. The authority of the
+	 * batch is taken from the URI of the first operation added to it.
+	 * @param rslv the resolver through which the batch should be applied
+	 * @return an instance of the builder that handles batches
+	 * @throws UnboundException if the resolver is unusable
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static BatchBuilder batch( ContentResolver rslv )
+	throws UnboundException
+	{ return new BatchBuilder( rslv ) ; }
+
+	/**
+	 * Kicks off construction of a batch of write operations, which will be
+	 * applied in a single transaction by the provider.
+	 * @param ctx a context which can provide a {@link ContentResolver}
+	 * @return an instance of the builder that handles batches
+	 * @throws UnboundException if the data context is unusable
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static BatchBuilder batch( Context ctx )
+	throws UnboundException
+	{ return new BatchBuilder( getContentResolver(ctx) ) ; }
+
 /// Other static methods ///////////////////////////////////////////////////////
 
 	/**
@@ -430,6 +457,22 @@ public abstract class QueryBuilder<I extends QueryBuilder, R>
 		}
 	}
 
+	/**
+	 * Sets the "where" clause format and values for a query from an expression
+	 * tree, using its cached format string and parameters.
+	 * @param xWhere the expression, or {@code null} to remove the clause
+	 * @return (fluid)
+	 * @see WhereExpression
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public I whereExpr( WhereExpression xWhere )
+	{
+		if( xWhere == null )
+			return this.where( null ) ;
+		else
+			return this.where( xWhere.getFormat(), xWhere.getParams() ) ;
+	}
+
 	/**
 	 * Creates the Android "where" clause format string to be passed to a
 	 * {@link ContentResolver} query method.
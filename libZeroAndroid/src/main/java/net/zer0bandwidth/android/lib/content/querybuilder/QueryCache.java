@@ -0,0 +1,482 @@
+package net.zer0bandwidth.android.lib.content.querybuilder;
+
+import android.content.ContentResolver;
+import android.database.ContentObserver;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.os.CancellationSignal;
+import android.util.LruCache;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Caches the results of {@link SelectionBuilder} queries, so that identical
+ * queries against a provider can be answered without crossing the process
+ * boundary again.
+ *
+ * <p>Results are cached as in-memory snapshots of the rows, keyed by the
+ * query's specification (see {@link SelectionBuilder#getCacheKey}). Each hit
+ * returns a new, independent cursor over the snapshot. While any result from
+ * a URI is cached, the cache observes that URI, and discards all of its
+ * results when the provider reports a change.</p>
+ *
+ * <p>The cache is bounded by the estimated size of the snapshots, in bytes.
+ * Results larger than {@link #getMaxEntryBytes()} are never cached; the
+ * original cursor is returned instead. The least recently used results are
+ * discarded when the cache would exceed its bound.</p>
+ *
+ * <pre>
+ * QueryCache cache = new QueryCache( 512 * 1024 ) ;
+ * Cursor crs = QueryBuilder.selectFrom( rslv, uri )
+ *         .where( "starred=?", 1 )
+ *         .cachedIn( cache )
+ *         .execute()
+ *         ;
+ * </pre>
+ *
+ * <p>A change notification can arrive only after a provider commits a write,
+ * so a result may be stale for the short time between the write and the
+ * notification. Callers that cannot tolerate this should not use a cache.</p>
+ *
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@SuppressWarnings( "unused" ) // This is a library.
+public class QueryCache
+{
+/// Static constants ///////////////////////////////////////////////////////////
+
+	protected static final String LOG_TAG = QueryCache.class.getSimpleName() ;
+
+	/** The default bound on the size of the cache, in bytes. */
+	public static final int DEFAULT_MAX_BYTES = 256 * 1024 ;
+
+	/** Estimated fixed overhead of any cached value, in bytes. */
+	protected static final int VALUE_OVERHEAD_BYTES = 16 ;
+
+/// Inner classes //////////////////////////////////////////////////////////////
+
+	/**
+	 * An in-memory copy of the rows selected by a query.
+	 */
+	protected static class Snapshot
+	{
+		/** The URI that was queried. */
+		public final Uri uri ;
+
+		/** The names of the result columns. */
+		public final String[] asColumns ;
+
+		/** The values of each row. */
+		public final Object[][] aoRows ;
+
+		/** The estimated size of the snapshot, in bytes. */
+		public final int nBytes ;
+
+		protected Snapshot( Uri uri, String[] asColumns, Object[][] aoRows,
+				int nBytes )
+		{
+			this.uri = uri ;
+			this.asColumns = asColumns ;
+			this.aoRows = aoRows ;
+			this.nBytes = nBytes ;
+		}
+
+		/**
+		 * Creates a new cursor over the snapshot.
+		 * @return a cursor over the rows of the snapshot
+		 */
+		public Cursor toCursor()
+		{
+			MatrixCursor crs = new MatrixCursor( asColumns, aoRows.length ) ;
+			for( Object[] aoRow : aoRows )
+				crs.addRow( aoRow ) ;
+			return crs ;
+		}
+	}
+
+	/**
+	 * Observes a URI for as long as the cache holds any results from it.
+	 */
+	protected class Watcher
+	extends ContentObserver
+	{
+		/** The resolver with which the observer is registered. */
+		protected final ContentResolver m_rslv ;
+
+		/** The URI being observed. */
+		protected final Uri m_uri ;
+
+		/** The keys of the cached results from this URI. */
+		protected final Set<String> m_asKeys = new HashSet<>() ;
+
+		/**
+		 * Incremented on each change, so that a query that was running when
+		 * the change occurred does not cache its stale result.
+		 */
+		protected long m_nGeneration = 0L ;
+
+		protected Watcher( ContentResolver rslv, Uri uri )
+		{
+			super(null) ;
+			m_rslv = rslv ;
+			m_uri = uri ;
+		}
+
+		@Override
+		public boolean deliverSelfNotifications()
+		{ return true ; }
+
+		@Override
+		public void onChange( boolean bSelfChange )
+		{ QueryCache.this.invalidate( m_uri ) ; }
+
+		@Override
+		public void onChange( boolean bSelfChange, Uri uri )
+		{ QueryCache.this.invalidate( m_uri ) ; }
+	}
+
+/// Member fields //////////////////////////////////////////////////////////////
+
+	/** The cached snapshots, indexed by query key. */
+	protected final LruCache<String,Snapshot> m_cache ;
+
+	/** The observers of URIs from which results are cached. */
+	protected final HashMap<Uri,Watcher> m_mapWatchers = new HashMap<>() ;
+
+	/** The size beyond which a single result is not cached. */
+	protected int m_nMaxEntryBytes ;
+
+	/** The number of results discarded because their URI changed. */
+	protected int m_nInvalidations = 0 ;
+
+	/** The number of results that were too large to be cached. */
+	protected int m_nOversized = 0 ;
+
+/// Constructors ///////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a cache with the {@link #DEFAULT_MAX_BYTES default} bound.
+	 */
+	public QueryCache()
+	{ this( DEFAULT_MAX_BYTES ) ; }
+
+	/**
+	 * Creates a cache with the specified bound. A single result may occupy
+	 * at most a quarter of the cache.
+	 * @param nMaxBytes the bound on the estimated size of all cached results
+	 */
+	public QueryCache( int nMaxBytes )
+	{
+		if( nMaxBytes <= 0 )
+		{
+			throw new IllegalArgumentException( (new StringBuilder())
+					.append( "Cache size must be positive, not " )
+					.append( nMaxBytes )
+					.toString()
+				);
+		}
+		m_nMaxEntryBytes = Math.max( 1, nMaxBytes / 4 ) ;
+		m_cache = new LruCache<String,Snapshot>( nMaxBytes )
+		{
+			@Override
+			protected int sizeOf( String sKey, Snapshot snap )
+			{ return snap.nBytes ; }
+
+			@Override
+			protected void entryRemoved( boolean bEvicted, String sKey,
+					Snapshot snapOld, Snapshot snapNew )
+			{
+				if( snapNew == null )
+					QueryCache.this.forget( snapOld.uri, sKey ) ;
+			}
+		};
+	}
+
+/// Configuration //////////////////////////////////////////////////////////////
+
+	/**
+	 * Sets the size beyond which a single result is not cached.
+	 * @param nBytes the maximum estimated size of a single result
+	 * @return (fluid)
+	 */
+	public synchronized QueryCache setMaxEntryBytes( int nBytes )
+	{ m_nMaxEntryBytes = Math.max( 1, nBytes ) ; return this ; }
+
+	/**
+	 * Gets the size beyond which a single result is not cached.
+	 * @return the maximum estimated size of a single result, in bytes
+	 */
+	public synchronized int getMaxEntryBytes()
+	{ return m_nMaxEntryBytes ; }
+
+/// Queries ////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns a cursor over the results of a query, from the cache if
+	 * possible; otherwise, executes the query and caches its results.
+	 * @param q the query
+	 * @param rslv the resolver through which the query should be executed
+	 * @param uri the URI at which the query should be executed
+	 * @param sig a cancellation signal for the query, or {@code null}
+	 * @return a cursor over the results
+	 */
+	protected Cursor fetch( SelectionBuilder q, ContentResolver rslv, Uri uri,
+			CancellationSignal sig )
+	{
+		final String sKey = q.getCacheKey(uri) ;
+		final Snapshot snapCached = m_cache.get( sKey ) ;
+		if( snapCached != null ) return snapCached.toCursor() ;
+
+		final long nGeneration = this.getGeneration( rslv, uri ) ;
+		final Cursor crs ;
+		try { crs = q.queryOn( rslv, uri, q.getLimit(), q.getOffset(), sig ) ; }
+		catch( RuntimeException x )
+		{
+			this.forget( uri, sKey ) ;
+			throw x ;
+		}
+		if( crs == null )
+		{
+			this.forget( uri, sKey ) ;
+			return null ;
+		}
+		final Snapshot snap = this.snapshot( uri, crs ) ;
+		if( snap == null )
+		{ // Too large to cache; hand back the original.
+			this.forget( uri, sKey ) ;
+			crs.moveToPosition(-1) ;
+			return crs ;
+		}
+		crs.close() ;
+		if( ! this.store( sKey, snap, nGeneration ) )
+			this.forget( uri, sKey ) ;
+		return snap.toCursor() ;
+	}
+
+	/**
+	 * Copies the rows of a cursor into a snapshot, unless the snapshot would
+	 * exceed {@link #getMaxEntryBytes()}.
+	 * @param uri the URI that was queried
+	 * @param crs the cursor
+	 * @return a snapshot of the cursor's rows, or {@code null} if the result
+	 *  is too large to cache
+	 */
+	protected Snapshot snapshot( Uri uri, Cursor crs )
+	{
+		final int nMaxBytes = this.getMaxEntryBytes() ;
+		final String[] asColumns = crs.getColumnNames() ;
+		final int nColumns = asColumns.length ;
+		final Object[][] aoRows = new Object[crs.getCount()][] ;
+		int nBytes = VALUE_OVERHEAD_BYTES * ( nColumns + 1 ) ;
+		int nRow = 0 ;
+		crs.moveToPosition(-1) ;
+		while( crs.moveToNext() && nRow < aoRows.length )
+		{
+			final Object[] aoRow = new Object[nColumns] ;
+			for( int i = 0 ; i < nColumns ; i++ )
+			{
+				switch( crs.getType(i) )
+				{
+					case Cursor.FIELD_TYPE_INTEGER:
+						aoRow[i] = crs.getLong(i) ;
+						nBytes += VALUE_OVERHEAD_BYTES + 8 ;
+						break ;
+					case Cursor.FIELD_TYPE_FLOAT:
+						aoRow[i] = crs.getDouble(i) ;
+						nBytes += VALUE_OVERHEAD_BYTES + 8 ;
+						break ;
+					case Cursor.FIELD_TYPE_STRING:
+						final String s = crs.getString(i) ;
+						aoRow[i] = s ;
+						nBytes += VALUE_OVERHEAD_BYTES + 2 * s.length() ;
+						break ;
+					case Cursor.FIELD_TYPE_BLOB:
+						final byte[] ab = crs.getBlob(i) ;
+						aoRow[i] = ab ;
+						nBytes += VALUE_OVERHEAD_BYTES + ab.length ;
+						break ;
+					case Cursor.FIELD_TYPE_NULL:
+					default:
+						aoRow[i] = null ;
+						nBytes += 4 ;
+				}
+			}
+			if( nBytes > nMaxBytes )
+			{
+				synchronized( this ) { ++m_nOversized ; }
+				return null ;
+			}
+			aoRows[nRow++] = aoRow ;
+		}
+		if( nRow < aoRows.length )
+		{ // The cursor returned fewer rows than it counted.
+			final Object[][] aoActual = new Object[nRow][] ;
+			System.arraycopy( aoRows, 0, aoActual, 0, nRow ) ;
+			return new Snapshot( uri, asColumns, aoActual, nBytes ) ;
+		}
+		return new Snapshot( uri, asColumns, aoRows, nBytes ) ;
+	}
+
+/// Observation ////////////////////////////////////////////////////////////////
+
+	/**
+	 * Ensures that a URI is being observed, and returns its current
+	 * generation.
+	 * @param rslv the resolver through which the URI is queried
+	 * @param uri the URI
+	 * @return the number of changes observed at the URI so far
+	 */
+	protected synchronized long getGeneration( ContentResolver rslv, Uri uri )
+	{
+		Watcher w = m_mapWatchers.get(uri) ;
+		if( w == null )
+		{
+			w = new Watcher( rslv, uri ) ;
+			rslv.registerContentObserver( uri, true, w ) ;
+			m_mapWatchers.put( uri, w ) ;
+		}
+		return w.m_nGeneration ;
+	}
+
+	/**
+	 * Caches a snapshot, unless its URI has changed since the query started.
+	 * @param sKey the query key
+	 * @param snap the snapshot
+	 * @param nGeneration the URI's generation when the query started
+	 * @return {@code true} if the snapshot was cached
+	 */
+	protected boolean store( String sKey, Snapshot snap, long nGeneration )
+	{
+		synchronized( this )
+		{
+			final Watcher w = m_mapWatchers.get( snap.uri ) ;
+			if( w == null || w.m_nGeneration != nGeneration ) return false ;
+			w.m_asKeys.add( sKey ) ;
+		}
+		m_cache.put( sKey, snap ) ;
+		synchronized( this )
+		{ // The URI might have changed while the snapshot was being put.
+			final Watcher w = m_mapWatchers.get( snap.uri ) ;
+			if( w != null && w.m_nGeneration == nGeneration ) return true ;
+		}
+		m_cache.remove( sKey ) ;
+		return false ;
+	}
+
+	/**
+	 * Discards a key from the set of keys cached for a URI, and stops
+	 * observing the URI if nothing else is cached from it. Called when an
+	 * entry leaves the cache.
+	 * @param uri the URI
+	 * @param sKey the query key
+	 */
+	protected synchronized void forget( Uri uri, String sKey )
+	{
+		final Watcher w = m_mapWatchers.get(uri) ;
+		if( w == null ) return ;
+		w.m_asKeys.remove( sKey ) ;
+		if( w.m_asKeys.isEmpty() )
+			this.unwatch(w) ;
+	}
+
+	/**
+	 * Stops observing a URI.
+	 * @param w the observer of the URI
+	 */
+	protected synchronized void unwatch( Watcher w )
+	{
+		m_mapWatchers.remove( w.m_uri ) ;
+		w.m_rslv.unregisterContentObserver(w) ;
+	}
+
+	/**
+	 * Discards all cached results from a URI. This is called automatically
+	 * when the provider reports a change at the URI.
+	 * @param uri the URI
+	 * @return (fluid)
+	 */
+	public QueryCache invalidate( Uri uri )
+	{
+		final String[] asKeys ;
+		synchronized( this )
+		{
+			final Watcher w = m_mapWatchers.get(uri) ;
+			if( w == null ) return this ;
+			++w.m_nGeneration ;
+			asKeys = w.m_asKeys.toArray( new String[w.m_asKeys.size()] ) ;
+			m_nInvalidations += asKeys.length ;
+		}
+		for( String sKey : asKeys )
+			m_cache.remove( sKey ) ;
+		return this ;
+	}
+
+	/**
+	 * Discards all cached results, and stops observing all URIs.
+	 * @return (fluid)
+	 */
+	public QueryCache clear()
+	{
+		m_cache.evictAll() ;
+		synchronized( this )
+		{
+			for( Watcher w : m_mapWatchers.values().toArray(
+					new Watcher[m_mapWatchers.size()] ) )
+			{ this.unwatch(w) ; }
+		}
+		return this ;
+	}
+
+/// Statistics /////////////////////////////////////////////////////////////////
+
+	/** @return the number of queries answered from the cache */
+	public int getHitCount()
+	{ return m_cache.hitCount() ; }
+
+	/** @return the number of queries that were not in the cache */
+	public int getMissCount()
+	{ return m_cache.missCount() ; }
+
+	/** @return the number of results discarded to keep the cache in bounds */
+	public int getEvictionCount()
+	{ return m_cache.evictionCount() ; }
+
+	/** @return the number of results discarded because their URI changed */
+	public synchronized int getInvalidationCount()
+	{ return m_nInvalidations ; }
+
+	/** @return the number of results that were too large to be cached */
+	public synchronized int getOversizedCount()
+	{ return m_nOversized ; }
+
+	/** @return the estimated size of all cached results, in bytes */
+	public int getSizeBytes()
+	{ return m_cache.size() ; }
+
+	/** @return the bound on the estimated size of all cached results */
+	public int getMaxBytes()
+	{ return m_cache.maxSize() ; }
+
+	/** @return the number of URIs currently observed by the cache */
+	public synchronized int getObservedCount()
+	{ return m_mapWatchers.size() ; }
+
+	@Override
+	public String toString()
+	{
+		return (new StringBuilder())
+				.append( LOG_TAG ).append( "[" )
+				.append( this.getSizeBytes() ).append( "/" )
+				.append( this.getMaxBytes() ).append( " bytes, hits=" )
+				.append( this.getHitCount() ).append( ", misses=" )
+				.append( this.getMissCount() ).append( ", evictions=" )
+				.append( this.getEvictionCount() ).append( ", invalidations=" )
+				.append( this.getInvalidationCount() ).append( ", oversized=" )
+				.append( this.getOversizedCount() ).append( "]" )
+				.toString()
+				;
+	}
+}
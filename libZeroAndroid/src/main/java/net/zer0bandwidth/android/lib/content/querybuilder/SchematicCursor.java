@@ -0,0 +1,270 @@
+package net.zer0bandwidth.android.lib.content.querybuilder;
+
+import android.database.Cursor;
+import android.database.CursorWrapper;
+
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLightable;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.exceptions.IntrospectionException;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.exceptions.SchematicException;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.COLUMN_NOT_FOUND;
+
+/**
+ * Wraps a cursor selected by a {@link SelectionBuilder}, and marshals its rows
+ * into instances of a {@link SQLightable} schematic class.
+ *
+ * <p>The list of the schematic class's columns that are present in the
+ * cursor, and the index of each, are resolved once, when the wrapper is
+ * created. Thereafter, each row is marshalled without any column name lookups;
+ * while a column is being read, {@link #getColumnIndex} answers from the
+ * resolved array of indices.</p>
+ *
+ * <p>The rows may be consumed in three ways:</p>
+ *
+ * <dl>
+ *     <dt>{@link #iterator()}</dt>
+ *     <dd>Marshals each row as it is reached.</dd>
+ *     <dt>{@link #asList()}</dt>
+ *     <dd>A list view which marshals each row the first time it is accessed,
+ *     and remembers it thereafter.</dd>
+ *     <dt>{@link #toList()}</dt>
+ *     <dd>Marshals all rows immediately.</dd>
+ * </dl>
+ *
+ * <p>The first two are backed by the cursor, and can't be used after it is
+ * closed. As with any cursor, the consumer is responsible for closing it.</p>
+ *
+ * <pre>
+ * SchematicCursor&lt;Fargle&gt; crs = QueryBuilder.selectFrom( rslv, uri )
+ *         .where( "fargle_num>?", 42 )
+ *         .executeAs( Fargle.class )
+ *         ;
+ * try
+ * {
+ *     for( Fargle fargle : crs )
+ *         doSomethingWith(fargle) ;
+ * }
+ * finally
+ * { crs.close() ; }
+ * </pre>
+ *
+ * @param <SC> the schematic class into which rows are marshalled
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@SuppressWarnings( "unused" ) // This is a library.
+public class SchematicCursor<SC extends SQLightable>
+extends CursorWrapper
+implements Iterable<SC>
+{
+	/** The reflection of the schematic class. */
+	protected final SQLightable.Reflection<SC> m_tbl ;
+
+	/** The schematic columns that are present in the cursor. */
+	protected final List<SQLightable.Reflection<SC>.Column> m_aColumns ;
+
+	/**
+	 * The index in the cursor of each column in {@link #m_aColumns}, in the
+	 * same order.
+	 */
+	protected final int[] m_anIndices ;
+
+	/**
+	 * The position, in {@link #m_aColumns}, of the column being marshalled,
+	 * or {@code -1} if no row is being marshalled.
+	 */
+	protected int m_nMarshalling = -1 ;
+
+	/**
+	 * Wraps a cursor, resolving the set of schematic columns that it contains,
+	 * and their indices.
+	 * @param crs the cursor to be wrapped
+	 * @param tbl the reflection of the schematic class
+	 */
+	public SchematicCursor( Cursor crs, SQLightable.Reflection<SC> tbl )
+	{
+		super(crs) ;
+		m_tbl = tbl ;
+		m_aColumns = tbl.getColumnsPresentIn(crs) ;
+		m_anIndices = new int[m_aColumns.size()] ;
+		for( int i = 0 ; i < m_anIndices.length ; i++ )
+			m_anIndices[i] = crs.getColumnIndex( m_aColumns.get(i).getName() ) ;
+	}
+
+	/**
+	 * Accesses the reflection of the schematic class.
+	 * @return the reflection used to marshal rows
+	 */
+	public SQLightable.Reflection<SC> getReflection()
+	{ return m_tbl ; }
+
+	/**
+	 * Returns the index of a column. While a row is being marshalled, the
+	 * column being read is answered from the indices resolved when the
+	 * wrapper was created; any other name is resolved by the underlying
+	 * cursor.
+	 */
+	@Override
+	public int getColumnIndex( String sColumn )
+	{
+		if( m_nMarshalling != -1
+		 && m_aColumns.get( m_nMarshalling ).getName().equals( sColumn ) )
+			return m_anIndices[m_nMarshalling] ;
+		return super.getColumnIndex( sColumn ) ;
+	}
+
+	@Override
+	public int getColumnIndexOrThrow( String sColumn )
+	throws IllegalArgumentException
+	{
+		final int nIndex = this.getColumnIndex( sColumn ) ;
+		if( nIndex == COLUMN_NOT_FOUND )
+		{
+			throw new IllegalArgumentException( (new StringBuilder())
+					.append( "Column [" ).append( sColumn )
+					.append( "] does not exist; available columns are " )
+					.append( Arrays.toString( this.getColumnNames() ) )
+					.toString()
+				);
+		}
+		return nIndex ;
+	}
+
+	/**
+	 * Marshals the row at the cursor's current position.
+	 * @return an instance of the schematic class containing the current row
+	 * @throws IntrospectionException if the schematic class could not be
+	 *  constructed
+	 * @throws SchematicException if the data could not be marshalled into the
+	 *  instance
+	 */
+	public SC getObject()
+	throws IntrospectionException, SchematicException
+	{
+		final SC oRow = m_tbl.getInstance() ; // Can throw IntrospectionException
+		for( int i = 0 ; i < m_anIndices.length ; i++ )
+		{
+			final SQLightable.Reflection<SC>.Column col = m_aColumns.get(i) ;
+			m_nMarshalling = i ;
+			try
+			{
+				col.getField().set( oRow,
+					col.getRefractor().fromCursor( this, col.getName() ) ) ;
+			}
+			catch( IllegalAccessException xAccess )
+			{
+				throw SchematicException.fieldWasInaccessible(
+						m_tbl.getTableClass().getCanonicalName(),
+						col.getName(), xAccess
+					);
+			}
+			finally
+			{ m_nMarshalling = -1 ; }
+		}
+		return oRow ;
+	}
+
+	/**
+	 * Marshals the row at the specified position.
+	 * @param nPosition the position of the row
+	 * @return an instance of the schematic class containing the row
+	 * @throws IndexOutOfBoundsException if there is no row at that position
+	 */
+	public SC getObject( int nPosition )
+	throws IntrospectionException, SchematicException
+	{
+		if( ! this.moveToPosition( nPosition ) )
+		{
+			throw new IndexOutOfBoundsException( (new StringBuilder())
+					.append( "No row at position " ).append( nPosition )
+					.append( " of " ).append( this.getCount() )
+					.toString()
+				);
+		}
+		return this.getObject() ;
+	}
+
+	/**
+	 * Iterates over the rows of the cursor, from the first, marshalling each
+	 * row as it is reached. The iterator moves the cursor.
+	 * @return an iterator over the rows of the cursor
+	 */
+	@Override
+	public Iterator<SC> iterator()
+	{
+		return new Iterator<SC>()
+		{
+			private int m_nNext = 0 ;
+
+			@Override
+			public boolean hasNext()
+			{ return m_nNext < SchematicCursor.this.getCount() ; }
+
+			@Override
+			public SC next()
+			{
+				if( ! this.hasNext() ) throw new NoSuchElementException() ;
+				return SchematicCursor.this.getObject( m_nNext++ ) ;
+			}
+
+			@Override
+			public void remove()
+			{ throw new UnsupportedOperationException() ; }
+		};
+	}
+
+	/**
+	 * Provides a read-only list view of the rows of the cursor. Each row is
+	 * marshalled the first time it is accessed, and the instance is reused
+	 * for later accesses. The view moves the cursor.
+	 * @return a lazy list of the rows of the cursor
+	 */
+	public List<SC> asList()
+	{
+		final int nCount = this.getCount() ;
+		final ArrayList<SC> aRows = new ArrayList<>( nCount ) ;
+		for( int i = 0 ; i < nCount ; i++ )
+			aRows.add(null) ;
+		return new AbstractList<SC>()
+		{
+			@Override
+			public SC get( int nIndex )
+			{
+				SC o = aRows.get( nIndex ) ;
+				if( o == null )
+				{
+					o = SchematicCursor.this.getObject( nIndex ) ;
+					aRows.set( nIndex, o ) ;
+				}
+				return o ;
+			}
+
+			@Override
+			public int size()
+			{ return nCount ; }
+		};
+	}
+
+	/**
+	 * Marshals all rows of the cursor into a new list. The list remains valid
+	 * after the cursor is closed.
+	 * @return a list of the rows of the cursor
+	 */
+	public List<SC> toList()
+	throws IntrospectionException, SchematicException
+	{
+		final ArrayList<SC> aRows = new ArrayList<>( this.getCount() ) ;
+		if( this.moveToFirst() )
+		{
+			do aRows.add( this.getObject() ) ;
+			while( this.moveToNext() ) ;
+		}
+		return aRows ;
+	}
+}
@@ -4,19 +4,25 @@ import android.content.ContentResolver;
 import android.content.Context;
 import android.database.Cursor;
 import android.net.Uri;
+import android.os.Build;
 import android.os.Bundle;
 import android.os.CancellationSignal;
 import android.os.OperationCanceledException;
 import android.support.annotation.RequiresApi;
 import android.util.Log;
 
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLightable;
 import net.zer0bandwidth.android.lib.util.CollectionsZ;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static net.zer0bandwidth.android.lib.content.ContentUtils.QUERY_ORDER_ASCENDING;
 
@@ -43,6 +49,17 @@ import static net.zer0bandwidth.android.lib.content.ContentUtils.QUERY_ORDER_ASC
  *             ;
  * </pre>
  *
+ * <p>Select the third page of 50 results. For stable pages, the query should
+ * be sorted on a unique key. See also {@link PagedQuery}.</p>
+ *
+ * <pre>
+ *     Cursor crs = QueryBuilder.selectFrom( rslv, uri )
+ *             .orderBy( "entity_id" )
+ *             .page( 2, 50 )
+ *             .execute()
+ *             ;
+ * </pre>
+ *
  * @since zer0bandwidth-net/android 0.1.7 (#39)
  * @see net.zer0bandwidth.android.lib.content.ContentUtils#QUERY_ORDER_ASCENDING
  * @see net.zer0bandwidth.android.lib.content.ContentUtils#QUERY_ORDER_DESCENDING
@@ -63,6 +80,57 @@ extends QueryBuilder<SelectionBuilder,Cursor>
 	 */
 	protected LinkedHashMap<String,String> m_mapSortSpec = null ;
 
+	/**
+	 * Specifies that no limit should be placed on the number of results.
+	 * @see #limit(int)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final int NO_LIMIT = -1 ;
+
+	/**
+	 * When a paged query must fall back to a {@code LIMIT} clause in its sort
+	 * specification, but no sort was specified, the results are sorted by this
+	 * column instead, so that the clause is well-formed.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected static final String FALLBACK_PAGE_SORT = "rowid" ;
+
+	/**
+	 * The authorities whose providers have been seen to ignore
+	 * {@link ContentResolver#QUERY_ARG_LIMIT}. Paged queries to these
+	 * authorities go straight to the fallback.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected static final ConcurrentMap<String,Boolean> s_mapUnpagedAuthorities =
+			new ConcurrentHashMap<>() ;
+
+	/**
+	 * The maximum number of results to be returned.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected int m_nLimit = NO_LIMIT ;
+
+	/**
+	 * The number of results to be skipped before the first one returned.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected int m_nOffset = 0 ;
+
+	/**
+	 * Reflections of the schematic classes used by {@link #executeAs(Class)},
+	 * shared among all builders, since reflecting a class is expensive.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected static final SQLightable.ReflectionMap s_mapReflections =
+			new SQLightable.ReflectionMap() ;
+
+	/**
+	 * The cache in which results are kept, if any.
+	 * @see #cachedIn(QueryCache)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected QueryCache m_cache = null ;
+
 	public SelectionBuilder( ContentResolver rslv, Uri uri )
 	{
 		super( rslv, uri ) ;
@@ -210,18 +278,270 @@ extends QueryBuilder<SelectionBuilder,Cursor>
 	}
 
 	/**
-	 * Selects results from the data context.
+	 * Limits the number of results to be returned.
+	 * @param nLimit the maximum number of results, or {@link #NO_LIMIT}
+	 * @return (fluid)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public SelectionBuilder limit( int nLimit )
+	{
+		m_nLimit = ( nLimit < 0 ? NO_LIMIT : nLimit ) ;
+		return this ;
+	}
+
+	/**
+	 * Skips a number of results before the first one returned.
+	 * @param nOffset the number of results to skip
+	 * @return (fluid)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public SelectionBuilder offset( int nOffset )
+	{
+		m_nOffset = Math.max( 0, nOffset ) ;
+		return this ;
+	}
+
+	/**
+	 * Selects one page of the results, by setting both the
+	 * {@link #limit(int) limit} and the {@link #offset(int) offset}.
+	 * @param nPage the index of the page, starting from zero
+	 * @param nPageSize the number of results per page
+	 * @return (fluid)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public SelectionBuilder page( int nPage, int nPageSize )
+	{
+		if( nPage < 0 || nPageSize < 1 )
+		{
+			throw new IllegalArgumentException( (new StringBuilder())
+					.append( "Invalid page " ).append( nPage )
+					.append( " of size " ).append( nPageSize )
+					.append( "." )
+					.toString()
+				);
+		}
+		return this.limit( nPageSize ).offset( nPage * nPageSize ) ;
+	}
+
+	/**
+	 * Accesses the limit on the number of results.
+	 * @return the limit, or {@link #NO_LIMIT}
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public int getLimit()
+	{ return m_nLimit ; }
+
+	/**
+	 * Accesses the number of results to be skipped.
+	 * @return the offset
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public int getOffset()
+	{ return m_nOffset ; }
+
+	/**
+	 * Answers the query from a cache, if the cache holds a result for an
+	 * identical query; otherwise, caches the query's result there.
+	 * @param cache the cache, or {@code null} to stop using a cache
+	 * @return (fluid)
+	 * @see QueryCache
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public SelectionBuilder cachedIn( QueryCache cache )
+	{ m_cache = cache ; return this ; }
+
+	/**
+	 * Generates the key under which a {@link QueryCache} stores the result of
+	 * this query. The key is a normalized form of {@link #toBundle()}, with
+	 * the target URI, limit, and offset.
+	 * @param uri the URI at which the query is executed
+	 * @return the cache key for the query
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected String getCacheKey( Uri uri )
+	{
+		final Bundle bndl = this.toBundle() ;
+		bndl.putString( "uri", ( uri != null ? uri.toString() : null ) ) ;
+		bndl.putInt( "limit", m_nLimit ) ;
+		bndl.putInt( "offset", m_nOffset ) ;
+		final StringBuilder sb = new StringBuilder() ;
+		for( String sKey : new TreeSet<>( bndl.keySet() ) )
+		{ // Length-prefix every token so that no two specs can collide.
+			appendCacheToken( sb, sKey ) ;
+			final Object o = bndl.get(sKey) ;
+			if( o instanceof String[] )
+			{
+				final String[] as = ((String[])(o)) ;
+				sb.append( '[' ).append( as.length ) ;
+				for( String s : as )
+					appendCacheToken( sb, s ) ;
+			}
+			else
+				appendCacheToken( sb, ( o == null ? null : o.toString() ) ) ;
+		}
+		return sb.toString() ;
+	}
+
+	/**
+	 * Appends a length-prefixed token to a cache key.
+	 * @param sb the key being built
+	 * @param s the token, or {@code null}
+	 */
+	protected static void appendCacheToken( StringBuilder sb, String s )
+	{
+		if( s == null )
+			sb.append( "|-" ) ;
+		else
+			sb.append( '|' ).append( s.length() ).append( ':' ).append( s ) ;
+	}
+
+	/**
+	 * <b><i>(API 26+)</i></b> Generates the query arguments to be passed to
+	 * {@link ContentResolver#query(Uri, String[], Bundle, CancellationSignal)}
+	 * for a page of results.
+	 * @param nLimit the maximum number of results, or {@link #NO_LIMIT}
+	 * @param nOffset the number of results to skip
+	 * @return the query arguments
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@RequiresApi(26)
+	protected Bundle toQueryArgs( int nLimit, int nOffset )
+	{
+		Bundle bndl = new Bundle() ;
+		final String sWhere = this.getWhereFormat() ;
+		if( sWhere != null )
+		{
+			bndl.putString( ContentResolver.QUERY_ARG_SQL_SELECTION, sWhere ) ;
+			bndl.putStringArray( ContentResolver.QUERY_ARG_SQL_SELECTION_ARGS,
+					this.getWhereParams() ) ;
+		}
+		final String sSort = this.getSortSpecString() ;
+		if( sSort != null )
+			bndl.putString( ContentResolver.QUERY_ARG_SQL_SORT_ORDER, sSort ) ;
+		if( nLimit != NO_LIMIT )
+			bndl.putInt( ContentResolver.QUERY_ARG_LIMIT, nLimit ) ;
+		if( nOffset > 0 )
+			bndl.putInt( ContentResolver.QUERY_ARG_OFFSET, nOffset ) ;
+		return bndl ;
+	}
+
+	/**
+	 * Generates a sort specification with a trailing {@code LIMIT} clause, for
+	 * providers which don't support {@link ContentResolver#QUERY_ARG_LIMIT}.
+	 * This relies on the provider passing its sort order through to SQLite,
+	 * as one built on {@code SQLiteQueryBuilder} or {@code SQLiteDatabase}
+	 * does.
+	 * @param nLimit the maximum number of results, or {@link #NO_LIMIT}, which
+	 *  SQLite also reads as "no limit"
+	 * @param nOffset the number of results to skip
+	 * @return a sort specification which includes the limit and offset
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected String getPagedSortSpecString( int nLimit, int nOffset )
+	{
+		final String sSort = this.getSortSpecString() ;
+		StringBuilder sb = new StringBuilder()
+			.append(( sSort != null ? sSort : FALLBACK_PAGE_SORT ))
+			.append( " LIMIT " ).append( nLimit )
+			;
+		if( nOffset > 0 ) sb.append( " OFFSET " ).append( nOffset ) ;
+		return sb.toString() ;
+	}
+
+	/**
+	 * Determines whether a provider applied the limit of a query made with
+	 * Bundle arguments, based on the extras of its cursor.
+	 * @param crs the cursor returned by the provider
+	 * @return {@code true} if the provider reported that it honored the limit
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@RequiresApi(26)
+	protected static boolean isPagingHonored( Cursor crs )
+	{
+		final Bundle bndl = crs.getExtras() ;
+		if( bndl == null ) return false ;
+		final String[] asHonored =
+				bndl.getStringArray( ContentResolver.EXTRA_HONORED_ARGS ) ;
+		if( asHonored == null ) return false ;
+		for( String sArg : asHonored )
+			if( ContentResolver.QUERY_ARG_LIMIT.equals(sArg) ) return true ;
+		return false ;
+	}
+
+	/**
+	 * Executes the query with the specified limit and offset.
+	 *
+	 * <p>If there is no limit or offset, then this is the standard query. On
+	 * API 26+, the query is made with Bundle arguments, including
+	 * {@link ContentResolver#QUERY_ARG_LIMIT} and
+	 * {@link ContentResolver#QUERY_ARG_OFFSET}. If the provider does not report
+	 * that it honored the limit, then its results are discarded, its authority
+	 * is remembered, and the query is made again with the fallback. On older
+	 * APIs, or for providers already known not to honor the limit, the limit is
+	 * appended to the sort specification.</p>
+	 *
+	 * @param rslv the resolver through which the query should be executed
+	 * @param uri the URI at which the query should be executed
+	 * @param nLimit the maximum number of results, or {@link #NO_LIMIT}
+	 * @param nOffset the number of results to skip
+	 * @param sig a signal which would cancel the query (API 16+), or
+	 *  {@code null}
+	 * @return a set of results from the data context
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected Cursor queryOn( ContentResolver rslv, Uri uri, int nLimit,
+			int nOffset, CancellationSignal sig )
+	{
+		final String[] asColumns = this.getColumns() ;
+		String sSort = this.getSortSpecString() ;
+		if( nLimit != NO_LIMIT || nOffset > 0 )
+		{
+			final String sAuthority = uri.getAuthority() ;
+			if( Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+			 && ( sAuthority == null
+			   || ! s_mapUnpagedAuthorities.containsKey( sAuthority ) ) )
+			{
+				Cursor crs = rslv.query( uri, asColumns,
+						this.toQueryArgs( nLimit, nOffset ), sig ) ;
+				if( crs == null || isPagingHonored(crs) ) return crs ;
+				crs.close() ;
+				if( sAuthority != null )
+				{
+					Log.d( LOG_TAG, (new StringBuilder())
+							.append( "Provider for [" ).append( sAuthority )
+							.append( "] ignored paging arguments; " )
+							.append( "using sort-and-limit instead." )
+							.toString()
+						);
+					s_mapUnpagedAuthorities.put( sAuthority, Boolean.TRUE ) ;
+				}
+			}
+			sSort = this.getPagedSortSpecString( nLimit, nOffset ) ;
+		}
+		if( sig == null )
+		{
+			return rslv.query( uri, asColumns,
+					this.getWhereFormat(), this.getWhereParams(), sSort ) ;
+		}
+		else
+		{
+			return rslv.query( uri, asColumns,
+					this.getWhereFormat(), this.getWhereParams(), sSort, sig ) ;
+		}
+	}
+
+	/**
+	 * Selects results from the data context, honoring the builder's limit and
+	 * offset, if any. If the builder has a {@link #cachedIn cache}, then the
+	 * results may come from there.
 	 * @return a set of results from the data context
 	 */
 	@Override
 	public Cursor executeQuery( ContentResolver rslv, Uri uri )
 	{
-		return rslv.query( uri,
-				this.getColumns(),
-				this.getWhereFormat(),
-				this.getWhereParams(),
-				this.getSortSpecString()
-			);
+		if( m_cache != null )
+			return m_cache.fetch( this, rslv, uri, null ) ;
+		return this.queryOn( rslv, uri, m_nLimit, m_nOffset, null ) ;
 	}
 
 	/**
@@ -259,13 +579,9 @@ extends QueryBuilder<SelectionBuilder,Cursor>
 		}
 		try
 		{
-			return rslv.query( uri,
-					this.getColumns(),
-					this.getWhereFormat(),
-					this.getWhereParams(),
-					this.getSortSpecString(),
-					sig
-				);
+			if( m_cache != null )
+				return m_cache.fetch( this, rslv, uri, sig ) ;
+			return this.queryOn( rslv, uri, m_nLimit, m_nOffset, sig ) ;
 		}
 		catch( OperationCanceledException xCancel )
 		{
@@ -276,6 +592,84 @@ extends QueryBuilder<SelectionBuilder,Cursor>
 		{ throw new ExecutionException( LOG_TAG, x ) ; }
 	}
 
+	/**
+	 * Selects results from the data context, and wraps them in a cursor which
+	 * marshals each row into an instance of a schematic class.
+	 * @param cls the schematic class
+	 * @param <SC> the schematic class
+	 * @return a cursor over instances of the schematic class, or {@code null}
+	 *  if the query returned no cursor
+	 * @throws UnboundException if the data context binding is inadequate
+	 * @throws ExecutionException if the underlying query fails
+	 * @see SchematicCursor
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <SC extends SQLightable> SchematicCursor<SC> executeAs( Class<SC> cls )
+	throws UnboundException, ExecutionException
+	{ return this.executeAs( getReflection(cls) ) ; }
+
+	/**
+	 * As {@link #executeAs(Class)}, but uses a reflection that the caller
+	 * already holds, such as one configured by a {@code SQLiteHouse}.
+	 * @param tbl the reflection of the schematic class
+	 * @param <SC> the schematic class
+	 * @return a cursor over instances of the schematic class, or {@code null}
+	 *  if the query returned no cursor
+	 * @throws UnboundException if the data context binding is inadequate
+	 * @throws ExecutionException if the underlying query fails
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <SC extends SQLightable> SchematicCursor<SC> executeAs(
+			SQLightable.Reflection<SC> tbl )
+	throws UnboundException, ExecutionException
+	{
+		final Cursor crs = this.execute() ;
+		return ( crs == null ? null : new SchematicCursor<>( crs, tbl ) ) ;
+	}
+
+	/**
+	 * Selects results from the data context, marshals all of them into
+	 * instances of a schematic class, and closes the cursor.
+	 * @param cls the schematic class
+	 * @param <SC> the schematic class
+	 * @return a list of instances of the schematic class; empty if the query
+	 *  returned no cursor
+	 * @throws UnboundException if the data context binding is inadequate
+	 * @throws ExecutionException if the underlying query fails
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <SC extends SQLightable> List<SC> executeAsList( Class<SC> cls )
+	throws UnboundException, ExecutionException
+	{
+		final SchematicCursor<SC> crs = this.executeAs(cls) ;
+		if( crs == null ) return new ArrayList<>() ;
+		try { return crs.toList() ; }
+		finally { crs.close() ; }
+	}
+
+	/**
+	 * Obtains the shared reflection of a schematic class, reflecting it on
+	 * first use.
+	 * @param cls the schematic class
+	 * @param <SC> the schematic class
+	 * @return a reflection of the class
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected static <SC extends SQLightable> SQLightable.Reflection<SC>
+	getReflection( Class<SC> cls )
+	{
+		synchronized( s_mapReflections )
+		{
+			SQLightable.Reflection<SC> tbl = s_mapReflections.get(cls) ;
+			if( tbl == null )
+			{
+				s_mapReflections.put(cls) ;
+				tbl = s_mapReflections.get(cls) ;
+			}
+			return tbl ;
+		}
+	}
+
 	/**
 	 * Creates a bundle that describes the query itself, <i>not</i> the result
 	 * set that it would select. Used to pass the query specification across an
@@ -1,5 +1,6 @@
 package net.zer0bandwidth.android.lib.content.querybuilder;
 
+import android.content.ContentProviderOperation;
 import android.content.ContentResolver;
 import android.content.Context;
 import android.net.Uri;
@@ -35,6 +36,7 @@ import android.util.Log;
  */
 public class UpdateBuilder
 extends QueryBuilder<UpdateBuilder,Integer>
+implements BatchableQuery
 {
 	public static final String LOG_TAG = UpdateBuilder.class.getSimpleName() ;
 
@@ -67,4 +69,24 @@ extends QueryBuilder<UpdateBuilder,Integer>
 		return rslv.update( uri, m_valsToWrite,
 				m_sExplicitWhereFormat, m_asExplicitWhereParams ) ;
 	}
+
+	/**
+	 * Converts the update into a batch operation. Values must have been set,
+	 * unless the caller adds value back-references to the operation.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Override
+	public ContentProviderOperation.Builder toOperation( Uri uri )
+	throws UnboundException
+	{
+		if( uri == null )
+			throw new UnboundException( "A valid URI is required." ) ;
+		ContentProviderOperation.Builder bldr =
+				ContentProviderOperation.newUpdate(uri)
+					.withSelection( m_sExplicitWhereFormat,
+							m_asExplicitWhereParams )
+					;
+		if( m_valsToWrite != null ) bldr.withValues( m_valsToWrite ) ;
+		return bldr ;
+	}
 }
@@ -36,6 +36,7 @@ package net.zer0bandwidth.android.lib.database;
  * <li>{@link #SQL_INSERT_INTO} = {@code "INSERT INTO "}</li>
  * <li>{@link #SQL_LIMIT} = {@code " LIMIT "}</li>
  * <li>{@link #SQLITE_NULL} = {@code "NULL"}</li>
+ * <li>{@link #SQLITE_ROWID} = {@code "rowid"}</li>
  * <li>{@link #SQL_ORDER_BY} = {@code " ORDER BY "}</li>
  * <li>{@link #SQL_ORDER_ASC} = {@code "ASC"}</li>
  * <li>{@link #SQL_ORDER_DESC} = {@code "DESC"}</li>
@@ -59,6 +60,7 @@ package net.zer0bandwidth.android.lib.database;
  * <li>{@link #SQLITE_TYPE_INT} = {@code "INTEGER"}</li>
  * <li>{@link #SQLITE_TYPE_TEXT} = {@code "TEXT"}</li>
  * <li>{@link #SQLITE_TYPE_REAL} = {@code "REAL"}</li>
+ * <li>{@link #SQLITE_TYPE_BLOB} = {@code "BLOB"}</li>
  * </ul>
  *
  * <h2>Items NOT Provided by This Class</h2>
@@ -192,6 +194,43 @@ public final class SQLiteSyntax
 	 */
 	public static final String SQL_COLUMN_NOT_NULLABLE = " NOT NULL" ;
 
+	/**
+	 * The SQL aggregate function that counts rows or non-null values.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String SQL_COUNT = "COUNT" ;
+
+	/**
+	 * The SQL aggregate function that sums non-null values.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String SQL_SUM = "SUM" ;
+
+	/**
+	 * The SQL aggregate function that finds the least non-null value.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String SQL_MIN = "MIN" ;
+
+	/**
+	 * The SQL aggregate function that finds the greatest non-null value.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String SQL_MAX = "MAX" ;
+
+	/**
+	 * The SQL aggregate function that averages non-null values.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String SQL_AVG = "AVG" ;
+
+	/**
+	 * Specifies that a SQL {@code SELECT} statement should return only
+	 * distinct rows.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String SQL_DISTINCT = "DISTINCT " ;
+
 	/** Begins a SQL {@code DELETE FROM} statement. */
 	public static final String SQL_DELETE_FROM = "DELETE FROM " ;
 
@@ -207,6 +246,20 @@ public final class SQLiteSyntax
 	/** Begins a SQL {@code INSERT} statement. */
 	public static final String SQL_INSERT_INTO = "INSERT INTO " ;
 
+	/**
+	 * Begins a SQL {@code INSERT} statement which might also specify a
+	 * conflict clause before {@link #SQL_INTO}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String SQL_INSERT = "INSERT" ;
+
+	/**
+	 * Precedes the table name in a SQL {@code INSERT} statement that begins
+	 * with {@link #SQL_INSERT}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String SQL_INTO = " INTO " ;
+
 	/**
 	 * Begins a {@code LIMIT} clause in a SQL {@code SELECT} statement.
 	 * @see net.zer0bandwidth.android.lib.database.querybuilder.SelectionBuilder#NO_LIMIT
@@ -218,6 +271,13 @@ public final class SQLiteSyntax
 	 */
 	public static final String SQLITE_NULL = "NULL" ;
 
+	/**
+	 * The name of the implicit integer row ID column that SQLite maintains in
+	 * every ordinary table.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String SQLITE_ROWID = "rowid" ;
+
 	/** Begins an {@code ORDER BY} clause in a SQL {@code SELECT} statement. */
 	public static final String SQL_ORDER_BY = " ORDER BY " ;
 
@@ -249,6 +309,27 @@ public final class SQLiteSyntax
 	/** Begins a SQL {@code UPDATE} operation. */
 	public static final String SQL_UPDATE = "UPDATE " ;
 
+	/**
+	 * Introduces the list of values in a SQL {@code INSERT} statement.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String SQL_VALUES = " VALUES " ;
+
+	/**
+	 * Specifies that a SQL {@code INSERT} statement should insert a row
+	 * consisting entirely of default values.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String SQL_DEFAULT_VALUES = " DEFAULT VALUES" ;
+
+	/**
+	 * The maximum number of positional parameters that SQLite accepts in a
+	 * single statement. SQLite raised this limit to 32766 in version 3.32.0,
+	 * but Android versions older than that still enforce this value.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final int SQLITE_MAX_VARIABLE_NUMBER = 999 ;
+
 	/**
 	 * The character that stands in for a variable value in the Android format
 	 * string that is passed to {@link android.database.sqlite.SQLiteDatabase}
@@ -270,6 +351,12 @@ public final class SQLiteSyntax
 	/** The data type token representing decimal-numeric columns in SQLite. */
 	public static final String SQLITE_TYPE_REAL = "REAL" ;
 
+	/**
+	 * The data type token representing binary columns in SQLite.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String SQLITE_TYPE_BLOB = "BLOB" ;
+
 /// Other //////////////////////////////////////////////////////////////////////
 
 	/** Forbid instantiation. */
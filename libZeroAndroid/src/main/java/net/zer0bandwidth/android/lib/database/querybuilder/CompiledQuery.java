@@ -0,0 +1,262 @@
+package net.zer0bandwidth.android.lib.database.querybuilder;
+
+import android.content.ContentValues;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_VAR;
+
+/**
+ * A query which has been rendered once, by a {@link QueryBuilder}, into a
+ * fixed SQL string with positional ({@code ?}) parameters. The same compiled
+ * query can then be executed any number of times, binding new values to its
+ * parameters before each execution, without rendering or parsing the SQL
+ * again.
+ *
+ * <p>Obtain an instance by calling {@code compile()} on any of the builders.
+ * As with {@link android.database.sqlite.SQLiteStatement}, parameter indices
+ * begin at 1, and bindings persist across executions until they are
+ * overwritten or {@link #clearBindings() cleared}. A compiled query is bound
+ * to a specific database, and should be {@link #close() closed} when it is no
+ * longer needed. It is not safe to bind and execute the same instance from
+ * several threads at once.</p>
+ *
+ * <h3>Example</h3>
+ *
+ * <pre>
+ * CompiledQuery&lt;Integer&gt; q = QueryBuilder.deleteFrom( db, sTableName )
+ *     .where( "entity_id=?", "" )
+ *     .compile()
+ *     ;
+ * for( long nID : anIDs )
+ *     q.bind( 1, nID ).execute() ;
+ * q.close() ;
+ * </pre>
+ *
+ * @param <R> the return type of {@link #execute()}, which matches that of the
+ *           builder from which the query was compiled
+ * @see CompiledStatement
+ * @see CompiledSelection
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@SuppressWarnings( "unused" )                              // This is a library.
+public abstract class CompiledQuery<R>
+implements Closeable
+{
+	/**
+	 * The fragments of SQL conflict clauses for {@code INSERT} and
+	 * {@code UPDATE} statements, indexed by the IDs of Android's conflict
+	 * resolution algorithms.
+	 * @see SQLiteDatabase#CONFLICT_NONE
+	 */
+	protected static final String[] CONFLICT_CLAUSES =
+		{ "", " OR ROLLBACK", " OR ABORT", " OR FAIL", " OR IGNORE", " OR REPLACE" } ;
+
+	/**
+	 * Renders the conflict clause for a conflict resolution algorithm.
+	 * @param zAlgorithmID the ID of the algorithm
+	 * @return a clause to follow the {@code INSERT} or {@code UPDATE} keyword
+	 */
+	protected static String getConflictClause( int zAlgorithmID )
+	{
+		if( zAlgorithmID < 0 || zAlgorithmID >= CONFLICT_CLAUSES.length )
+			return "" ;
+		return CONFLICT_CLAUSES[zAlgorithmID] ;
+	}
+
+	/**
+	 * Lists the keys of a set of values in lexical order, which determines the
+	 * order of their parameters in a compiled {@code INSERT} or
+	 * {@code UPDATE} statement.
+	 * @param vals the values to be written
+	 * @return the keys, sorted lexically
+	 */
+	protected static List<String> getSortedKeys( ContentValues vals )
+	{
+		List<String> asKeys = new ArrayList<>( vals.keySet() ) ;
+		Collections.sort( asKeys ) ;
+		return asKeys ;
+	}
+
+	/**
+	 * Counts the positional parameters in an SQL string, ignoring any
+	 * {@code ?} characters that appear within quoted literals or identifiers.
+	 * @param sSQL the SQL string
+	 * @return the number of {@code ?} placeholders
+	 */
+	protected static int countParams( String sSQL )
+	{
+		if( sSQL == null ) return 0 ;
+		final char cVar = SQLITE_VAR.charAt(0) ;
+		int nCount = 0 ;
+		char cQuote = 0 ;
+		for( int i = 0 ; i < sSQL.length() ; i++ )
+		{
+			char c = sSQL.charAt(i) ;
+			if( cQuote != 0 )
+			{ if( c == cQuote ) cQuote = 0 ; }
+			else if( c == '\'' || c == '"' )
+				cQuote = c ;
+			else if( c == cVar )
+				++nCount ;
+		}
+		return nCount ;
+	}
+
+	/** The database on which the query is executed. */
+	protected SQLiteDatabase m_db ;
+
+	/** The rendered SQL string. */
+	protected final String m_sSQL ;
+
+	/** The number of positional parameters in {@link #m_sSQL}. */
+	protected final int m_nParams ;
+
+	/**
+	 * Superclass's constructor, which initializes the shared member fields.
+	 * @param db the database on which the query will be executed
+	 * @param sSQL the rendered SQL string
+	 */
+	protected CompiledQuery( SQLiteDatabase db, String sSQL )
+	{
+		if( db == null )
+			throw new QueryBuilder.UnboundException() ;
+		m_db = db ;
+		m_sSQL = sSQL ;
+		m_nParams = countParams( sSQL ) ;
+	}
+
+	/**
+	 * Accesses the rendered SQL string.
+	 * @return the SQL string, with {@code ?} placeholders for the parameters
+	 */
+	public String getSQL()
+	{ return m_sSQL ; }
+
+	/**
+	 * Accesses the number of positional parameters in the query.
+	 * @return the number of parameters
+	 */
+	public int getParameterCount()
+	{ return m_nParams ; }
+
+	/**
+	 * Binds a {@code NULL} value to a parameter.
+	 * @param nIndex the 1-based index of the parameter
+	 * @return (fluid)
+	 */
+	public abstract CompiledQuery<R> bindNull( int nIndex ) ;
+
+	/**
+	 * Binds an integer value to a parameter.
+	 * @param nIndex the 1-based index of the parameter
+	 * @param nValue the value
+	 * @return (fluid)
+	 */
+	public abstract CompiledQuery<R> bind( int nIndex, long nValue ) ;
+
+	/**
+	 * Binds a floating-point value to a parameter.
+	 * @param nIndex the 1-based index of the parameter
+	 * @param nValue the value
+	 * @return (fluid)
+	 */
+	public abstract CompiledQuery<R> bind( int nIndex, double nValue ) ;
+
+	/**
+	 * Binds a string value to a parameter. A {@code null} string is bound as
+	 * {@code NULL}.
+	 * @param nIndex the 1-based index of the parameter
+	 * @param sValue the value
+	 * @return (fluid)
+	 */
+	public abstract CompiledQuery<R> bind( int nIndex, String sValue ) ;
+
+	/**
+	 * Binds a binary value to a parameter. A {@code null} array is bound as
+	 * {@code NULL}.
+	 * @param nIndex the 1-based index of the parameter
+	 * @param abValue the value
+	 * @return (fluid)
+	 */
+	public abstract CompiledQuery<R> bind( int nIndex, byte[] abValue ) ;
+
+	/**
+	 * Binds a value of any type that may appear in {@link ContentValues},
+	 * choosing the typed binding method that suits it.
+	 * @param nIndex the 1-based index of the parameter
+	 * @param oValue the value
+	 * @return (fluid)
+	 */
+	public CompiledQuery<R> bindValue( int nIndex, Object oValue )
+	{
+		if( oValue == null )
+			return this.bindNull( nIndex ) ;
+		if( oValue instanceof byte[] )
+			return this.bind( nIndex, (byte[])oValue ) ;
+		if( oValue instanceof Float || oValue instanceof Double )
+			return this.bind( nIndex, ((Number)oValue).doubleValue() ) ;
+		if( oValue instanceof Number )
+			return this.bind( nIndex, ((Number)oValue).longValue() ) ;
+		if( oValue instanceof Boolean )
+			return this.bind( nIndex, ( ((Boolean)oValue) ? 1L : 0L ) ) ;
+		return this.bind( nIndex, oValue.toString() ) ;
+	}
+
+	/**
+	 * Binds a series of string values to consecutive parameters.
+	 * @param nStart the 1-based index of the first parameter to be bound
+	 * @param asValues the values
+	 * @return (fluid)
+	 */
+	public CompiledQuery<R> bindAll( int nStart, String... asValues )
+	{
+		if( asValues == null ) return this ;
+		for( int i = 0 ; i < asValues.length ; i++ )
+			this.bind( nStart + i, asValues[i] ) ;
+		return this ;
+	}
+
+	/**
+	 * Clears all parameter bindings.
+	 * @return (fluid)
+	 */
+	public abstract CompiledQuery<R> clearBindings() ;
+
+	/**
+	 * Executes the query with the current parameter bindings.
+	 * @return the usual return value of the builder from which the query was
+	 *  compiled
+	 */
+	public abstract R execute() ;
+
+	/** Releases any resources held by the compiled query. */
+	@Override
+	public abstract void close() ;
+
+	/**
+	 * Verifies that a parameter index is within the bounds of the query.
+	 * @param nIndex the 1-based index of a parameter
+	 * @throws IllegalArgumentException if the index is out of bounds
+	 */
+	protected void checkIndex( int nIndex )
+	{
+		if( nIndex < 1 || nIndex > m_nParams )
+		{
+			throw new IllegalArgumentException( (new StringBuilder())
+					.append( "Parameter index " ).append( nIndex )
+					.append( " is out of bounds; query has " )
+					.append( m_nParams ).append( " parameters." )
+					.toString()
+				);
+		}
+	}
+
+	@Override
+	public String toString()
+	{ return m_sSQL ; }
+}
@@ -0,0 +1,143 @@
+package net.zer0bandwidth.android.lib.database.querybuilder;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteCursorDriver;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteProgram;
+import android.database.sqlite.SQLiteQuery;
+
+import java.util.Arrays;
+
+/**
+ * A {@link CompiledQuery} for a {@code SELECT} statement.
+ *
+ * <p>Android does not expose a reusable statement object that produces a
+ * cursor, so each execution passes the compiled SQL string to
+ * {@link SQLiteDatabase#rawQueryWithFactory}. Because that string never
+ * changes, SQLite finds the statement in the connection's prepared-statement
+ * cache, rather than parsing it again; only the arguments vary. Those
+ * arguments are kept in a single array that is reused for each execution.</p>
+ *
+ * <p>{@link SQLiteDatabase#rawQuery} can bind only strings, so the selection
+ * instead supplies a {@link SQLiteDatabase.CursorFactory} which binds its
+ * arguments directly to the {@link SQLiteQuery} that Android creates. Each
+ * value is bound as its own type, so that a number is compared as a number
+ * even in an expression that has no column affinity, such as
+ * {@code HAVING COUNT(*)>?}. A parameter that is never bound is
+ * {@code NULL}.</p>
+ *
+ * @see SelectionBuilder#compile
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+public class CompiledSelection
+extends CompiledQuery<Cursor>
+{
+	/**
+	 * The arguments to be bound at execution, in positional order. Each is
+	 * either a {@code Long}, a {@code Double}, a {@code String}, a
+	 * {@code byte[]}, or {@code null}.
+	 */
+	protected final Object[] m_aoArgs ;
+
+	/** Binds the current arguments to each query as it is created. */
+	protected final SQLiteDatabase.CursorFactory m_factory =
+		new SQLiteDatabase.CursorFactory()
+		{
+			@Override
+			public Cursor newCursor( SQLiteDatabase db, SQLiteCursorDriver drv,
+					String sEditTable, SQLiteQuery q )
+			{
+				CompiledSelection.this.bindArgsTo(q) ;
+				return new SQLiteCursor( drv, sEditTable, q ) ;
+			}
+		};
+
+	public CompiledSelection( SQLiteDatabase db, String sSQL )
+	{
+		super( db, sSQL ) ;
+		m_aoArgs = new Object[m_nParams] ;
+	}
+
+	@Override
+	public CompiledSelection bindNull( int nIndex )
+	{
+		this.checkIndex( nIndex ) ;
+		m_aoArgs[nIndex-1] = null ;
+		return this ;
+	}
+
+	@Override
+	public CompiledSelection bind( int nIndex, long nValue )
+	{
+		this.checkIndex( nIndex ) ;
+		m_aoArgs[nIndex-1] = nValue ;
+		return this ;
+	}
+
+	@Override
+	public CompiledSelection bind( int nIndex, double nValue )
+	{
+		this.checkIndex( nIndex ) ;
+		m_aoArgs[nIndex-1] = nValue ;
+		return this ;
+	}
+
+	@Override
+	public CompiledSelection bind( int nIndex, String sValue )
+	{
+		this.checkIndex( nIndex ) ;
+		m_aoArgs[nIndex-1] = sValue ;
+		return this ;
+	}
+
+	@Override
+	public CompiledSelection bind( int nIndex, byte[] abValue )
+	{
+		this.checkIndex( nIndex ) ;
+		m_aoArgs[nIndex-1] = abValue ;
+		return this ;
+	}
+
+	@Override
+	public CompiledSelection clearBindings()
+	{ Arrays.fill( m_aoArgs, null ) ; return this ; }
+
+	/**
+	 * Binds the current arguments to a query program.
+	 * @param prog the program created for an execution of the selection
+	 */
+	protected void bindArgsTo( SQLiteProgram prog )
+	{
+		for( int i = 0 ; i < m_aoArgs.length ; i++ )
+		{
+			final Object oArg = m_aoArgs[i] ;
+			if( oArg == null )
+				prog.bindNull( i+1 ) ;
+			else if( oArg instanceof Long )
+				prog.bindLong( i+1, (Long)oArg ) ;
+			else if( oArg instanceof Double )
+				prog.bindDouble( i+1, (Double)oArg ) ;
+			else if( oArg instanceof byte[] )
+				prog.bindBlob( i+1, (byte[])oArg ) ;
+			else
+				prog.bindString( i+1, (String)oArg ) ;
+		}
+	}
+
+	/**
+	 * Executes the selection.
+	 * @return a cursor on the result set
+	 */
+	@Override
+	public Cursor execute()
+	{
+		if( m_nParams == 0 ) return m_db.rawQuery( m_sSQL, null ) ;
+		return m_db.rawQueryWithFactory( m_factory, m_sSQL, null, null ) ;
+	}
+
+	/** A compiled selection holds no resources beyond its arguments. */
+	@Override
+	public void close()
+	{}
+}
@@ -0,0 +1,216 @@
+package net.zer0bandwidth.android.lib.database.querybuilder;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.INSERT_FAILED;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.UPDATE_FAILED;
+
+/**
+ * A {@link CompiledQuery} for an {@code INSERT}, {@code UPDATE}, or
+ * {@code DELETE} statement, which holds a {@link SQLiteStatement} that is
+ * prepared once, when the query is compiled. Parameter bindings are passed
+ * directly to the prepared statement.
+ *
+ * <p>As with the builders, execution failures are logged, and reported through
+ * the return value rather than by an exception.</p>
+ *
+ * @param <R> the return type of {@link #execute()}
+ * @see InsertionBuilder#compile
+ * @see UpdateBuilder#compile
+ * @see DeletionBuilder#compile
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+public abstract class CompiledStatement<R>
+extends CompiledQuery<R>
+{
+	protected static final String LOG_TAG =
+			CompiledStatement.class.getSimpleName() ;
+
+	/**
+	 * Compiles an {@code INSERT} statement, whose execution returns the ID of
+	 * the inserted row.
+	 */
+	public static class ForInsert
+	extends CompiledStatement<Long>
+	{
+		public ForInsert( SQLiteDatabase db, String sSQL )
+		{ super( db, sSQL ) ; }
+
+		/**
+		 * Executes the insertion.
+		 * @return the ID of the newly-inserted row, or
+		 *  {@link net.zer0bandwidth.android.lib.database.SQLiteSyntax#INSERT_FAILED}
+		 *  if the row could not be inserted
+		 */
+		@Override
+		public Long execute()
+		{
+			try { return m_stmt.executeInsert() ; }
+			catch( Exception x )
+			{
+				Log.e( LOG_TAG, (new StringBuilder())
+						.append( "Compiled insertion [" )
+						.append( m_sSQL )
+						.append( "] failed:" )
+						.toString()
+					, x ) ;
+				return INSERT_FAILED ;
+			}
+		}
+	}
+
+	/**
+	 * Compiles an {@code UPDATE} or {@code DELETE} statement, whose execution
+	 * returns the number of rows affected.
+	 */
+	public static class ForUpdateDelete
+	extends CompiledStatement<Integer>
+	{
+		public ForUpdateDelete( SQLiteDatabase db, String sSQL )
+		{ super( db, sSQL ) ; }
+
+		/**
+		 * Executes the update or deletion.
+		 * @return the number of rows affected, or
+		 *  {@link net.zer0bandwidth.android.lib.database.SQLiteSyntax#UPDATE_FAILED}
+		 *  (which is equal to
+		 *  {@link net.zer0bandwidth.android.lib.database.SQLiteSyntax#DELETE_FAILED})
+		 *  if the operation fails
+		 */
+		@Override
+		public Integer execute()
+		{
+			try { return m_stmt.executeUpdateDelete() ; }
+			catch( Exception x )
+			{
+				Log.e( LOG_TAG, (new StringBuilder())
+						.append( "Compiled statement [" )
+						.append( m_sSQL )
+						.append( "] failed:" )
+						.toString()
+					, x ) ;
+				return UPDATE_FAILED ;
+			}
+		}
+	}
+
+	/**
+	 * Compiles a {@code SELECT} statement that returns a single integer, such
+	 * as an aggregate function, using
+	 * {@link SQLiteStatement#simpleQueryForLong}. Since any value could be a
+	 * valid result, failures are not caught, but thrown to the caller.
+	 * @see SelectionBuilder#compileAggregateOn
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static class ForLong
+	extends CompiledStatement<Long>
+	{
+		public ForLong( SQLiteDatabase db, String sSQL )
+		{ super( db, sSQL ) ; }
+
+		/**
+		 * Executes the query.
+		 * @return the value in the first column of the first row; an SQL
+		 *  {@code NULL} is returned as zero
+		 * @throws android.database.sqlite.SQLiteDoneException if the query
+		 *  returns no rows
+		 */
+		@Override
+		public Long execute()
+		{ return this.executeForLong() ; }
+
+		/**
+		 * Executes the query without boxing its result.
+		 * @return the value in the first column of the first row
+		 */
+		public long executeForLong()
+		{ return m_stmt.simpleQueryForLong() ; }
+	}
+
+	/**
+	 * Compiles a {@code SELECT} statement that returns a single value as a
+	 * string, using {@link SQLiteStatement#simpleQueryForString}. Since any
+	 * value could be a valid result, failures are not caught, but thrown to
+	 * the caller.
+	 * @see SelectionBuilder#compileAggregateForStringOn
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static class ForString
+	extends CompiledStatement<String>
+	{
+		public ForString( SQLiteDatabase db, String sSQL )
+		{ super( db, sSQL ) ; }
+
+		/**
+		 * Executes the query.
+		 * @return the value in the first column of the first row, or
+		 *  {@code null} if that value is an SQL {@code NULL}
+		 * @throws android.database.sqlite.SQLiteDoneException if the query
+		 *  returns no rows
+		 */
+		@Override
+		public String execute()
+		{ return m_stmt.simpleQueryForString() ; }
+	}
+
+	/** The prepared statement. */
+	protected SQLiteStatement m_stmt ;
+
+	/**
+	 * Prepares the statement on the specified database.
+	 * @param db the database on which the statement will be executed
+	 * @param sSQL the rendered SQL string
+	 */
+	protected CompiledStatement( SQLiteDatabase db, String sSQL )
+	{
+		super( db, sSQL ) ;
+		m_stmt = db.compileStatement( sSQL ) ;
+	}
+
+	@Override
+	public CompiledStatement<R> bindNull( int nIndex )
+	{ m_stmt.bindNull( nIndex ) ; return this ; }
+
+	@Override
+	public CompiledStatement<R> bind( int nIndex, long nValue )
+	{ m_stmt.bindLong( nIndex, nValue ) ; return this ; }
+
+	@Override
+	public CompiledStatement<R> bind( int nIndex, double nValue )
+	{ m_stmt.bindDouble( nIndex, nValue ) ; return this ; }
+
+	@Override
+	public CompiledStatement<R> bind( int nIndex, String sValue )
+	{
+		if( sValue == null ) m_stmt.bindNull( nIndex ) ;
+		else m_stmt.bindString( nIndex, sValue ) ;
+		return this ;
+	}
+
+	@Override
+	public CompiledStatement<R> bind( int nIndex, byte[] abValue )
+	{
+		if( abValue == null ) m_stmt.bindNull( nIndex ) ;
+		else m_stmt.bindBlob( nIndex, abValue ) ;
+		return this ;
+	}
+
+	/**
+	 * Executes the statement without catching any exception, so that a caller
+	 * which manages a transaction can roll it back.
+	 * @return the number of rows changed by the statement
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected int executeForChangedRowCount()
+	{ return m_stmt.executeUpdateDelete() ; }
+
+	@Override
+	public CompiledStatement<R> clearBindings()
+	{ m_stmt.clearBindings() ; return this ; }
+
+	@Override
+	public void close()
+	{ m_stmt.close() ; }
+}
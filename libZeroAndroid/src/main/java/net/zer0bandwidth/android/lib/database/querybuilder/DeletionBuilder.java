@@ -3,6 +3,8 @@ package net.zer0bandwidth.android.lib.database.querybuilder;
 import android.database.sqlite.SQLiteDatabase;
 import android.util.Log;
 
+import java.util.Collection;
+
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.DELETE_ALL;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.DELETE_FAILED;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_DELETE_FROM;
@@ -32,6 +34,15 @@ import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_WHERE;
  *     ;
  * </pre>
  *
+ * Delete a known set of records from a table, in a single transaction:
+ *
+ * <pre>
+ * int nDeleted = QueryBuilder.deleteFrom( sTableName )
+ *     .whereIn( "entity_id", anIDs )
+ *     .executeOn( db )
+ *     ;
+ * </pre>
+ *
  * @since zer0bandwidth-net/android 0.1.1 (#20)
  * @see SQLiteDatabase#delete(String, String, String[])
  */
@@ -51,6 +62,21 @@ extends QueryBuilder<DeletionBuilder,Integer>
 	public DeletionBuilder deleteAll()
 	{ return this.where( DELETE_ALL ) ; }
 
+	/**
+	 * Specifies that only rows whose value in the specified column matches
+	 * one of the supplied values should be deleted. This condition is applied
+	 * in addition to any explicit {@code WHERE} clause. The collection is read
+	 * when the query is executed, and may be of any size.
+	 * @param sColumn the name of the column to be matched
+	 * @param aValues the values to be matched, or {@code null} to remove the
+	 *  condition
+	 * @return (fluid)
+	 * @see QueryBuilder#executeWhereInOn
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public DeletionBuilder whereIn( String sColumn, Collection<?> aValues )
+	{ return this.setWhereIn( sColumn, aValues ) ; }
+
 	/**
 	 * Deletes rows based on the builder's {@code WHERE} clause.
 	 * @param db the database instance on which the query should be executed.
@@ -61,9 +87,17 @@ extends QueryBuilder<DeletionBuilder,Integer>
 	@Override
 	public Integer executeOn( SQLiteDatabase db )
 	{
+		final long tsStart = startTimer() ;
+		if( m_aWhereInValues != null )
+		{
+			return this.recordExecution( db, tsStart, this.executeWhereInOn(
+					db, SQL_DELETE_FROM + m_sTableName, null ) ) ;
+		}
+
+		int nDeleted ;
 		try
 		{
-			return db.delete(
+			nDeleted = db.delete(
 					m_sTableName,
 					this.getWhereFormat(),
 					this.getWhereParams()
@@ -72,8 +106,48 @@ extends QueryBuilder<DeletionBuilder,Integer>
 		catch( Exception x )
 		{
 			Log.e( LOG_TAG, "Deletion query failed:", x ) ;
-			return DELETE_FAILED ;
+			nDeleted = DELETE_FAILED ;
+		}
+		return this.recordExecution( db, tsStart, nDeleted ) ;
+	}
+
+	/**
+	 * Compiles the deletion into a reusable statement.
+	 * @param db the database instance on which the query will be executed
+	 * @return a compiled statement, whose execution returns the number of rows
+	 *  deleted
+	 * @throws IllegalStateException if a {@link #whereIn whereIn()} set has
+	 *  been specified
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Override
+	public CompiledStatement<Integer> compileOn( SQLiteDatabase db )
+	{
+		if( m_aWhereInValues != null )
+		{
+			throw new IllegalStateException(
+					"Can't compile a deletion with a whereIn() set." ) ;
 		}
+		return this.bindWhereParams(
+				new CompiledStatement.ForUpdateDelete( db, this.toSQL() ), 1 ) ;
+	}
+
+	/**
+	 * Renders the exact {@code DELETE} statement that the builder executes.
+	 * @return the SQL statement, with {@code ?} placeholders
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Override
+	public String toSQL()
+	{
+		if( m_aWhereInValues != null )
+			return this.renderWhereInSQL( SQL_DELETE_FROM + m_sTableName, 0 ) ;
+		StringBuilder sb = new StringBuilder() ;
+		sb.append( SQL_DELETE_FROM ).append( m_sTableName ) ;
+		final String sWhere = this.getWhereFormat() ;
+		if( sWhere != null )
+			sb.append( SQL_WHERE ).append( sWhere ) ;
+		return sb.toString() ;
 	}
 
 	/**
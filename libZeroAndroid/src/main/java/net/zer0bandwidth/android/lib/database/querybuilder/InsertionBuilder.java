@@ -1,12 +1,28 @@
 package net.zer0bandwidth.android.lib.database.querybuilder;
 
 import android.content.ContentValues;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
+import android.os.Build;
 import android.util.Log;
 
+import net.zer0bandwidth.android.lib.database.SQLiteColumnInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.INSERT_FAILED;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_MAX_VARIABLE_NUMBER;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_NULL;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_DEFAULT_VALUES;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_INSERT;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_INSERT_INTO;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_INTO;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_SET;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_VALUES;
 
 /**
  * Builds a SQLite {@code INSERT} query.
@@ -48,6 +64,16 @@ import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_SET;
  * }
  * </pre>
  *
+ * Insert a series of rows in a single transaction, using as few statements as
+ * possible.
+ *
+ * <pre>
+ * InsertionBuilder.BatchResult res = QueryBuilder.insertInto( sTableName )
+ *     .addRows( aSeveralValues )
+ *     .executeBatchOn( db )
+ *     ;
+ * </pre>
+ *
  * @since zer0bandwidth-net/android 0.1.1 (#20)
  * @see SQLiteDatabase#insertWithOnConflict(String, String, ContentValues, int)
  */
@@ -58,6 +84,51 @@ extends QueryBuilder<InsertionBuilder,Long>
 	protected static final String LOG_TAG =
 			InsertionBuilder.class.getSimpleName() ;
 
+	/**
+	 * Reports the outcome of a batch insertion.
+	 * @see #executeBatchOn(SQLiteDatabase)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static class BatchResult
+	{
+		/** The number of rows that were inserted. */
+		public int nRowsInserted = 0 ;
+
+		/**
+		 * The ID of the first row that was inserted, or
+		 * {@link net.zer0bandwidth.android.lib.database.SQLiteSyntax#INSERT_FAILED}
+		 * if the inserted rows can't be known to have contiguous IDs. This is
+		 * reported only if every row in the batch was inserted, and no row
+		 * specified its own row ID; SQLite then assigns the rows consecutive
+		 * IDs, ending at {@link #nLastRowID}. Rows that were skipped by a
+		 * conflict algorithm such as {@code IGNORE}, or that supplied their
+		 * own IDs, could leave gaps, so no range is reported.
+		 */
+		public long nFirstRowID = INSERT_FAILED ;
+
+		/**
+		 * The ID of the last row that was inserted, or
+		 * {@link net.zer0bandwidth.android.lib.database.SQLiteSyntax#INSERT_FAILED}
+		 * if no rows were inserted.
+		 */
+		public long nLastRowID = INSERT_FAILED ;
+
+		/**
+		 * Indicates that the batch failed, and that its transaction was rolled
+		 * back; no rows were inserted.
+		 */
+		public boolean bFailed = false ;
+	}
+
+	/**
+	 * The maximum number of rows to be written by a single multi-row
+	 * {@code INSERT} statement. Versions of SQLite older than 3.8.8 treat
+	 * such a statement as a compound {@code SELECT}, and so enforce SQLite's
+	 * default limit of 500 terms.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final int MAX_ROWS_PER_STATEMENT = 500 ;
+
 	/**
 	 * Specifies the column to use, if any, for the Android "null column hack"
 	 * during insertion.
@@ -76,6 +147,13 @@ extends QueryBuilder<InsertionBuilder,Long>
 	 */
 	protected int m_zConflictAlgorithmID = SQLiteDatabase.CONFLICT_NONE ;
 
+	/**
+	 * Rows to be inserted as a batch, in addition to any values set by
+	 * {@link #setValues}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected ArrayList<ContentValues> m_aRows = null ;
+
 	public InsertionBuilder( String sTableName )
 	{ super( sTableName ) ; }
 
@@ -97,10 +175,73 @@ extends QueryBuilder<InsertionBuilder,Long>
 	public InsertionBuilder onConflict( int zAlgorithmID )
 	{ m_zConflictAlgorithmID = zAlgorithmID ; return this ; }
 
+	/**
+	 * Adds a row to be inserted as part of a batch.
+	 * @param vals the values of the row
+	 * @return (fluid)
+	 * @see #executeBatchOn(SQLiteDatabase)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public InsertionBuilder addRow( ContentValues vals )
+	{
+		if( vals == null ) return this ;
+		if( m_aRows == null ) m_aRows = new ArrayList<>() ;
+		m_aRows.add( vals ) ;
+		return this ;
+	}
+
+	/**
+	 * Adds several rows to be inserted as part of a batch.
+	 * @param aRows the values of the rows
+	 * @return (fluid)
+	 * @see #executeBatchOn(SQLiteDatabase)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public InsertionBuilder addRows( Collection<ContentValues> aRows )
+	{
+		if( aRows == null ) return this ;
+		if( m_aRows == null ) m_aRows = new ArrayList<>( aRows.size() ) ;
+		else m_aRows.ensureCapacity( m_aRows.size() + aRows.size() ) ;
+		for( ContentValues vals : aRows )
+			if( vals != null ) m_aRows.add( vals ) ;
+		return this ;
+	}
+
+	/**
+	 * Adds several rows to be inserted as part of a batch.
+	 * @param aRows the values of the rows
+	 * @return (fluid)
+	 * @see #executeBatchOn(SQLiteDatabase)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public InsertionBuilder addRows( ContentValues... aRows )
+	{ return ( aRows == null ? this : this.addRows( Arrays.asList(aRows) ) ) ; }
+
+	/**
+	 * Also clears the nullable column, conflict resolution algorithm, and any
+	 * rows that were added to a batch.
+	 * @return (fluid)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Override
+	public InsertionBuilder reset()
+	{
+		m_sNullableColumn = null ;
+		m_zConflictAlgorithmID = SQLiteDatabase.CONFLICT_NONE ;
+		if( m_aRows != null ) m_aRows.clear() ;
+		return super.reset() ;
+	}
+
 	/**
 	 * Executes an insertion query on the values that have been appended to the
 	 * builder.
 	 *
+	 * <p>If any rows have been {@link #addRow added} to a batch, then the
+	 * whole batch is inserted as if by {@link #executeBatchOn}, and the ID of
+	 * the last row is returned. An installed {@link QueryInstrument} is told
+	 * the number of rows actually inserted, which excludes any that were
+	 * skipped by the conflict algorithm.</p>
+	 *
 	 * @param db the database instance on which the query should be executed.
 	 * @return the ID of the newly-inserted row, or
 	 *  {@link net.zer0bandwidth.android.lib.database.SQLiteSyntax#INSERT_FAILED}
@@ -109,11 +250,21 @@ extends QueryBuilder<InsertionBuilder,Long>
 	@Override
 	public Long executeOn( SQLiteDatabase db )
 	{
+		final long tsStart = startTimer() ;
+		if( m_aRows != null && ! m_aRows.isEmpty() )
+		{
+			BatchResult res = this.executeBatchOn( db ) ;
+			return this.recordExecution( db, tsStart,
+					( res.bFailed ? INSERT_FAILED : res.nLastRowID ),
+					res.nRowsInserted ) ;
+		}
+
 		if( m_valsToWrite == null ) return INSERT_FAILED ;
 
+		long nRowID ;
 		try
 		{
-			return db.insertWithOnConflict(
+			nRowID = db.insertWithOnConflict(
 					m_sTableName,
 					m_sNullableColumn,
 					m_valsToWrite,
@@ -128,10 +279,312 @@ extends QueryBuilder<InsertionBuilder,Long>
 					.append( "] failed:" )
 					.toString()
 				, x ) ;
-			return INSERT_FAILED ;
+			nRowID = INSERT_FAILED ;
+		}
+		// An insertion skipped by CONFLICT_IGNORE also reports INSERT_FAILED.
+		return this.recordExecution( db, tsStart, nRowID,
+				( nRowID == INSERT_FAILED ? 0L : 1L ) ) ;
+	}
+
+	/**
+	 * Compiles the insertion into a reusable statement. The values to be
+	 * written become the parameters of the statement, in lexical order of
+	 * their column names. If there are no values, then the statement inserts
+	 * {@code NULL} into the nullable column, if one was specified, or else a
+	 * row of default values.
+	 * @param db the database instance on which the query will be executed
+	 * @return a compiled statement, whose execution returns the ID of the
+	 *  newly-inserted row
+	 * @throws IllegalStateException if no values have been set
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Override
+	public CompiledStatement<Long> compileOn( SQLiteDatabase db )
+	{
+		if( m_valsToWrite == null )
+		{
+			throw new IllegalStateException(
+					"Can't compile an insertion without values." ) ;
+		}
+		final List<String> asKeys =
+				CompiledQuery.getSortedKeys( m_valsToWrite ) ;
+		CompiledStatement<Long> q = new CompiledStatement.ForInsert(
+				db, this.renderInsertSQL( asKeys, 1 ) ) ;
+		for( int i = 0 ; i < asKeys.size() ; i++ )
+			q.bindValue( i+1, m_valsToWrite.get( asKeys.get(i) ) ) ;
+		return q ;
+	}
+
+	/**
+	 * Renders the exact {@code INSERT} statement that the builder executes for
+	 * its first row. When a batch of rows is inserted, later statements may
+	 * write several rows at once.
+	 * @return the SQL statement, with {@code ?} placeholders
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Override
+	public String toSQL()
+	{
+		ContentValues vals = m_valsToWrite ;
+		if( vals == null && m_aRows != null && ! m_aRows.isEmpty() )
+			vals = m_aRows.get(0) ;
+		return this.renderInsertSQL(( vals == null ?
+				Collections.<String>emptyList() :
+				CompiledQuery.getSortedKeys( vals ) ), 1 ) ;
+	}
+
+	/**
+	 * Lists the values of the first row, in lexical order of their column
+	 * names.
+	 * @return the arguments of the statement rendered by {@link #toSQL}
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Override
+	public String[] getBindArgs()
+	{
+		ContentValues vals = m_valsToWrite ;
+		if( vals == null && m_aRows != null && ! m_aRows.isEmpty() )
+			vals = m_aRows.get(0) ;
+		if( vals == null || vals.size() == 0 ) return null ;
+		List<String> asKeys = CompiledQuery.getSortedKeys( vals ) ;
+		String[] asArgs = new String[asKeys.size()] ;
+		for( int i = 0 ; i < asArgs.length ; i++ )
+			asArgs[i] = toBindArg( vals.get( asKeys.get(i) ) ) ;
+		return asArgs ;
+	}
+
+	/**
+	 * Counts the values of every row to be inserted.
+	 * @return the number of arguments bound during an execution
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Override
+	public int countBindArgs()
+	{
+		int nArgs = ( m_valsToWrite == null ? 0 : m_valsToWrite.size() ) ;
+		if( m_aRows != null )
+			for( ContentValues vals : m_aRows ) nArgs += vals.size() ;
+		return nArgs ;
+	}
+
+	/**
+	 * Inserts all of the rows that have been {@link #addRow added} to the
+	 * builder, preceded by any values that were {@link #setValues set}, in a
+	 * single transaction.
+	 *
+	 * <p>Consecutive rows that have the same set of columns are written
+	 * together by multi-row {@code INSERT} statements, each of which stays
+	 * within the limits of
+	 * {@link net.zer0bandwidth.android.lib.database.SQLiteSyntax#SQLITE_MAX_VARIABLE_NUMBER}
+	 * parameters and {@link #MAX_ROWS_PER_STATEMENT} rows. Each distinct
+	 * statement is prepared only once per batch. On API levels older than 16,
+	 * whose SQLite does not support multi-row {@code VALUES}, each row is
+	 * written by its own execution of a single prepared statement instead.</p>
+	 *
+	 * <p>If any statement fails, then the whole transaction is rolled back,
+	 * and the result is marked as {@link BatchResult#bFailed failed}.</p>
+	 *
+	 * @param db the database instance on which the query should be executed
+	 * @return the outcome of the batch
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public BatchResult executeBatchOn( SQLiteDatabase db )
+	{
+		ArrayList<ContentValues> aRows = new ArrayList<>(
+				( m_aRows == null ? 0 : m_aRows.size() ) + 1 ) ;
+		if( m_valsToWrite != null ) aRows.add( m_valsToWrite ) ;
+		if( m_aRows != null ) aRows.addAll( m_aRows ) ;
+		BatchResult res = new BatchResult() ;
+		if( aRows.isEmpty() ) return res ;
+
+		final int nMaxRows =
+				( Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN ?
+					MAX_ROWS_PER_STATEMENT : 1 ) ;
+		CompiledStatement<Long> q = null ;
+		List<String> asStmtKeys = null ;
+		int nStmtRows = 0 ;
+		db.beginTransaction() ;
+		try
+		{
+			int nStart = 0 ;
+			while( nStart < aRows.size() )
+			{
+				List<String> asKeys =
+						CompiledQuery.getSortedKeys( aRows.get(nStart) ) ;
+				int nChunk = ( asKeys.isEmpty() ? 1 : Math.max( 1, Math.min(
+						nMaxRows, SQLITE_MAX_VARIABLE_NUMBER / asKeys.size() ) ) ) ;
+				int nEnd = nStart + 1 ;
+				while( nEnd < aRows.size() && nEnd - nStart < nChunk
+						&& hasColumns( aRows.get(nEnd), asKeys ) )
+					++nEnd ;
+
+				if( q == null || nEnd - nStart != nStmtRows
+						|| ! asKeys.equals( asStmtKeys ) )
+				{ // Prepare a new statement for this shape of chunk.
+					if( q != null ) { q.close() ; q = null ; }
+					asStmtKeys = asKeys ;
+					nStmtRows = nEnd - nStart ;
+					q = new CompiledStatement.ForInsert( db,
+							this.renderInsertSQL( asKeys, nStmtRows ) ) ;
+				}
+				int nParam = 1 ;
+				for( int i = nStart ; i < nEnd ; i++ )
+				{
+					ContentValues vals = aRows.get(i) ;
+					for( String sKey : asKeys )
+						q.bindValue( nParam++, vals.get(sKey) ) ;
+				}
+				res.nRowsInserted += q.executeForChangedRowCount() ;
+				nStart = nEnd ;
+			}
+			if( res.nRowsInserted > 0 )
+			{
+				res.nLastRowID = getLastInsertRowID(db) ;
+				if( res.nRowsInserted == aRows.size()
+						&& ! this.specifiesRowID( db, aRows ) )
+					res.nFirstRowID = res.nLastRowID - res.nRowsInserted + 1 ;
+			}
+			db.setTransactionSuccessful() ;
+		}
+		catch( Exception x )
+		{
+			Log.e( LOG_TAG, (new StringBuilder())
+					.append( "Batch insertion of [" )
+					.append( aRows.size() )
+					.append( "] rows into [" )
+					.append( m_sTableName )
+					.append( "] failed:" )
+					.toString()
+				, x ) ;
+			res = new BatchResult() ;
+			res.bFailed = true ;
+		}
+		finally
+		{
+			if( q != null ) q.close() ;
+			db.endTransaction() ;
 		}
+		return res ;
 	}
 
+	/**
+	 * Inserts all of the rows that have been added to the builder, on the
+	 * database instance to which the builder has been bound.
+	 * @return the outcome of the batch
+	 * @throws QueryBuilder.UnboundException if the builder is not yet bound to
+	 *  a database instance
+	 * @see #executeBatchOn(SQLiteDatabase)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public BatchResult executeBatch()
+	throws QueryBuilder.UnboundException
+	{
+		if( m_dbTarget == null )
+			throw new QueryBuilder.UnboundException() ;
+
+		return this.executeBatchOn( m_dbTarget ) ;
+	}
+
+	/**
+	 * Renders an {@code INSERT} statement which writes the specified columns
+	 * for the specified number of rows. If there are no columns, then the
+	 * statement inserts {@code NULL} into the nullable column, if one was
+	 * specified, or else a row of default values.
+	 * @param asKeys the columns to be written, in parameter order
+	 * @param nRows the number of rows to be written by the statement
+	 * @return the SQL statement
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected String renderInsertSQL( List<String> asKeys, int nRows )
+	{
+		StringBuilder sb = new StringBuilder() ;
+		sb.append( SQL_INSERT )
+		  .append( CompiledQuery.getConflictClause( m_zConflictAlgorithmID ) )
+		  .append( SQL_INTO ).append( m_sTableName )
+		  ;
+		if( ! asKeys.isEmpty() )
+		{
+			sb.append( " (" ) ;
+			for( int i = 0 ; i < asKeys.size() ; i++ )
+			{
+				if( i > 0 ) sb.append( ", " ) ;
+				sb.append( asKeys.get(i) ) ;
+			}
+			final String sParams = renderParamList( asKeys.size() ) ;
+			sb.append( ")" ).append( SQL_VALUES ).append( sParams ) ;
+			for( int i = 1 ; i < nRows ; i++ )
+				sb.append( ", " ).append( sParams ) ;
+		}
+		else if( m_sNullableColumn != null )
+		{
+			sb.append( " (" ).append( m_sNullableColumn ).append( ")" )
+			  .append( SQL_VALUES )
+			  .append( "(" ).append( SQLITE_NULL ).append( ")" ) ;
+		}
+		else sb.append( SQL_DEFAULT_VALUES ) ;
+		return sb.toString() ;
+	}
+
+	/**
+	 * Determines whether a row has exactly the specified set of columns.
+	 * @param vals the values of the row
+	 * @param asKeys the expected columns
+	 * @return {@code true} if the row has exactly those columns
+	 */
+	protected static boolean hasColumns( ContentValues vals, List<String> asKeys )
+	{
+		if( vals.size() != asKeys.size() ) return false ;
+		for( String sKey : asKeys )
+			if( ! vals.containsKey( sKey ) ) return false ;
+		return true ;
+	}
+
+	/**
+	 * Determines whether any of the rows supplies its own value for the
+	 * table's row ID, either directly or through an {@code INTEGER PRIMARY
+	 * KEY} column, which is an alias for it.
+	 * @param db the database
+	 * @param aRows the rows to be examined
+	 * @return {@code true} if any row specifies its own row ID
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected boolean specifiesRowID( SQLiteDatabase db,
+			List<ContentValues> aRows )
+	{
+		String sKeyColumn = null ;
+		int nKeyColumns = 0 ;
+		for( SQLiteColumnInfo info :
+				SQLiteColumnInfo.gatherColumnList( db, m_sTableName ) )
+		{
+			if( ! info.bPrimaryKey ) continue ;
+			++nKeyColumns ;
+			if( "INTEGER".equalsIgnoreCase( info.sColumnType ) )
+				sKeyColumn = info.sColumnName ;
+		}
+		if( nKeyColumns != 1 ) sKeyColumn = null ; // Composite keys aren't aliases.
+		for( ContentValues vals : aRows )
+		{
+			for( String sKey : vals.keySet() )
+			{
+				if( sKey.equalsIgnoreCase( sKeyColumn )
+				 || sKey.equalsIgnoreCase( "rowid" )
+				 || sKey.equalsIgnoreCase( "_rowid_" )
+				 || sKey.equalsIgnoreCase( "oid" ) )
+					return true ;
+			}
+		}
+		return false ;
+	}
+
+	/**
+	 * Fetches the ID of the row most recently inserted on the database
+	 * connection.
+	 * @param db the database
+	 * @return the ID of the last row inserted
+	 */
+	protected static long getLastInsertRowID( SQLiteDatabase db )
+	{ return DatabaseUtils.longForQuery( db, "SELECT last_insert_rowid()", null ) ; }
+
 	/**
 	 * Constructs a raw SQL {@code INSERT} query based on the attributes of the
 	 * builder instance.
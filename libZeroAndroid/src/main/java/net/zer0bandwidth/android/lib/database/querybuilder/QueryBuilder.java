@@ -1,7 +1,9 @@
 package net.zer0bandwidth.android.lib.database.querybuilder;
 
 import android.content.ContentValues;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
 
 import net.zer0bandwidth.android.lib.database.SQLitePortal;
 
@@ -9,10 +11,15 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_MAX_VARIABLE_NUMBER;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_NULL;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_VAR;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_WHERE;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.UPDATE_FAILED;
 
 /**
  * Builds a SQLite query using methods, rather than the methods from the
@@ -81,7 +88,53 @@ public abstract class QueryBuilder<I extends QueryBuilder, R>
 
 /// Static constants ///////////////////////////////////////////////////////////
 
-	// Last one was removed in 0.2.0 (#49). Placeholder space remains.
+	/**
+	 * The number of values in a {@code whereIn()} set above which the values
+	 * are first written to a temporary table, rather than being split into
+	 * several {@code IN} lists.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final int WHERE_IN_TEMP_TABLE_THRESHOLD = 10000 ;
+
+	/**
+	 * The name of the temporary table used for large {@code whereIn()} sets.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected static final String WHERE_IN_TEMP_TABLE = "zer0b_where_in" ;
+
+/// Static instrumentation /////////////////////////////////////////////////////
+
+	/**
+	 * The instrument which measures every execution of every builder, if any.
+	 * @see #setInstrument(QueryInstrument)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected static volatile QueryInstrument s_instrument = null ;
+
+	/**
+	 * Returned by {@link #startTimer()} when no instrument is installed.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected static final long TIMER_OFF = Long.MIN_VALUE ;
+
+	/**
+	 * Installs an instrument which measures every subsequent execution of any
+	 * builder, by {@link #executeOn} or {@link #execute}. Pass {@code null} to
+	 * disable instrumentation again.
+	 * @param instr the instrument, or {@code null}
+	 * @see QueryInstrument
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static void setInstrument( QueryInstrument instr )
+	{ s_instrument = instr ; }
+
+	/**
+	 * Accesses the instrument which measures the executions of builders.
+	 * @return the instrument, or {@code null} if none is installed
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static QueryInstrument getInstrument()
+	{ return s_instrument ; }
 
 /// Static kickoff methods (starts a query of a given type) ////////////////////
 
@@ -192,10 +245,19 @@ public abstract class QueryBuilder<I extends QueryBuilder, R>
 		{
 			if( sb.length() > 0 ) sb.append( ", " ) ;
 			sb.append( pair.getKey() ).append( "=" ) ;
-			if( pair.getValue() instanceof Number )
-				sb.append( pair.getValue() ) ;
+			final Object oValue = pair.getValue() ;
+			if( oValue == null )
+				sb.append( SQLITE_NULL ) ;
+			else if( oValue instanceof Number )
+				sb.append( oValue ) ;
+			else if( oValue instanceof Boolean )
+				sb.append( SQLitePortal.boolToIntString( (Boolean)oValue ) ) ;
 			else
-				sb.append( "'" ).append( pair.getValue() ).append( "'" ) ;
+			{
+				sb.append( "'" )
+				  .append( oValue.toString().replace( "'", "''" ) )
+				  .append( "'" ) ;
+			}
 		}
 		return sb.toString() ;
 	}
@@ -229,6 +291,20 @@ public abstract class QueryBuilder<I extends QueryBuilder, R>
 	 */
 	protected SQLiteDatabase m_dbTarget = null ;
 
+	/**
+	 * For {@code UPDATE} and {@code DELETE} operations, the column whose
+	 * values are matched against {@link #m_aWhereInValues}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected String m_sWhereInColumn = null ;
+
+	/**
+	 * For {@code UPDATE} and {@code DELETE} operations, the set of values
+	 * that {@link #m_sWhereInColumn} must match, if any.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected Collection<?> m_aWhereInValues = null ;
+
 /// Shared constructor /////////////////////////////////////////////////////////
 
 	/**
@@ -329,6 +405,83 @@ public abstract class QueryBuilder<I extends QueryBuilder, R>
 		}
 	}
 
+	/**
+	 * Constructs the {@code WHERE} clause for the query from an expression
+	 * tree, using its cached format string and parameters.
+	 * @param xWhere the expression, or {@code null} to remove the clause
+	 * @return (fluid)
+	 * @see WhereExpression
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public I whereExpr( WhereExpression xWhere )
+	{
+		if( xWhere == null )
+			return this.where( null ) ;
+		else
+			return this.where( xWhere.getFormat(), xWhere.getParams() ) ;
+	}
+
+	/**
+	 * Replaces the parameters of the builder's explicit {@code WHERE} clause,
+	 * leaving the format string and all other attributes intact. This allows a
+	 * builder to be executed repeatedly with new bind arguments, without
+	 * constructing a new builder for each execution.
+	 * @param asWhereParams the new parameters for the {@code WHERE} clause
+	 * @return (fluid)
+	 * @throws IllegalStateException if no {@code WHERE} format has been set
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@SuppressWarnings( "unchecked" )
+	public I withParams( String... asWhereParams )
+	{
+		if( m_sExplicitWhereFormat == null )
+		{
+			throw new IllegalStateException(
+					"Can't bind parameters without a WHERE format." ) ;
+		}
+		m_asExplicitWhereParams = asWhereParams ;
+		return (I)this ;
+	}
+
+	/**
+	 * Clears the values and {@code WHERE} clause of the builder, so that it
+	 * may be reused for a new query on the same table. The table name and any
+	 * database binding are retained. Implementation classes which define
+	 * further attributes should override this method to clear them as well.
+	 * @return (fluid)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@SuppressWarnings( "unchecked" )
+	public I reset()
+	{
+		m_valsToWrite = null ;
+		m_sExplicitWhereFormat = null ;
+		m_asExplicitWhereParams = null ;
+		m_sWhereInColumn = null ;
+		m_aWhereInValues = null ;
+		return (I)this ;
+	}
+
+	/**
+	 * Sets a collection of values, one of which must be matched by the
+	 * specified column, in addition to any explicit {@code WHERE} clause.
+	 * Implementation classes which can execute such a query in several parts
+	 * expose this as a public {@code whereIn()} method.
+	 * @param sColumn the name of the column to be matched
+	 * @param aValues the values to be matched, or {@code null} to remove the
+	 *  condition
+	 * @return (fluid)
+	 * @see #executeWhereInOn
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@SuppressWarnings( "unchecked" )
+	protected I setWhereIn( String sColumn, Collection<?> aValues )
+	{
+		m_sWhereInColumn = ( aValues == null ? null : sColumn ) ;
+		m_aWhereInValues = aValues ;
+		return (I)this ;
+	}
+
 	/**
 	 * Creates the Android {@code WHERE} clause template to be passed to a
 	 * {@link SQLiteDatabase} function.
@@ -378,11 +531,159 @@ public abstract class QueryBuilder<I extends QueryBuilder, R>
 
 	/**
 	 * Executes the query that has been built by the implementation class.
+	 *
+	 * <p>Since 1.1.0, an implementation may report its executions to the
+	 * {@link QueryInstrument} installed by {@link #setInstrument}, by calling
+	 * {@link #startTimer()} before it executes the query, and passing the
+	 * result to {@link #recordExecution} afterward. All of the library's own
+	 * builders do so.</p>
+	 *
 	 * @param db the database instance on which the query should be executed.
 	 * @return the usual return value of the underlying method
 	 */
 	public abstract R executeOn( SQLiteDatabase db ) ;
 
+	/**
+	 * Starts timing an execution, if a {@link QueryInstrument} is installed.
+	 * The value should be passed to {@link #recordExecution} when the
+	 * execution is finished.
+	 * @return the start time of the execution, or {@link #TIMER_OFF} if no
+	 *  instrument is installed
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected static long startTimer()
+	{ return ( s_instrument == null ? TIMER_OFF : System.nanoTime() ) ; }
+
+	/**
+	 * Reports an execution to the installed {@link QueryInstrument}, if any,
+	 * counting its rows with {@link #getResultCount}. When the result is a
+	 * {@link Cursor}, its rows are counted before the timer stops, so that the
+	 * time includes the work which Android would otherwise defer until the
+	 * cursor is first read.
+	 * @param db the database on which the query was executed
+	 * @param tsStart the value returned by {@link #startTimer()}
+	 * @param result the result of the execution
+	 * @return the result, unchanged
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected R recordExecution( SQLiteDatabase db, long tsStart, R result )
+	{
+		if( tsStart == TIMER_OFF || s_instrument == null ) return result ;
+		if( result instanceof Cursor ) ((Cursor)result).getCount() ;
+		return this.recordExecution( db, tsStart, result,
+				this.getResultCount( result ) ) ;
+	}
+
+	/**
+	 * Reports an execution to the installed {@link QueryInstrument}, if any,
+	 * with a row count that the implementation has already determined.
+	 * @param db the database on which the query was executed
+	 * @param tsStart the value returned by {@link #startTimer()}
+	 * @param result the result of the execution
+	 * @param nResultCount the number of rows returned or affected, or
+	 *  {@code -1} if unknown
+	 * @return the result, unchanged
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected R recordExecution( SQLiteDatabase db, long tsStart, R result,
+			long nResultCount )
+	{
+		final QueryInstrument instr = s_instrument ;
+		if( tsStart == TIMER_OFF || instr == null ) return result ;
+		instr.record( db, this, System.nanoTime() - tsStart, nResultCount ) ;
+		return result ;
+	}
+
+	/**
+	 * Renders the exact SQL statement that the builder executes, with
+	 * {@code ?} placeholders for its arguments. Unlike {@link #toString},
+	 * which substitutes the arguments for display, this is the text that
+	 * SQLite actually prepares. If the query is executed as several
+	 * statements, as with a {@code whereIn()} set or a batch of insertions,
+	 * then the first statement is rendered.
+	 *
+	 * <p>Each of the library's own builders overrides this method. The default
+	 * implementation returns {@code null}, so that a subclass written for an
+	 * earlier version of the library need not implement it; such a query is
+	 * still instrumented, but can't be explained.</p>
+	 *
+	 * @return the SQL statement, or {@code null} if the implementation class
+	 *  can't render it
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public String toSQL()
+	{ return null ; }
+
+	/**
+	 * Lists the arguments to be bound to the statement rendered by
+	 * {@link #toSQL}, in order.
+	 * @return the arguments, or {@code null} if there are none
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public String[] getBindArgs()
+	{ return this.getWhereParams() ; }
+
+	/**
+	 * Counts all of the arguments bound during an execution of the builder,
+	 * including any values of a {@code whereIn()} set.
+	 * @return the number of arguments
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public int countBindArgs()
+	{
+		final String[] asArgs = this.getBindArgs() ;
+		int nArgs = ( asArgs == null ? 0 : asArgs.length ) ;
+		if( m_aWhereInValues != null ) nArgs += m_aWhereInValues.size() ;
+		return nArgs ;
+	}
+
+	/**
+	 * Indicates whether the statement rendered by {@link #toSQL} can be
+	 * explained with the arguments from {@link #getBindArgs}. This is not
+	 * the case when the builder has a {@code whereIn()} set, whose values
+	 * are bound separately.
+	 * @return {@code true} if the query can be explained
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public boolean canExplain()
+	{ return ( m_aWhereInValues == null ) ; }
+
+	/**
+	 * Runs {@code EXPLAIN QUERY PLAN} for the statement that the builder
+	 * would execute, without executing it.
+	 * @param db the database instance on which the query would be executed
+	 * @return the details of each step of the plan
+	 * @throws IllegalStateException if the query {@link #canExplain can't be
+	 *  explained}
+	 * @see QueryInstrument#isFullScan(List)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public List<String> explainOn( SQLiteDatabase db )
+	{
+		if( ! this.canExplain() )
+		{
+			throw new IllegalStateException(
+					"Can't explain a query with a whereIn() set." ) ;
+		}
+		return QueryInstrument.explain( db, this.toSQL(), this.getBindArgs() ) ;
+	}
+
+	/**
+	 * Interprets the result of an execution as the number of rows returned or
+	 * affected, for a {@link QueryInstrument}. The default implementation
+	 * counts the rows of a {@link Cursor}, and takes an {@link Integer} to be
+	 * a count of affected rows.
+	 * @param result the result of {@link #executeOn}
+	 * @return the number of rows, or {@code -1} if unknown
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected long getResultCount( R result )
+	{
+		if( result instanceof Cursor ) return ((Cursor)result).getCount() ;
+		if( result instanceof Integer ) return (Integer)result ;
+		return -1L ;
+	}
+
 	/**
 	 * Executes the query that has been built by the implementation class, on
 	 * the database instance to which the builder has been bound, either by a
@@ -400,4 +701,275 @@ public abstract class QueryBuilder<I extends QueryBuilder, R>
 
 		return this.executeOn( m_dbTarget ) ;
 	}
+
+	/**
+	 * Renders the query that has been built by the implementation class into
+	 * a {@link CompiledQuery}, which can be executed repeatedly with new
+	 * parameter bindings. Any parameters that are already known to the builder
+	 * are bound initially.
+	 *
+	 * <p>Each of the library's own builders overrides this method. The default
+	 * implementation throws, so that a subclass written for an earlier
+	 * version of the library need not implement it.</p>
+	 *
+	 * @param db the database instance on which the query will be executed
+	 * @return a compiled query
+	 * @throws UnsupportedOperationException if the implementation class does
+	 *  not support compiled queries
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public CompiledQuery<R> compileOn( SQLiteDatabase db )
+	throws UnsupportedOperationException
+	{
+		throw new UnsupportedOperationException( (new StringBuilder())
+				.append( this.getClass().getName() )
+				.append( " does not support compiled queries." )
+				.toString()
+			);
+	}
+
+	/**
+	 * Renders the query that has been built by the implementation class into
+	 * a {@link CompiledQuery}, for the database instance to which the builder
+	 * has been bound.
+	 * @return a compiled query
+	 * @throws QueryBuilder.UnboundException if the builder is not yet bound to
+	 *  a database instance
+	 * @throws UnsupportedOperationException if the implementation class does
+	 *  not support compiled queries
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public final CompiledQuery<R> compile()
+	throws QueryBuilder.UnboundException
+	{
+		if( m_dbTarget == null )
+			throw new QueryBuilder.UnboundException() ;
+
+		return this.compileOn( m_dbTarget ) ;
+	}
+
+	/**
+	 * Executes an {@code UPDATE} or {@code DELETE} statement which matches
+	 * the {@link #setWhereIn whereIn()} set, in a single transaction.
+	 *
+	 * <p>The set is split into chunks small enough that the statement stays
+	 * within the limit of
+	 * {@link net.zer0bandwidth.android.lib.database.SQLiteSyntax#SQLITE_MAX_VARIABLE_NUMBER}
+	 * parameters, and the statement is executed once per chunk, with a
+	 * prepared statement that is reused for every full chunk. If the set is larger than
+	 * {@link #WHERE_IN_TEMP_TABLE_THRESHOLD}, then its values are instead
+	 * written to a temporary table, and the statement is executed once,
+	 * matching against that table.</p>
+	 *
+	 * <p>If any part of the operation fails, then the whole transaction is
+	 * rolled back.</p>
+	 *
+	 * @param db the database on which the statement is executed
+	 * @param sHead the statement, up to but not including its {@code WHERE}
+	 *  clause, with {@code ?} placeholders for any values
+	 * @param aHeadValues the values to be bound to the placeholders in
+	 *  {@code sHead}, if any
+	 * @return the total number of rows affected, or
+	 *  {@link net.zer0bandwidth.android.lib.database.SQLiteSyntax#UPDATE_FAILED}
+	 *  (which is equal to
+	 *  {@link net.zer0bandwidth.android.lib.database.SQLiteSyntax#DELETE_FAILED})
+	 *  if the operation fails
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected int executeWhereInOn( SQLiteDatabase db, String sHead,
+			List<?> aHeadValues )
+	{
+		if( m_aWhereInValues.isEmpty() ) return 0 ;     // Nothing can match.
+
+		final String sPrefix = this.renderWhereInPrefix( sHead ) ;
+		final int nFixedParams =
+				( aHeadValues == null ? 0 : aHeadValues.size() )
+				+ CompiledQuery.countParams( m_sExplicitWhereFormat ) ;
+		final int nChunk = SQLITE_MAX_VARIABLE_NUMBER - nFixedParams ;
+		final int nValues = m_aWhereInValues.size() ;
+
+		CompiledStatement<Integer> q = null ;
+		int nChanged = 0 ;
+		db.beginTransaction() ;
+		try
+		{
+			if( nValues > WHERE_IN_TEMP_TABLE_THRESHOLD || nChunk < 1 )
+			{
+				this.fillWhereInTempTable( db ) ;
+				q = new CompiledStatement.ForUpdateDelete( db, sPrefix
+						+ "(SELECT v FROM " + WHERE_IN_TEMP_TABLE + ")" ) ;
+				this.bindFixedParams( q, aHeadValues ) ;
+				nChanged = q.executeForChangedRowCount() ;
+				db.execSQL( "DROP TABLE " + WHERE_IN_TEMP_TABLE ) ;
+			}
+			else
+			{
+				Iterator<?> itValues = m_aWhereInValues.iterator() ;
+				int nStmtSize = 0 ;
+				int nRemaining = nValues ;
+				while( nRemaining > 0 )
+				{
+					int nSize = Math.min( nChunk, nRemaining ) ;
+					if( q == null || nSize != nStmtSize )
+					{ // Prepare a new statement for this size of chunk.
+						if( q != null ) { q.close() ; q = null ; }
+						q = new CompiledStatement.ForUpdateDelete( db,
+								sPrefix + renderParamList( nSize ) ) ;
+						nStmtSize = nSize ;
+						this.bindFixedParams( q, aHeadValues ) ;
+					}
+					for( int i = 1 ; i <= nSize ; i++ )
+						q.bindValue( nFixedParams + i, itValues.next() ) ;
+					nChanged += q.executeForChangedRowCount() ;
+					nRemaining -= nSize ;
+				}
+			}
+			db.setTransactionSuccessful() ;
+		}
+		catch( Exception x )
+		{
+			Log.e( this.getClass().getSimpleName(), (new StringBuilder())
+					.append( "Statement matching [" )
+					.append( nValues )
+					.append( "] values of [" )
+					.append( m_sWhereInColumn )
+					.append( "] failed:" )
+					.toString()
+				, x ) ;
+			nChanged = UPDATE_FAILED ;
+		}
+		finally
+		{
+			if( q != null ) q.close() ;
+			db.endTransaction() ;
+		}
+		return nChanged ;
+	}
+
+	/**
+	 * Renders a statement which matches the {@link #setWhereIn whereIn()}
+	 * set, up to but not including its parenthesized list of values.
+	 * @param sHead the statement, up to but not including its {@code WHERE}
+	 *  clause
+	 * @return the statement, ending with {@code IN }
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected String renderWhereInPrefix( String sHead )
+	{
+		StringBuilder sb = new StringBuilder( sHead ).append( SQL_WHERE ) ;
+		if( m_sExplicitWhereFormat != null )
+			sb.append( "(" ).append( m_sExplicitWhereFormat ).append( ") AND " ) ;
+		sb.append( m_sWhereInColumn ).append( " IN " ) ;
+		return sb.toString() ;
+	}
+
+	/**
+	 * Renders the first statement that {@link #executeWhereInOn} would
+	 * execute, for {@link #toSQL}.
+	 * @param sHead the statement, up to but not including its {@code WHERE}
+	 *  clause
+	 * @param nHeadValues the number of values bound to {@code sHead}
+	 * @return the first statement
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected String renderWhereInSQL( String sHead, int nHeadValues )
+	{
+		final int nValues = m_aWhereInValues.size() ;
+		final int nChunk = SQLITE_MAX_VARIABLE_NUMBER - nHeadValues
+				- CompiledQuery.countParams( m_sExplicitWhereFormat ) ;
+		final String sPrefix = this.renderWhereInPrefix( sHead ) ;
+		if( nValues > WHERE_IN_TEMP_TABLE_THRESHOLD || nChunk < 1 )
+			return sPrefix + "(SELECT v FROM " + WHERE_IN_TEMP_TABLE + ")" ;
+		return sPrefix + renderParamList( Math.max( 1, Math.min( nChunk, nValues ) ) ) ;
+	}
+
+	/**
+	 * Creates the temporary table used by {@link #executeWhereInOn}, and
+	 * fills it with the values of the {@code whereIn()} set.
+	 * @param db the database on which the table is created
+	 */
+	protected void fillWhereInTempTable( SQLiteDatabase db )
+	{
+		db.execSQL( "DROP TABLE IF EXISTS " + WHERE_IN_TEMP_TABLE ) ;
+		db.execSQL( "CREATE TEMP TABLE " + WHERE_IN_TEMP_TABLE + " (v)" ) ;
+		CompiledStatement<Long> qInsert = new CompiledStatement.ForInsert( db,
+				"INSERT INTO " + WHERE_IN_TEMP_TABLE + " (v) VALUES (?)" ) ;
+		try
+		{
+			for( Object oValue : m_aWhereInValues )
+			{
+				qInsert.bindValue( 1, oValue ) ;
+				qInsert.executeForChangedRowCount() ;
+			}
+		}
+		finally
+		{ qInsert.close() ; }
+	}
+
+	/**
+	 * Binds the values of a statement's head, followed by the parameters of
+	 * the explicit {@code WHERE} clause, to a compiled statement.
+	 * @param q the compiled statement
+	 * @param aHeadValues the values to be bound first, if any
+	 */
+	protected void bindFixedParams( CompiledQuery<?> q, List<?> aHeadValues )
+	{
+		int nParam = 1 ;
+		if( aHeadValues != null )
+		{
+			for( Object oValue : aHeadValues )
+				q.bindValue( nParam++, oValue ) ;
+		}
+		if( m_sExplicitWhereFormat != null )
+			q.bindAll( nParam, m_asExplicitWhereParams ) ;
+	}
+
+	/**
+	 * Converts a value from a set of {@link ContentValues} into a string
+	 * argument, as SQLite would store it. Boolean values become {@code 1} or
+	 * {@code 0}.
+	 * @param oValue the value
+	 * @return the value as a string, or {@code null}
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected static String toBindArg( Object oValue )
+	{
+		if( oValue == null ) return null ;
+		if( oValue instanceof Boolean )
+			return SQLitePortal.boolToIntString( (Boolean)oValue ) ;
+		return oValue.toString() ;
+	}
+
+	/**
+	 * Renders a parenthesized list of positional parameters.
+	 * @param nCount the number of parameters
+	 * @return a list such as {@code (?, ?, ?)}
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected static String renderParamList( int nCount )
+	{
+		StringBuilder sb = new StringBuilder( nCount * 3 + 1 ).append( "(" ) ;
+		for( int i = 0 ; i < nCount ; i++ )
+		{
+			if( i > 0 ) sb.append( ", " ) ;
+			sb.append( SQLITE_VAR ) ;
+		}
+		return sb.append( ")" ).toString() ;
+	}
+
+	/**
+	 * Binds the parameters of the builder's explicit {@code WHERE} clause, if
+	 * any, to a compiled query.
+	 * @param q the compiled query
+	 * @param nStart the 1-based index of the first {@code WHERE} parameter
+	 * @param <Q> the type of compiled query
+	 * @return the compiled query, for chaining
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected <Q extends CompiledQuery<?>> Q bindWhereParams( Q q, int nStart )
+	{
+		if( m_sExplicitWhereFormat != null )
+			q.bindAll( nStart, m_asExplicitWhereParams ) ;
+		return q ;
+	}
 }
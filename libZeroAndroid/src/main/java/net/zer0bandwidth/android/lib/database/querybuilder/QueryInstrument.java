@@ -0,0 +1,315 @@
+package net.zer0bandwidth.android.lib.database.querybuilder;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static net.zer0bandwidth.android.lib.database.SQLitePortal.closeCursor;
+
+/**
+ * Measures the executions of {@link QueryBuilder} instances, and reports them
+ * to a {@link Sink}.
+ *
+ * <p>Instrumentation is disabled by default. It is enabled for all builders by
+ * passing an instance of this class to {@link QueryBuilder#setInstrument}. While
+ * no instrument is installed, each builder's {@link QueryBuilder#executeOn}
+ * does no more than read one static field before executing its query.</p>
+ *
+ * <p>For each execution, the instrument records the exact SQL statement, as
+ * rendered by {@link QueryBuilder#toSQL}, the number of arguments bound to it,
+ * the elapsed time, and the number of rows returned or affected. If the query
+ * took longer than the {@link #setSlowQueryThreshold slow-query threshold}, or
+ * if the instrument is set to {@link #setExplainAll explain all} queries, then
+ * the instrument also runs {@code EXPLAIN QUERY PLAN} for the statement, and
+ * notes whether the plan includes a full scan of any table. A plan can also be
+ * requested on demand, with {@link QueryBuilder#explainOn}.</p>
+ *
+ * <h3>Example</h3>
+ *
+ * <pre>
+ * QueryBuilder.setInstrument( new QueryInstrument( QueryInstrument.LOG_SINK )
+ *     .setSlowQueryThreshold( 50 ) ) ;
+ * </pre>
+ *
+ * @see QueryBuilder#setInstrument(QueryInstrument)
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@SuppressWarnings( "unused" )                              // This is a library.
+public class QueryInstrument
+{
+	public static final String LOG_TAG = QueryInstrument.class.getSimpleName() ;
+
+/// Inner classes //////////////////////////////////////////////////////////////
+
+	/**
+	 * Receives a report of each execution measured by an instrument. Methods
+	 * of the sink are called synchronously, on the thread that executed the
+	 * query, so implementations should return quickly.
+	 */
+	public interface Sink
+	{
+		/**
+		 * Called after each execution of a query.
+		 * @param exec the details of the execution
+		 */
+		void onQueryExecuted( Execution exec ) ;
+	}
+
+	/**
+	 * Describes a single execution of a query.
+	 */
+	public static class Execution
+	{
+		/** The table on which the query operated. */
+		public final String sTableName ;
+		/**
+		 * The SQL statement which was executed, with {@code ?} placeholders
+		 * for its arguments, or {@code null} if the builder can't render it.
+		 */
+		public final String sSQL ;
+		/** The number of arguments bound to the statement. */
+		public final int nArgs ;
+		/** The time taken by the execution, in nanoseconds. */
+		public final long nElapsedNanos ;
+		/**
+		 * The number of rows returned or affected, or {@code -1} if unknown.
+		 */
+		public final long nResultCount ;
+		/**
+		 * The details of the statement's query plan, or {@code null} if the
+		 * plan was not explained.
+		 */
+		public final List<String> asPlan ;
+		/**
+		 * Indicates whether the query plan includes a full table scan. This is
+		 * always {@code false} if the plan was not explained.
+		 */
+		public final boolean bFullScan ;
+		/**
+		 * Indicates whether the execution took longer than the instrument's
+		 * slow-query threshold.
+		 */
+		public final boolean bSlow ;
+
+		protected Execution( String sTableName, String sSQL, int nArgs,
+				long nElapsedNanos, long nResultCount, List<String> asPlan,
+				boolean bSlow )
+		{
+			this.sTableName = sTableName ;
+			this.sSQL = sSQL ;
+			this.nArgs = nArgs ;
+			this.nElapsedNanos = nElapsedNanos ;
+			this.nResultCount = nResultCount ;
+			this.asPlan = asPlan ;
+			this.bFullScan = isFullScan( asPlan ) ;
+			this.bSlow = bSlow ;
+		}
+
+		/**
+		 * Accesses the time taken by the execution, in milliseconds.
+		 * @return the elapsed time in milliseconds
+		 */
+		public double getElapsedMillis()
+		{ return nElapsedNanos / 1000000.0d ; }
+
+		@Override
+		public String toString()
+		{
+			StringBuilder sb = (new StringBuilder())
+				.append( "[" ).append( String.format( "%.3f", this.getElapsedMillis() ) )
+				.append( " ms] " ).append( sSQL )
+				.append( " {args: " ).append( nArgs )
+				.append( ", rows: " ).append( nResultCount )
+				.append( "}" )
+				;
+			if( bSlow ) sb.append( " SLOW" ) ;
+			if( bFullScan ) sb.append( " FULL SCAN" ) ;
+			if( asPlan != null )
+			{
+				for( String sDetail : asPlan )
+					sb.append( "\n  " ).append( sDetail ) ;
+			}
+			return sb.toString() ;
+		}
+	}
+
+/// Static constants ///////////////////////////////////////////////////////////
+
+	/**
+	 * Indicates that no slow-query threshold is set.
+	 * @see #setSlowQueryThreshold(long)
+	 */
+	public static final long NO_THRESHOLD = -1L ;
+
+	/**
+	 * A sink which writes each execution to the Android log: slow queries and
+	 * full scans as warnings, and everything else at debug level.
+	 */
+	public static final Sink LOG_SINK = new Sink()
+	{
+		@Override
+		public void onQueryExecuted( Execution exec )
+		{
+			if( exec.bSlow || exec.bFullScan )
+				Log.w( LOG_TAG, exec.toString() ) ;
+			else
+				Log.d( LOG_TAG, exec.toString() ) ;
+		}
+	};
+
+/// Static methods /////////////////////////////////////////////////////////////
+
+	/**
+	 * Runs {@code EXPLAIN QUERY PLAN} for a statement.
+	 * @param db the database on which the statement would be executed
+	 * @param sSQL the statement, with {@code ?} placeholders
+	 * @param asArgs the arguments of the statement, if any
+	 * @return the {@code detail} column of each step of the plan; empty if the
+	 *  statement can't be explained
+	 */
+	public static List<String> explain( SQLiteDatabase db, String sSQL,
+			String[] asArgs )
+	{
+		if( sSQL == null ) return Collections.emptyList() ;
+		List<String> asPlan = new ArrayList<>() ;
+		Cursor crs = null ;
+		try
+		{
+			crs = db.rawQuery( "EXPLAIN QUERY PLAN " + sSQL, asArgs ) ;
+			final int nDetail = crs.getColumnIndex( "detail" ) ;
+			while( crs.moveToNext() )
+			{
+				asPlan.add( crs.getString(( nDetail < 0 ?
+						crs.getColumnCount() - 1 : nDetail )) ) ;
+			}
+		}
+		catch( Exception x )
+		{
+			Log.w( LOG_TAG, (new StringBuilder())
+					.append( "Could not explain query [" )
+					.append( sSQL )
+					.append( "]:" )
+					.toString()
+				, x ) ;
+		}
+		finally
+		{ closeCursor(crs) ; }
+		return asPlan ;
+	}
+
+	/**
+	 * Determines whether a query plan includes a full scan of a table. A step
+	 * such as {@code SCAN TABLE t} (or {@code SCAN t} in newer versions of
+	 * SQLite) is a full scan; steps which scan an index, a subquery, or a
+	 * virtual table are not.
+	 * @param asPlan the details of the plan, as returned by {@link #explain}
+	 * @return {@code true} if any step of the plan scans a whole table
+	 */
+	public static boolean isFullScan( List<String> asPlan )
+	{
+		if( asPlan == null ) return false ;
+		for( String sDetail : asPlan )
+		{
+			if( sDetail == null || ! sDetail.startsWith( "SCAN " ) ) continue ;
+			if( sDetail.contains( " USING " )
+			 || sDetail.contains( "SUBQUERY" )
+			 || sDetail.contains( "VIRTUAL TABLE" )
+			 || sDetail.contains( "CONSTANT ROW" ) )
+				continue ;
+			return true ;
+		}
+		return false ;
+	}
+
+/// Instance members ///////////////////////////////////////////////////////////
+
+	/** The sink to which executions are reported. */
+	protected final Sink m_sink ;
+
+	/**
+	 * The time, in nanoseconds, above which an execution is considered slow
+	 * and its plan is explained.
+	 */
+	protected long m_nSlowThresholdNanos = NO_THRESHOLD ;
+
+	/** Indicates whether the plan of every execution should be explained. */
+	protected boolean m_bExplainAll = false ;
+
+/// Constructor ////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates an instrument which reports to the specified sink.
+	 * @param sink the sink to which executions are reported
+	 */
+	public QueryInstrument( Sink sink )
+	{
+		if( sink == null )
+			throw new IllegalArgumentException( "Sink must not be null." ) ;
+		m_sink = sink ;
+	}
+
+/// Configuration //////////////////////////////////////////////////////////////
+
+	/**
+	 * Sets the time above which an execution is considered slow. The plan of
+	 * each slow query is explained.
+	 * @param nMillis the threshold in milliseconds, or {@link #NO_THRESHOLD}
+	 * @return (fluid)
+	 */
+	public QueryInstrument setSlowQueryThreshold( long nMillis )
+	{
+		m_nSlowThresholdNanos =
+				( nMillis < 0 ? NO_THRESHOLD : nMillis * 1000000L ) ;
+		return this ;
+	}
+
+	/**
+	 * Specifies whether the plan of every execution should be explained. This
+	 * doubles the number of statements executed, and is meant for debugging.
+	 * @param b whether to explain every query
+	 * @return (fluid)
+	 */
+	public QueryInstrument setExplainAll( boolean b )
+	{ m_bExplainAll = b ; return this ; }
+
+	/**
+	 * Accesses the sink to which executions are reported.
+	 * @return the sink
+	 */
+	public Sink getSink()
+	{ return m_sink ; }
+
+/// Recording //////////////////////////////////////////////////////////////////
+
+	/**
+	 * Records an execution of a query, explaining its plan if necessary, and
+	 * reports it to the sink. Called by {@link QueryBuilder#recordExecution}.
+	 * @param db the database on which the query was executed
+	 * @param q the builder that executed the query
+	 * @param nElapsedNanos the time taken by the execution
+	 * @param nResultCount the number of rows returned or affected, or
+	 *  {@code -1} if unknown
+	 */
+	public void record( SQLiteDatabase db, QueryBuilder<?,?> q,
+			long nElapsedNanos, long nResultCount )
+	{
+		final boolean bSlow = ( m_nSlowThresholdNanos != NO_THRESHOLD
+				&& nElapsedNanos > m_nSlowThresholdNanos ) ;
+		final String sSQL = q.toSQL() ;
+		List<String> asPlan = null ;
+		if( ( bSlow || m_bExplainAll ) && q.canExplain() )
+			asPlan = explain( db, sSQL, q.getBindArgs() ) ;
+		try
+		{
+			m_sink.onQueryExecuted( new Execution( q.m_sTableName, sSQL,
+					q.countBindArgs(), nElapsedNanos, nResultCount,
+					asPlan, bSlow ) ) ;
+		}
+		catch( Exception x )
+		{ Log.w( LOG_TAG, "Query instrument sink failed:", x ) ; }
+	}
+}
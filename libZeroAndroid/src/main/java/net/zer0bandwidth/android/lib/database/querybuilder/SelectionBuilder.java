@@ -11,10 +11,16 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Vector;
 
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_AVG;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_COUNT;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_GROUP_BY;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_HAVING;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_LIMIT;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_MAX;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_MIN;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_ORDER_BY;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_SELECT_ALL_COLUMNS;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_SUM;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_WHERE;
 
 /**
@@ -42,6 +48,27 @@ import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_WHERE;
  *     ;
  * </pre>
  *
+ * <h3>Reuse</h3>
+ *
+ * <p>The column list and {@code ORDER BY} clause are rendered only when they
+ * change, so a builder may be executed repeatedly without regenerating them.
+ * To run the same query shape many times, build it once, then supply new
+ * bind arguments with {@link #withParams} before each execution. Since that
+ * mutates the builder, each thread should work from its own
+ * {@link #template() copy} of a shared shape.</p>
+ *
+ * <pre>
+ * SelectionBuilder bldrByName = QueryBuilder.selectFrom( db, sTableName )
+ *     .columns( "entity_id", "start_ts" )
+ *     .where( "name=?", "" )
+ *     ;
+ * for( String sName : asNames )
+ * {
+ *     Cursor crs = bldrByName.withParams( sName ).execute() ;
+ *     // ...
+ * }
+ * </pre>
+ *
  * @since zer0bandwidth-net/android 0.1.1 (#20)
  * @see SQLiteDatabase#query
  */
@@ -60,6 +87,13 @@ extends QueryBuilder<SelectionBuilder,Cursor>
 	/** The columns to be selected. */
 	protected Vector<String> m_vColumns = null ;
 
+	/**
+	 * The column list most recently rendered by {@link #getColumnList()}, or
+	 * {@code null} if the columns have changed since then.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected String[] m_asColumnList = null ;
+
 	/** The SQLite {@code GROUP BY} clause to be used, if any. */
 	protected String m_sGroupBy = null ;
 
@@ -71,7 +105,14 @@ extends QueryBuilder<SelectionBuilder,Cursor>
 	 * This is a {@code LinkedHashMap} because we want to preserve the order in
 	 * which sort keys were added to the order spec. (#52)
 	 */
-	protected LinkedHashMap<String,String> m_mapOrderBy ;
+	protected LinkedHashMap<String,String> m_mapOrderBy = null ;
+
+	/**
+	 * The clause most recently rendered by {@link #getOrderByClause()}, or
+	 * {@code null} if the sort keys have changed since then.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected String m_sOrderByClause = null ;
 
 	/** A limit on the number of results to be returned, if any. */
 	protected int m_nLimit = NO_LIMIT ;
@@ -80,11 +121,10 @@ extends QueryBuilder<SelectionBuilder,Cursor>
 	{
 		super( sTableName ) ;
 		this.initColumns() ;
-		m_mapOrderBy = new LinkedHashMap<>() ;
 	}
 
 	/**
-	 * Initializes the vector of columns to be shown, if limited.
+	 * Initializes the list of columns to be shown, if limited.
 	 * @return (fluid)
 	 */
 	protected SelectionBuilder initColumns()
@@ -94,6 +134,55 @@ extends QueryBuilder<SelectionBuilder,Cursor>
 		return this ;
 	}
 
+	/**
+	 * Creates a new builder with the same table, database binding, columns,
+	 * {@code WHERE} clause, grouping, ordering, and limit as this one. The
+	 * copy may then be modified or executed with new parameters, without
+	 * affecting the original.
+	 * @return a copy of this builder
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public SelectionBuilder template()
+	{
+		SelectionBuilder bldr = new SelectionBuilder( m_sTableName ) ;
+		bldr.m_dbTarget = m_dbTarget ;
+		bldr.m_sExplicitWhereFormat = m_sExplicitWhereFormat ;
+		bldr.m_asExplicitWhereParams = ( m_asExplicitWhereParams == null ?
+				null : m_asExplicitWhereParams.clone() ) ;
+		bldr.m_bDistinct = m_bDistinct ;
+		if( m_vColumns == null ) bldr.m_vColumns = null ;
+		else bldr.m_vColumns.addAll( m_vColumns ) ;
+		bldr.m_asColumnList = m_asColumnList ; // never modified once rendered
+		bldr.m_sGroupBy = m_sGroupBy ;
+		bldr.m_sHaving = m_sHaving ;
+		if( m_mapOrderBy != null )
+			bldr.m_mapOrderBy = new LinkedHashMap<>( m_mapOrderBy ) ;
+		bldr.m_sOrderByClause = m_sOrderByClause ;
+		bldr.m_nLimit = m_nLimit ;
+		return bldr ;
+	}
+
+	/**
+	 * Also clears the column list, grouping, ordering, limit, and distinct
+	 * flag, reusing the existing collections where possible.
+	 * @return (fluid)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Override
+	public SelectionBuilder reset()
+	{
+		m_bDistinct = false ;
+		this.initColumns() ;
+		m_vColumns.clear() ;
+		m_asColumnList = null ;
+		m_sGroupBy = null ;
+		m_sHaving = null ;
+		if( m_mapOrderBy != null ) m_mapOrderBy.clear() ;
+		m_sOrderByClause = null ;
+		m_nLimit = NO_LIMIT ;
+		return super.reset() ;
+	}
+
 	/**
 	 * Specifies whether to select distinct results.
 	 * @param b {@code true} if only distinct results are desired
@@ -114,7 +203,7 @@ extends QueryBuilder<SelectionBuilder,Cursor>
 	 * @return (fluid)
 	 */
 	public SelectionBuilder allColumns()
-	{ m_vColumns = null ; return this ; }
+	{ m_vColumns = null ; m_asColumnList = null ; return this ; }
 
 	/**
 	 * Sets the columns that should be returned in the selection set.
@@ -129,10 +218,11 @@ extends QueryBuilder<SelectionBuilder,Cursor>
 	public SelectionBuilder columns( String... asColumns )
 	{
 		if( asColumns == null ) // or SQLiteSyntax.SELECT_ALL
-		{ m_vColumns = null ; return this ; }
+			return this.allColumns() ;
 		this.initColumns() ;
 		for( String sColumn : asColumns )
 			if( ! m_vColumns.contains( sColumn ) ) m_vColumns.add( sColumn ) ;
+		m_asColumnList = null ;
 		return this ;
 	}
 
@@ -149,23 +239,27 @@ extends QueryBuilder<SelectionBuilder,Cursor>
 	public SelectionBuilder columns( Collection<String> asColumns )
 	{
 		if( asColumns == null ) // or SQLiteSyntax.SELECT_ALL
-		{ m_vColumns = null ; return this ; }
+			return this.allColumns() ;
 		this.initColumns() ;
 		for( String sColumn : asColumns )
 			if( ! m_vColumns.contains( sColumn ) ) m_vColumns.add( sColumn ) ;
+		m_asColumnList = null ;
 		return this ;
 	}
 
 	/**
 	 * Generates the column list to be passed to {@link SQLiteDatabase#query}.
+	 * The list is rendered only once after each change to the columns; callers
+	 * must not modify the returned array.
 	 * @return a list of column names, or {@code null} if not limited.
 	 */
 	protected String[] getColumnList()
 	{
 		if( m_vColumns == null || m_vColumns.isEmpty() )
 			return null ;
-		else
-			return m_vColumns.toArray( new String[m_vColumns.size()] ) ;
+		if( m_asColumnList == null )
+			m_asColumnList = m_vColumns.toArray( new String[m_vColumns.size()] ) ;
+		return m_asColumnList ;
 	}
 
 	/**
@@ -199,8 +293,13 @@ extends QueryBuilder<SelectionBuilder,Cursor>
 	 */
 	public SelectionBuilder orderBy( String sColumnName, String sDirection )
 	{
+		if( m_mapOrderBy == null )
+			m_mapOrderBy = new LinkedHashMap<>() ;
 		if( ! m_mapOrderBy.containsKey( sColumnName ) )
+		{
 			m_mapOrderBy.put( sColumnName, sDirection ) ;
+			m_sOrderByClause = null ;
+		}
 		return this ;
 	}
 
@@ -216,20 +315,23 @@ extends QueryBuilder<SelectionBuilder,Cursor>
 	{
 		if( sColumnName == null )
 		{
-			m_mapOrderBy.clear() ;
+			if( m_mapOrderBy != null ) m_mapOrderBy.clear() ;
+			m_sOrderByClause = null ;
 			return this ;
 		}
 		else return this.orderBy( sColumnName, SQLiteSyntax.SQL_ORDER_ASC ) ;
 	}
 
 	/**
-	 * Generates the selection's {@code ORDER BY} clause, if any.
+	 * Generates the selection's {@code ORDER BY} clause, if any. The clause is
+	 * rendered only once after each change to the sort keys.
 	 * @return an {@code ORDER BY} clause for the selection
 	 */
 	protected String getOrderByClause()
 	{
 		if( m_mapOrderBy == null || m_mapOrderBy.isEmpty() )
 			return null ;
+		if( m_sOrderByClause != null ) return m_sOrderByClause ;
 		StringBuilder sb = new StringBuilder() ;
 		for( Map.Entry<String,String> o : m_mapOrderBy.entrySet() )
 		{
@@ -239,7 +341,8 @@ extends QueryBuilder<SelectionBuilder,Cursor>
 			  .append( o.getValue() )
 			  ;
 		}
-		return sb.toString() ;
+		m_sOrderByClause = sb.toString() ;
+		return m_sOrderByClause ;
 	}
 
 	/**
@@ -260,7 +363,8 @@ extends QueryBuilder<SelectionBuilder,Cursor>
 	@Override
 	public Cursor executeOn( SQLiteDatabase db )
 	{
-		return db.query(
+		final long tsStart = startTimer() ;
+		return this.recordExecution( db, tsStart, db.query(
 				m_bDistinct,
 				m_sTableName,
 				this.getColumnList(),
@@ -270,7 +374,400 @@ extends QueryBuilder<SelectionBuilder,Cursor>
 				m_sHaving,
 				this.getOrderByClause(),
 				( m_nLimit == NO_LIMIT ? null : Integer.toString(m_nLimit) )
-			);
+			));
+	}
+
+	/**
+	 * Compiles the selection into a reusable query.
+	 * @param db the database instance on which the query will be executed
+	 * @return a compiled selection, whose execution returns a cursor on the
+	 *  result set
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Override
+	public CompiledSelection compileOn( SQLiteDatabase db )
+	{
+		return this.bindWhereParams(
+				new CompiledSelection( db, this.toSQL() ), 1 ) ;
+	}
+
+	/**
+	 * Renders the exact {@code SELECT} statement that the builder executes.
+	 * @return the SQL statement, with {@code ?} placeholders
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Override
+	public String toSQL()
+	{
+		StringBuilder sb = new StringBuilder() ;
+		sb.append( SQLiteSyntax.SQL_SELECT ) ;
+		if( m_bDistinct ) sb.append( SQLiteSyntax.SQL_DISTINCT ) ;
+		this.appendClauses( sb, this.getWhereFormat() ) ;
+		return sb.toString() ;
+	}
+
+	/**
+	 * Counts the rows that the selection would return, without loading them,
+	 * using the database to which the builder is bound.
+	 * @return the number of rows
+	 * @throws QueryBuilder.UnboundException if the builder is not bound
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public long count()
+	throws QueryBuilder.UnboundException
+	{ return this.countOn( this.getBoundDatabase() ) ; }
+
+	/**
+	 * Counts the rows that the selection would return, without loading them.
+	 * @param db the database instance on which the query should be executed
+	 * @return the number of rows
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public long countOn( SQLiteDatabase db )
+	{ return this.aggregateForLongOn( db, SQL_COUNT, SQL_SELECT_ALL_COLUMNS ) ; }
+
+	/**
+	 * Sums the values of a column over the rows that the selection would
+	 * return, using the database to which the builder is bound. Fractional
+	 * sums are truncated; use {@link #sumAsDouble} for {@code REAL} columns.
+	 * @param sColumn the name of the column
+	 * @return the sum, or zero if there are no non-null values
+	 * @throws QueryBuilder.UnboundException if the builder is not bound
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public long sum( String sColumn )
+	throws QueryBuilder.UnboundException
+	{ return this.sumOn( this.getBoundDatabase(), sColumn ) ; }
+
+	/**
+	 * Sums the values of a column over the rows that the selection would
+	 * return. Fractional sums are truncated; use {@link #sumAsDoubleOn} for
+	 * {@code REAL} columns.
+	 * @param db the database instance on which the query should be executed
+	 * @param sColumn the name of the column
+	 * @return the sum, or zero if there are no non-null values
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public long sumOn( SQLiteDatabase db, String sColumn )
+	{ return this.aggregateForLongOn( db, SQL_SUM, sColumn ) ; }
+
+	/**
+	 * Sums the values of a column over the rows that the selection would
+	 * return, using the database to which the builder is bound, without
+	 * truncating a fractional sum.
+	 * @param sColumn the name of the column
+	 * @return the sum, or zero if there are no non-null values
+	 * @throws QueryBuilder.UnboundException if the builder is not bound
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public double sumAsDouble( String sColumn )
+	throws QueryBuilder.UnboundException
+	{ return this.sumAsDoubleOn( this.getBoundDatabase(), sColumn ) ; }
+
+	/**
+	 * Sums the values of a column over the rows that the selection would
+	 * return, without truncating a fractional sum.
+	 * @param db the database instance on which the query should be executed
+	 * @param sColumn the name of the column
+	 * @return the sum, or zero if there are no non-null values
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public double sumAsDoubleOn( SQLiteDatabase db, String sColumn )
+	{
+		final double dSum = this.aggregateForDoubleOn( db, SQL_SUM, sColumn ) ;
+		return ( Double.isNaN(dSum) ? 0.0d : dSum ) ;
+	}
+
+	/**
+	 * Finds the least value of a column among the rows that the selection
+	 * would return, using the database to which the builder is bound.
+	 * Fractional values are truncated; use {@link #minAsDouble} for
+	 * {@code REAL} columns.
+	 * @param sColumn the name of the column
+	 * @return the least value, or zero if there are no non-null values
+	 * @throws QueryBuilder.UnboundException if the builder is not bound
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public long min( String sColumn )
+	throws QueryBuilder.UnboundException
+	{ return this.minOn( this.getBoundDatabase(), sColumn ) ; }
+
+	/**
+	 * Finds the least value of a column among the rows that the selection
+	 * would return. Fractional values are truncated; use
+	 * {@link #minAsDoubleOn} for {@code REAL} columns.
+	 * @param db the database instance on which the query should be executed
+	 * @param sColumn the name of the column
+	 * @return the least value, or zero if there are no non-null values
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public long minOn( SQLiteDatabase db, String sColumn )
+	{ return this.aggregateForLongOn( db, SQL_MIN, sColumn ) ; }
+
+	/**
+	 * Finds the least value of a column among the rows that the selection
+	 * would return, using the database to which the builder is bound,
+	 * without truncating a fractional value.
+	 * @param sColumn the name of the column
+	 * @return the least value, or {@link Double#NaN} if there are no non-null
+	 *  values
+	 * @throws QueryBuilder.UnboundException if the builder is not bound
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public double minAsDouble( String sColumn )
+	throws QueryBuilder.UnboundException
+	{ return this.minAsDoubleOn( this.getBoundDatabase(), sColumn ) ; }
+
+	/**
+	 * Finds the least value of a column among the rows that the selection
+	 * would return, without truncating a fractional value.
+	 * @param db the database instance on which the query should be executed
+	 * @param sColumn the name of the column
+	 * @return the least value, or {@link Double#NaN} if there are no non-null
+	 *  values
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public double minAsDoubleOn( SQLiteDatabase db, String sColumn )
+	{ return this.aggregateForDoubleOn( db, SQL_MIN, sColumn ) ; }
+
+	/**
+	 * Finds the greatest value of a column among the rows that the selection
+	 * would return, using the database to which the builder is bound.
+	 * Fractional values are truncated; use {@link #maxAsDouble} for
+	 * {@code REAL} columns.
+	 * @param sColumn the name of the column
+	 * @return the greatest value, or zero if there are no non-null values
+	 * @throws QueryBuilder.UnboundException if the builder is not bound
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public long max( String sColumn )
+	throws QueryBuilder.UnboundException
+	{ return this.maxOn( this.getBoundDatabase(), sColumn ) ; }
+
+	/**
+	 * Finds the greatest value of a column among the rows that the selection
+	 * would return. Fractional values are truncated; use
+	 * {@link #maxAsDoubleOn} for {@code REAL} columns.
+	 * @param db the database instance on which the query should be executed
+	 * @param sColumn the name of the column
+	 * @return the greatest value, or zero if there are no non-null values
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public long maxOn( SQLiteDatabase db, String sColumn )
+	{ return this.aggregateForLongOn( db, SQL_MAX, sColumn ) ; }
+
+	/**
+	 * Finds the greatest value of a column among the rows that the selection
+	 * would return, using the database to which the builder is bound,
+	 * without truncating a fractional value.
+	 * @param sColumn the name of the column
+	 * @return the greatest value, or {@link Double#NaN} if there are no non-null
+	 *  values
+	 * @throws QueryBuilder.UnboundException if the builder is not bound
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public double maxAsDouble( String sColumn )
+	throws QueryBuilder.UnboundException
+	{ return this.maxAsDoubleOn( this.getBoundDatabase(), sColumn ) ; }
+
+	/**
+	 * Finds the greatest value of a column among the rows that the selection
+	 * would return, without truncating a fractional value.
+	 * @param db the database instance on which the query should be executed
+	 * @param sColumn the name of the column
+	 * @return the greatest value, or {@link Double#NaN} if there are no non-null
+	 *  values
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public double maxAsDoubleOn( SQLiteDatabase db, String sColumn )
+	{ return this.aggregateForDoubleOn( db, SQL_MAX, sColumn ) ; }
+
+	/**
+	 * Averages the values of a column over the rows that the selection would
+	 * return, using the database to which the builder is bound.
+	 * @param sColumn the name of the column
+	 * @return the average, or {@link Double#NaN} if there are no non-null
+	 *  values
+	 * @throws QueryBuilder.UnboundException if the builder is not bound
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public double avg( String sColumn )
+	throws QueryBuilder.UnboundException
+	{ return this.avgOn( this.getBoundDatabase(), sColumn ) ; }
+
+	/**
+	 * Averages the values of a column over the rows that the selection would
+	 * return.
+	 * @param db the database instance on which the query should be executed
+	 * @param sColumn the name of the column
+	 * @return the average, or {@link Double#NaN} if there are no non-null
+	 *  values
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public double avgOn( SQLiteDatabase db, String sColumn )
+	{ return this.aggregateForDoubleOn( db, SQL_AVG, sColumn ) ; }
+
+	/**
+	 * Compiles a query which applies an aggregate function to the rows that
+	 * the selection would return, and which can be executed repeatedly with
+	 * new bindings for the {@code WHERE} parameters.
+	 * @param db the database instance on which the query will be executed
+	 * @param sFunction the aggregate function, such as
+	 *  {@link SQLiteSyntax#SQL_COUNT}
+	 * @param sArgument the argument of the function, usually a column name
+	 * @return a compiled statement which returns the result as a
+	 *  {@code long}
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public CompiledStatement.ForLong compileAggregateOn( SQLiteDatabase db,
+	                                            String sFunction, String sArgument )
+	{
+		return this.bindWhereParams( new CompiledStatement.ForLong( db,
+				this.renderAggregateSQL( sFunction, sArgument ) ), 1 ) ;
+	}
+
+	/**
+	 * As {@link #compileAggregateOn}, but returns the result as a string, so
+	 * that fractional and {@code NULL} results can be distinguished.
+	 * @param db the database instance on which the query will be executed
+	 * @param sFunction the aggregate function, such as
+	 *  {@link SQLiteSyntax#SQL_AVG}
+	 * @param sArgument the argument of the function, usually a column name
+	 * @return a compiled statement which returns the result as a string
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public CompiledStatement.ForString compileAggregateForStringOn(
+			SQLiteDatabase db, String sFunction, String sArgument )
+	{
+		return this.bindWhereParams( new CompiledStatement.ForString( db,
+				this.renderAggregateSQL( sFunction, sArgument ) ), 1 ) ;
+	}
+
+	/**
+	 * Executes an aggregate function once, as a compiled statement.
+	 * @param db the database instance on which the query should be executed
+	 * @param sFunction the aggregate function
+	 * @param sArgument the argument of the function
+	 * @return the result of the function
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected long aggregateForLongOn( SQLiteDatabase db,
+	                                   String sFunction, String sArgument )
+	{
+		if( db == null ) throw new QueryBuilder.UnboundException() ;
+		CompiledStatement.ForLong q =
+				this.compileAggregateOn( db, sFunction, sArgument ) ;
+		try { return q.executeForLong() ; }
+		finally { q.close() ; }
+	}
+
+	/**
+	 * Executes an aggregate function once, as a compiled statement.
+	 * @param db the database instance on which the query should be executed
+	 * @param sFunction the aggregate function
+	 * @param sArgument the argument of the function
+	 * @return the result of the function, as a string
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected String aggregateForStringOn( SQLiteDatabase db,
+	                                       String sFunction, String sArgument )
+	{
+		if( db == null ) throw new QueryBuilder.UnboundException() ;
+		CompiledStatement.ForString q =
+				this.compileAggregateForStringOn( db, sFunction, sArgument ) ;
+		try { return q.execute() ; }
+		finally { q.close() ; }
+	}
+
+	/**
+	 * Executes an aggregate function once, as a compiled statement, and
+	 * parses its result as a {@code double}.
+	 * @param db the database instance on which the query should be executed
+	 * @param sFunction the aggregate function
+	 * @param sArgument the argument of the function
+	 * @return the result of the function, or {@link Double#NaN} if it is
+	 *  {@code NULL}
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected double aggregateForDoubleOn( SQLiteDatabase db,
+	                                       String sFunction, String sArgument )
+	{
+		final String sResult =
+				this.aggregateForStringOn( db, sFunction, sArgument ) ;
+		return ( sResult == null ? Double.NaN : Double.parseDouble(sResult) ) ;
+	}
+
+	/**
+	 * Renders a query which applies an aggregate function to the rows that
+	 * the selection would return. If the selection is distinct, grouped, or
+	 * limited, then the function is applied to the full selection as a
+	 * subquery; otherwise, it is applied directly to the table, and any
+	 * ordering is ignored.
+	 *
+	 * <p>If the subquery selects an explicit list of columns, then it also
+	 * selects all of the table's columns, so that the argument may refer to a
+	 * column that is not in the list. This can't be done for a distinct
+	 * selection, whose rows depend on the columns selected; the argument of
+	 * an aggregate over such a selection must be one of its columns.</p>
+	 *
+	 * @param sFunction the aggregate function
+	 * @param sArgument the argument of the function
+	 * @return the SQL for the aggregate query
+	 * @throws IllegalStateException if the selection is distinct, and the
+	 *  argument is not one of its columns
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected String renderAggregateSQL( String sFunction, String sArgument )
+	throws IllegalStateException
+	{
+		StringBuilder sb = new StringBuilder() ;
+		sb.append( SQLiteSyntax.SQL_SELECT ).append( sFunction )
+		  .append( "(" ).append( sArgument ).append( ")" )
+		  .append( SQLiteSyntax.SQL_FROM )
+		  ;
+		final String sWhere = this.getWhereFormat() ;
+		if( m_bDistinct || m_sGroupBy != null || m_nLimit != NO_LIMIT )
+		{
+			final boolean bProjected = ( m_vColumns != null && ! m_vColumns.isEmpty() ) ;
+			if( m_bDistinct && bProjected
+			 && ! SQLiteSyntax.SQL_SELECT_ALL_COLUMNS.equals( sArgument )
+			 && ! m_vColumns.contains( sArgument ) )
+			{
+				throw new IllegalStateException( (new StringBuilder())
+						.append( "Can't apply " ).append( sFunction )
+						.append( "(" ).append( sArgument )
+						.append( ") to a distinct selection of columns " )
+						.append( m_vColumns )
+						.append( "; the argument must be one of its columns." )
+						.toString()
+					);
+			}
+			sb.append( "(" ).append( SQLiteSyntax.SQL_SELECT ) ;
+			if( m_bDistinct ) sb.append( SQLiteSyntax.SQL_DISTINCT ) ;
+			this.appendClauses( sb, sWhere, ( bProjected && ! m_bDistinct ) )
+				.append( ")" ) ;
+		}
+		else
+		{
+			sb.append( m_sTableName ) ;
+			if( sWhere != null )
+				sb.append( SQL_WHERE ).append( sWhere ) ;
+		}
+		return sb.toString() ;
+	}
+
+	/**
+	 * Accesses the database to which the builder is bound.
+	 * @return the bound database
+	 * @throws QueryBuilder.UnboundException if the builder is not bound
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected SQLiteDatabase getBoundDatabase()
+	throws QueryBuilder.UnboundException
+	{
+		if( m_dbTarget == null )
+			throw new QueryBuilder.UnboundException() ;
+		return m_dbTarget ;
 	}
 
 	/**
@@ -283,12 +780,40 @@ extends QueryBuilder<SelectionBuilder,Cursor>
 	{
 		StringBuilder sb = new StringBuilder() ;
 		sb.append( SQLiteSyntax.SQL_SELECT ) ;
+		this.appendClauses( sb, this.getWhereClause() ) ;
+		sb.append( " ;" ) ;
+		return sb.toString() ;
+	}
+
+	/**
+	 * Appends the column list and all subsequent clauses of the query.
+	 * @param sb the SQL string being built
+	 * @param sWhere the {@code WHERE} clause to be rendered, if any
+	 * @return the string builder, for chaining
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected StringBuilder appendClauses( StringBuilder sb, String sWhere )
+	{ return this.appendClauses( sb, sWhere, false ) ; }
+
+	/**
+	 * As {@link #appendClauses(StringBuilder, String)}, but optionally selects
+	 * all of the table's columns after any explicit list of columns.
+	 * @param sb the buffer into which the query is rendered
+	 * @param sWhere the format of the {@code WHERE} clause, if any
+	 * @param bAllColumns whether to select all columns after an explicit list
+	 * @return the same buffer
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected StringBuilder appendClauses( StringBuilder sb, String sWhere,
+	                                       boolean bAllColumns )
+	{
 		final String[] asColumns = this.getColumnList() ;
 		sb.append(( asColumns == null ? SQLiteSyntax.SQL_SELECT_ALL_COLUMNS :
 			TextUtils.join( ", ", asColumns )) )
 		  ;
+		if( asColumns != null && bAllColumns )
+			sb.append( ", " ).append( SQLiteSyntax.SQL_SELECT_ALL_COLUMNS ) ;
 		sb.append( SQLiteSyntax.SQL_FROM ).append( m_sTableName ) ;
-		final String sWhere = this.getWhereClause() ;
 		if( sWhere != null )
 			sb.append( SQL_WHERE ).append( sWhere ) ;
 		if( m_sGroupBy != null )
@@ -300,7 +825,6 @@ extends QueryBuilder<SelectionBuilder,Cursor>
 			sb.append( SQL_ORDER_BY ).append( sOrderBy ) ;
 		if( m_nLimit != NO_LIMIT )
 			sb.append( SQL_LIMIT ).append( m_nLimit ) ;
-		sb.append( " ;" ) ;
-		return sb.toString() ;
+		return sb ;
 	}
 }
@@ -6,6 +6,13 @@ import android.util.Log;
 
 import net.zer0bandwidth.android.lib.database.SQLiteSyntax;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_VAR;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_SET;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_UPDATE;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_WHERE;
@@ -36,6 +43,16 @@ import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_WHERE;
  *     ;
  * </pre>
  *
+ * Update a known set of rows, in a single transaction.
+ *
+ * <pre>
+ * int nUpdated = QueryBuilder.update( sTableName )
+ *     .setValues( vals )
+ *     .whereIn( "entity_id", anIDs )
+ *     .executeOn( db )
+ *     ;
+ * </pre>
+ *
  * @since zer0bandwidth-net/android 0.1.1 (#20)
  * @see SQLiteDatabase#updateWithOnConflict(String, ContentValues, String, String[], int)
  */
@@ -66,6 +83,21 @@ extends QueryBuilder<UpdateBuilder,Integer>
 	public UpdateBuilder updateAll()
 	{ return this.where( SQLiteSyntax.UPDATE_ALL ) ; }
 
+	/**
+	 * Specifies that only rows whose value in the specified column matches
+	 * one of the supplied values should be updated. This condition is applied
+	 * in addition to any explicit {@code WHERE} clause. The collection is read
+	 * when the query is executed, and may be of any size.
+	 * @param sColumn the name of the column to be matched
+	 * @param aValues the values to be matched, or {@code null} to remove the
+	 *  condition
+	 * @return (fluid)
+	 * @see QueryBuilder#executeWhereInOn
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public UpdateBuilder whereIn( String sColumn, Collection<?> aValues )
+	{ return this.setWhereIn( sColumn, aValues ) ; }
+
 	/**
 	 * Selects, by its numeric ID, the conflict resolution algorithm provided by
 	 * Android.
@@ -75,6 +107,18 @@ extends QueryBuilder<UpdateBuilder,Integer>
 	public UpdateBuilder onConflict( int zAlgorithmID )
 	{ m_zConflictAlgorithmID = zAlgorithmID ; return this ; }
 
+	/**
+	 * Also clears the conflict resolution algorithm.
+	 * @return (fluid)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Override
+	public UpdateBuilder reset()
+	{
+		m_zConflictAlgorithmID = SQLiteDatabase.CONFLICT_NONE ;
+		return super.reset() ;
+	}
+
 	/**
 	 * Executes an update query on the value that has been appended to the
 	 * builder.
@@ -87,9 +131,21 @@ extends QueryBuilder<UpdateBuilder,Integer>
 	public Integer executeOn( SQLiteDatabase db )
 	{
 		if( m_valsToWrite == null ) return SQLiteSyntax.UPDATE_FAILED ;
+		final long tsStart = startTimer() ;
+		if( m_aWhereInValues != null )
+		{
+			final List<String> asKeys =
+					CompiledQuery.getSortedKeys( m_valsToWrite ) ;
+			List<Object> aValues = new ArrayList<>( asKeys.size() ) ;
+			for( String sKey : asKeys )
+				aValues.add( m_valsToWrite.get( sKey ) ) ;
+			return this.recordExecution( db, tsStart, this.executeWhereInOn(
+					db, this.renderUpdateHead( asKeys ), aValues ) ) ;
+		}
+		int nUpdated ;
 		try
 		{
-			return db.updateWithOnConflict(
+			nUpdated = db.updateWithOnConflict(
 					m_sTableName,
 					m_valsToWrite,
 					this.getWhereFormat(),
@@ -105,8 +161,114 @@ extends QueryBuilder<UpdateBuilder,Integer>
 					.append( "] failed: " )
 					.toString()
 				, x ) ;
-			return SQLiteSyntax.UPDATE_FAILED ;
+			nUpdated = SQLiteSyntax.UPDATE_FAILED ;
+		}
+		return this.recordExecution( db, tsStart, nUpdated ) ;
+	}
+
+	/**
+	 * Compiles the update into a reusable statement. The values to be written
+	 * become the first parameters of the statement, in lexical order of their
+	 * column names, followed by the parameters of the {@code WHERE} clause.
+	 * @param db the database instance on which the query will be executed
+	 * @return a compiled statement, whose execution returns the number of rows
+	 *  updated
+	 * @throws IllegalStateException if no values have been set, or if a
+	 *  {@link #whereIn whereIn()} set has been specified
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Override
+	public CompiledStatement<Integer> compileOn( SQLiteDatabase db )
+	{
+		if( m_valsToWrite == null || m_valsToWrite.size() == 0 )
+		{
+			throw new IllegalStateException(
+					"Can't compile an update without values." ) ;
 		}
+		if( m_aWhereInValues != null )
+		{
+			throw new IllegalStateException(
+					"Can't compile an update with a whereIn() set." ) ;
+		}
+		final List<String> asKeys =
+				CompiledQuery.getSortedKeys( m_valsToWrite ) ;
+		CompiledStatement<Integer> q =
+				new CompiledStatement.ForUpdateDelete( db, this.toSQL() ) ;
+		for( int i = 0 ; i < asKeys.size() ; i++ )
+			q.bindValue( i+1, m_valsToWrite.get( asKeys.get(i) ) ) ;
+		return this.bindWhereParams( q, asKeys.size() + 1 ) ;
+	}
+
+	/**
+	 * Renders the exact {@code UPDATE} statement that the builder executes.
+	 * The values to be written are bound first, in lexical order of their
+	 * column names. (When the builder has no {@code whereIn()} set, Android's
+	 * own {@link SQLiteDatabase#updateWithOnConflict} prepares the same
+	 * statement, apart from the order of the columns.)
+	 * @return the SQL statement, with {@code ?} placeholders
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Override
+	public String toSQL()
+	{
+		final List<String> asKeys = ( m_valsToWrite == null ?
+				Collections.<String>emptyList() :
+				CompiledQuery.getSortedKeys( m_valsToWrite ) ) ;
+		final String sHead = this.renderUpdateHead( asKeys ) ;
+		if( m_aWhereInValues != null )
+			return this.renderWhereInSQL( sHead, asKeys.size() ) ;
+		StringBuilder sb = new StringBuilder( sHead ) ;
+		final String sWhere = this.getWhereFormat() ;
+		if( sWhere != null )
+			sb.append( SQL_WHERE ).append( sWhere ) ;
+		return sb.toString() ;
+	}
+
+	/**
+	 * Lists the values to be written, in lexical order of their column
+	 * names, followed by the parameters of the {@code WHERE} clause.
+	 * @return the arguments of the statement rendered by {@link #toSQL}
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	@Override
+	public String[] getBindArgs()
+	{
+		List<String> asArgs = new ArrayList<>() ;
+		if( m_valsToWrite != null )
+		{
+			for( String sKey : CompiledQuery.getSortedKeys( m_valsToWrite ) )
+			{
+				asArgs.add( toBindArg( m_valsToWrite.get( sKey ) ) ) ;
+			}
+		}
+		final String[] asWhereParams = this.getWhereParams() ;
+		if( asWhereParams != null )
+			asArgs.addAll( Arrays.asList( asWhereParams ) ) ;
+		return ( asArgs.isEmpty() ? null :
+				asArgs.toArray( new String[asArgs.size()] ) ) ;
+	}
+
+	/**
+	 * Renders the part of an {@code UPDATE} statement which precedes its
+	 * {@code WHERE} clause, with a positional parameter for each column.
+	 * @param asKeys the columns to be written, in parameter order
+	 * @return the head of the statement
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected String renderUpdateHead( List<String> asKeys )
+	{
+		StringBuilder sb = new StringBuilder() ;
+		sb.append( SQL_UPDATE.trim() )
+		  .append( CompiledQuery.getConflictClause( m_zConflictAlgorithmID ) )
+		  .append( " " ).append( m_sTableName )
+		  .append( SQL_SET )
+		  ;
+		for( int i = 0 ; i < asKeys.size() ; i++ )
+		{
+			if( i > 0 ) sb.append( ", " ) ;
+			sb.append( asKeys.get(i) ).append( "=" ).append( SQLITE_VAR ) ;
+		}
+		return sb.toString() ;
 	}
 
 	@Override
@@ -115,7 +277,7 @@ extends QueryBuilder<UpdateBuilder,Integer>
 		StringBuilder sb = new StringBuilder() ;
 		sb.append( SQL_UPDATE ).append( m_sTableName )
 		  .append( SQL_SET )
-		  .append( toSQLInputParams( m_valsToWrite ) ) // TODO might be bogus
+		  .append( toSQLInputParams( m_valsToWrite ) )
 		  ;
 		final String sWhere = this.getWhereClause() ;
 		if( sWhere != null )
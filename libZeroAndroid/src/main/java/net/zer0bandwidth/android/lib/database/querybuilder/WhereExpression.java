@@ -0,0 +1,571 @@
+package net.zer0bandwidth.android.lib.database.querybuilder;
+
+import net.zer0bandwidth.android.lib.database.SQLitePortal;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLightable;
+
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_VAR;
+
+/**
+ * A typed expression tree for the {@code WHERE} clause of a query, which can be
+ * passed to the {@code whereExpr()} methods of the builders in both this package
+ * and {@link net.zer0bandwidth.android.lib.content.querybuilder}, in place of
+ * a hand-built format string and parameter list.
+ *
+ * <p>Every value in an expression is passed to the query as a positional
+ * ({@code ?}) parameter, never as a literal; the rendered SQL depends only on
+ * the shape of the expression (its columns, operators, and the number of
+ * values in any {@code IN} list). Expressions with the same shape therefore
+ * render identical SQL, which SQLite will find in its prepared-statement
+ * cache. The format string and the parameter array are each rendered at most
+ * once, the first time they are requested, and are cached thereafter.
+ * Expressions are immutable.</p>
+ *
+ * <p>Values are converted to parameter strings as SQLite would store them in
+ * a column marshalled by the standard lenses: booleans become {@code 1} or
+ * {@code 0}, and dates and calendars become epoch milliseconds. A
+ * {@code null} value in an equality test renders {@code IS NULL} instead.</p>
+ *
+ * <h3>Example</h3>
+ *
+ * <pre>
+ * import static net.zer0bandwidth.android.lib.database.querybuilder.WhereExpression.* ;
+ *
+ * Cursor crs = QueryBuilder.selectFrom( db, sTableName )
+ *     .whereExpr( and( eq( "category", sCategory ),
+ *                      or( gt( "priority", 3 ), isNull( "due_ts" ) ) ) )
+ *     .execute()
+ *     ;
+ * // WHERE category=? AND (priority&gt;? OR due_ts IS NULL)
+ * </pre>
+ *
+ * @see QueryBuilder#whereExpr(WhereExpression)
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@SuppressWarnings( "unused" )                              // This is a library.
+public abstract class WhereExpression
+{
+/// Static constants ///////////////////////////////////////////////////////////
+
+	protected static final String OP_EQ = "=" ;
+	protected static final String OP_NE = "<>" ;
+	protected static final String OP_LT = "<" ;
+	protected static final String OP_LE = "<=" ;
+	protected static final String OP_GT = ">" ;
+	protected static final String OP_GE = ">=" ;
+	protected static final String OP_IN = " IN (" ;
+	protected static final String OP_BETWEEN = " BETWEEN " ;
+	protected static final String OP_IS_NULL = " IS NULL" ;
+	protected static final String OP_IS_NOT_NULL = " IS NOT NULL" ;
+	protected static final String OP_AND = " AND " ;
+	protected static final String OP_OR = " OR " ;
+
+	/** Shared by all expressions that have no parameters. */
+	protected static final String[] NO_PARAMS = new String[0] ;
+
+/// Inner classes //////////////////////////////////////////////////////////////
+
+	/**
+	 * A comparison between a column and a single value, using one of the
+	 * binary operators.
+	 */
+	protected static class Comparison
+	extends WhereExpression
+	{
+		protected final String m_sColumn ;
+		protected final String m_sOperator ;
+
+		protected Comparison( String sColumn, String sOperator, Object oValue )
+		{
+			super( new String[] { toParam(oValue) } ) ;
+			m_sColumn = sColumn ;
+			m_sOperator = sOperator ;
+		}
+
+		@Override
+		protected void render( StringBuilder sb )
+		{ sb.append( m_sColumn ).append( m_sOperator ).append( SQLITE_VAR ) ; }
+	}
+
+	/** Tests whether a column matches any value in a list. */
+	protected static class InList
+	extends WhereExpression
+	{
+		protected final String m_sColumn ;
+
+		protected InList( String sColumn, String[] asValues )
+		{
+			super( asValues ) ;
+			m_sColumn = sColumn ;
+		}
+
+		@Override
+		protected void render( StringBuilder sb )
+		{
+			sb.append( m_sColumn ).append( OP_IN ) ;
+			for( int i = 0 ; i < m_asParams.length ; i++ )
+			{
+				if( i > 0 ) sb.append( ", " ) ;
+				sb.append( SQLITE_VAR ) ;
+			}
+			sb.append( ")" ) ;
+		}
+	}
+
+	/** Tests whether a column falls within an inclusive range. */
+	protected static class Between
+	extends WhereExpression
+	{
+		protected final String m_sColumn ;
+
+		protected Between( String sColumn, Object oLow, Object oHigh )
+		{
+			super( new String[] { toParam(oLow), toParam(oHigh) } ) ;
+			m_sColumn = sColumn ;
+		}
+
+		@Override
+		protected void render( StringBuilder sb )
+		{
+			sb.append( m_sColumn ).append( OP_BETWEEN ).append( SQLITE_VAR )
+			  .append( OP_AND ).append( SQLITE_VAR ) ;
+		}
+	}
+
+	/** Tests whether a column is, or is not, {@code NULL}. */
+	protected static class NullCheck
+	extends WhereExpression
+	{
+		protected final String m_sColumn ;
+		protected final String m_sOperator ;
+
+		protected NullCheck( String sColumn, String sOperator )
+		{
+			super( NO_PARAMS ) ;
+			m_sColumn = sColumn ;
+			m_sOperator = sOperator ;
+		}
+
+		@Override
+		protected void render( StringBuilder sb )
+		{ sb.append( m_sColumn ).append( m_sOperator ) ; }
+	}
+
+	/**
+	 * Joins several expressions with {@code AND} or {@code OR}. Any term which
+	 * is itself a junction is enclosed in parentheses.
+	 */
+	protected static class Junction
+	extends WhereExpression
+	{
+		protected final String m_sOperator ;
+		protected final WhereExpression[] m_axTerms ;
+
+		protected Junction( String sOperator, WhereExpression[] axTerms )
+		{
+			super( null ) ;
+			if( axTerms == null || axTerms.length == 0 )
+			{
+				throw new IllegalArgumentException(
+						"A junction requires at least one term." ) ;
+			}
+			m_sOperator = sOperator ;
+			m_axTerms = axTerms ;
+		}
+
+		@Override
+		protected void render( StringBuilder sb )
+		{
+			for( int i = 0 ; i < m_axTerms.length ; i++ )
+			{
+				if( i > 0 ) sb.append( m_sOperator ) ;
+				if( m_axTerms[i] instanceof Junction && m_axTerms.length > 1 )
+				{
+					sb.append( "(" ) ;
+					m_axTerms[i].render( sb ) ;
+					sb.append( ")" ) ;
+				}
+				else m_axTerms[i].render( sb ) ;
+			}
+		}
+
+		@Override
+		protected int countParams()
+		{
+			int nCount = 0 ;
+			for( WhereExpression x : m_axTerms )
+				nCount += x.countParams() ;
+			return nCount ;
+		}
+
+		@Override
+		protected int fillParams( String[] asParams, int nStart )
+		{
+			int nNext = nStart ;
+			for( WhereExpression x : m_axTerms )
+				nNext = x.fillParams( asParams, nNext ) ;
+			return nNext ;
+		}
+	}
+
+/// Static factories ///////////////////////////////////////////////////////////
+
+	/**
+	 * Tests whether a column is equal to a value. If the value is
+	 * {@code null}, then this is equivalent to {@link #isNull(String)}.
+	 * @param sColumn the name of the column
+	 * @param oValue the value to be matched
+	 * @return an expression
+	 */
+	public static WhereExpression eq( String sColumn, Object oValue )
+	{
+		if( oValue == null ) return isNull( sColumn ) ;
+		return new Comparison( sColumn, OP_EQ, oValue ) ;
+	}
+
+	/**
+	 * Tests whether a column is equal to a value.
+	 * @param col the column
+	 * @param oValue the value to be matched
+	 * @return an expression
+	 * @see #eq(String, Object)
+	 */
+	public static WhereExpression eq( SQLightable.Reflection.Column col, Object oValue )
+	{ return eq( col.getName(), oValue ) ; }
+
+	/**
+	 * Tests whether a column is not equal to a value. If the value is
+	 * {@code null}, then this is equivalent to {@link #isNotNull(String)}.
+	 * @param sColumn the name of the column
+	 * @param oValue the value to be excluded
+	 * @return an expression
+	 */
+	public static WhereExpression ne( String sColumn, Object oValue )
+	{
+		if( oValue == null ) return isNotNull( sColumn ) ;
+		return new Comparison( sColumn, OP_NE, oValue ) ;
+	}
+
+	/**
+	 * Tests whether a column is not equal to a value.
+	 * @param col the column
+	 * @param oValue the value to be excluded
+	 * @return an expression
+	 * @see #ne(String, Object)
+	 */
+	public static WhereExpression ne( SQLightable.Reflection.Column col, Object oValue )
+	{ return ne( col.getName(), oValue ) ; }
+
+	/**
+	 * Tests whether a column is less than a value.
+	 * @param sColumn the name of the column
+	 * @param oValue the value to be compared
+	 * @return an expression
+	 */
+	public static WhereExpression lt( String sColumn, Object oValue )
+	{ return new Comparison( sColumn, OP_LT, oValue ) ; }
+
+	/**
+	 * Tests whether a column is less than a value.
+	 * @param col the column
+	 * @param oValue the value to be compared
+	 * @return an expression
+	 */
+	public static WhereExpression lt( SQLightable.Reflection.Column col, Object oValue )
+	{ return lt( col.getName(), oValue ) ; }
+
+	/**
+	 * Tests whether a column is less than or equal to a value.
+	 * @param sColumn the name of the column
+	 * @param oValue the value to be compared
+	 * @return an expression
+	 */
+	public static WhereExpression le( String sColumn, Object oValue )
+	{ return new Comparison( sColumn, OP_LE, oValue ) ; }
+
+	/**
+	 * Tests whether a column is less than or equal to a value.
+	 * @param col the column
+	 * @param oValue the value to be compared
+	 * @return an expression
+	 */
+	public static WhereExpression le( SQLightable.Reflection.Column col, Object oValue )
+	{ return le( col.getName(), oValue ) ; }
+
+	/**
+	 * Tests whether a column is greater than a value.
+	 * @param sColumn the name of the column
+	 * @param oValue the value to be compared
+	 * @return an expression
+	 */
+	public static WhereExpression gt( String sColumn, Object oValue )
+	{ return new Comparison( sColumn, OP_GT, oValue ) ; }
+
+	/**
+	 * Tests whether a column is greater than a value.
+	 * @param col the column
+	 * @param oValue the value to be compared
+	 * @return an expression
+	 */
+	public static WhereExpression gt( SQLightable.Reflection.Column col, Object oValue )
+	{ return gt( col.getName(), oValue ) ; }
+
+	/**
+	 * Tests whether a column is greater than or equal to a value.
+	 * @param sColumn the name of the column
+	 * @param oValue the value to be compared
+	 * @return an expression
+	 */
+	public static WhereExpression ge( String sColumn, Object oValue )
+	{ return new Comparison( sColumn, OP_GE, oValue ) ; }
+
+	/**
+	 * Tests whether a column is greater than or equal to a value.
+	 * @param col the column
+	 * @param oValue the value to be compared
+	 * @return an expression
+	 */
+	public static WhereExpression ge( SQLightable.Reflection.Column col, Object oValue )
+	{ return ge( col.getName(), oValue ) ; }
+
+	/**
+	 * Tests whether a column matches any of a list of values. The list should
+	 * contain no more than
+	 * {@link net.zer0bandwidth.android.lib.database.SQLiteSyntax#SQLITE_MAX_VARIABLE_NUMBER}
+	 * values; for larger sets, use the {@code whereIn()} methods of the
+	 * {@link UpdateBuilder} and {@link DeletionBuilder}, which divide the set
+	 * into chunks.
+	 * @param sColumn the name of the column
+	 * @param aValues the values to be matched
+	 * @return an expression
+	 * @throws IllegalArgumentException if the list is null or empty
+	 */
+	public static WhereExpression in( String sColumn, Collection<?> aValues )
+	{
+		if( aValues == null || aValues.isEmpty() )
+		{
+			throw new IllegalArgumentException(
+					"An IN list requires at least one value." ) ;
+		}
+		String[] asValues = new String[aValues.size()] ;
+		int i = 0 ;
+		for( Object oValue : aValues )
+			asValues[i++] = toParam( oValue ) ;
+		return new InList( sColumn, asValues ) ;
+	}
+
+	/**
+	 * Tests whether a column matches any of a list of values.
+	 * @param col the column
+	 * @param aValues the values to be matched
+	 * @return an expression
+	 * @see #in(String, Collection)
+	 */
+	public static WhereExpression in( SQLightable.Reflection.Column col, Collection<?> aValues )
+	{ return in( col.getName(), aValues ) ; }
+
+	/**
+	 * Tests whether a column matches any of a list of values.
+	 * @param sColumn the name of the column
+	 * @param aoValues the values to be matched
+	 * @return an expression
+	 * @see #in(String, Collection)
+	 */
+	public static WhereExpression in( String sColumn, Object... aoValues )
+	{
+		if( aoValues == null || aoValues.length == 0 )
+		{
+			throw new IllegalArgumentException(
+					"An IN list requires at least one value." ) ;
+		}
+		String[] asValues = new String[aoValues.length] ;
+		for( int i = 0 ; i < aoValues.length ; i++ )
+			asValues[i] = toParam( aoValues[i] ) ;
+		return new InList( sColumn, asValues ) ;
+	}
+
+	/**
+	 * Tests whether a column matches any of a list of values.
+	 * @param col the column
+	 * @param aoValues the values to be matched
+	 * @return an expression
+	 * @see #in(String, Collection)
+	 */
+	public static WhereExpression in( SQLightable.Reflection.Column col, Object... aoValues )
+	{ return in( col.getName(), aoValues ) ; }
+
+	/**
+	 * Tests whether a column falls between two values, inclusive.
+	 * @param sColumn the name of the column
+	 * @param oLow the lower bound
+	 * @param oHigh the upper bound
+	 * @return an expression
+	 */
+	public static WhereExpression between( String sColumn, Object oLow, Object oHigh )
+	{ return new Between( sColumn, oLow, oHigh ) ; }
+
+	/**
+	 * Tests whether a column falls between two values, inclusive.
+	 * @param col the column
+	 * @param oLow the lower bound
+	 * @param oHigh the upper bound
+	 * @return an expression
+	 */
+	public static WhereExpression between( SQLightable.Reflection.Column col, Object oLow, Object oHigh )
+	{ return between( col.getName(), oLow, oHigh ) ; }
+
+	/**
+	 * Tests whether a column is {@code NULL}.
+	 * @param sColumn the name of the column
+	 * @return an expression
+	 */
+	public static WhereExpression isNull( String sColumn )
+	{ return new NullCheck( sColumn, OP_IS_NULL ) ; }
+
+	/**
+	 * Tests whether a column is {@code NULL}.
+	 * @param col the column
+	 * @return an expression
+	 */
+	public static WhereExpression isNull( SQLightable.Reflection.Column col )
+	{ return isNull( col.getName() ) ; }
+
+	/**
+	 * Tests whether a column is not {@code NULL}.
+	 * @param sColumn the name of the column
+	 * @return an expression
+	 */
+	public static WhereExpression isNotNull( String sColumn )
+	{ return new NullCheck( sColumn, OP_IS_NOT_NULL ) ; }
+
+	/**
+	 * Tests whether a column is not {@code NULL}.
+	 * @param col the column
+	 * @return an expression
+	 */
+	public static WhereExpression isNotNull( SQLightable.Reflection.Column col )
+	{ return isNotNull( col.getName() ) ; }
+
+	/**
+	 * Requires that all of the specified expressions be true.
+	 * @param axTerms the terms of the conjunction
+	 * @return an expression
+	 * @throws IllegalArgumentException if no terms are supplied
+	 */
+	public static WhereExpression and( WhereExpression... axTerms )
+	{ return new Junction( OP_AND, axTerms ) ; }
+
+	/**
+	 * Requires that any of the specified expressions be true.
+	 * @param axTerms the terms of the disjunction
+	 * @return an expression
+	 * @throws IllegalArgumentException if no terms are supplied
+	 */
+	public static WhereExpression or( WhereExpression... axTerms )
+	{ return new Junction( OP_OR, axTerms ) ; }
+
+	/**
+	 * Converts a value to the string that will be passed as a query parameter.
+	 * @param oValue the value
+	 * @return the value as a parameter string
+	 * @throws IllegalArgumentException if the value is {@code null}, which
+	 *  can't be passed as a parameter
+	 */
+	protected static String toParam( Object oValue )
+	{
+		if( oValue == null )
+		{
+			throw new IllegalArgumentException(
+					"Null values can't be passed as parameters; use isNull()." ) ;
+		}
+		if( oValue instanceof String ) return (String)oValue ;
+		if( oValue instanceof Boolean )
+			return SQLitePortal.boolToIntString( (Boolean)oValue ) ;
+		if( oValue instanceof Calendar )
+			return Long.toString( ((Calendar)oValue).getTimeInMillis() ) ;
+		if( oValue instanceof Date )
+			return Long.toString( ((Date)oValue).getTime() ) ;
+		return oValue.toString() ;
+	}
+
+/// Instance members ///////////////////////////////////////////////////////////
+
+	/** The rendered format string, once it has been requested. */
+	protected String m_sFormat = null ;
+
+	/** The parameters of the expression, in positional order. */
+	protected String[] m_asParams ;
+
+	/**
+	 * Superclass's constructor, which initializes the shared member fields.
+	 * @param asParams the parameters of the expression, if known; compound
+	 *  expressions pass {@code null} and collect them on demand
+	 */
+	protected WhereExpression( String[] asParams )
+	{ m_asParams = asParams ; }
+
+	/**
+	 * Accesses the format string of the expression, rendering it if necessary.
+	 * @return a {@code WHERE} clause format, with {@code ?} placeholders
+	 */
+	public String getFormat()
+	{
+		if( m_sFormat == null )
+		{
+			StringBuilder sb = new StringBuilder() ;
+			this.render( sb ) ;
+			m_sFormat = sb.toString() ;
+		}
+		return m_sFormat ;
+	}
+
+	/**
+	 * Accesses the parameters of the expression, in the order of their
+	 * placeholders in the format string. The array is cached, and must not be
+	 * modified by the caller.
+	 * @return the parameter values
+	 */
+	public String[] getParams()
+	{
+		if( m_asParams == null )
+		{
+			int nCount = this.countParams() ;
+			String[] asParams = ( nCount == 0 ? NO_PARAMS : new String[nCount] ) ;
+			this.fillParams( asParams, 0 ) ;
+			m_asParams = asParams ;
+		}
+		return m_asParams ;
+	}
+
+	/**
+	 * Appends the format of the expression to a string that is being built.
+	 * @param sb the string builder
+	 */
+	protected abstract void render( StringBuilder sb ) ;
+
+	/**
+	 * Counts the parameters of the expression.
+	 * @return the number of parameters
+	 */
+	protected int countParams()
+	{ return m_asParams.length ; }
+
+	/**
+	 * Copies the parameters of the expression into an array.
+	 * @param asParams the array being filled
+	 * @param nStart the index at which to write the first parameter
+	 * @return the index following the last parameter written
+	 */
+	protected int fillParams( String[] asParams, int nStart )
+	{
+		System.arraycopy( m_asParams, 0, asParams, nStart, m_asParams.length ) ;
+		return nStart + m_asParams.length ;
+	}
+
+	@Override
+	public String toString()
+	{ return this.getFormat() ; }
+}
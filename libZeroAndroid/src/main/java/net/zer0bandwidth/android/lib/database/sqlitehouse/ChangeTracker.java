@@ -0,0 +1,316 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse;
+
+import android.content.ContentValues;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the column values of schematic class instances as they were last
+ * known to exist in the database, so that {@link SQLiteHouse#update} can write
+ * only the columns whose values have actually changed.
+ *
+ * <p>Snapshots are keyed by the schematic class and the SQLite string value of
+ * the row's key (or magic ID) column. Each table retains at most a fixed
+ * number of snapshots; the least recently used snapshot is discarded when that
+ * limit is reached. A row with no snapshot is simply written in full, so an
+ * evicted snapshot costs only the optimization, never correctness.</p>
+ *
+ * <p>Byte array values are copied into each snapshot. A lens may put the
+ * field's own array (or a buffer's backing array) into the content values, so
+ * a snapshot that shared it would change along with the field, and an
+ * in-place edit would never be seen as a change.</p>
+ *
+ * <p>A tracker is enabled in a database helper through
+ * {@link SQLiteHouse#enableChangeTracking()}; it is not generally necessary to
+ * interact with an instance of this class directly.</p>
+ *
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+public class ChangeTracker
+{
+	/** The default number of snapshots retained for each table. */
+	public static final int DEFAULT_CAPACITY = 256 ;
+
+	/**
+	 * A least-recently-used map of row keys to the snapshots of those rows.
+	 * Instances are created by the tracker for each table that it encounters.
+	 */
+	protected static class SnapshotMap
+	extends LinkedHashMap<String,ContentValues>
+	{
+		/** The maximum number of snapshots retained in this map. */
+		protected final int m_nCapacity ;
+
+		public SnapshotMap( int nCapacity )
+		{
+			super( 16, 0.75f, true ) ; // access order
+			m_nCapacity = nCapacity ;
+		}
+
+		@Override
+		protected boolean removeEldestEntry( Map.Entry<String,ContentValues> e )
+		{ return this.size() > m_nCapacity ; }
+	}
+
+	/** The maximum number of snapshots retained for each table. */
+	protected final int m_nCapacity ;
+
+	/** The snapshots of rows, grouped by schematic class. */
+	protected final HashMap<Class<? extends SQLightable>,SnapshotMap>
+		m_mapSnapshots = new HashMap<>() ;
+
+	/**
+	 * Constructs a tracker with the {@link #DEFAULT_CAPACITY default capacity}
+	 * for each table.
+	 */
+	public ChangeTracker()
+	{ this( DEFAULT_CAPACITY ) ; }
+
+	/**
+	 * Constructs a tracker with the specified capacity for each table.
+	 * @param nCapacity the maximum number of snapshots to be retained for each
+	 *  table; must be positive
+	 */
+	public ChangeTracker( int nCapacity )
+	{
+		if( nCapacity < 1 )
+		{
+			throw new IllegalArgumentException(
+					"Change tracker capacity must be positive." ) ;
+		}
+		m_nCapacity = nCapacity ;
+	}
+
+	/**
+	 * Accesses the capacity of the tracker.
+	 * @return the maximum number of snapshots retained for each table
+	 */
+	public int getCapacity()
+	{ return m_nCapacity ; }
+
+	/**
+	 * Records the current values of a schematic class instance, which is
+	 * presumed to match the corresponding row in the database.
+	 * @param tbl the reflection of the instance's schematic class
+	 * @param o the instance to be recorded
+	 * @param <ROW> the schematic class
+	 * @return (fluid)
+	 */
+	public synchronized <ROW extends SQLightable> ChangeTracker snapshot(
+			SQLightable.Reflection<ROW> tbl, ROW o )
+	{
+		String sKey = getRowKey( tbl, o ) ;
+		if( sKey != null )
+			this.getSnapshots( tbl.getTableClass() )
+				.put( sKey, detach( tbl.toContentValues(o) ) ) ;
+		return this ;
+	}
+
+	/**
+	 * Records the values of only some columns of a schematic class instance,
+	 * such as one that was read from a cursor which did not select every
+	 * column. Columns that were not read are left out of the snapshot, so
+	 * {@link #getChangedValues} will always treat them as changed. If the key
+	 * column was not read, then nothing is recorded.
+	 * @param tbl the reflection of the instance's schematic class
+	 * @param o the instance to be recorded
+	 * @param aColumns the columns whose values were actually read
+	 * @param <ROW> the schematic class
+	 * @return (fluid)
+	 */
+	public synchronized <ROW extends SQLightable> ChangeTracker snapshot(
+			SQLightable.Reflection<ROW> tbl, ROW o,
+			List<SQLightable.Reflection<ROW>.Column> aColumns )
+	{
+		List<SQLightable.Reflection<ROW>.Column> aAllColumns = tbl.getColumns() ;
+		if( aColumns.size() == aAllColumns.size() )
+			return this.snapshot( tbl, o ) ;
+		if( ! aColumns.contains( tbl.getKeyOrMagicIDColumn() ) )
+			return this ;                      // We can't tell which row it is.
+		String sKey = getRowKey( tbl, o ) ;
+		if( sKey == null ) return this ;
+		ContentValues vals = tbl.toContentValues(o) ;
+		for( SQLightable.Reflection<ROW>.Column col : aAllColumns )
+		{
+			if( ! aColumns.contains(col) )
+				vals.remove( col.getName() ) ;
+		}
+		this.getSnapshots( tbl.getTableClass() ).put( sKey, detach(vals) ) ;
+		return this ;
+	}
+
+	/**
+	 * Compares the current values of a schematic class instance to the values
+	 * that were recorded when it was last read from, or written to, the
+	 * database.
+	 * @param tbl the reflection of the instance's schematic class
+	 * @param o the instance to be examined
+	 * @param <ROW> the schematic class
+	 * @return the values of only those columns which have changed since the
+	 *  last snapshot (possibly empty), or {@code null} if no snapshot exists
+	 *  for that row
+	 */
+	public synchronized <ROW extends SQLightable> ContentValues getChangedValues(
+			SQLightable.Reflection<ROW> tbl, ROW o )
+	{
+		String sKey = getRowKey( tbl, o ) ;
+		if( sKey == null ) return null ;
+		SnapshotMap map = m_mapSnapshots.get( tbl.getTableClass() ) ;
+		if( map == null ) return null ;
+		ContentValues valsBefore = map.get(sKey) ;
+		if( valsBefore == null ) return null ;
+
+		ContentValues valsNow = tbl.toContentValues(o) ;
+		ContentValues valsChanged = new ContentValues( valsNow ) ;
+		for( String sColumn : valsNow.keySet() )
+		{
+			if( valsBefore.containsKey(sColumn)
+			 && valuesMatch( valsBefore.get(sColumn), valsNow.get(sColumn) ) )
+			{ valsChanged.remove(sColumn) ; }
+		}
+		return valsChanged ;
+	}
+
+	/**
+	 * Updates the snapshot of a row after some of its values have been written
+	 * to the database.
+	 * @param tbl the reflection of the instance's schematic class
+	 * @param o the instance that was written
+	 * @param valsWritten the values that were written
+	 * @param <ROW> the schematic class
+	 * @return (fluid)
+	 */
+	public synchronized <ROW extends SQLightable> ChangeTracker accept(
+			SQLightable.Reflection<ROW> tbl, ROW o, ContentValues valsWritten )
+	{
+		String sKey = getRowKey( tbl, o ) ;
+		if( sKey == null ) return this ;
+		SnapshotMap map = this.getSnapshots( tbl.getTableClass() ) ;
+		ContentValues vals = map.get(sKey) ;
+		if( vals == null )
+			map.put( sKey, detach( tbl.toContentValues(o) ) ) ;
+		else
+			vals.putAll( detach( new ContentValues( valsWritten ) ) ) ;
+		return this ;
+	}
+
+	/**
+	 * Discards the snapshot of a row, if any.
+	 * @param tbl the reflection of the instance's schematic class
+	 * @param o the instance whose snapshot should be discarded
+	 * @param <ROW> the schematic class
+	 * @return (fluid)
+	 */
+	public synchronized <ROW extends SQLightable> ChangeTracker forget(
+			SQLightable.Reflection<ROW> tbl, ROW o )
+	{
+		String sKey = getRowKey( tbl, o ) ;
+		SnapshotMap map = m_mapSnapshots.get( tbl.getTableClass() ) ;
+		if( sKey != null && map != null ) map.remove(sKey) ;
+		return this ;
+	}
+
+	/**
+	 * Discards all snapshots for the specified schematic class. This should be
+	 * called whenever rows of that table are written by means other than the
+	 * object-based methods of {@link SQLiteHouse}.
+	 * @param cls the schematic class
+	 * @return (fluid)
+	 */
+	public synchronized ChangeTracker forget( Class<? extends SQLightable> cls )
+	{
+		m_mapSnapshots.remove(cls) ;
+		return this ;
+	}
+
+	/**
+	 * Discards all snapshots.
+	 * @return (fluid)
+	 */
+	public synchronized ChangeTracker clear()
+	{
+		m_mapSnapshots.clear() ;
+		return this ;
+	}
+
+	/**
+	 * Counts the snapshots currently retained for a schematic class.
+	 * @param cls the schematic class
+	 * @return the number of snapshots for that class
+	 */
+	public synchronized int size( Class<? extends SQLightable> cls )
+	{
+		SnapshotMap map = m_mapSnapshots.get(cls) ;
+		return ( map == null ? 0 : map.size() ) ;
+	}
+
+	/**
+	 * Gets (or creates) the snapshot map for a schematic class.
+	 * @param cls the schematic class
+	 * @return the snapshot map for that class
+	 */
+	protected SnapshotMap getSnapshots( Class<? extends SQLightable> cls )
+	{
+		SnapshotMap map = m_mapSnapshots.get(cls) ;
+		if( map == null )
+		{
+			map = new SnapshotMap( m_nCapacity ) ;
+			m_mapSnapshots.put( cls, map ) ;
+		}
+		return map ;
+	}
+
+	/**
+	 * Discovers the key under which a row's snapshot would be stored.
+	 * @param tbl the reflection of the instance's schematic class
+	 * @param o the instance
+	 * @param <ROW> the schematic class
+	 * @return the SQLite string value of the row's key column, or {@code null}
+	 *  if the table has no key column or the key is not yet known
+	 */
+	protected static <ROW extends SQLightable> String getRowKey(
+			SQLightable.Reflection<ROW> tbl, ROW o )
+	{
+		SQLightable.Reflection<ROW>.Column col = tbl.getKeyOrMagicIDColumn() ;
+		if( col == null || o == null ) return null ;
+		return col.getSQLColumnValueFrom(o) ;
+	}
+
+	/**
+	 * Replaces each byte array in a set of values with a copy, so that the
+	 * values no longer share any array with the object from which they were
+	 * taken.
+	 * @param vals the values to be detached; modified in place
+	 * @return the same values
+	 */
+	protected static ContentValues detach( ContentValues vals )
+	{
+		for( String sColumn : new ArrayList<>( vals.keySet() ) )
+		{
+			Object oValue = vals.get(sColumn) ;
+			if( oValue instanceof byte[] )
+				vals.put( sColumn, ((byte[])oValue).clone() ) ;
+		}
+		return vals ;
+	}
+
+	/**
+	 * Determines whether two values extracted from {@link ContentValues} are
+	 * equivalent. Byte arrays are compared by content.
+	 * @param oBefore the value from the snapshot
+	 * @param oNow the current value
+	 * @return {@code true} iff the values are equivalent
+	 */
+	protected static boolean valuesMatch( Object oBefore, Object oNow )
+	{
+		if( oBefore == null ) return ( oNow == null ) ;
+		if( oBefore instanceof byte[] && oNow instanceof byte[] )
+			return Arrays.equals( (byte[])oBefore, (byte[])oNow ) ;
+		return oBefore.equals(oNow) ;
+	}
+}
@@ -0,0 +1,506 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import net.zer0bandwidth.android.lib.database.querybuilder.QueryBuilder;
+import net.zer0bandwidth.android.lib.database.querybuilder.SelectionBuilder;
+import net.zer0bandwidth.android.lib.database.querybuilder.WhereExpression;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteForeignKey;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.exceptions.SchematicException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static net.zer0bandwidth.android.lib.database.SQLitePortal.closeCursor;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_MAX_VARIABLE_NUMBER;
+
+/**
+ * A {@link SelectionBuilder} for the table of a schematic class in a
+ * {@link SQLiteHouse}, which can also load the rows of other tables that are
+ * related to the selected rows by a {@link SQLiteForeignKey}.
+ *
+ * <p>Each related class named by {@link #with} is loaded by a single
+ * {@code SELECT ... WHERE column IN (...)} query, which matches all of the
+ * rows returned by the main selection at once. (If the main selection returns
+ * more rows than SQLite accepts as parameters in one statement, then the
+ * {@code IN} list is divided into chunks.) The related rows are then matched
+ * to the selected rows in memory. Loading a list of rows with their related
+ * rows therefore takes one query per table, rather than one query per
+ * row.</p>
+ *
+ * <p>The relationship may be declared in either direction. If the related
+ * class has a column that refers to the selected class, then each selected
+ * row is matched to all of the related rows that refer to it (one to many).
+ * Otherwise, if the selected class has a column that refers to the related
+ * class, then each selected row is matched to the row it refers to (many to
+ * one).</p>
+ *
+ * <h3>Example</h3>
+ *
+ * <pre>
+ * RelationalSelectionBuilder.Results&lt;Post&gt; res = dbh.selectFrom( Post.class )
+ *     .with( Comment.class )
+ *     .where( "author=?", sAuthor )
+ *     .executeRelated()
+ *     ;
+ * for( Post post : res.getRows() )
+ * {
+ *     List&lt;Comment&gt; aComments = res.getRelated( post, Comment.class ) ;
+ *     // ...
+ * }
+ * </pre>
+ *
+ * <p>The builder's fluid methods are overridden only to return this class,
+ * so that {@link #with} and {@link #executeRelated} may be chained after
+ * them.</p>
+ *
+ * @param <SC> the schematic class whose table is selected
+ * @see SQLiteHouse#selectFrom(Class)
+ * @see SQLiteForeignKey
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@SuppressWarnings( "unused" )                              // This is a library.
+public class RelationalSelectionBuilder<SC extends SQLightable>
+extends SelectionBuilder
+{
+/// Inner classes //////////////////////////////////////////////////////////////
+
+	/**
+	 * The result of {@link #executeRelated}: the selected rows, and the rows
+	 * of each related class, matched to the selected rows.
+	 * @param <SC> the schematic class whose table was selected
+	 */
+	public static class Results<SC extends SQLightable>
+	{
+		/** The selected rows. */
+		protected final List<SC> m_aRows ;
+
+		/**
+		 * For each related class, a map of selected rows (by identity) to the
+		 * related rows that match them.
+		 */
+		protected final Map<Class<? extends SQLightable>,
+				IdentityHashMap<SC,List<SQLightable>>> m_mapRelated =
+					new HashMap<>() ;
+
+		protected Results( List<SC> aRows )
+		{ m_aRows = aRows ; }
+
+		/**
+		 * Accesses the selected rows.
+		 * @return the selected rows, in the order returned by the query
+		 */
+		public List<SC> getRows()
+		{ return m_aRows ; }
+
+		/**
+		 * Accesses the rows of a related class which match a selected row.
+		 * @param oRow one of the selected rows
+		 * @param cls the related class
+		 * @param <R> the related class
+		 * @return the matching rows, which might be empty
+		 * @throws IllegalArgumentException if the related class was not
+		 *  loaded
+		 */
+		public <R extends SQLightable> List<R> getRelated( SC oRow, Class<R> cls )
+		{
+			List<SQLightable> aRelated = this.getMap(cls).get(oRow) ;
+			if( aRelated == null ) return Collections.emptyList() ;
+			//noinspection unchecked - guaranteed by executeRelated()
+			return (List<R>)aRelated ;
+		}
+
+		/**
+		 * Accesses the first row of a related class which matches a selected
+		 * row. This is most useful when the selected row refers to the
+		 * related row.
+		 * @param oRow one of the selected rows
+		 * @param cls the related class
+		 * @param <R> the related class
+		 * @return the first matching row, or {@code null} if there is none
+		 * @throws IllegalArgumentException if the related class was not
+		 *  loaded
+		 */
+		public <R extends SQLightable> R getFirstRelated( SC oRow, Class<R> cls )
+		{
+			List<R> aRelated = this.getRelated( oRow, cls ) ;
+			return ( aRelated.isEmpty() ? null : aRelated.get(0) ) ;
+		}
+
+		/**
+		 * Adds a related row to the list of rows that match a selected row.
+		 * @param oRow the selected row
+		 * @param cls the related class
+		 * @param oRelated the related row
+		 * @return (fluid)
+		 */
+		protected Results<SC> addRelated( SC oRow,
+				Class<? extends SQLightable> cls, SQLightable oRelated )
+		{
+			IdentityHashMap<SC,List<SQLightable>> map = m_mapRelated.get(cls) ;
+			if( map == null )
+			{
+				map = new IdentityHashMap<>() ;
+				m_mapRelated.put( cls, map ) ;
+			}
+			List<SQLightable> aRelated = map.get(oRow) ;
+			if( aRelated == null )
+			{
+				aRelated = new ArrayList<>() ;
+				map.put( oRow, aRelated ) ;
+			}
+			aRelated.add( oRelated ) ;
+			return this ;
+		}
+
+		/**
+		 * Registers a related class as loaded, even if no rows were found.
+		 * @param cls the related class
+		 * @return (fluid)
+		 */
+		protected Results<SC> markLoaded( Class<? extends SQLightable> cls )
+		{
+			if( ! m_mapRelated.containsKey(cls) )
+				m_mapRelated.put( cls, new IdentityHashMap<SC,List<SQLightable>>() ) ;
+			return this ;
+		}
+
+		/**
+		 * Accesses the map of selected rows to rows of a related class.
+		 * @param cls the related class
+		 * @return the map for that class
+		 * @throws IllegalArgumentException if the related class was not
+		 *  loaded
+		 */
+		protected IdentityHashMap<SC,List<SQLightable>> getMap(
+				Class<? extends SQLightable> cls )
+		{
+			IdentityHashMap<SC,List<SQLightable>> map = m_mapRelated.get(cls) ;
+			if( map == null )
+			{
+				throw new IllegalArgumentException( (new StringBuilder())
+						.append( "Rows of class [" )
+						.append( cls.getSimpleName() )
+						.append( "] were not loaded." )
+						.toString()
+					);
+			}
+			return map ;
+		}
+	}
+
+/// Instance members ///////////////////////////////////////////////////////////
+
+	/** The database that defines the schema. */
+	protected final SQLiteHouse<?> m_dbh ;
+
+	/** The reflection of the selected class. */
+	protected final SQLightable.Reflection<SC> m_tbl ;
+
+	/** The related classes to be loaded, in the order they were added. */
+	protected final List<Class<? extends SQLightable>> m_aclsRelated =
+			new ArrayList<>() ;
+
+	/**
+	 * Initializes a selection from the table of a schematic class, bound to
+	 * the database of the specified house.
+	 * @param dbh the database that defines the schema
+	 * @param db the database instance on which the query will be executed
+	 * @param tbl the reflection of the schematic class
+	 */
+	protected RelationalSelectionBuilder( SQLiteHouse<?> dbh, SQLiteDatabase db,
+	                                      SQLightable.Reflection<SC> tbl )
+	{
+		super( tbl.getTableName() ) ;
+		m_dbh = dbh ;
+		m_tbl = tbl ;
+		this.onDatabase( db ) ;
+	}
+
+/// Relationships //////////////////////////////////////////////////////////////
+
+	/**
+	 * Specifies that rows of a related class should be loaded along with the
+	 * selected rows, by {@link #executeRelated}.
+	 * @param cls the related class, which must be part of the schema, and
+	 *  must be related to the selected class by a {@link SQLiteForeignKey}
+	 * @return (fluid)
+	 * @throws SchematicException if the class is not part of the schema, or
+	 *  is not related to the selected class
+	 */
+	public RelationalSelectionBuilder<SC> with( Class<? extends SQLightable> cls )
+	throws SchematicException
+	{
+		this.getLink( m_dbh.getReflection(cls) ) ;        // validate it now
+		if( ! m_aclsRelated.contains(cls) )
+			m_aclsRelated.add(cls) ;
+		return this ;
+	}
+
+	/**
+	 * Executes the selection, marshals its rows into instances of the
+	 * schematic class, and then loads the rows of each related class that
+	 * was specified by {@link #with}, using one query per related class.
+	 * If the selection names an explicit list of columns, then the columns
+	 * that link the tables are also selected; the builder's own column list
+	 * is not changed, so the builder may be executed again as it was.
+	 * @return the selected rows, and their related rows
+	 * @throws QueryBuilder.UnboundException if the builder is not bound to a
+	 *  database
+	 * @throws SchematicException if any rows cannot be marshalled
+	 */
+	public Results<SC> executeRelated()
+	throws QueryBuilder.UnboundException, SchematicException
+	{
+		final SQLiteDatabase db = this.getBoundDatabase() ;
+		final Class<SC> clsTable = m_tbl.getTableClass() ;
+		final boolean bProjected = ( m_vColumns != null && ! m_vColumns.isEmpty() ) ;
+		SelectionBuilder q = this ;
+		List<Link> aLinks = new ArrayList<>( m_aclsRelated.size() ) ;
+		for( Class<? extends SQLightable> cls : m_aclsRelated )
+		{
+			Link link = this.getLink( m_dbh.getReflection(cls) ) ;
+			if( bProjected && ! m_vColumns.contains( link.colLocal.getName() ) )
+			{ // The linking column must be selected; add it to a copy.
+				if( q == this ) q = this.template() ;
+				q.columns( link.colLocal.getName() ) ;
+			}
+			aLinks.add( link ) ;
+		}
+
+		Cursor crs = null ;
+		Results<SC> res ;
+		try
+		{
+			crs = q.executeOn( db ) ;
+			res = new Results<>( m_dbh.processResultSet( clsTable, crs ) ) ;
+		}
+		finally
+		{ closeCursor(crs) ; }
+
+		for( Link link : aLinks )
+			this.loadRelated( db, link, res ) ;
+		return res ;
+	}
+
+	/**
+	 * Loads the rows of one related class, and matches them to the selected
+	 * rows.
+	 * @param db the database on which to execute the query
+	 * @param link the relationship between the classes
+	 * @param res the results, to which the related rows are added
+	 * @throws SchematicException if any rows cannot be marshalled
+	 */
+	protected void loadRelated( SQLiteDatabase db, Link link, Results<SC> res )
+	throws SchematicException
+	{
+		res.markLoaded( link.tblRelated.getTableClass() ) ;
+		if( res.getRows().isEmpty() ) return ;
+
+		// Group the selected rows by the value of the local column.
+		ContentValues vals = new ContentValues() ;
+		LinkedHashMap<Object,List<SC>> mapRowsByKey = new LinkedHashMap<>() ;
+		for( SC oRow : res.getRows() )
+		{
+			Object oKey = getKeyOf( link.colLocal, oRow, vals ) ;
+			if( oKey == null ) continue ;   // A null reference matches nothing.
+			List<SC> aRows = mapRowsByKey.get(oKey) ;
+			if( aRows == null )
+			{
+				aRows = new ArrayList<>(1) ;
+				mapRowsByKey.put( oKey, aRows ) ;
+			}
+			aRows.add( oRow ) ;
+		}
+		if( mapRowsByKey.isEmpty() ) return ;
+
+		final Class<? extends SQLightable> clsRelated =
+				link.tblRelated.getTableClass() ;
+		final String sRemoteColumn = link.colRemote.getName() ;
+		List<Object> aoKeys = new ArrayList<>( mapRowsByKey.keySet() ) ;
+		for( int i = 0 ; i < aoKeys.size() ; i += SQLITE_MAX_VARIABLE_NUMBER )
+		{
+			List<Object> aoChunk = aoKeys.subList( i,
+					Math.min( i + SQLITE_MAX_VARIABLE_NUMBER, aoKeys.size() ) ) ;
+			Cursor crs = null ;
+			List<? extends SQLightable> aRelated ;
+			try
+			{
+				crs = QueryBuilder.selectFrom( db, link.tblRelated.getTableName() )
+						.whereExpr( WhereExpression.in( sRemoteColumn, aoChunk ) )
+						.execute()
+						;
+				aRelated = m_dbh.processResultSet( clsRelated, crs ) ;
+			}
+			finally
+			{ closeCursor(crs) ; }
+
+			for( SQLightable oRelated : aRelated )
+			{
+				Object oKey = getKeyOf( link.colRemote, oRelated, vals ) ;
+				List<SC> aRows = mapRowsByKey.get(oKey) ;
+				if( aRows == null ) continue ;
+				for( SC oRow : aRows )
+					res.addRelated( oRow, clsRelated, oRelated ) ;
+			}
+		}
+	}
+
+	/**
+	 * The columns which relate the selected class to another class.
+	 */
+	protected class Link
+	{
+		/** The reflection of the related class. */
+		protected SQLightable.Reflection<? extends SQLightable> tblRelated ;
+		/** The column of the selected class that holds the matched value. */
+		protected SQLightable.Reflection.Column colLocal ;
+		/** The column of the related class that holds the matched value. */
+		protected SQLightable.Reflection.Column colRemote ;
+	}
+
+	/**
+	 * Discovers the relationship between the selected class and another.
+	 * @param tblRelated the reflection of the related class
+	 * @return the columns which relate the two classes
+	 * @throws SchematicException if the classes are not related
+	 */
+	protected Link getLink( SQLightable.Reflection<? extends SQLightable> tblRelated )
+	throws SchematicException
+	{
+		final Class<SC> clsTable = m_tbl.getTableClass() ;
+		Link link = new Link() ;
+		link.tblRelated = tblRelated ;
+		link.colRemote = tblRelated.getForeignKeyTo( clsTable ) ;
+		if( link.colRemote != null )
+		{ // The related class refers to the selected class (one to many).
+			link.colLocal = m_tbl.getReferencedColumn(
+					link.colRemote.getForeignKeyAttrs() ) ;
+		}
+		else
+		{ // The selected class might refer to the related class (many to one).
+			link.colLocal = m_tbl.getForeignKeyTo( tblRelated.getTableClass() ) ;
+			if( link.colLocal != null )
+			{
+				link.colRemote = tblRelated.getReferencedColumn(
+						link.colLocal.getForeignKeyAttrs() ) ;
+			}
+		}
+		if( link.colLocal == null || link.colRemote == null )
+		{
+			throw SchematicException.noRelationship(
+					clsTable, tblRelated.getTableClass() ) ;
+		}
+		return link ;
+	}
+
+	/**
+	 * Reads the value of a column from a row, as it would be stored in the
+	 * database, and normalizes its type as SQLite would compare it, so that
+	 * values of the same column may be matched across tables even if their
+	 * fields have different Java types. Integral values, including booleans,
+	 * become {@code Long}s; other numbers become {@code Double}s, unless they
+	 * are integral. Any other value, such as a string, is kept as it is, so
+	 * that the string {@code "1"} does not match the number {@code 1}.
+	 * @param col the column to be read
+	 * @param oRow the row
+	 * @param vals a reusable set of values
+	 * @return the normalized value, or {@code null} if it is null
+	 */
+	protected static Object getKeyOf( SQLightable.Reflection.Column col,
+	                                  SQLightable oRow, ContentValues vals )
+	{
+		//noinspection unchecked - the row is an instance of the column's class
+		Object oValue = col.addValueTo( vals, oRow ).get( col.getName() ) ;
+		if( oValue instanceof Boolean )
+			return ( ((Boolean)oValue) ? 1L : 0L ) ;
+		if( oValue instanceof Float || oValue instanceof Double )
+		{
+			final double dValue = ((Number)oValue).doubleValue() ;
+			final long nValue = (long)dValue ;
+			return ( nValue == dValue ? ((Object)nValue) : ((Object)dValue) ) ;
+		}
+		if( oValue instanceof Number )
+			return ((Number)oValue).longValue() ;
+		return oValue ;
+	}
+
+/// Fluid overrides ////////////////////////////////////////////////////////////
+
+	@Override
+	public RelationalSelectionBuilder<SC> onDatabase( SQLiteDatabase db )
+	{ super.onDatabase(db) ; return this ; }
+
+	@Override
+	public RelationalSelectionBuilder<SC> where( String sWhereClause )
+	{ super.where( sWhereClause ) ; return this ; }
+
+	@Override
+	public RelationalSelectionBuilder<SC> where( String sWhereFormat, String... asWhereParams )
+	{ super.where( sWhereFormat, asWhereParams ) ; return this ; }
+
+	@Override
+	public RelationalSelectionBuilder<SC> where( String sWhereFormat, Collection<String> asWhereParams )
+	{ super.where( sWhereFormat, asWhereParams ) ; return this ; }
+
+	@Override
+	public RelationalSelectionBuilder<SC> whereExpr( WhereExpression xWhere )
+	{ super.whereExpr( xWhere ) ; return this ; }
+
+	@Override
+	public RelationalSelectionBuilder<SC> withParams( String... asWhereParams )
+	{ super.withParams( asWhereParams ) ; return this ; }
+
+	/** Also clears the list of related classes to be loaded. */
+	@Override
+	public RelationalSelectionBuilder<SC> reset()
+	{ super.reset() ; m_aclsRelated.clear() ; return this ; }
+
+	@Override
+	public RelationalSelectionBuilder<SC> distinct( boolean b )
+	{ super.distinct(b) ; return this ; }
+
+	@Override
+	public RelationalSelectionBuilder<SC> distinct()
+	{ super.distinct() ; return this ; }
+
+	@Override
+	public RelationalSelectionBuilder<SC> allColumns()
+	{ super.allColumns() ; return this ; }
+
+	@Override
+	public RelationalSelectionBuilder<SC> columns( String... asColumns )
+	{ super.columns( asColumns ) ; return this ; }
+
+	@Override
+	public RelationalSelectionBuilder<SC> columns( Collection<String> asColumns )
+	{ super.columns( asColumns ) ; return this ; }
+
+	@Override
+	public RelationalSelectionBuilder<SC> groupBy( String sGroupByClause )
+	{ super.groupBy( sGroupByClause ) ; return this ; }
+
+	@Override
+	public RelationalSelectionBuilder<SC> having( String sHavingClause )
+	{ super.having( sHavingClause ) ; return this ; }
+
+	@Override
+	public RelationalSelectionBuilder<SC> orderBy( String sColumnName, String sDirection )
+	{ super.orderBy( sColumnName, sDirection ) ; return this ; }
+
+	@Override
+	public RelationalSelectionBuilder<SC> orderBy( String sColumnName )
+	{ super.orderBy( sColumnName ) ; return this ; }
+
+	@Override
+	public RelationalSelectionBuilder<SC> limit( int nLimit )
+	{ super.limit( nLimit ) ; return this ; }
+}
@@ -11,12 +11,15 @@ import net.zer0bandwidth.android.lib.database.querybuilder.QueryBuilder;
 import net.zer0bandwidth.android.lib.database.querybuilder.SelectionBuilder;
 import net.zer0bandwidth.android.lib.database.querybuilder.UpdateBuilder;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteColumn;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteForeignKey;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteFullText;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteInheritColumns;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLitePrimaryKey;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteTable;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.exceptions.IntrospectionException;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.exceptions.SchematicException;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.refractor.NullRefractor;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.refractor.PreparingRefractor;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.refractor.Refractor;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.refractor.RefractorMap;
 import net.zer0bandwidth.android.lib.util.LexicalStringComparator;
@@ -33,7 +36,9 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.COLUMN_NOT_FOUND;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_NULL;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_ROWID;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_TYPE_INT;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_TYPE_TEXT;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_ADD_COLUMN;
@@ -243,6 +248,18 @@ public interface SQLightable
 			protected SQLiteColumn m_antColumn = null ;
 			/** Indicates whether the column is also annotated as a key. */
 			protected boolean m_bKey = false ;
+			/**
+			 * The annotation that declares the column as a reference to
+			 * another table, if any.
+			 * @since zer0bandwidth-net/android 1.1.0
+			 */
+			protected SQLiteForeignKey m_antForeignKey = null ;
+			/**
+			 * Indicates whether the column is part of the table's full-text
+			 * index.
+			 * @since zer0bandwidth-net/android 1.1.0
+			 */
+			protected boolean m_bFullText = false ;
 			/**
 			 * The {@link Refractor} implementation to be used for the column.
 			 */
@@ -274,6 +291,8 @@ public interface SQLightable
 				if( m_antColumn == null )
 				{ throw SchematicException.fieldNotAnnotated( fld ) ; }
 				m_bKey = fld.isAnnotationPresent( SQLitePrimaryKey.class ) ;
+				m_antForeignKey = fld.getAnnotation( SQLiteForeignKey.class ) ;
+				m_bFullText = fld.isAnnotationPresent( SQLiteFullText.class ) ;
 				m_lens = this.discoverRefractor() ;
 			}
 
@@ -336,6 +355,24 @@ public interface SQLightable
 			public boolean isKey()
 			{ return m_bKey ; }
 
+			/**
+			 * Accesses the annotation that declares the column as a reference
+			 * to another table.
+			 * @return the annotation, or {@code null} if the column is not a
+			 *  reference
+			 * @since zer0bandwidth-net/android 1.1.0
+			 */
+			public SQLiteForeignKey getForeignKeyAttrs()
+			{ return m_antForeignKey ; }
+
+			/**
+			 * Indicates whether the column was annotated as part of the
+			 * table's full-text index.
+			 * @since zer0bandwidth-net/android 1.1.0
+			 */
+			public boolean isFullText()
+			{ return m_bFullText ; }
+
 			/** Shorthand to get the DB column name from the annotation. */
 			public String getName()
 			{ return m_antColumn.name() ; }
@@ -429,6 +466,38 @@ public interface SQLightable
 						);
 				}
 			}
+
+			/**
+			 * Adds this column's value, as it would be stored in the database,
+			 * from an instance of the schematic class to a set of values.
+			 * @param vals the set of values, keyed by column name
+			 * @param o an instance of the schematic class that defined this
+			 *          column
+			 * @return the set of values, for chaining
+			 * @throws SchematicException if something goes wrong while trying
+			 *  to discover the value
+			 * @since zer0bandwidth-net/android 1.1.0
+			 */
+			public ContentValues addValueTo( ContentValues vals, T o )
+			{
+				if( m_lens == null )
+				{ throw SchematicException.noLensForColumn( this, null ) ; }
+				try
+				{
+					//noinspection unchecked
+					m_lens.addToContentValues( vals, this.getName(),
+							m_lens.getValueFrom( o, m_fldColumn ) ) ;
+					return vals ;
+				}
+				catch( IllegalAccessException xAccess )
+				{
+					throw SchematicException.fieldWasInaccessible(
+							m_clsTable.getCanonicalName(),
+							m_fldColumn.getName(),
+							xAccess
+						);
+				}
+			}
 		}
 
 		/** The class being reflected. */
@@ -477,6 +546,14 @@ public interface SQLightable
 		 */
 		protected Field m_fldMagicID = null ;
 
+		/**
+		 * The default constructor of the schematic class, discovered on the
+		 * first call to {@link #getInstance()} and reused thereafter. Volatile,
+		 * since a reflection may be shared by cursors on several threads.
+		 * @since zer0bandwidth-net/android 1.1.0
+		 */
+		protected volatile Constructor<T> m_ctor = null ;
+
 		/**
 		 * Constructor kicks off a reflection of the selected class.
 		 * @param cls the class being reflected
@@ -756,6 +833,42 @@ public interface SQLightable
 			return col ;             // In very rare cases, might still be null.
 		}
 
+		/**
+		 * Finds the column which is declared, by a {@link SQLiteForeignKey}
+		 * annotation, to refer to the table of the specified schematic class.
+		 * @param cls the referenced schematic class
+		 * @return the first column that refers to that class, or {@code null}
+		 *  if there is none
+		 * @since zer0bandwidth-net/android 1.1.0
+		 */
+		public Column getForeignKeyTo( Class<? extends SQLightable> cls )
+		{
+			for( Column col : m_aColumns )
+			{
+				SQLiteForeignKey antRef = col.getForeignKeyAttrs() ;
+				if( antRef != null && antRef.value() == cls )
+					return col ;
+			}
+			return null ;
+		}
+
+		/**
+		 * Finds the column that is referred to by a {@link SQLiteForeignKey}
+		 * annotation which designates this schematic class. This is the column
+		 * named by the annotation, if any, or else the
+		 * {@link #getKeyOrMagicIDColumn() key column} of this table.
+		 * @param antRef the annotation on the referring column
+		 * @return the referenced column, or {@code null} if it can't be found
+		 * @since zer0bandwidth-net/android 1.1.0
+		 */
+		public Column getReferencedColumn( SQLiteForeignKey antRef )
+		{
+			if( antRef.column().isEmpty() )
+				return this.getKeyOrMagicIDColumn() ;
+			else
+				return this.getColumn( antRef.column() ) ;
+		}
+
 		/**
 		 * Generates the SQL statement which will create the table represented
 		 * by this schematic class, based on the class itself, and its
@@ -811,6 +924,162 @@ public interface SQLightable
 			return sb.toString() ;
 		}
 
+		/**
+		 * Suffix appended to a table name to form the name of its companion
+		 * full-text index table.
+		 * @see SQLiteFullText
+		 * @since zer0bandwidth-net/android 1.1.0
+		 */
+		public static final String FULL_TEXT_TABLE_SUFFIX = "_fts" ;
+
+		/**
+		 * Lists the columns that were annotated as part of the table's
+		 * full-text index.
+		 * @return the full-text columns, in column order; empty if the table
+		 *  has no full-text index
+		 * @see SQLiteFullText
+		 * @since zer0bandwidth-net/android 1.1.0
+		 */
+		public List<Column> getFullTextColumns()
+		{
+			List<Column> aFullText = new ArrayList<>() ;
+			for( Column col : m_aColumns )
+				if( col.isFullText() ) aFullText.add( col ) ;
+			return aFullText ;
+		}
+
+		/**
+		 * Indicates whether any column was annotated as part of the table's
+		 * full-text index.
+		 * @return {@code true} if the table has a full-text index
+		 * @since zer0bandwidth-net/android 1.1.0
+		 */
+		public boolean hasFullTextIndex()
+		{
+			for( Column col : m_aColumns )
+				if( col.isFullText() ) return true ;
+			return false ;
+		}
+
+		/**
+		 * Accesses the name of the companion FTS table that holds the
+		 * table's full-text index.
+		 * @return the name of the full-text index table
+		 * @since zer0bandwidth-net/android 1.1.0
+		 */
+		public String getFullTextTableName()
+		{ return this.getTableName() + FULL_TEXT_TABLE_SUFFIX ; }
+
+		/**
+		 * Generates the SQL statements which create the companion FTS table,
+		 * and the triggers which keep it synchronized with this table. The
+		 * {@code docid} of each row in the FTS table is the {@code rowid} of
+		 * the row from which it was copied.
+		 * @return a list of SQL statements to be executed in order
+		 * @see SQLiteFullText
+		 * @since zer0bandwidth-net/android 1.1.0
+		 */
+		public List<String> getFullTextCreationSQL()
+		{
+			final String sTable = this.getTableName() ;
+			final String sIndex = this.getFullTextTableName() ;
+			List<Column> aFullText = this.getFullTextColumns() ;
+			StringBuilder sbColumns = new StringBuilder() ;
+			StringBuilder sbNewValues = new StringBuilder() ;
+			for( Column col : aFullText )
+			{
+				sbColumns.append( ", " ).append( col.getName() ) ;
+				sbNewValues.append( ", new." ).append( col.getName() ) ;
+			}
+			final String sInsert = (new StringBuilder())
+					.append( "INSERT INTO " ).append( sIndex )
+					.append( " ( docid" ).append( sbColumns )
+					.append( " ) VALUES ( new." ).append( SQLITE_ROWID )
+					.append( sbNewValues ).append( " ) ; " )
+					.toString()
+					;
+			final String sDelete = (new StringBuilder())
+					.append( "DELETE FROM " ).append( sIndex )
+					.append( " WHERE docid=old." ).append( SQLITE_ROWID )
+					.append( " ; " )
+					.toString()
+					;
+
+			List<String> asSQL = new ArrayList<>(4) ;
+			asSQL.add( (new StringBuilder())
+					.append( "CREATE VIRTUAL TABLE IF NOT EXISTS " )
+					.append( sIndex ).append( " USING fts4 ( " )
+					.append( sbColumns.substring(2) ).append( " )" )
+					.toString()
+				);
+			asSQL.add( (new StringBuilder())
+					.append( "CREATE TRIGGER IF NOT EXISTS " )
+					.append( sIndex ).append( "_ai AFTER INSERT ON " )
+					.append( sTable ).append( " BEGIN " ).append( sInsert )
+					.append( "END" )
+					.toString()
+				);
+			asSQL.add( (new StringBuilder())
+					.append( "CREATE TRIGGER IF NOT EXISTS " )
+					.append( sIndex ).append( "_au AFTER UPDATE ON " )
+					.append( sTable ).append( " BEGIN " ).append( sDelete )
+					.append( sInsert ).append( "END" )
+					.toString()
+				);
+			asSQL.add( (new StringBuilder())
+					.append( "CREATE TRIGGER IF NOT EXISTS " )
+					.append( sIndex ).append( "_ad AFTER DELETE ON " )
+					.append( sTable ).append( " BEGIN " ).append( sDelete )
+					.append( "END" )
+					.toString()
+				);
+
+			for( String sSQL : asSQL )
+				Log.d( LOG_TAG, sSQL ) ; // DEBUG ONLY
+
+			return asSQL ;
+		}
+
+		/**
+		 * Generates the SQL statement which copies every existing row of this
+		 * table into the companion FTS table. This is used when the index is
+		 * created for a table that already contains data.
+		 * @return an SQL statement which populates the full-text index
+		 * @since zer0bandwidth-net/android 1.1.0
+		 */
+		public String getFullTextPopulationSQL()
+		{
+			StringBuilder sbColumns = new StringBuilder() ;
+			for( Column col : this.getFullTextColumns() )
+				sbColumns.append( ", " ).append( col.getName() ) ;
+			return (new StringBuilder())
+					.append( "INSERT INTO " )
+					.append( this.getFullTextTableName() )
+					.append( " ( docid" ).append( sbColumns )
+					.append( " ) SELECT " ).append( SQLITE_ROWID )
+					.append( sbColumns ).append( " FROM " )
+					.append( this.getTableName() )
+					.toString()
+					;
+		}
+
+		/**
+		 * Generates the SQL statements which drop the companion FTS table and
+		 * its triggers, if they exist.
+		 * @return a list of SQL statements to be executed in order
+		 * @since zer0bandwidth-net/android 1.1.0
+		 */
+		public List<String> getFullTextDropSQL()
+		{
+			final String sIndex = this.getFullTextTableName() ;
+			return Arrays.asList(
+					"DROP TRIGGER IF EXISTS " + sIndex + "_ai",
+					"DROP TRIGGER IF EXISTS " + sIndex + "_au",
+					"DROP TRIGGER IF EXISTS " + sIndex + "_ad",
+					"DROP TABLE IF EXISTS " + sIndex
+				);
+		}
+
 		/**
 		 * Determines the first version of the schema in which this schematic
 		 * class was included. If the {@link SQLiteTable} annotation is missing,
@@ -836,12 +1105,14 @@ public interface SQLightable
 		{
 			try
 			{
-				Constructor ctor = m_clsTable.getDeclaredConstructor() ;
-				if( ctor == null ) // try something different
-					ctor = m_clsTable.getConstructor() ;
-				ctor.setAccessible(true) ;
-				//noinspection unchecked - guaranteed
-				return ((T)(ctor.newInstance())) ;
+				Constructor<T> ctor = m_ctor ;
+				if( ctor == null )
+				{ // Discover it once; rows are often constructed in bulk.
+					ctor = m_clsTable.getDeclaredConstructor() ;
+					ctor.setAccessible(true) ;
+					m_ctor = ctor ;
+				}
+				return ctor.newInstance() ;
 			}
 			catch( Exception x )
 			{ throw IntrospectionException.instanceFailed( m_clsTable, x ) ; }
@@ -882,6 +1153,90 @@ public interface SQLightable
 			return oResult ;
 		}
 
+		/**
+		 * Discovers which of the reflected columns are actually present in the
+		 * specified cursor. This is useful when the cursor was produced by a
+		 * {@code SELECT} statement that requested only a subset of the table's
+		 * columns, as with {@link SelectionBuilder#columns}. The list should be
+		 * resolved once per cursor, and then passed to
+		 * {@link #fromCursor(Cursor, List)} for each row.
+		 * @param crs the cursor to be examined
+		 * @return the list of column reflections for which the cursor has a
+		 *  corresponding column, in the reflection's usual column order
+		 * @since zer0bandwidth-net/android 1.1.0
+		 */
+		public List<Column> getColumnsPresentIn( Cursor crs )
+		{
+			if( crs == null ) return Collections.emptyList() ;
+			List<Column> aPresent = new ArrayList<>( m_aColumns.size() ) ;
+			for( Column col : m_aColumns )
+			{
+				if( crs.getColumnIndex( col.getName() ) != COLUMN_NOT_FOUND )
+					aPresent.add(col) ;
+			}
+			return aPresent ;
+		}
+
+		/**
+		 * Reads a row of data from the specified cursor, and marshals it into a
+		 * schematic class instance, populating only the specified columns. Any
+		 * field that is not in the list retains whatever value was assigned by
+		 * the schematic class's default constructor.
+		 * @param crs the cursor which is currently pointing to a data row
+		 * @param aColumns the columns to be populated, as discovered by
+		 *  {@link #getColumnsPresentIn(Cursor)}
+		 * @return an instance of the class, containing the cursor's current row
+		 * @throws IntrospectionException if the data class could not be
+		 *  constructed for some reason
+		 * @throws SchematicException if the data could not be properly
+		 *  marshalled into the class instance
+		 * @since zer0bandwidth-net/android 1.1.0
+		 */
+		public T fromCursor( Cursor crs, List<Column> aColumns )
+		throws IntrospectionException, SchematicException
+		{
+			T oResult = this.getInstance() ; // Can throw IntrospectionException
+
+			for( Column col : aColumns )
+			{
+				try
+				{
+					col.getField().set( oResult,
+						col.getRefractor().fromCursor( crs, col.getName() ) ) ;
+				}
+				catch( IllegalAccessException xAccess )
+				{
+					throw SchematicException.fieldWasInaccessible(
+							m_clsTable.getCanonicalName(),
+							col.getName(), xAccess
+						);
+				}
+			}
+
+			return oResult ;
+		}
+
+		/**
+		 * As {@link #fromCursor(Cursor)}, but tolerates cursors that contain
+		 * only a subset of the table's columns. Fields corresponding to
+		 * columns that were not selected retain their default values.
+		 *
+		 * <p>When reading many rows from the same cursor, it is more efficient
+		 * to call {@link #getColumnsPresentIn(Cursor)} once, and then call
+		 * {@link #fromCursor(Cursor, List)} for each row.</p>
+		 *
+		 * @param crs the cursor which is currently pointing to a data row
+		 * @return an instance of the class, containing the cursor's current row
+		 * @throws IntrospectionException if the data class could not be
+		 *  constructed for some reason
+		 * @throws SchematicException if the data could not be properly
+		 *  marshalled into the class instance
+		 * @since zer0bandwidth-net/android 1.1.0
+		 */
+		public T fromProjectedCursor( Cursor crs )
+		throws IntrospectionException, SchematicException
+		{ return this.fromCursor( crs, this.getColumnsPresentIn(crs) ) ; }
+
 		/**
 		 * Reads fields from a supplied {@link Bundle}, and marshals it into a
 		 * schematic class instance.
@@ -967,6 +1322,45 @@ public interface SQLightable
 			return vals ;
 		}
 
+		/**
+		 * Prepares a schematic class instance to be written to the database,
+		 * by passing the value of each column whose refractor is a
+		 * {@link PreparingRefractor} through
+		 * {@link PreparingRefractor#prepareForWrite}, and assigning the result
+		 * back into the field. This is called only when the instance is about
+		 * to be inserted or updated; {@link #toContentValues} itself has no
+		 * side effects.
+		 * @param oTarget the object to be prepared
+		 * @return the same object
+		 * @throws SchematicException if a field could not be accessed
+		 * @since zer0bandwidth-net/android 1.1.0
+		 */
+		public T prepareForWrite( T oTarget )
+		throws SchematicException
+		{
+			for( Column col : m_aColumns )
+			{
+				Refractor lens = col.getRefractor() ;
+				if( ! ( lens instanceof PreparingRefractor ) ) continue ;
+				try
+				{
+					//noinspection unchecked - lens corresponds to field
+					col.getField().set( oTarget,
+						((PreparingRefractor)(lens)).prepareForWrite(
+							lens.getValueFrom( oTarget, col.getField() ) ) ) ;
+				}
+				catch( IllegalAccessException xAccess )
+				{
+					throw SchematicException.fieldWasInaccessible(
+							m_clsTable.getCanonicalName(),
+							col.getField().getName(),
+							xAccess
+						);
+				}
+			}
+			return oTarget ;
+		}
+
 		/**
 		 * Extracts the values of all known fields, corresponding to database
 		 * table columns, from a schematic class instance, and returns a
@@ -13,11 +13,14 @@ import net.zer0bandwidth.android.lib.database.querybuilder.DeletionBuilder;
 import net.zer0bandwidth.android.lib.database.querybuilder.QueryBuilder;
 import net.zer0bandwidth.android.lib.database.querybuilder.SelectionBuilder;
 import net.zer0bandwidth.android.lib.database.querybuilder.UpdateBuilder;
+import net.zer0bandwidth.android.lib.database.querybuilder.WhereExpression;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteColumn;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteDatabaseSpec;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteFullText;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteTable;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.exceptions.IntrospectionException;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.exceptions.SchematicException;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.refractor.MigratingRefractor;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.refractor.NullRefractor;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.refractor.Refractor;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.refractor.RefractorMap;
@@ -25,10 +28,22 @@ import net.zer0bandwidth.android.lib.util.LexicalStringComparator;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.INSERT_FAILED;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_ROWID;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_MAX_VARIABLE_NUMBER;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQL_SELECT_ALL_COLUMNS;
 
 /**
  * Uses custom annotations to automatically construct and manage SQLite
@@ -667,6 +682,12 @@ extends SQLitePortal
 	 */
 	public static final String MAGIC_ID_COLUMN_NAME = "_id" ;
 
+	/**
+	 * Returned by {@link #startTimer()} when metrics are disabled.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected static final long NOT_TIMED = Long.MIN_VALUE ;
+
 /// Instance Members ///////////////////////////////////////////////////////////
 
 	/**
@@ -687,6 +708,23 @@ extends SQLitePortal
 	 */
 	protected RefractorMap m_mapRefractor = null ;
 
+	/**
+	 * If change tracking is enabled, this tracker remembers the values of rows
+	 * as they were last read from or written to the database, so that
+	 * {@link #update(SQLightable)} can write only the columns that changed.
+	 * @see #enableChangeTracking()
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected ChangeTracker m_trkChanges = null ;
+
+	/**
+	 * If metrics are enabled, this registry counts and times the operations
+	 * performed on each table.
+	 * @see #enableMetrics()
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected volatile TableMetrics m_metrics = null ;
+
 /// Constructors and Initializers //////////////////////////////////////////////
 
 	/**
@@ -812,6 +850,14 @@ extends SQLitePortal
 			{
 				sSQL = tbl.getTableCreationSQL() ;
 				db.execSQL( sSQL ) ;
+				if( tbl.hasFullTextIndex() )
+				{
+					for( Object oSQL : tbl.getFullTextCreationSQL() )
+					{
+						sSQL = (String)oSQL ;
+						db.execSQL( sSQL ) ;
+					}
+				}
 			}
 			catch( Exception x )
 			{
@@ -902,12 +948,107 @@ extends SQLitePortal
 							.toString()
 						);
 				}
+				else if( col.getRefractor() instanceof MigratingRefractor )
+					this.migrateColumn( db, tbl, col ) ;
 			}
 		}
 
+		this.rebuildFullTextIndex( db, tbl ) ;
+
+		return this ;
+	}
+
+	/**
+	 * Called by {@link #upgradeTable} to drop and recreate the companion FTS
+	 * table of a schematic class, along with its triggers, and to copy the
+	 * existing rows into it. This picks up any columns that were added to or
+	 * removed from the full-text index since the previous schema version. If
+	 * the class no longer has any full-text columns, then the companion table
+	 * is simply dropped.
+	 * @param db a direct handle to the SQLite database
+	 * @param tbl the reflection of the schematic class that defines the table
+	 * @param <SC> the schematic class
+	 * @return (fluid)
+	 * @see SQLiteFullText
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected <SC extends SQLightable> SQLiteHouse<DSC> rebuildFullTextIndex(
+			SQLiteDatabase db, SQLightable.Reflection<SC> tbl )
+	{
+		for( String sSQL : tbl.getFullTextDropSQL() )
+			db.execSQL( sSQL ) ;
+		if( ! tbl.hasFullTextIndex() ) return this ;
+
+		for( String sSQL : tbl.getFullTextCreationSQL() )
+			db.execSQL( sSQL ) ;
+		db.execSQL( tbl.getFullTextPopulationSQL() ) ;
+		Log.i( LOG_TAG, (new StringBuilder())
+				.append( "Rebuilt full-text index [" )
+				.append( tbl.getFullTextTableName() )
+				.append( "] for table [" ).append( tbl.getTableName() )
+				.append( "]." )
+				.toString()
+			);
 		return this ;
 	}
 
+	/**
+	 * Called by {@link #upgradeTable} for each existing column whose refractor
+	 * is a {@link MigratingRefractor}, to rewrite any values that are still
+	 * stored in an older format.
+	 * @param db a direct handle to the SQLite database
+	 * @param tbl the reflection of the schematic class that defines the table
+	 * @param col the column to be migrated
+	 * @param <SC> the schematic class
+	 * @return the number of rows that were rewritten
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected <SC extends SQLightable> int migrateColumn( SQLiteDatabase db,
+			SQLightable.Reflection<SC> tbl,
+			SQLightable.Reflection<SC>.Column col )
+	{
+		MigratingRefractor<?> lens = ((MigratingRefractor<?>)
+				( col.getRefractor() )) ;
+		String sFilter = lens.getMigrationFilter( col.getName() ) ;
+		if( sFilter == null ) return 0 ;
+
+		int nMigrated = 0 ;
+		Cursor crs = null ;
+		try
+		{
+			crs = QueryBuilder.selectFrom( db, tbl.getTableName() )
+					.columns( SQLITE_ROWID, col.getName() )
+					.where( sFilter )
+					.execute()
+					;
+			if( crs.moveToFirst() ) do
+			{
+				ContentValues vals = new ContentValues() ;
+				lens.migrate( crs, col.getName(), vals ) ;
+				nMigrated += QueryBuilder.update( db, tbl.getTableName() )
+						.setValues( vals )
+						.where( SQLITE_ROWID + "=?", Long.toString(
+								crs.getLong( crs.getColumnIndex(SQLITE_ROWID) )))
+						.execute()
+						;
+			} while( crs.moveToNext() ) ;
+		}
+		finally
+		{ closeCursor(crs) ; }
+
+		if( nMigrated > 0 )
+		{
+			Log.i( LOG_TAG, (new StringBuilder())
+					.append( "Migrated " ).append( nMigrated )
+					.append( " values in column [" ).append( col.getName() )
+					.append( "] of table [" ).append( tbl.getTableName() )
+					.append( "]." )
+					.toString()
+				);
+		}
+		return nMigrated ;
+	}
+
 /// Query Commands /////////////////////////////////////////////////////////////
 
 	/**
@@ -927,15 +1068,18 @@ extends SQLitePortal
 		Class<ROW> cls = ((Class<ROW>)( o.getClass() ));
 		SQLightable.Reflection<ROW> tbl = this.getReflection(cls) ;
 		SQLightable.Reflection<ROW>.Column col = tbl.getMagicIDColumn() ;
-		ContentValues vals = tbl.toContentValues(o) ;
+		ContentValues vals = tbl.toContentValues( tbl.prepareForWrite(o) ) ;
 		// Don't allow the passed object to dictate the auto-inc ID.
 		if( col != null ) vals.remove( MAGIC_ID_COLUMN_NAME ) ;
 
+		final long tsStart = this.startTimer() ;
 		long nID = QueryBuilder
 				.insertInto( m_db, tbl.getTableName() )
 				.setValues( vals )
 				.execute()
 				;
+		this.recordMetric( tbl, TableMetrics.Operation.INSERT, tsStart,
+				( nID == INSERT_FAILED ? 0 : 1 ) ) ;
 
 		if( col != null )
 		{ // Try to write the ID back into the instance.
@@ -944,11 +1088,21 @@ extends SQLitePortal
 			{ Log.w( LOG_TAG, "Couldn't rewrite row ID into object." ) ; }
 		}
 
+		if( m_trkChanges != null && nID != INSERT_FAILED )
+			m_trkChanges.snapshot( tbl, o ) ;
+
 		return nID ;
 	}
 
 	/**
 	 * Updates the values of an object from a known schematic class.
+	 *
+	 * <p>Since 1.1.0, if {@link #enableChangeTracking() change tracking} is
+	 * enabled, and the object was previously read from or written to the
+	 * database through this instance, then only the columns whose values have
+	 * changed since then are written. If nothing has changed, then no
+	 * statement is executed at all, and the method returns zero.</p>
+	 *
 	 * @param o the object to be updated
 	 * @return the number of rows updated (generally 1)
 	 * @throws SchematicException if the data object's class isn't part of the
@@ -967,17 +1121,38 @@ extends SQLitePortal
 			throw new SchematicException(
 					"Can't use update(SQLightable) without a key column." ) ;
 		}
-		return QueryBuilder.update( m_db, tbl.getTableName() )
-				.setValues( tbl.toContentValues(o) )
+
+		tbl.prepareForWrite(o) ;
+		ContentValues vals = null ;
+		if( m_trkChanges != null )
+		{
+			vals = m_trkChanges.getChangedValues( tbl, o ) ;
+			if( vals != null && vals.size() == 0 ) return 0 ; // nothing to do
+		}
+		if( vals == null ) vals = tbl.toContentValues(o) ;
+
+		final long tsStart = this.startTimer() ;
+		int nUpdated = QueryBuilder.update( m_db, tbl.getTableName() )
+				.setValues( vals )
 				.where( String.format( "%s=%s",
 						col.getName(), col.getSQLColumnValueFrom(o) ) )
 				.execute()
 				;
+		this.recordMetric( tbl, TableMetrics.Operation.UPDATE, tsStart, nUpdated ) ;
+
+		if( m_trkChanges != null && nUpdated > 0 )
+			m_trkChanges.accept( tbl, o, vals ) ;
+
+		return nUpdated ;
 	}
 
 	/**
 	 * Shorthand to obtain an {@link UpdateBuilder} bound to this database and
 	 * targeting the table corresponding to the specified schematic class.
+	 *
+	 * <p>Since 1.1.0, if change tracking is enabled, any snapshots of that
+	 * table's rows are discarded, since the builder may alter them.</p>
+	 *
 	 * @param cls the class that defines part of the schema
 	 * @return an {@code UPDATE} query builder prepared for that table
 	 * @throws SchematicException if the class is not part of the schema
@@ -985,8 +1160,9 @@ extends SQLitePortal
 	public <SC extends SQLightable> UpdateBuilder update( Class<SC> cls )
 	throws SchematicException
 	{
-		return QueryBuilder.update( m_db,
-						this.getReflection(cls).getTableName() ) ;
+		String sTableName = this.getReflection(cls).getTableName() ;
+		if( m_trkChanges != null ) m_trkChanges.forget(cls) ;
+		return QueryBuilder.update( m_db, sTableName ) ;
 	}
 
 	/**
@@ -1013,6 +1189,8 @@ extends SQLitePortal
 			throw new SchematicException(
 					"Can't use search(SQLightable) without a key column." ) ;
 		}
+		final long tsStart = this.startTimer() ;
+		ROW oResult = null ;
 		Cursor crs = null ;
 		try
 		{
@@ -1021,11 +1199,14 @@ extends SQLitePortal
 			              col.getName(), col.getSQLColumnValueFrom(oCriteria) ))
 					.execute()
 					;
-			if( ! crs.moveToFirst() ) return null ; // No such object found.
-			return tbl.fromCursor(crs) ;
+			if( crs.moveToFirst() )
+				oResult = this.track( tbl, tbl.fromCursor(crs) ) ;
 		}
 		finally
 		{ closeCursor(crs) ; }
+		this.recordMetric( tbl, TableMetrics.Operation.SELECT, tsStart,
+				( oResult == null ? 0 : 1 ) ) ;
+		return oResult ;                   // null if no such object was found
 	}
 
 	/**
@@ -1051,6 +1232,8 @@ extends SQLitePortal
 			throw new SchematicException(
 					"Can't use search(Class,String) without a key column." ) ;
 		}
+		final long tsStart = this.startTimer() ;
+		ROW oResult = null ;
 		Cursor crs = null ;
 		try
 		{
@@ -1059,11 +1242,14 @@ extends SQLitePortal
 			              colKey.getName(), sID ) )
 					.execute()
 					;
-			if( ! crs.moveToFirst() ) return null ;     // No such object found.
-			return tbl.fromCursor(crs) ;
+			if( crs.moveToFirst() )
+				oResult = this.track( tbl, tbl.fromCursor(crs) ) ;
 		}
 		finally
 		{ closeCursor(crs) ; }
+		this.recordMetric( tbl, TableMetrics.Operation.SELECT, tsStart,
+				( oResult == null ? 0 : 1 ) ) ;
+		return oResult ;                   // null if no such object was found
 	}
 
 	/**
@@ -1081,6 +1267,8 @@ extends SQLitePortal
 	throws SchematicException
 	{
 		SQLightable.Reflection<ROW> tbl = this.getReflection(cls) ;
+		final long tsStart = this.startTimer() ;
+		ROW oResult = null ;
 		Cursor crs = null ;
 		try
 		{
@@ -1089,28 +1277,324 @@ extends SQLitePortal
 							MAGIC_ID_COLUMN_NAME, nID ) )
 					.execute()
 					;
-			if( ! crs.moveToFirst() ) return null ; // No such object found.
-			return tbl.fromCursor(crs) ;
+			if( crs.moveToFirst() )
+				oResult = this.track( tbl, tbl.fromCursor(crs) ) ;
 		}
 		finally
 		{ closeCursor(crs) ; }
+		this.recordMetric( tbl, TableMetrics.Operation.SELECT, tsStart,
+				( oResult == null ? 0 : 1 ) ) ;
+		return oResult ;                   // null if no such object was found
 	}
 
 	/**
 	 * Shorthand to obtain a {@link SelectionBuilder} bound to this database and
 	 * targeting the table corresponding to the specified schematic class.
+	 *
+	 * <p>Since 1.1.0, the builder is a {@link RelationalSelectionBuilder},
+	 * which can also load the rows of related classes with one query per
+	 * class.</p>
+	 *
 	 * @param cls the schematic class
 	 * @param <SC> the schematic class
 	 * @return a {@code SELECT} query builder prepared for that table
 	 * @throws SchematicException if the class is not part of the schema
 	 */
-	public <SC extends SQLightable> SelectionBuilder selectFrom( Class<SC> cls )
+	public <SC extends SQLightable> RelationalSelectionBuilder<SC> selectFrom( Class<SC> cls )
+	throws SchematicException
+	{
+		return new RelationalSelectionBuilder<>(
+				this, m_db, this.getReflection(cls) ) ;
+	}
+
+	/**
+	 * Searches the full-text index of a schematic class's table, and returns
+	 * every matching row, ordered from most to least relevant.
+	 * @param cls the schematic class, which must have at least one column
+	 *  annotated with {@link SQLiteFullText}
+	 * @param sQuery a full-text query, in SQLite's {@code MATCH} syntax
+	 * @param <SC> the schematic class
+	 * @return the matching rows, ranked by relevance
+	 * @throws SchematicException if the class is not part of the schema, or
+	 *  has no full-text index
+	 * @see #match(Class, String, int)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <SC extends SQLightable> List<SC> match( Class<SC> cls, String sQuery )
+	throws SchematicException
+	{ return this.match( cls, sQuery, -1 ) ; }
+
+	/**
+	 * Searches the full-text index of a schematic class's table, and returns
+	 * the most relevant matching rows.
+	 *
+	 * <p>The search itself is resolved by the companion FTS table, so it does
+	 * not scan the main table. Each match is then scored from the FTS
+	 * {@code matchinfo()} statistics by {@link #scoreFullTextMatch}, and only
+	 * the best rows are read from the main table.</p>
+	 *
+	 * @param cls the schematic class, which must have at least one column
+	 *  annotated with {@link SQLiteFullText}
+	 * @param sQuery a full-text query, in SQLite's {@code MATCH} syntax
+	 * @param nLimit the maximum number of rows to return; zero or negative
+	 *  for no limit
+	 * @param <SC> the schematic class
+	 * @return the matching rows, ranked by relevance
+	 * @throws SchematicException if the class is not part of the schema, or
+	 *  has no full-text index
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <SC extends SQLightable> List<SC> match( Class<SC> cls,
+			String sQuery, int nLimit )
 	throws SchematicException
 	{
-		return QueryBuilder.selectFrom( m_db,
-						this.getReflection(cls).getTableName() ) ;
+		SQLightable.Reflection<SC> tbl = this.getReflection(cls) ;
+		if( ! tbl.hasFullTextIndex() )
+			throw SchematicException.noFullTextIndex(cls) ;
+		final String sIndex = tbl.getFullTextTableName() ;
+		final long tsStart = this.startTimer() ;
+
+		// Find and score the matches in the full-text index.
+		final Map<Long,Double> mapScores = new HashMap<>() ;
+		List<Long> anIDs = new ArrayList<>() ;
+		Cursor crs = null ;
+		try
+		{
+			crs = m_db.rawQuery( (new StringBuilder())
+					.append( "SELECT docid, matchinfo(" ).append( sIndex )
+					.append( ", 'pcx') FROM " ).append( sIndex )
+					.append( " WHERE " ).append( sIndex ).append( " MATCH ?" )
+					.toString()
+				, new String[] { sQuery } ) ;
+			while( crs.moveToNext() )
+			{
+				Long nID = crs.getLong(0) ;
+				mapScores.put( nID, scoreFullTextMatch( crs.getBlob(1) ) ) ;
+				anIDs.add( nID ) ;
+			}
+		}
+		finally
+		{ closeCursor(crs) ; }
+
+		Collections.sort( anIDs, new Comparator<Long>()
+			{
+				@Override
+				public int compare( Long nFirst, Long nSecond )
+				{ return mapScores.get(nSecond).compareTo( mapScores.get(nFirst) ) ; }
+			});
+		if( nLimit > 0 && anIDs.size() > nLimit )
+			anIDs = anIDs.subList( 0, nLimit ) ;
+
+		// Read the best rows from the main table, then restore their ranking.
+		Map<Long,SC> mapRows = new HashMap<>( anIDs.size() ) ;
+		for( int i = 0 ; i < anIDs.size() ; i += SQLITE_MAX_VARIABLE_NUMBER )
+		{
+			List<Long> anChunk = anIDs.subList( i,
+				Math.min( i + SQLITE_MAX_VARIABLE_NUMBER, anIDs.size() ) ) ;
+			try
+			{
+				crs = QueryBuilder.selectFrom( m_db, tbl.getTableName() )
+						.columns( SQLITE_ROWID, SQL_SELECT_ALL_COLUMNS )
+						.whereExpr( WhereExpression.in( SQLITE_ROWID, anChunk ) )
+						.execute()
+						;
+				if( crs.moveToFirst() )
+				{
+					List<SQLightable.Reflection<SC>.Column> aColumns =
+							tbl.getColumnsPresentIn(crs) ;
+					do
+					{ // The row ID is always the first column selected.
+						mapRows.put( crs.getLong(0), this.track( tbl,
+							tbl.fromCursor( crs, aColumns ), aColumns ) ) ;
+					} while( crs.moveToNext() ) ;
+				}
+			}
+			finally
+			{ closeCursor(crs) ; }
+		}
+
+		List<SC> aResults = new ArrayList<>( anIDs.size() ) ;
+		for( Long nID : anIDs )
+		{
+			SC oRow = mapRows.get(nID) ;
+			if( oRow != null ) aResults.add( oRow ) ;
+		}
+		this.recordMetric( tbl, TableMetrics.Operation.SELECT, tsStart,
+				aResults.size() ) ;
+		return aResults ;
+	}
+
+	/**
+	 * Scores a full-text match, given the blob returned by the FTS function
+	 * {@code matchinfo(table, 'pcx')}. For each phrase of the query, and each
+	 * column of the index, the score adds the fraction of all hits on that
+	 * phrase in that column which occurred in this row. Rows that contain
+	 * more of the query's rarer phrases thus score higher. This is the simple
+	 * ranking function suggested by SQLite's own FTS documentation, since
+	 * FTS4 provides no built-in ranking.
+	 * @param ablobMatchInfo the {@code matchinfo()} blob
+	 * @return the relevance score of the row; higher is better
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected static double scoreFullTextMatch( byte[] ablobMatchInfo )
+	{
+		if( ablobMatchInfo == null ) return 0.0d ;
+		IntBuffer buf = ByteBuffer.wrap( ablobMatchInfo )
+				.order( ByteOrder.nativeOrder() ).asIntBuffer() ;
+		if( buf.remaining() < 2 ) return 0.0d ;
+		final int nPhrases = buf.get(0) ;
+		final int nColumns = buf.get(1) ;
+		double nScore = 0.0d ;
+		for( int p = 0 ; p < nPhrases ; p++ )
+		{
+			for( int c = 0 ; c < nColumns ; c++ )
+			{
+				int i = 2 + 3 * ( p * nColumns + c ) ;
+				if( i + 1 >= buf.limit() ) return nScore ;
+				int nHitsThisRow = buf.get(i) ;
+				int nHitsAllRows = buf.get(i+1) ;
+				if( nHitsThisRow > 0 && nHitsAllRows > 0 )
+					nScore += ((double)nHitsThisRow) / nHitsAllRows ;
+			}
+		}
+		return nScore ;
 	}
 
+	/**
+	 * Counts the rows in the table corresponding to the specified schematic
+	 * class, without loading them. To count only certain rows, use
+	 * {@link #selectFrom(Class)} and {@link SelectionBuilder#count()}.
+	 * @param cls the schematic class
+	 * @param <SC> the schematic class
+	 * @return the number of rows in the table
+	 * @throws SchematicException if the class is not part of the schema
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <SC extends SQLightable> long count( Class<SC> cls )
+	throws SchematicException
+	{ return this.selectFrom(cls).count() ; }
+
+	/**
+	 * Counts the rows in the table corresponding to the specified schematic
+	 * class which match an expression, without loading them.
+	 * @param cls the schematic class
+	 * @param xWhere the expression that rows must match
+	 * @param <SC> the schematic class
+	 * @return the number of matching rows
+	 * @throws SchematicException if the class is not part of the schema
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <SC extends SQLightable> long count( Class<SC> cls,
+	                                            WhereExpression xWhere )
+	throws SchematicException
+	{ return this.selectFrom(cls).whereExpr(xWhere).count() ; }
+
+	/**
+	 * Sums the values of a column over all rows in the table corresponding to
+	 * the specified schematic class. Fractional sums are truncated; use
+	 * {@link #sumAsDouble} for {@code REAL} columns.
+	 * @param cls the schematic class
+	 * @param sColumn the name of the column
+	 * @param <SC> the schematic class
+	 * @return the sum, or zero if there are no non-null values
+	 * @throws SchematicException if the class is not part of the schema
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <SC extends SQLightable> long sum( Class<SC> cls, String sColumn )
+	throws SchematicException
+	{ return this.selectFrom(cls).sum(sColumn) ; }
+
+	/**
+	 * Sums the values of a column over all rows in the table corresponding to
+	 * the specified schematic class, without truncating a fractional sum.
+	 * @param cls the schematic class
+	 * @param sColumn the name of the column
+	 * @param <SC> the schematic class
+	 * @return the sum, or zero if there are no non-null values
+	 * @throws SchematicException if the class is not part of the schema
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <SC extends SQLightable> double sumAsDouble( Class<SC> cls, String sColumn )
+	throws SchematicException
+	{ return this.selectFrom(cls).sumAsDouble(sColumn) ; }
+
+	/**
+	 * Finds the least value of a column among all rows in the table
+	 * corresponding to the specified schematic class. Fractional values are
+	 * truncated; use {@link #minAsDouble} for {@code REAL} columns.
+	 * @param cls the schematic class
+	 * @param sColumn the name of the column
+	 * @param <SC> the schematic class
+	 * @return the least value, or zero if there are no non-null values
+	 * @throws SchematicException if the class is not part of the schema
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <SC extends SQLightable> long min( Class<SC> cls, String sColumn )
+	throws SchematicException
+	{ return this.selectFrom(cls).min(sColumn) ; }
+
+	/**
+	 * Finds the least value of a column among all rows in the table
+	 * corresponding to the specified schematic class, without truncating a
+	 * fractional value.
+	 * @param cls the schematic class
+	 * @param sColumn the name of the column
+	 * @param <SC> the schematic class
+	 * @return the least value, or {@link Double#NaN} if there are no non-null
+	 *  values
+	 * @throws SchematicException if the class is not part of the schema
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <SC extends SQLightable> double minAsDouble( Class<SC> cls, String sColumn )
+	throws SchematicException
+	{ return this.selectFrom(cls).minAsDouble(sColumn) ; }
+
+	/**
+	 * Finds the greatest value of a column among all rows in the table
+	 * corresponding to the specified schematic class. Fractional values are
+	 * truncated; use {@link #maxAsDouble} for {@code REAL} columns.
+	 * @param cls the schematic class
+	 * @param sColumn the name of the column
+	 * @param <SC> the schematic class
+	 * @return the greatest value, or zero if there are no non-null values
+	 * @throws SchematicException if the class is not part of the schema
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <SC extends SQLightable> long max( Class<SC> cls, String sColumn )
+	throws SchematicException
+	{ return this.selectFrom(cls).max(sColumn) ; }
+
+	/**
+	 * Finds the greatest value of a column among all rows in the table
+	 * corresponding to the specified schematic class, without truncating a
+	 * fractional value.
+	 * @param cls the schematic class
+	 * @param sColumn the name of the column
+	 * @param <SC> the schematic class
+	 * @return the greatest value, or {@link Double#NaN} if there are no non-null
+	 *  values
+	 * @throws SchematicException if the class is not part of the schema
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <SC extends SQLightable> double maxAsDouble( Class<SC> cls, String sColumn )
+	throws SchematicException
+	{ return this.selectFrom(cls).maxAsDouble(sColumn) ; }
+
+	/**
+	 * Averages the values of a column over all rows in the table
+	 * corresponding to the specified schematic class.
+	 * @param cls the schematic class
+	 * @param sColumn the name of the column
+	 * @param <SC> the schematic class
+	 * @return the average, or {@link Double#NaN} if there are no non-null
+	 *  values
+	 * @throws SchematicException if the class is not part of the schema
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <SC extends SQLightable> double avg( Class<SC> cls, String sColumn )
+	throws SchematicException
+	{ return this.selectFrom(cls).avg(sColumn) ; }
+
 	/**
 	 * Searches the database for a row of the table represented by the supplied
 	 * objects, and deletes that row.
@@ -1132,11 +1616,97 @@ extends SQLitePortal
 			throw new SchematicException(
 					"Can't use delete(SQLightable) without a key column." ) ;
 		}
-		return QueryBuilder.deleteFrom( m_db, tbl.getTableName() )
+		if( m_trkChanges != null ) m_trkChanges.forget( tbl, o ) ;
+		final long tsStart = this.startTimer() ;
+		int nDeleted = QueryBuilder.deleteFrom( m_db, tbl.getTableName() )
 			.where( String.format( "%s=%s",
 				col.getName(), col.getSQLColumnValueFrom(o) ) )
 			.execute()
 			;
+		this.recordMetric( tbl, TableMetrics.Operation.DELETE, tsStart, nDeleted ) ;
+		return nDeleted ;
+	}
+
+	/**
+	 * Deletes the rows of the table represented by the supplied objects, in a
+	 * single transaction, using chunked {@code IN} lists of their key values
+	 * rather than one statement per object.
+	 * @param aRows the schematic class instances to be deleted if found; all
+	 *  must be of the same schematic class
+	 * @param <ROW> the schematic class
+	 * @return the number of rows deleted, or
+	 *  {@link net.zer0bandwidth.android.lib.database.SQLiteSyntax#DELETE_FAILED}
+	 *  if the deletion fails
+	 * @throws SchematicException if the table is not part of the schema, or
+	 *  doesn't specify a key column, or if the objects are not all of the same
+	 *  class
+	 * @see DeletionBuilder#whereIn
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <ROW extends SQLightable> int deleteAll( Collection<ROW> aRows )
+	throws SchematicException
+	{
+		if( aRows == null || aRows.isEmpty() ) return 0 ;
+		SQLightable.Reflection<ROW> tbl = this.getReflectionForAll( aRows ) ;
+		SQLightable.Reflection<ROW>.Column col = tbl.getKeyOrMagicIDColumn() ;
+		if( col == null )
+		{
+			throw new SchematicException(
+					"Can't use deleteAll(Collection) without a key column." ) ;
+		}
+		List<Object> aKeys = this.getKeyValues( tbl, col, aRows ) ;
+		if( m_trkChanges != null )
+			for( ROW o : aRows ) m_trkChanges.forget( tbl, o ) ;
+		final long tsStart = this.startTimer() ;
+		int nDeleted = QueryBuilder.deleteFrom( m_db, tbl.getTableName() )
+			.whereIn( col.getName(), aKeys )
+			.execute()
+			;
+		this.recordMetric( tbl, TableMetrics.Operation.DELETE, tsStart, nDeleted ) ;
+		return nDeleted ;
+	}
+
+	/**
+	 * Writes the same set of values to each of the rows of the table
+	 * represented by the supplied objects, in a single transaction, using
+	 * chunked {@code IN} lists of their key values. The objects themselves are
+	 * not modified.
+	 * @param aRows the schematic class instances whose rows are to be updated;
+	 *  all must be of the same schematic class
+	 * @param vals the values to be written to each row
+	 * @param <ROW> the schematic class
+	 * @return the number of rows updated, or
+	 *  {@link net.zer0bandwidth.android.lib.database.SQLiteSyntax#UPDATE_FAILED}
+	 *  if the update fails
+	 * @throws SchematicException if the table is not part of the schema, or
+	 *  doesn't specify a key column, or if the objects are not all of the same
+	 *  class
+	 * @see UpdateBuilder#whereIn
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <ROW extends SQLightable> int updateAll( Collection<ROW> aRows,
+			ContentValues vals )
+	throws SchematicException
+	{
+		if( aRows == null || aRows.isEmpty() ) return 0 ;
+		SQLightable.Reflection<ROW> tbl = this.getReflectionForAll( aRows ) ;
+		SQLightable.Reflection<ROW>.Column col = tbl.getKeyOrMagicIDColumn() ;
+		if( col == null )
+		{
+			throw new SchematicException(
+					"Can't use updateAll(Collection) without a key column." ) ;
+		}
+		List<Object> aKeys = this.getKeyValues( tbl, col, aRows ) ;
+		if( m_trkChanges != null )
+			for( ROW o : aRows ) m_trkChanges.forget( tbl, o ) ;
+		final long tsStart = this.startTimer() ;
+		int nUpdated = QueryBuilder.update( m_db, tbl.getTableName() )
+			.setValues( vals )
+			.whereIn( col.getName(), aKeys )
+			.execute()
+			;
+		this.recordMetric( tbl, TableMetrics.Operation.UPDATE, tsStart, nUpdated ) ;
+		return nUpdated ;
 	}
 
 	/**
@@ -1149,12 +1719,70 @@ extends SQLitePortal
 	public <SC extends SQLightable> DeletionBuilder deleteFrom( Class<SC> cls )
 	throws SchematicException
 	{
-		return QueryBuilder.deleteFrom( m_db,
-				this.getReflection(cls).getTableName() ) ;
+		String sTableName = this.getReflection(cls).getTableName() ;
+		if( m_trkChanges != null ) m_trkChanges.forget(cls) ;
+		return QueryBuilder.deleteFrom( m_db, sTableName ) ;
 	}
 
 /// Other Instance Methods /////////////////////////////////////////////////////
 
+	/**
+	 * Obtains the reflection of the schematic class shared by all of the
+	 * objects in a collection.
+	 * @param aRows a non-empty collection of schematic class instances
+	 * @param <ROW> the schematic class
+	 * @return the reflection of that class
+	 * @throws SchematicException if the class is not part of the schema, or if
+	 *  the objects are not all of the same class
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected <ROW extends SQLightable> SQLightable.Reflection<ROW>
+	getReflectionForAll( Collection<ROW> aRows )
+	throws SchematicException
+	{
+		Class<?> cls = aRows.iterator().next().getClass() ;
+		for( ROW o : aRows )
+		{
+			if( o.getClass() != cls )
+			{
+				throw new SchematicException( (new StringBuilder())
+						.append( "Collection mixes instances of [" )
+						.append( cls.getCanonicalName() )
+						.append( "] and [" )
+						.append( o.getClass().getCanonicalName() )
+						.append( "]." )
+						.toString()
+					);
+			}
+		}
+		//noinspection unchecked
+		return ((SQLightable.Reflection<ROW>)
+				( this.getReflection( (Class<ROW>)cls ) )) ;
+	}
+
+	/**
+	 * Gathers the values, as they would be stored in the database, of one
+	 * column from each of a collection of objects.
+	 * @param tbl the reflection of the objects' schematic class
+	 * @param col the column to be read
+	 * @param aRows the objects
+	 * @param <ROW> the schematic class
+	 * @return the stored values, in iteration order
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected <ROW extends SQLightable> List<Object> getKeyValues(
+			SQLightable.Reflection<ROW> tbl,
+			SQLightable.Reflection<ROW>.Column col,
+			Collection<ROW> aRows )
+	{
+		List<Object> aKeys = new ArrayList<>( aRows.size() ) ;
+		ContentValues vals = new ContentValues() ;
+		final String sKey = col.getName() ;
+		for( ROW o : aRows )
+			aKeys.add( col.addValueTo( vals, o ).get( sKey ) ) ;
+		return aKeys ;
+	}
+
 	/**
 	 * Accesses the reflection of a class that is marshalled by this instance.
 	 * If the class was not included in the list of classes that is part of the
@@ -1198,12 +1826,45 @@ extends SQLitePortal
 	 */
 	public <SC extends SQLightable> SC fromCursor( Cursor crs, Class<SC> cls )
 	throws SchematicException
-	{ return this.getReflection(cls).fromCursor(crs) ; }
+	{
+		SQLightable.Reflection<SC> tbl = this.getReflection(cls) ;
+		return this.track( tbl, tbl.fromCursor(crs) ) ;
+	}
+
+	/**
+	 * As {@link #fromCursor(Cursor, Class)}, but tolerates a cursor which
+	 * contains only some of the table's columns. Fields whose columns are
+	 * absent from the cursor retain their default values.
+	 * @param crs the cursor from which data will be marshalled
+	 * @param cls the schematic class to which data will be marshalled
+	 * @param <SC> the schematic class to which data will be marshalled
+	 * @return an instance of the class, containing the cursor's current row
+	 * @throws SchematicException if the class is not part of the schema
+	 * @see SQLightable.Reflection#fromProjectedCursor(Cursor)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <SC extends SQLightable> SC fromProjectedCursor( Cursor crs, Class<SC> cls )
+	throws SchematicException
+	{
+		SQLightable.Reflection<SC> tbl = this.getReflection(cls) ;
+		List<SQLightable.Reflection<SC>.Column> aColumns =
+				tbl.getColumnsPresentIn(crs) ;
+		return this.track( tbl, tbl.fromCursor( crs, aColumns ), aColumns ) ;
+	}
 
 	/**
 	 * Given a result set loaded into a {@link Cursor}, iterate over that cursor
 	 * to produce a list of schematic class instances containing the rows in the
 	 * result set.
+	 *
+	 * <p>Since 1.1.0, the method discovers, once per cursor, which of the
+	 * schematic class's columns are actually present in the result set, and
+	 * populates only those fields in each instance. This allows the consumer
+	 * to select only a few columns from a wide table (see
+	 * {@link SelectionBuilder#columns}); any field whose column was not
+	 * selected retains the value assigned by the class's default
+	 * constructor.</p>
+	 *
 	 * @param cls the schematic class which could contain each row
 	 * @param crs the cursor containing the result set
 	 * @param <SC> the schematic class which could contain each row
@@ -1216,15 +1877,183 @@ extends SQLitePortal
 			Class<SC> cls, Cursor crs )
 	throws SchematicException
 	{
-		List<SC> aResults = new ArrayList<>() ;
+		SQLightable.Reflection<SC> tbl = this.getReflection(cls) ;
+		final long tsStart = this.startTimer() ;
+		List<SC> aResults = new ArrayList<>( crs.getCount() ) ;
 		if( crs.moveToFirst() )
 		{ // Process each element in turn, marshalling it into the list.
-			do aResults.add( this.getReflection(cls).fromCursor(crs) ) ;
-			while( crs.moveToNext() ) ;
+			List<SQLightable.Reflection<SC>.Column> aColumns =
+					tbl.getColumnsPresentIn(crs) ;
+			do
+			{
+				aResults.add( this.track( tbl,
+						tbl.fromCursor( crs, aColumns ), aColumns ) ) ;
+			} while( crs.moveToNext() ) ;
 		}
+		this.recordMetric( tbl, TableMetrics.Operation.MATERIALIZE, tsStart,
+				aResults.size() ) ;
 		return aResults ;
 	}
 
+	/**
+	 * Enables change tracking with the
+	 * {@link ChangeTracker#DEFAULT_CAPACITY default capacity}.
+	 * @return (fluid)
+	 * @see #enableChangeTracking(int)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public DSC enableChangeTracking()
+	{ return this.enableChangeTracking( ChangeTracker.DEFAULT_CAPACITY ) ; }
+
+	/**
+	 * Enables change tracking. While tracking is enabled, the instance records
+	 * the values of each row that it reads or writes through its object-based
+	 * methods ({@link #insert}, {@link #search}, {@link #select},
+	 * {@link #fromCursor}, {@link #processResultSet}, etc.), and
+	 * {@link #update(SQLightable)} writes only the columns whose values have
+	 * changed since then. This is useful for tables with large {@code TEXT}
+	 * or {@code BLOB} columns that are rarely edited.
+	 *
+	 * <p>Snapshots are discarded for any table for which the consumer obtains
+	 * an {@link UpdateBuilder} or {@link DeletionBuilder} through this
+	 * instance. Consumers who alter rows by other means should call
+	 * {@link ChangeTracker#forget(Class)} on {@link #getChangeTracker()}.</p>
+	 *
+	 * @param nCapacity the maximum number of snapshots to be retained for each
+	 *  table
+	 * @return (fluid)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public DSC enableChangeTracking( int nCapacity )
+	{
+		m_trkChanges = new ChangeTracker( nCapacity ) ;
+		//noinspection unchecked
+		return (DSC)this ;
+	}
+
+	/**
+	 * Disables change tracking and discards all snapshots. Subsequent calls to
+	 * {@link #update(SQLightable)} will write every column.
+	 * @return (fluid)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public DSC disableChangeTracking()
+	{
+		m_trkChanges = null ;
+		//noinspection unchecked
+		return (DSC)this ;
+	}
+
+	/**
+	 * Accesses the change tracker, if change tracking is enabled.
+	 * @return the change tracker, or {@code null} if tracking is disabled
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public ChangeTracker getChangeTracker()
+	{ return m_trkChanges ; }
+
+	/**
+	 * Enables the collection of per-table metrics. While metrics are enabled,
+	 * the instance counts and times each operation performed through its
+	 * object-based methods ({@link #insert}, {@link #update(SQLightable)},
+	 * {@link #updateAll}, {@link #delete}, {@link #deleteAll},
+	 * {@link #search}, {@link #select}, {@link #match}), and the rows
+	 * materialized by {@link #processResultSet}. If metrics are already
+	 * enabled, the existing registry is kept.
+	 * @return (fluid)
+	 * @see TableMetrics
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public DSC enableMetrics()
+	{
+		if( m_metrics == null ) m_metrics = new TableMetrics() ;
+		//noinspection unchecked
+		return (DSC)this ;
+	}
+
+	/**
+	 * Disables the collection of per-table metrics, and discards the registry.
+	 * @return (fluid)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public DSC disableMetrics()
+	{
+		m_metrics = null ;
+		//noinspection unchecked
+		return (DSC)this ;
+	}
+
+	/**
+	 * Accesses the metrics registry, if metrics are enabled. Use
+	 * {@link TableMetrics#snapshot()}, {@link TableMetrics#dump()}, and
+	 * {@link TableMetrics#reset()} to read or clear the statistics.
+	 * @return the registry, or {@code null} if metrics are disabled
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public TableMetrics getMetrics()
+	{ return m_metrics ; }
+
+	/**
+	 * Starts timing an operation, if metrics are enabled.
+	 * @return the current time in nanoseconds, or {@link #NOT_TIMED}
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected long startTimer()
+	{ return ( m_metrics == null ? NOT_TIMED : System.nanoTime() ) ; }
+
+	/**
+	 * If metrics are enabled, records an operation that was timed by
+	 * {@link #startTimer()}.
+	 * @param tbl the reflection of the table's schematic class
+	 * @param op the operation
+	 * @param tsStart the value returned by {@link #startTimer()}
+	 * @param nRows the number of rows affected or materialized
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected void recordMetric( SQLightable.Reflection<?> tbl,
+			TableMetrics.Operation op, long tsStart, long nRows )
+	{
+		final TableMetrics metrics = m_metrics ;
+		if( metrics == null || tsStart == NOT_TIMED ) return ;
+		metrics.record( tbl, op, System.nanoTime() - tsStart, nRows ) ;
+	}
+
+	/**
+	 * If change tracking is enabled, records a snapshot of an object that was
+	 * just read from the database.
+	 * @param tbl the reflection of the object's schematic class
+	 * @param o the object
+	 * @param <SC> the schematic class
+	 * @return the same object
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected <SC extends SQLightable> SC track(
+			SQLightable.Reflection<SC> tbl, SC o )
+	{
+		if( m_trkChanges != null ) m_trkChanges.snapshot( tbl, o ) ;
+		return o ;
+	}
+
+	/**
+	 * As {@link #track(SQLightable.Reflection, SQLightable)}, but for an
+	 * object which was read from a cursor that might not contain every
+	 * column. Only the columns that were read are recorded; the rest will be
+	 * written in full by the next {@link #update(SQLightable)}.
+	 * @param tbl the reflection of the object's schematic class
+	 * @param o the object
+	 * @param aColumns the columns that were read into the object
+	 * @param <SC> the schematic class
+	 * @return the same object
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected <SC extends SQLightable> SC track(
+			SQLightable.Reflection<SC> tbl, SC o,
+			List<SQLightable.Reflection<SC>.Column> aColumns )
+	{
+		if( m_trkChanges != null ) m_trkChanges.snapshot( tbl, o, aColumns ) ;
+		return o ;
+	}
+
 	/**
 	 * Creates an empty query context bound to this database helper.
 	 * @return a context object
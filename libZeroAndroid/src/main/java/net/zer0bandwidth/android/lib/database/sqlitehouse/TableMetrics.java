@@ -0,0 +1,435 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the operations performed by a {@link SQLiteHouse} on each table, and
+ * the rows that they affected or materialized, and records their latencies.
+ *
+ * <p>Statistics are kept separately for each schematic class and each
+ * {@link Operation}. All counters are atomic, and no lock is taken while
+ * recording, so a single instance may be shared by every thread that uses
+ * the database. Latencies are recorded in a {@link LatencyHistogram}, whose
+ * buckets grow logarithmically, in the style of an HDR histogram, so that
+ * percentiles can be reported to within one eighth of their value without
+ * retaining each sample.</p>
+ *
+ * <p>Metrics are enabled in a database helper through
+ * {@link SQLiteHouse#enableMetrics()}. While they are disabled, the helper's
+ * methods do no more than check a single field.</p>
+ *
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@SuppressWarnings( "unused" )                              // This is a library.
+public class TableMetrics
+{
+/// Inner classes //////////////////////////////////////////////////////////////
+
+	/**
+	 * The kinds of operation which are counted separately for each table.
+	 */
+	public enum Operation
+	{
+		/** Insertion of rows. Rows are those inserted. */
+		INSERT,
+		/** Update of rows. Rows are those updated. */
+		UPDATE,
+		/** Deletion of rows. Rows are those deleted. */
+		DELETE,
+		/**
+		 * A query which fetches and marshals rows of the table. Rows are
+		 * those returned.
+		 */
+		SELECT,
+		/**
+		 * Marshalling of a result set, supplied by the consumer, into
+		 * instances of the schematic class. Rows are those materialized.
+		 */
+		MATERIALIZE
+	}
+
+	/**
+	 * A concurrent histogram of latencies, in microseconds. Each power of two
+	 * is divided into {@link #SUB_BUCKETS} buckets of equal width, so the
+	 * value reported for any percentile is within 12.5% of the true value.
+	 * Values below {@link #SUB_BUCKETS} microseconds are recorded exactly.
+	 */
+	public static class LatencyHistogram
+	{
+		/** The number of sub-buckets per power of two, as a power of two. */
+		protected static final int SUB_BUCKET_BITS = 3 ;
+
+		/** The number of sub-buckets per power of two. */
+		public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS ;
+
+		/**
+		 * The largest power of two which is resolved. Longer latencies (more
+		 * than about 19 hours) are counted in the last bucket.
+		 */
+		protected static final int MAX_EXPONENT = 36 ;
+
+		/** The total number of buckets. */
+		protected static final int BUCKET_COUNT =
+				( MAX_EXPONENT - SUB_BUCKET_BITS + 2 ) * SUB_BUCKETS ;
+
+		/** The number of values recorded in each bucket. */
+		protected final AtomicLongArray m_anCounts =
+				new AtomicLongArray( BUCKET_COUNT ) ;
+
+		/** The number of values recorded. */
+		protected final AtomicLong m_nCount = new AtomicLong(0) ;
+
+		/** The sum of the values recorded. */
+		protected final AtomicLong m_nTotal = new AtomicLong(0) ;
+
+		/** The largest value recorded. */
+		protected final AtomicLong m_nMax = new AtomicLong(0) ;
+
+		/**
+		 * Finds the bucket in which a value is counted.
+		 * @param nMicros the value
+		 * @return the index of the bucket
+		 */
+		protected static int bucketFor( long nMicros )
+		{
+			if( nMicros < SUB_BUCKETS )
+				return (int)( Math.max( 0L, nMicros ) ) ;
+			final int nExp = 63 - Long.numberOfLeadingZeros( nMicros ) ;
+			if( nExp > MAX_EXPONENT ) return BUCKET_COUNT - 1 ;
+			final int nSub = (int)( ( nMicros >>> ( nExp - SUB_BUCKET_BITS ) )
+					& ( SUB_BUCKETS - 1 ) ) ;
+			return ( nExp - SUB_BUCKET_BITS + 1 ) * SUB_BUCKETS + nSub ;
+		}
+
+		/**
+		 * Finds the smallest value which is counted in a bucket.
+		 * @param nBucket the index of the bucket
+		 * @return the smallest value in that bucket
+		 */
+		protected static long lowerBoundOf( int nBucket )
+		{
+			if( nBucket < SUB_BUCKETS ) return nBucket ;
+			final int nExp = nBucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1 ;
+			final int nSub = nBucket % SUB_BUCKETS ;
+			return ((long)( SUB_BUCKETS + nSub )) << ( nExp - SUB_BUCKET_BITS ) ;
+		}
+
+		/**
+		 * Records a value.
+		 * @param nMicros the value, in microseconds
+		 * @return (fluid)
+		 */
+		public LatencyHistogram record( long nMicros )
+		{
+			if( nMicros < 0 ) nMicros = 0 ;
+			m_anCounts.incrementAndGet( bucketFor( nMicros ) ) ;
+			m_nCount.incrementAndGet() ;
+			m_nTotal.addAndGet( nMicros ) ;
+			long nMax = m_nMax.get() ;
+			while( nMicros > nMax && ! m_nMax.compareAndSet( nMax, nMicros ) )
+				nMax = m_nMax.get() ;
+			return this ;
+		}
+
+		/** @return the number of values recorded */
+		public long getCount()
+		{ return m_nCount.get() ; }
+
+		/** @return the sum of the values recorded, in microseconds */
+		public long getTotal()
+		{ return m_nTotal.get() ; }
+
+		/** @return the largest value recorded, in microseconds */
+		public long getMax()
+		{ return m_nMax.get() ; }
+
+		/** @return the mean of the values recorded, in microseconds */
+		public double getMean()
+		{
+			final long nCount = m_nCount.get() ;
+			return ( nCount == 0 ? 0.0d : ((double)m_nTotal.get()) / nCount ) ;
+		}
+
+		/**
+		 * Estimates the value below which the specified fraction of the
+		 * recorded values fall. The estimate is the largest value that would
+		 * be counted in the same bucket, but never more than the largest value
+		 * actually recorded.
+		 * @param dFraction the fraction, from 0.0 to 1.0 (e.g., 0.99 for the
+		 *  99th percentile)
+		 * @return the estimated value, in microseconds, or zero if no values
+		 *  have been recorded
+		 */
+		public long getPercentile( double dFraction )
+		{
+			long nTotal = 0 ;
+			final long[] anCounts = new long[BUCKET_COUNT] ;
+			for( int i = 0 ; i < BUCKET_COUNT ; i++ )
+				nTotal += ( anCounts[i] = m_anCounts.get(i) ) ;
+			if( nTotal == 0 ) return 0L ;
+			final long nTarget = Math.max( 1L,
+				(long)( Math.ceil( Math.min( 1.0d, dFraction ) * nTotal ) ) ) ;
+			final long nMax = m_nMax.get() ;
+			long nSeen = 0 ;
+			for( int i = 0 ; i < BUCKET_COUNT ; i++ )
+			{
+				nSeen += anCounts[i] ;
+				if( nSeen >= nTarget )
+				{
+					if( i == BUCKET_COUNT - 1 ) return nMax ;
+					return Math.min( nMax, lowerBoundOf( i + 1 ) - 1 ) ;
+				}
+			}
+			return nMax ;
+		}
+	}
+
+	/**
+	 * The statistics of one operation on one table.
+	 */
+	public static class OperationStats
+	{
+		/** The name of the table on which the operations were performed. */
+		protected final String m_sTableName ;
+
+		/** The number of rows affected or materialized. */
+		protected final AtomicLong m_nRows = new AtomicLong(0) ;
+
+		/** The latencies of the operations, which also counts them. */
+		protected final LatencyHistogram m_hist = new LatencyHistogram() ;
+
+		public OperationStats( String sTableName )
+		{ m_sTableName = sTableName ; }
+
+		/**
+		 * Records one operation.
+		 * @param nNanos the time taken by the operation
+		 * @param nRows the number of rows affected or materialized
+		 * @return (fluid)
+		 */
+		public OperationStats record( long nNanos, long nRows )
+		{
+			m_hist.record( nNanos / 1000L ) ;
+			if( nRows > 0 ) m_nRows.addAndGet( nRows ) ;
+			return this ;
+		}
+
+		/** @return the name of the table */
+		public String getTableName()
+		{ return m_sTableName ; }
+
+		/** @return the number of operations recorded */
+		public long getCount()
+		{ return m_hist.getCount() ; }
+
+		/** @return the number of rows affected or materialized */
+		public long getRows()
+		{ return m_nRows.get() ; }
+
+		/** @return the histogram of latencies */
+		public LatencyHistogram getLatencies()
+		{ return m_hist ; }
+	}
+
+	/**
+	 * An immutable summary of the statistics of one operation on one table,
+	 * taken by {@link #snapshot()}.
+	 */
+	public static class Entry
+	{
+		/** The schematic class of the table. */
+		public final Class<? extends SQLightable> cls ;
+		/** The name of the table. */
+		public final String sTableName ;
+		/** The operation. */
+		public final Operation op ;
+		/** The number of operations. */
+		public final long nCount ;
+		/** The number of rows affected or materialized. */
+		public final long nRows ;
+		/** The total time taken by the operations, in microseconds. */
+		public final long nTotalMicros ;
+		/** The median latency, in microseconds. */
+		public final long nP50Micros ;
+		/** The 90th-percentile latency, in microseconds. */
+		public final long nP90Micros ;
+		/** The 99th-percentile latency, in microseconds. */
+		public final long nP99Micros ;
+		/** The largest latency, in microseconds. */
+		public final long nMaxMicros ;
+
+		protected Entry( Class<? extends SQLightable> cls, String sTableName,
+				Operation op, OperationStats stats )
+		{
+			this.cls = cls ;
+			this.sTableName = sTableName ;
+			this.op = op ;
+			LatencyHistogram hist = stats.getLatencies() ;
+			this.nCount = hist.getCount() ;
+			this.nRows = stats.getRows() ;
+			this.nTotalMicros = hist.getTotal() ;
+			this.nP50Micros = hist.getPercentile( 0.50d ) ;
+			this.nP90Micros = hist.getPercentile( 0.90d ) ;
+			this.nP99Micros = hist.getPercentile( 0.99d ) ;
+			this.nMaxMicros = hist.getMax() ;
+		}
+
+		/** @return the mean latency, in microseconds */
+		public double getMeanMicros()
+		{ return ( nCount == 0 ? 0.0d : ((double)nTotalMicros) / nCount ) ; }
+
+		/**
+		 * Renders the entry as a single line of the {@link #dump} format:
+		 * {@code table OPERATION count=n rows=n mean=nus p50=nus p90=nus
+		 * p99=nus max=nus}.
+		 * @return the entry as a string
+		 */
+		@Override
+		public String toString()
+		{
+			return (new StringBuilder())
+				.append( sTableName ).append( " " ).append( op.name() )
+				.append( " count=" ).append( nCount )
+				.append( " rows=" ).append( nRows )
+				.append( " mean=" ).append( Math.round( this.getMeanMicros() ) )
+				.append( "us p50=" ).append( nP50Micros )
+				.append( "us p90=" ).append( nP90Micros )
+				.append( "us p99=" ).append( nP99Micros )
+				.append( "us max=" ).append( nMaxMicros )
+				.append( "us" )
+				.toString()
+				;
+		}
+	}
+
+/// Instance members ///////////////////////////////////////////////////////////
+
+	/**
+	 * The statistics of each table, indexed by the ordinal of the
+	 * {@link Operation}. Each set of statistics also carries the table's
+	 * name, so that a table is added to the map in a single step.
+	 */
+	protected final ConcurrentMap<Class<? extends SQLightable>,OperationStats[]>
+		m_mapStats = new ConcurrentHashMap<>() ;
+
+/// Recording //////////////////////////////////////////////////////////////////
+
+	/**
+	 * Records one operation on a table.
+	 * @param tbl the reflection of the table's schematic class
+	 * @param op the operation
+	 * @param nNanos the time taken by the operation, in nanoseconds
+	 * @param nRows the number of rows affected or materialized
+	 * @return (fluid)
+	 */
+	public TableMetrics record( SQLightable.Reflection<?> tbl, Operation op,
+			long nNanos, long nRows )
+	{
+		this.getStats( tbl )[op.ordinal()].record( nNanos, nRows ) ;
+		return this ;
+	}
+
+	/**
+	 * Accesses the statistics of a table, creating them if necessary.
+	 * @param tbl the reflection of the table's schematic class
+	 * @return the statistics of each operation on the table
+	 */
+	protected OperationStats[] getStats( SQLightable.Reflection<?> tbl )
+	{
+		final Class<? extends SQLightable> cls = tbl.getTableClass() ;
+		OperationStats[] aStats = m_mapStats.get(cls) ;
+		if( aStats != null ) return aStats ;
+
+		final String sTableName = tbl.getTableName() ;
+		aStats = new OperationStats[Operation.values().length] ;
+		for( int i = 0 ; i < aStats.length ; i++ )
+			aStats[i] = new OperationStats( sTableName ) ;
+		OperationStats[] aExisting = m_mapStats.putIfAbsent( cls, aStats ) ;
+		return ( aExisting == null ? aStats : aExisting ) ;
+	}
+
+	/**
+	 * Accesses the live statistics of one operation on one table.
+	 * @param cls the schematic class of the table
+	 * @param op the operation
+	 * @return the statistics, or {@code null} if nothing has been recorded
+	 *  for that table
+	 */
+	public OperationStats getStats( Class<? extends SQLightable> cls,
+			Operation op )
+	{
+		OperationStats[] aStats = m_mapStats.get(cls) ;
+		return ( aStats == null ? null : aStats[op.ordinal()] ) ;
+	}
+
+/// Snapshots //////////////////////////////////////////////////////////////////
+
+	/**
+	 * Takes a summary of the statistics of every operation that has been
+	 * recorded at least once. No lock is taken, so if operations are recorded
+	 * while the snapshot is taken, then an entry's count, rows, and latencies
+	 * might each reflect a slightly different moment, and entries are not
+	 * taken atomically with respect to each other.
+	 * @return the entries, sorted by table name and then by operation
+	 */
+	public List<Entry> snapshot()
+	{
+		List<Entry> aEntries = new ArrayList<>() ;
+		for( Map.Entry<Class<? extends SQLightable>,OperationStats[]> pair :
+				m_mapStats.entrySet() )
+		{
+			final Class<? extends SQLightable> cls = pair.getKey() ;
+			for( Operation op : Operation.values() )
+			{
+				OperationStats stats = pair.getValue()[op.ordinal()] ;
+				if( stats.getCount() > 0 )
+				{
+					aEntries.add( new Entry(
+							cls, stats.getTableName(), op, stats ) ) ;
+				}
+			}
+		}
+		Collections.sort( aEntries, new Comparator<Entry>()
+			{
+				@Override
+				public int compare( Entry e1, Entry e2 )
+				{
+					int n = e1.sTableName.compareTo( e2.sTableName ) ;
+					return ( n != 0 ? n : e1.op.compareTo( e2.op ) ) ;
+				}
+			});
+		return aEntries ;
+	}
+
+	/**
+	 * Discards all statistics. Operations which are being recorded at the
+	 * moment of the reset may be lost.
+	 * @return (fluid)
+	 */
+	public TableMetrics reset()
+	{
+		m_mapStats.clear() ;
+		return this ;
+	}
+
+	/**
+	 * Renders a {@link #snapshot()} as text, with one line per table and
+	 * operation, in the format described by {@link Entry#toString()}.
+	 * @return the current statistics, as text
+	 */
+	public String dump()
+	{
+		StringBuilder sb = new StringBuilder() ;
+		for( Entry e : this.snapshot() )
+			sb.append( e.toString() ).append( "\n" ) ;
+		return sb.toString() ;
+	}
+}
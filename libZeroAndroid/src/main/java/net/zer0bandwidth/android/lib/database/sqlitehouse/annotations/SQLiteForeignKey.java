@@ -0,0 +1,60 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.annotations;
+
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLightable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares that a {@link SQLiteColumn} field holds a reference to a row of the
+ * table defined by another schematic class. This allows
+ * {@link net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouse} to
+ * load related rows from both tables with one query per table, rather than one
+ * query per row.
+ *
+ * <p>The annotation declares only the relationship between the classes. It
+ * does not add a {@code REFERENCES} constraint to the table definition, and
+ * has no effect on how the column is created or marshalled.</p>
+ *
+ * <h3>Example</h3>
+ *
+ * <pre>
+ * &#64;SQLiteTable( "comments" )
+ * public class Comment implements SQLightable
+ * {
+ *     &#64;SQLiteColumn( name = "post_id" )
+ *     &#64;SQLiteForeignKey( Post.class )
+ *     protected long m_nPostID ;
+ *     // ...
+ * }
+ *
+ * RelationalSelectionBuilder.Results&lt;Post&gt; res =
+ *     dbh.selectFrom( Post.class ).with( Comment.class ).executeRelated() ;
+ * </pre>
+ *
+ * @see net.zer0bandwidth.android.lib.database.sqlitehouse.RelationalSelectionBuilder
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@Documented
+@Retention( RetentionPolicy.RUNTIME )
+@Target( ElementType.FIELD )
+public @interface SQLiteForeignKey
+{
+	/**
+	 * Specifies the schematic class whose table is referenced by the column.
+	 * @return the referenced schematic class
+	 */
+	Class<? extends SQLightable> value() ; // required
+
+	/**
+	 * Specifies the name of the referenced column. If left unspecified, then
+	 * the referenced class's {@link SQLitePrimaryKey} column is used, or, if
+	 * it has none, the column that holds its magic auto-incremented row ID.
+	 * @return the name of the referenced column, or an empty string to use the
+	 *  key of the referenced table
+	 */
+	String column() default "" ;
+}
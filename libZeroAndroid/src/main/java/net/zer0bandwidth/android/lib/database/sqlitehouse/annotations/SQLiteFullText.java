@@ -0,0 +1,36 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Designates a {@link SQLiteColumn} field as part of its table's full-text
+ * index.
+ *
+ * <p>If any column of a schematic class bears this annotation, then
+ * {@link net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouse} will
+ * also maintain a companion FTS4 virtual table, named for the main table with
+ * the suffix {@code _fts}, which contains a copy of each full-text column. The
+ * companion table is kept up to date by triggers on the main table, and is
+ * rebuilt whenever the database is upgraded. Its rows can then be searched
+ * with {@code SQLiteHouse.match(Class, String)}.</p>
+ *
+ * <h3>Example</h3>
+ *
+ * <pre>
+ * &#64;SQLiteColumn( name = "body" )
+ * &#64;SQLiteFullText
+ * protected String m_sBody ;
+ * </pre>
+ *
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@Documented
+@Retention( RetentionPolicy.RUNTIME )
+@Target( ElementType.FIELD )
+public @interface SQLiteFullText
+{
+}
@@ -0,0 +1,327 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.content;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+
+import net.zer0bandwidth.android.lib.database.sqlitehouse.content.exceptions.SQLiteContentException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+
+/**
+ * Packs rows of selection results into a compact binary form, as an
+ * alternative to sending each row as a {@link android.os.Bundle}.
+ *
+ * <p>A bundle repeats the name and parcel type of each field in every row. A
+ * packed block instead begins with a header, which names the columns once,
+ * followed by the rows. Each value is written as its SQLite storage class,
+ * followed by the value itself. Integers use a variable-length encoding, so
+ * that small values occupy a single byte.</p>
+ *
+ * <pre>
+ * block  := FORMAT_VERSION column-count name* row*
+ * row    := value*                  (one per column, in header order)
+ * value  := FIELD_TYPE_NULL
+ *         | FIELD_TYPE_INTEGER zigzag-varint
+ *         | FIELD_TYPE_FLOAT 8-byte-IEEE-754
+ *         | FIELD_TYPE_STRING varint-length UTF-8-bytes
+ *         | FIELD_TYPE_BLOB varint-length bytes
+ * name   := varint-length UTF-8-bytes
+ * </pre>
+ *
+ * <p>Each block is self-describing; the reader does not need to know the
+ * layout of the keeper's table, and marshals the rows by column name, exactly
+ * as it would from a cursor.</p>
+ *
+ * @see SQLiteHouseSignalAPI#ENCODING_PACKED
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@SuppressWarnings( "unused" ) // This is a library.
+public class PackedRowCodec
+{
+	/**
+	 * The version of the packed format. Written as the first byte of each
+	 * block; a reader rejects blocks of any other version.
+	 */
+	public static final int FORMAT_VERSION = 1 ;
+
+	protected static final Charset UTF8 = Charset.forName( "UTF-8" ) ;
+
+	/**
+	 * Packs rows from a cursor into a block. The header is written when the
+	 * packer is created; each call to {@link #pack} then appends the cursor's
+	 * current row.
+	 */
+	public static class Packer
+	{
+		/** The buffer into which the block is written. */
+		protected final ByteArrayOutputStream m_bytes ;
+
+		/** The indices, in the source cursor, of the packed columns. */
+		protected final int[] m_anIndices ;
+
+		/** The number of rows packed so far. */
+		protected int m_nRows = 0 ;
+
+		/**
+		 * Creates a packer which will pack the named columns.
+		 * @param crs the cursor from which rows will be packed
+		 * @param asColumns the names of the columns to be packed; each must be
+		 *  present in the cursor
+		 * @throws IllegalArgumentException if a column is not in the cursor
+		 */
+		public Packer( Cursor crs, String[] asColumns )
+		{
+			m_bytes = new ByteArrayOutputStream( 256 ) ;
+			m_anIndices = new int[asColumns.length] ;
+			m_bytes.write( FORMAT_VERSION ) ;
+			writeVarint( m_bytes, asColumns.length ) ;
+			for( int i = 0 ; i < asColumns.length ; i++ )
+			{
+				m_anIndices[i] = crs.getColumnIndexOrThrow( asColumns[i] ) ;
+				writeBytes( m_bytes, asColumns[i].getBytes( UTF8 ) ) ;
+			}
+		}
+
+		/**
+		 * Appends the cursor's current row to the block.
+		 * @param crs the cursor, positioned on a row
+		 * @return the number of bytes that the row added to the block
+		 */
+		public int pack( Cursor crs )
+		{
+			final int nBefore = m_bytes.size() ;
+			for( int nIndex : m_anIndices )
+			{
+				final int nType = crs.getType( nIndex ) ;
+				switch( nType )
+				{
+					case Cursor.FIELD_TYPE_INTEGER:
+						m_bytes.write( nType ) ;
+						writeVarlong( m_bytes, zigzag( crs.getLong( nIndex ) ) ) ;
+						break ;
+					case Cursor.FIELD_TYPE_FLOAT:
+						m_bytes.write( nType ) ;
+						writeFixed64( m_bytes,
+							Double.doubleToLongBits( crs.getDouble( nIndex ) ) ) ;
+						break ;
+					case Cursor.FIELD_TYPE_STRING:
+						m_bytes.write( nType ) ;
+						writeBytes( m_bytes, crs.getString( nIndex ).getBytes( UTF8 ) ) ;
+						break ;
+					case Cursor.FIELD_TYPE_BLOB:
+						m_bytes.write( nType ) ;
+						writeBytes( m_bytes, crs.getBlob( nIndex ) ) ;
+						break ;
+					case Cursor.FIELD_TYPE_NULL:
+					default:
+						m_bytes.write( Cursor.FIELD_TYPE_NULL ) ;
+				}
+			}
+			++m_nRows ;
+			return m_bytes.size() - nBefore ;
+		}
+
+		/**
+		 * Accesses the number of rows packed so far.
+		 * @return the number of rows in the block
+		 */
+		public int getRowCount()
+		{ return m_nRows ; }
+
+		/**
+		 * Accesses the current size of the block, including its header.
+		 * @return the size of the block, in bytes
+		 */
+		public int size()
+		{ return m_bytes.size() ; }
+
+		/**
+		 * Returns a copy of the block.
+		 * @return the packed header and rows
+		 */
+		public byte[] toByteArray()
+		{ return m_bytes.toByteArray() ; }
+	}
+
+	/**
+	 * Unpacks a block into a cursor, whose columns are those named in the
+	 * block's header.
+	 * @param abBlock a block written by a {@link Packer}
+	 * @return a cursor containing the block's rows
+	 * @throws SQLiteContentException if the block is of an unknown version, or
+	 *  is truncated or malformed
+	 */
+	public static MatrixCursor unpack( byte[] abBlock )
+	throws SQLiteContentException
+	{
+		final Reader rdr = new Reader( abBlock ) ;
+		try
+		{
+			final int nVersion = rdr.readByte() ;
+			if( nVersion != FORMAT_VERSION )
+			{
+				throw new SQLiteContentException( (new StringBuilder())
+						.append( "Can't unpack rows of format version [" )
+						.append( nVersion ).append( "]; expected [" )
+						.append( FORMAT_VERSION ).append( "]." )
+						.toString()
+					);
+			}
+			final String[] asColumns = new String[rdr.readLength()] ;
+			for( int i = 0 ; i < asColumns.length ; i++ )
+				asColumns[i] = new String( rdr.readBytes(), UTF8 ) ;
+			final MatrixCursor crs = new MatrixCursor( asColumns ) ;
+			final ArrayList<Object> aoRow = new ArrayList<>( asColumns.length ) ;
+			while( rdr.hasMore() )
+			{
+				aoRow.clear() ;
+				for( int i = 0 ; i < asColumns.length ; i++ )
+					aoRow.add( rdr.readValue() ) ;
+				crs.addRow( aoRow ) ;
+			}
+			return crs ;
+		}
+		catch( ArrayIndexOutOfBoundsException | NegativeArraySizeException x )
+		{ // Not expected from the reader's own checks, but still a bad block.
+			throw new SQLiteContentException(
+					"Packed rows were truncated or malformed.", x ) ;
+		}
+	}
+
+	/**
+	 * Reads the primitives of a block, in the order they were written. Each
+	 * method throws {@link SQLiteContentException} if the block is truncated
+	 * or malformed at the point where it is read.
+	 */
+	protected static class Reader
+	{
+		protected final byte[] m_ab ;
+		protected int m_nPos = 0 ;
+
+		protected Reader( byte[] ab )
+		{ m_ab = ab ; }
+
+		protected boolean hasMore()
+		{ return m_nPos < m_ab.length ; }
+
+		protected int readByte()
+		throws SQLiteContentException
+		{
+			if( m_nPos >= m_ab.length )
+				throw this.malformed( "unexpected end of block" ) ;
+			return m_ab[m_nPos++] & 0xFF ;
+		}
+
+		protected long readVarlong()
+		throws SQLiteContentException
+		{
+			long n = 0 ;
+			int nShift = 0 ;
+			int b ;
+			do
+			{
+				if( nShift > 63 )
+					throw this.malformed( "varint overflow" ) ;
+				b = this.readByte() ;
+				n |= ((long)( b & 0x7F )) << nShift ;
+				nShift += 7 ;
+			} while( ( b & 0x80 ) != 0 ) ;
+			return n ;
+		}
+
+		protected int readLength()
+		throws SQLiteContentException
+		{
+			final long n = this.readVarlong() ;
+			if( n < 0 || n > m_ab.length - m_nPos )
+				throw this.malformed( "length [" + n + "] exceeds the block" ) ;
+			return ((int)(n)) ;
+		}
+
+		protected byte[] readBytes()
+		throws SQLiteContentException
+		{
+			final byte[] ab = new byte[this.readLength()] ;
+			System.arraycopy( m_ab, m_nPos, ab, 0, ab.length ) ;
+			m_nPos += ab.length ;
+			return ab ;
+		}
+
+		protected Object readValue()
+		throws SQLiteContentException
+		{
+			final int nType = this.readByte() ;
+			switch( nType )
+			{
+				case Cursor.FIELD_TYPE_NULL:
+					return null ;
+				case Cursor.FIELD_TYPE_INTEGER:
+					return unzigzag( this.readVarlong() ) ;
+				case Cursor.FIELD_TYPE_FLOAT:
+				{
+					long n = 0 ;
+					for( int i = 0 ; i < 8 ; i++ )
+						n = ( n << 8 ) | this.readByte() ;
+					return Double.longBitsToDouble(n) ;
+				}
+				case Cursor.FIELD_TYPE_STRING:
+					return new String( this.readBytes(), UTF8 ) ;
+				case Cursor.FIELD_TYPE_BLOB:
+					return this.readBytes() ;
+				default:
+					throw this.malformed( "unknown field type [" + nType + "]" ) ;
+			}
+		}
+
+		/**
+		 * Describes a problem with the block at the current position.
+		 * @param sProblem a description of the problem
+		 * @return an exception with an appropriate error message
+		 */
+		protected SQLiteContentException malformed( String sProblem )
+		{
+			return new SQLiteContentException( (new StringBuilder())
+					.append( "Packed rows were truncated or malformed: " )
+					.append( sProblem ).append( " at offset [" )
+					.append( m_nPos ).append( "]." )
+					.toString()
+				);
+		}
+	}
+
+/// Primitive encodings ////////////////////////////////////////////////////////
+
+	/** Maps signed integers onto unsigned, so that small magnitudes are short. */
+	protected static long zigzag( long n )
+	{ return ( n << 1 ) ^ ( n >> 63 ) ; }
+
+	protected static long unzigzag( long n )
+	{ return ( n >>> 1 ) ^ -( n & 1 ) ; }
+
+	protected static void writeVarint( ByteArrayOutputStream out, int n )
+	{ writeVarlong( out, n & 0xFFFFFFFFL ) ; }
+
+	protected static void writeVarlong( ByteArrayOutputStream out, long n )
+	{
+		while( ( n & ~0x7FL ) != 0 )
+		{
+			out.write( ((int)( ( n & 0x7F ) | 0x80 )) ) ;
+			n >>>= 7 ;
+		}
+		out.write( ((int)(n)) ) ;
+	}
+
+	protected static void writeFixed64( ByteArrayOutputStream out, long n )
+	{
+		for( int nShift = 56 ; nShift >= 0 ; nShift -= 8 )
+			out.write( ((int)( n >>> nShift )) & 0xFF ) ;
+	}
+
+	protected static void writeBytes( ByteArrayOutputStream out, byte[] ab )
+	{
+		writeVarint( out, ab.length ) ;
+		out.write( ab, 0, ab.length ) ;
+	}
+}
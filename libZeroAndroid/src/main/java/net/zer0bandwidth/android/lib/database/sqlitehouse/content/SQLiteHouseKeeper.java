@@ -5,12 +5,16 @@ import android.content.ContentProvider;
 import android.content.Context;
 import android.content.Intent;
 import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
 import android.os.Bundle;
+import android.os.Parcel;
 import android.util.Log;
 
 import net.zer0bandwidth.android.lib.content.ContentUtils;
 import net.zer0bandwidth.android.lib.content.IntentUtils;
 import net.zer0bandwidth.android.lib.database.querybuilder.SelectionBuilder;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.ChangeTracker;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLightable;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouse;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.content.exceptions.SQLiteContentException;
@@ -20,19 +24,37 @@ import net.zer0bandwidth.android.lib.util.CollectionsZ;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.DELETE_FAILED;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.INSERT_FAILED;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.UPDATE_FAILED;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.ENCODING_PACKED;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_ACCEPT_STREAM;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_BATCH_ID;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_BATCH_OPERATION;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_BATCH_SIZE;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_CHUNK_FINAL;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_CHUNK_OFFSET;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_CHUNK_SEQUENCE;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_INSERT_ROW_ID;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_INSERT_ROW_IDS;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_RESULT_ENCODING;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_RESULT_ROW_COUNT;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_RESULT_STREAM;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_SCHEMA_CLASS_DATA;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_SCHEMA_CLASS_NAME;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_SELECTION_ID;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_SELECTION_QUERY_SPEC;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_DELETE;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_DELETE_BATCH;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_INSERT;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_INSERT_BATCH;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_SELECT;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_UPDATE;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_UPDATE_BATCH;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_NOTIFY_BATCH;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_NOTIFY_BATCH_FAILED;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_NOTIFY_DELETE;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_NOTIFY_DELETE_FAILED;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_NOTIFY_INSERT;
@@ -62,6 +84,28 @@ extends BroadcastReceiver
 	public static final String LOG_TAG =
 			SQLiteHouseKeeper.class.getSimpleName() ;
 
+	/**
+	 * The default maximum number of rows in each broadcast of selection
+	 * results.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final int DEFAULT_CHUNK_ROWS = 100 ;
+
+	/**
+	 * The default maximum size, in bytes, of the rows in each broadcast of
+	 * selection results. This is well below the binder transaction limit,
+	 * which is shared by all transactions in flight in the process.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final int DEFAULT_CHUNK_BYTES = 128 * 1024 ;
+
+	/**
+	 * The default number of rows above which selection results are streamed,
+	 * if a stream provider has been set with {@link #streamResultsThrough}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final int DEFAULT_STREAM_THRESHOLD = 1000 ;
+
 /// Static methods /////////////////////////////////////////////////////////////
 
 /// Inner instance classes /////////////////////////////////////////////////////
@@ -93,6 +137,33 @@ extends BroadcastReceiver
 	/** A reference for the contract under which the keeper was registered. */
 	protected SQLiteHouseSignalAPI m_api = null ;
 
+	/**
+	 * The maximum number of rows in each broadcast of selection results.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected int m_nChunkRows = DEFAULT_CHUNK_ROWS ;
+
+	/**
+	 * The maximum size, in bytes, of the rows in each broadcast of selection
+	 * results.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected int m_nChunkBytes = DEFAULT_CHUNK_BYTES ;
+
+	/**
+	 * The authority of the {@link SelectionStreamProvider} through which
+	 * large selection results are streamed, or {@code null} if they are
+	 * always broadcast.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected String m_sStreamAuthority = null ;
+
+	/**
+	 * The number of rows above which selection results are streamed.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected int m_nStreamThreshold = DEFAULT_STREAM_THRESHOLD ;
+
 /// Constructors and initializers //////////////////////////////////////////////
 
 	/**
@@ -191,6 +262,11 @@ extends BroadcastReceiver
 			case KEEPER_DELETE:
 				this.delete(sig) ;
 				break ;
+			case KEEPER_INSERT_BATCH:
+			case KEEPER_UPDATE_BATCH:
+			case KEEPER_DELETE_BATCH:
+				this.applyBatch( sig, sActionToken ) ;
+				break ;
 			default:
 				this.handleCustomAction( ctx, sig, sActionToken ) ;
 		}
@@ -333,43 +409,181 @@ extends BroadcastReceiver
 	}
 
 	/**
-	 * Handles a request to select records from the underlying database.
+	 * Handles a request to insert, update, or delete a batch of records in
+	 * the underlying database. The whole batch is applied in one transaction;
+	 * if any insertion, update, or deletion fails, or any exception is
+	 * thrown, then the whole batch is rolled back, and any change-tracking
+	 * snapshots of the batch's table are discarded, since some of them might
+	 * describe writes that were undone. Either way, the relay is sent a single
+	 * summary.
+	 * @param sig the received signal
+	 * @param sOperation one of {@link SQLiteHouseSignalAPI#KEEPER_INSERT_BATCH},
+	 *  {@link SQLiteHouseSignalAPI#KEEPER_UPDATE_BATCH}, or
+	 *  {@link SQLiteHouseSignalAPI#KEEPER_DELETE_BATCH}
+	 * @param <SC> the schematic class of the rows in the batch
+	 * @return the total number of rows inserted, updated, or deleted, or
+	 *  {@code -1} if the batch failed
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected synchronized <SC extends SQLightable> int applyBatch(
+			Intent sig, String sOperation )
+	{
+		final String sBatchID = sig.getStringExtra(
+				m_api.getFormattedExtraTag( EXTRA_BATCH_ID ) ) ;
+		Class<SC> cls = null ;
+		int nBatchSize = 0 ;
+		int nAffected = 0 ;
+		long[] anRowIDs = null ;
+		try
+		{
+			cls = m_api.getClassFromExtra(sig) ;
+			List<SC> aoBatch = m_api.getBatchFromBundles( sig, cls ) ;
+			nBatchSize = aoBatch.size() ;
+			if( KEEPER_INSERT_BATCH.equals( sOperation ) )
+				anRowIDs = new long[nBatchSize] ;
+			final SQLiteDatabase db = m_house.getWritableDatabase() ;
+			db.beginTransaction() ;
+			try
+			{
+				for( int i = 0 ; i < nBatchSize ; i++ )
+				{
+					final SC o = aoBatch.get(i) ;
+					int nWritten ;
+					switch( sOperation )
+					{
+						case KEEPER_INSERT_BATCH:
+							anRowIDs[i] = m_house.insert(o) ;
+							if( anRowIDs[i] == INSERT_FAILED )
+								throw batchItemFailed( "Insertion", i ) ;
+							++nAffected ;
+							break ;
+						case KEEPER_UPDATE_BATCH:
+							nWritten = m_house.update(o) ;
+							if( nWritten == UPDATE_FAILED )
+								throw batchItemFailed( "Update", i ) ;
+							nAffected += nWritten ;
+							break ;
+						case KEEPER_DELETE_BATCH:
+							nWritten = m_house.delete(o) ;
+							if( nWritten == DELETE_FAILED )
+								throw batchItemFailed( "Deletion", i ) ;
+							nAffected += nWritten ;
+							break ;
+						default:
+							throw new SQLiteContentException( (new StringBuilder())
+									.append( "Unknown batch operation [" )
+									.append( sOperation ).append( "]." )
+									.toString()
+								);
+					}
+				}
+				db.setTransactionSuccessful() ;
+			}
+			finally
+			{ db.endTransaction() ; }
+		}
+		catch( SQLiteContentException xContent )
+		{
+			Log.e( LOG_TAG, "Failed to apply a batch.", xContent ) ;
+			nAffected = -1 ;
+		}
+		catch( IntrospectionException | SchematicException xSchema )
+		{
+			Log.e( LOG_TAG, "Failed to apply a batch.", xSchema ) ;
+			nAffected = -1 ;
+		}
+		catch( SQLException xSQL )
+		{
+			Log.e( LOG_TAG, "Batch was rolled back.", xSQL ) ;
+			nAffected = -1 ;
+		}
+
+		if( nAffected != -1 )
+		{
+			this.notifyBatchApplied( cls, sOperation, sBatchID,
+					nBatchSize, nAffected, anRowIDs ) ;
+		}
+		else
+		{
+			final ChangeTracker trk = m_house.getChangeTracker() ;
+			if( trk != null && cls != null ) trk.forget(cls) ;
+			this.notifyBatchFailed(( cls != null ? cls.getCanonicalName() : null ),
+					sOperation, sBatchID ) ;
+		}
+
+		return nAffected ;
+	}
+
+	/**
+	 * Creates the exception thrown by {@link #applyBatch} when one of the
+	 * batch's writes fails, so that the whole batch is rolled back.
+	 * @param sOperation the kind of write that failed
+	 * @param nIndex the index of the failed item in the batch
+	 * @return an exception describing the failure
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected static SQLiteContentException batchItemFailed(
+			String sOperation, int nIndex )
+	{
+		return new SQLiteContentException( (new StringBuilder())
+				.append( sOperation )
+				.append( " of batch item [" )
+				.append( nIndex )
+				.append( "] failed." )
+				.toString()
+			);
+	}
+
+	/**
+	 * Handles a request to select records from the underlying database. The
+	 * results are streamed to the relay in chunks, in the encoding negotiated
+	 * by {@link SQLiteHouseSignalAPI#negotiateResultEncoding}; see
+	 * {@link #sendSelectionResults(Class, Cursor, String)}. Large results are
+	 * instead staged for a {@link SelectionStreamProvider}, if one has been
+	 * set; see {@link #streamSelectionResults}. If the selection fails, then
+	 * the failure signal carries the selection's ID, so that the relay can
+	 * discard any chunks that were already sent, without disturbing other
+	 * selections of the same class.
 	 * @param sig the received signal
 	 * @param <SC> the schematic class of the rows to be selected
 	 */
 	protected synchronized <SC extends SQLightable> void select( Intent sig )
 	{
+		final String sSelectionID = UUID.randomUUID().toString() ;
 		Class<SC> cls = null ;
-		ArrayList<SC> aoResults = null ;
+		Cursor crs = null ;
 		try
 		{
 			cls = m_api.getClassFromExtra(sig) ;
 			Bundle bndlSpec = sig.getBundleExtra( EXTRA_SELECTION_QUERY_SPEC ) ;
 			SelectionBuilder q = this.parseSelectionSpec( cls, bndlSpec ) ;
-			Cursor crs = q.execute() ;
-			if( crs.moveToFirst() )
+			crs = q.execute() ;
+			if( this.shouldStreamResults( sig, crs ) )
 			{
-				aoResults = new ArrayList<>( crs.getCount() ) ;
-				SQLightable.Reflection<SC> tbl = m_api.reflect(cls) ;
-				while( ! crs.isAfterLast() )
-				{
-					aoResults.add( tbl.fromCursor(crs) ) ;
-					crs.moveToNext() ;
-				}
+				this.streamSelectionResults( cls, sSelectionID, crs ) ;
+				crs = null ;            // The stream provider now owns the cursor.
+			}
+			else
+			{
+				this.sendSelectionResults( cls, sSelectionID, crs,
+						m_api.negotiateResultEncoding(sig) ) ;
 			}
 		}
 		catch( IntrospectionException | SchematicException xSchema )
 		{
 			Log.e( LOG_TAG, "Failed to set up selection operation.", xSchema ) ;
-			this.notifySelectionFailed( null ) ;
+			this.notifySelectionFailed( null, sSelectionID ) ;
 		}
 		catch( Exception x )
 		{
 			Log.e( LOG_TAG, "Selection failed for unknown cause.", x ) ;
 			this.notifySelectionFailed(( cls != null ?
-					cls.getCanonicalName() : null )) ;
+					cls.getCanonicalName() : null ), sSelectionID ) ;
+		}
+		finally
+		{
+			if( crs != null ) crs.close() ;
 		}
-		this.sendSelectionResults( cls, aoResults ) ;
 	}
 
 	/**
@@ -516,6 +730,85 @@ extends BroadcastReceiver
 		m_ctx.sendBroadcast( sig ) ;
 	}
 
+	/**
+	 * Notifies the relay that a batch of writes was applied.
+	 * @param cls the schematic class of the rows in the batch
+	 * @param sOperation the keeper action token of the batch
+	 * @param sBatchID the ID of the batch, if the relay supplied one
+	 * @param nBatchSize the number of objects in the batch
+	 * @param nAffected the total number of rows inserted, updated, or deleted
+	 * @param anRowIDs for insertions, the row IDs of the inserted objects;
+	 *  otherwise {@code null}
+	 * @param <SC> the schematic class
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected synchronized <SC extends SQLightable> void notifyBatchApplied(
+			Class<SC> cls, String sOperation, String sBatchID, int nBatchSize,
+			int nAffected, long[] anRowIDs )
+	{
+		m_ctx.sendBroadcast( this.buildBatchSummary( cls, sOperation,
+				sBatchID, nBatchSize, nAffected, anRowIDs ) ) ;
+	}
+
+	/**
+	 * Builds the intent that would be sent by {@link #notifyBatchApplied}.
+	 * @return the summary to be sent to the relay
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected <SC extends SQLightable> Intent buildBatchSummary(
+			Class<SC> cls, String sOperation, String sBatchID, int nBatchSize,
+			int nAffected, long[] anRowIDs )
+	{
+		Intent sig = new Intent( m_api.getFormattedRelayAction(
+				RELAY_NOTIFY_BATCH ) ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_SCHEMA_CLASS_NAME ),
+				cls.getCanonicalName() ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_BATCH_OPERATION ),
+				sOperation ) ;
+		if( sBatchID != null )
+		{
+			sig.putExtra( m_api.getFormattedExtraTag( EXTRA_BATCH_ID ),
+					sBatchID ) ;
+		}
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_BATCH_SIZE ),
+				nBatchSize ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_RESULT_ROW_COUNT ),
+				nAffected ) ;
+		if( anRowIDs != null )
+		{
+			sig.putExtra( m_api.getFormattedExtraTag( EXTRA_INSERT_ROW_IDS ),
+					anRowIDs ) ;
+		}
+		return sig ;
+	}
+
+	/**
+	 * Notifies the relay that a batch of writes failed, and was rolled back.
+	 * @param sClass the name of the schematic class of the rows in the batch
+	 * @param sOperation the keeper action token of the batch
+	 * @param sBatchID the ID of the batch, if the relay supplied one
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected synchronized void notifyBatchFailed( String sClass,
+			String sOperation, String sBatchID )
+	{
+		Intent sig = new Intent( m_api.getFormattedRelayAction(
+				RELAY_NOTIFY_BATCH_FAILED ) ) ;
+		if( sClass != null )
+		{
+			sig.putExtra( m_api.getFormattedExtraTag( EXTRA_SCHEMA_CLASS_NAME ),
+					sClass ) ;
+		}
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_BATCH_OPERATION ),
+				sOperation ) ;
+		if( sBatchID != null )
+		{
+			sig.putExtra( m_api.getFormattedExtraTag( EXTRA_BATCH_ID ),
+					sBatchID ) ;
+		}
+		m_ctx.sendBroadcast( sig ) ;
+	}
+
 	/**
 	 * Broadcasts a result set to the relay.
 	 * @param cls the schematic class that would contain the rows
@@ -526,8 +819,273 @@ extends BroadcastReceiver
 	sendSelectionResults( Class<SC> cls, List<SC> aoResults )
 	{ m_ctx.sendBroadcast( this.buildResultBroadcast( cls, aoResults ) ) ; }
 
+	/**
+	 * Streams the rows of a cursor to the relay, in the specified encoding.
+	 * @param cls the schematic class that would contain the rows
+	 * @param crs the cursor containing the result set
+	 * @param sEncoding one of {@link SQLiteHouseSignalAPI#ENCODING_PACKED} or
+	 *  {@link SQLiteHouseSignalAPI#ENCODING_BUNDLE}; any other value is
+	 *  treated as the latter
+	 * @param <SC> the schematic class
+	 * @return the number of chunks that were sent
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected synchronized <SC extends SQLightable> int sendSelectionResults(
+			Class<SC> cls, Cursor crs, String sEncoding )
+	{
+		return this.sendSelectionResults( cls, UUID.randomUUID().toString(),
+				crs, sEncoding ) ;
+	}
+
+	/**
+	 * As {@link #sendSelectionResults(Class, Cursor, String)}, but under a
+	 * selection ID chosen by the caller.
+	 * @param cls the schematic class that would contain the rows
+	 * @param sSelectionID the ID shared by all chunks of the selection
+	 * @param crs the cursor containing the result set
+	 * @param sEncoding the encoding of the rows
+	 * @param <SC> the schematic class
+	 * @return the number of chunks that were sent
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected synchronized <SC extends SQLightable> int sendSelectionResults(
+			Class<SC> cls, String sSelectionID, Cursor crs, String sEncoding )
+	{
+		if( ENCODING_PACKED.equals( sEncoding ) )
+			return this.sendPackedSelectionResults( cls, sSelectionID, crs ) ;
+		else
+			return this.sendSelectionResults( cls, sSelectionID, crs ) ;
+	}
+
+	/**
+	 * Streams the rows of a cursor to the relay, in chunks bounded by
+	 * {@link #setResultChunkLimits}. Each row is marshalled and bundled as it
+	 * is read, so the whole result set is never held in memory at once. Each
+	 * chunk carries the selection's ID, its own sequence number, and the
+	 * position of its first row; the last chunk, which might be empty, is
+	 * marked as final. A single row which exceeds the size limit is sent in a
+	 * chunk by itself.
+	 * @param cls the schematic class that would contain the rows
+	 * @param crs the cursor containing the result set
+	 * @param <SC> the schematic class
+	 * @return the number of chunks that were sent
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected synchronized <SC extends SQLightable> int
+	sendSelectionResults( Class<SC> cls, Cursor crs )
+	{ return this.sendSelectionResults( cls, UUID.randomUUID().toString(), crs ) ; }
+
+	/**
+	 * As {@link #sendSelectionResults(Class, Cursor)}, but under a selection
+	 * ID chosen by the caller.
+	 * @param cls the schematic class that would contain the rows
+	 * @param sSelectionID the ID shared by all chunks of the selection
+	 * @param crs the cursor containing the result set
+	 * @param <SC> the schematic class
+	 * @return the number of chunks that were sent
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected synchronized <SC extends SQLightable> int
+	sendSelectionResults( Class<SC> cls, String sSelectionID, Cursor crs )
+	{
+		final int nTotal = crs.getCount() ;
+		final SQLightable.Reflection<SC> tbl = m_api.reflect(cls) ;
+		final List<SQLightable.Reflection<SC>.Column> aColumns =
+				tbl.getColumnsPresentIn(crs) ;
+		final ArrayList<Bundle> abndlChunk = new ArrayList<>() ;
+		final Parcel pcl = Parcel.obtain() ;
+		int nChunkBytes = 0 ;
+		int nSequence = 0 ;
+		int nOffset = 0 ;
+		try
+		{
+			if( crs.moveToFirst() )
+			{
+				do
+				{
+					final Bundle bndlRow =
+							tbl.toBundle( tbl.fromCursor( crs, aColumns ) ) ;
+					pcl.setDataSize(0) ;
+					pcl.setDataPosition(0) ;
+					pcl.writeBundle( bndlRow ) ;
+					final int nRowBytes = pcl.dataSize() ;
+					if( ! abndlChunk.isEmpty()
+					 && ( abndlChunk.size() >= m_nChunkRows
+					   || nChunkBytes + nRowBytes > m_nChunkBytes ) )
+					{
+						this.sendResultChunk( this.buildResultChunk( cls,
+								sSelectionID, nTotal, nSequence++, nOffset,
+								abndlChunk, false ) ) ;
+						nOffset += abndlChunk.size() ;
+						abndlChunk.clear() ;
+						nChunkBytes = 0 ;
+					}
+					abndlChunk.add( bndlRow ) ;
+					nChunkBytes += nRowBytes ;
+				} while( crs.moveToNext() ) ;
+			}
+		}
+		finally
+		{ pcl.recycle() ; }
+		this.sendResultChunk( this.buildResultChunk( cls, sSelectionID,
+				nTotal, nSequence, nOffset, abndlChunk, true ) ) ;
+		return nSequence + 1 ;
+	}
+
+	/**
+	 * As {@link #sendSelectionResults(Class, Cursor)}, but packs the rows with
+	 * {@link PackedRowCodec}. The cursor's values are copied directly, without
+	 * being marshalled into schematic class instances; only the columns which
+	 * belong to the schematic class are sent. A chunk is closed once it
+	 * reaches either limit, so it might exceed the size limit by one row.
+	 * @param cls the schematic class that would contain the rows
+	 * @param crs the cursor containing the result set
+	 * @param <SC> the schematic class
+	 * @return the number of chunks that were sent
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected synchronized <SC extends SQLightable> int
+	sendPackedSelectionResults( Class<SC> cls, Cursor crs )
+	{
+		return this.sendPackedSelectionResults(
+				cls, UUID.randomUUID().toString(), crs ) ;
+	}
+
+	/**
+	 * As {@link #sendPackedSelectionResults(Class, Cursor)}, but under a
+	 * selection ID chosen by the caller.
+	 * @param cls the schematic class that would contain the rows
+	 * @param sSelectionID the ID shared by all chunks of the selection
+	 * @param crs the cursor containing the result set
+	 * @param <SC> the schematic class
+	 * @return the number of chunks that were sent
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected synchronized <SC extends SQLightable> int
+	sendPackedSelectionResults( Class<SC> cls, String sSelectionID, Cursor crs )
+	{
+		final int nTotal = crs.getCount() ;
+		final String[] asColumns = this.getPackedColumns( cls, crs ) ;
+		PackedRowCodec.Packer packer =
+				new PackedRowCodec.Packer( crs, asColumns ) ;
+		int nSequence = 0 ;
+		int nOffset = 0 ;
+		if( crs.moveToFirst() )
+		{
+			do
+			{
+				if( packer.getRowCount() >= m_nChunkRows
+				 || packer.size() >= m_nChunkBytes )
+				{
+					this.sendResultChunk( this.buildResultChunk( cls,
+							sSelectionID, nTotal, nSequence++, nOffset,
+							packer.toByteArray(), false ) ) ;
+					nOffset += packer.getRowCount() ;
+					packer = new PackedRowCodec.Packer( crs, asColumns ) ;
+				}
+				packer.pack(crs) ;
+			} while( crs.moveToNext() ) ;
+		}
+		this.sendResultChunk( this.buildResultChunk( cls, sSelectionID,
+				nTotal, nSequence, nOffset, packer.toByteArray(), true ) ) ;
+		return nSequence + 1 ;
+	}
+
+	/**
+	 * Lists the columns of a cursor which belong to the schematic class, and
+	 * which should therefore be packed.
+	 * @param cls the schematic class that would contain the rows
+	 * @param crs the cursor containing the result set
+	 * @param <SC> the schematic class
+	 * @return the names of the columns to be packed
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected <SC extends SQLightable> String[] getPackedColumns(
+			Class<SC> cls, Cursor crs )
+	{
+		final List<SQLightable.Reflection<SC>.Column> aColumns =
+				m_api.reflect(cls).getColumnsPresentIn(crs) ;
+		final String[] asColumns = new String[aColumns.size()] ;
+		for( int i = 0 ; i < asColumns.length ; i++ )
+			asColumns[i] = aColumns.get(i).getName() ;
+		return asColumns ;
+	}
+
+	/**
+	 * Decides whether the results of a selection should be streamed, rather
+	 * than broadcast. This requires that a stream provider has been set, that
+	 * the relay can read from it, and that the results exceed the threshold.
+	 * @param sig the selection request
+	 * @param crs the cursor containing the result set
+	 * @return {@code true} if the results should be streamed
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected boolean shouldStreamResults( Intent sig, Cursor crs )
+	{
+		return ( m_sStreamAuthority != null
+			&& crs.getCount() > m_nStreamThreshold
+			&& sig.getBooleanExtra(
+					m_api.getFormattedExtraTag( EXTRA_ACCEPT_STREAM ), false )
+			);
+	}
+
+	/**
+	 * Stages the rows of a cursor with the {@link SelectionStreamProvider},
+	 * and sends the relay a single signal, containing the URI from which the
+	 * rows can be read. The provider takes ownership of the cursor.
+	 * @param cls the schematic class that would contain the rows
+	 * @param crs the cursor containing the result set
+	 * @param <SC> the schematic class
+	 * @return the ID of the staged selection
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected synchronized <SC extends SQLightable> String
+	streamSelectionResults( Class<SC> cls, Cursor crs )
+	{
+		return this.streamSelectionResults(
+				cls, UUID.randomUUID().toString(), crs ) ;
+	}
+
+	/**
+	 * As {@link #streamSelectionResults(Class, Cursor)}, but under a
+	 * selection ID chosen by the caller.
+	 * @param cls the schematic class that would contain the rows
+	 * @param sSelectionID the ID of the selection
+	 * @param crs the cursor containing the result set
+	 * @param <SC> the schematic class
+	 * @return the ID of the staged selection
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected synchronized <SC extends SQLightable> String
+	streamSelectionResults( Class<SC> cls, String sSelectionID, Cursor crs )
+	{
+		final int nTotal = crs.getCount() ;
+		SelectionStreamProvider.stage( sSelectionID, crs,
+				this.getPackedColumns( cls, crs ), m_nChunkRows, m_nChunkBytes,
+				SelectionStreamProvider.DEFAULT_STAGE_TIMEOUT ) ;
+		Intent sig = this.buildResultChunk( cls, sSelectionID, nTotal, 0, 0,
+				true ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_RESULT_ENCODING ),
+				ENCODING_PACKED ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_RESULT_STREAM ),
+				SelectionStreamProvider.getStreamUri(
+						m_sStreamAuthority, sSelectionID ).toString() ) ;
+		this.sendResultChunk( sig ) ;
+		return sSelectionID ;
+	}
+
+	/**
+	 * Sends a single chunk of selection results to the relay.
+	 * @param sig the chunk, as built by {@link #buildResultChunk}
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected void sendResultChunk( Intent sig )
+	{ m_ctx.sendBroadcast( sig ) ; }
+
 	/**
 	 * Builds the intent that would be sent by {@link #sendSelectionResults}.
+	 * The entire result set is sent as a single, final chunk; this is suitable
+	 * only for small result sets.
 	 * @param cls the schematic class that would contain the rows
 	 * @param aoResults the result set
 	 * @param <SC> the schematic class
@@ -536,27 +1094,92 @@ extends BroadcastReceiver
 	protected synchronized <SC extends SQLightable> Intent
 	buildResultBroadcast( Class<SC> cls, List<SC> aoResults )
 	{
-		Intent sig = new Intent( m_api.getFormattedRelayAction(
-				RELAY_RECEIVE_SELECTION ) ) ;
-		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_SCHEMA_CLASS_NAME ),
-				cls.getCanonicalName() ) ;
-		if( aoResults == null )
-		{
-			sig.putExtra( m_api.getFormattedExtraTag( EXTRA_RESULT_ROW_COUNT ),
-					0 ) ;
-		}
-		else
+		ArrayList<Bundle> abndlResults = new ArrayList<>() ;
+		if( aoResults != null )
 		{
 			SQLightable.Reflection<SC> tbl = m_api.reflect(cls) ;
-			sig.putExtra( m_api.getFormattedExtraTag( EXTRA_RESULT_ROW_COUNT ),
-					aoResults.size() ) ;
-			ArrayList<Bundle> abndlResults =
-					new ArrayList<>( aoResults.size() ) ;
+			abndlResults.ensureCapacity( aoResults.size() ) ;
 			for( SC o : aoResults )
 				abndlResults.add( tbl.toBundle(o) ) ;
-			sig.putExtra( m_api.getFormattedExtraTag( EXTRA_SCHEMA_CLASS_DATA ),
-					CollectionsZ.of(Bundle.class).toArray(abndlResults) ) ;
 		}
+		return this.buildResultChunk( cls, UUID.randomUUID().toString(),
+				abndlResults.size(), 0, 0, abndlResults, true ) ;
+	}
+
+	/**
+	 * Builds an intent containing a chunk of selection results.
+	 * @param cls the schematic class that would contain the rows
+	 * @param sSelectionID the ID shared by all chunks of the selection
+	 * @param nTotal the number of rows in the whole result set
+	 * @param nSequence the sequence number of this chunk
+	 * @param nOffset the position of this chunk's first row in the result set
+	 * @param abndlRows the rows in this chunk, already bundled
+	 * @param bFinal whether this is the last chunk of the selection
+	 * @param <SC> the schematic class
+	 * @return the intent to be sent to the relay
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected <SC extends SQLightable> Intent buildResultChunk(
+			Class<SC> cls, String sSelectionID, int nTotal, int nSequence,
+			int nOffset, List<Bundle> abndlRows, boolean bFinal )
+	{
+		Intent sig = this.buildResultChunk( cls, sSelectionID, nTotal,
+				nSequence, nOffset, bFinal ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_SCHEMA_CLASS_DATA ),
+				CollectionsZ.of(Bundle.class).toArray(abndlRows) ) ;
+		return sig ;
+	}
+
+	/**
+	 * Builds an intent containing a chunk of selection results, which were
+	 * packed by {@link PackedRowCodec}.
+	 * @param cls the schematic class that would contain the rows
+	 * @param sSelectionID the ID shared by all chunks of the selection
+	 * @param nTotal the number of rows in the whole result set
+	 * @param nSequence the sequence number of this chunk
+	 * @param nOffset the position of this chunk's first row in the result set
+	 * @param abPacked the rows in this chunk, already packed
+	 * @param bFinal whether this is the last chunk of the selection
+	 * @param <SC> the schematic class
+	 * @return the intent to be sent to the relay
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected <SC extends SQLightable> Intent buildResultChunk(
+			Class<SC> cls, String sSelectionID, int nTotal, int nSequence,
+			int nOffset, byte[] abPacked, boolean bFinal )
+	{
+		Intent sig = this.buildResultChunk( cls, sSelectionID, nTotal,
+				nSequence, nOffset, bFinal ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_RESULT_ENCODING ),
+				ENCODING_PACKED ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_SCHEMA_CLASS_DATA ),
+				abPacked ) ;
+		return sig ;
+	}
+
+	/**
+	 * Builds an intent with the extras that are common to every chunk of
+	 * selection results, regardless of how its rows are encoded.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected <SC extends SQLightable> Intent buildResultChunk(
+			Class<SC> cls, String sSelectionID, int nTotal, int nSequence,
+			int nOffset, boolean bFinal )
+	{
+		Intent sig = new Intent( m_api.getFormattedRelayAction(
+				RELAY_RECEIVE_SELECTION ) ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_SCHEMA_CLASS_NAME ),
+				cls.getCanonicalName() ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_RESULT_ROW_COUNT ),
+				nTotal ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_SELECTION_ID ),
+				sSelectionID ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_CHUNK_SEQUENCE ),
+				nSequence ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_CHUNK_OFFSET ),
+				nOffset ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_CHUNK_FINAL ),
+				bFinal ) ;
 		return sig ;
 	}
 
@@ -565,6 +1188,32 @@ extends BroadcastReceiver
 	 * @param sClass the name of the class that would have had rows selected
 	 */
 	protected synchronized void notifySelectionFailed( String sClass )
+	{ this.notifySelectionFailed( sClass, null ) ; }
+
+	/**
+	 * Notifies the relay that a specific selection failed.
+	 * @param sClass the name of the class that would have had rows selected
+	 * @param sSelectionID the ID of the selection, under which some chunks
+	 *  might already have been sent
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected synchronized void notifySelectionFailed( String sClass,
+			String sSelectionID )
+	{
+		m_ctx.sendBroadcast(
+				this.buildSelectionFailedSignal( sClass, sSelectionID ) ) ;
+	}
+
+	/**
+	 * Constructs the {@link Intent} to be sent by {@link #notifySelectionFailed}.
+	 * This is a separate method only so that it can be unit-tested.
+	 * @param sClass the name of the class that would have had rows selected
+	 * @param sSelectionID the ID of the selection, if known
+	 * @return the intent to be sent to the relay
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected Intent buildSelectionFailedSignal( String sClass,
+			String sSelectionID )
 	{
 		Intent sig = new Intent( m_api.getFormattedRelayAction(
 				RELAY_NOTIFY_SELECT_FAILED ) ) ;
@@ -573,9 +1222,49 @@ extends BroadcastReceiver
 			sig.putExtra(m_api.getFormattedExtraTag(EXTRA_SCHEMA_CLASS_NAME),
 					sClass);
 		}
-		m_ctx.sendBroadcast( sig ) ;
+		if( sSelectionID != null )
+		{
+			sig.putExtra( m_api.getFormattedExtraTag( EXTRA_SELECTION_ID ),
+					sSelectionID ) ;
+		}
+		return sig ;
 	}
 
 /// Other accessors and mutators ///////////////////////////////////////////////
 
+	/**
+	 * Streams selection results through a {@link SelectionStreamProvider},
+	 * instead of broadcasting them, if they contain more than the specified
+	 * number of rows. The provider must be declared in the same process as the
+	 * keeper. Results are streamed only to relays which support it.
+	 * @param sAuthority the authority of the provider, or {@code null} to
+	 *  always broadcast the results
+	 * @param nThresholdRows the number of rows above which results are
+	 *  streamed
+	 * @return (fluid)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public synchronized SQLiteHouseKeeper<H> streamResultsThrough(
+			String sAuthority, int nThresholdRows )
+	{
+		m_sStreamAuthority = sAuthority ;
+		m_nStreamThreshold = Math.max( 0, nThresholdRows ) ;
+		return this ;
+	}
+
+	/**
+	 * Sets the limits on each broadcast of selection results.
+	 * @param nRows the maximum number of rows in each broadcast
+	 * @param nBytes the maximum size, in bytes, of the rows in each broadcast
+	 * @return (fluid)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public synchronized SQLiteHouseKeeper<H> setResultChunkLimits(
+			int nRows, int nBytes )
+	{
+		m_nChunkRows = Math.max( 1, nRows ) ;
+		m_nChunkBytes = Math.max( 1, nBytes ) ;
+		return this ;
+	}
+
 }
@@ -0,0 +1,577 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.content;
+
+import android.content.ContentProvider;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.content.ContentValues;
+import android.content.OperationApplicationException;
+import android.content.UriMatcher;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.net.Uri;
+import android.os.Bundle;
+import android.os.CancellationSignal;
+import android.support.annotation.RequiresApi;
+import android.util.Log;
+
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLightable;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouse;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.exceptions.IntrospectionException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.INSERT_FAILED;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_ROWID;
+
+/**
+ * A {@link ContentProvider} which serves the tables of a {@link SQLiteHouse}
+ * directly, so that other processes can read and write its rows through a
+ * {@link ContentResolver}. Unlike the broadcast protocol of
+ * {@link SQLiteHouseKeeper} and {@link SQLiteHouseRelay}, which marshals each
+ * row into a {@link Bundle}, the provider returns ordinary database cursors,
+ * whose rows cross the process boundary in shared-memory cursor windows.
+ *
+ * <h3>URIs</h3>
+ *
+ * <p>Each schematic class returned by {@link SQLiteHouse#getSchemaClasses()}
+ * is served at two URIs:</p>
+ *
+ * <dl>
+ *     <dt>{@code content://<authority>/<table_name>}</dt>
+ *     <dd>All rows of the table.</dd>
+ *     <dt>{@code content://<authority>/<table_name>/<rowid>}</dt>
+ *     <dd>A single row of the table, identified by its SQLite row ID. This is
+ *     the URI returned by {@link #insert}.</dd>
+ * </dl>
+ *
+ * <p>Use {@link #getContentUri} to construct the URI of a table.</p>
+ *
+ * <h3>Usage</h3>
+ *
+ * <p>Extend the provider with a public default constructor which names the
+ * {@code SQLiteHouse} implementation and the authority, and declare it in the
+ * app's manifest with the same authority.</p>
+ *
+ * <pre>
+ * public class MyProvider
+ * extends SQLiteHouseProvider&lt;MyDatabaseClass&gt;
+ * {
+ *     public MyProvider()
+ *     { super( MyDatabaseClass.class, "com.example.myapp.provider" ) ; }
+ * }
+ * </pre>
+ *
+ * <p>The provider operates on the database through SQL, rather than through
+ * the schematic classes, so rows written through the provider bypass the
+ * house's change tracking and metrics. Selections, projections, and sort
+ * orders are passed to SQLite as they are received; a provider which is
+ * exported to other apps should be protected by permissions.</p>
+ *
+ * <p>Operations in {@link #applyBatch} and {@link #bulkInsert} are applied in
+ * a single transaction, and change notifications for them are sent once the
+ * transaction is complete. On API 26+, queries which specify
+ * {@link ContentResolver#QUERY_ARG_LIMIT} and
+ * {@link ContentResolver#QUERY_ARG_OFFSET} are honored, and the cursor reports
+ * that it honored them.</p>
+ *
+ * @param <H> the {@link SQLiteHouse} implementation whose tables are served
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+public abstract class SQLiteHouseProvider<H extends SQLiteHouse>
+extends ContentProvider
+{
+/// Static constants ///////////////////////////////////////////////////////////
+
+	public static final String LOG_TAG =
+			SQLiteHouseProvider.class.getSimpleName() ;
+
+/// Inner classes //////////////////////////////////////////////////////////////
+
+	/**
+	 * The table, and optionally the row, addressed by a URI.
+	 */
+	protected static class Target
+	{
+		/** The name of the table. */
+		public final String sTableName ;
+
+		/** The row ID, if the URI addresses a single row, or {@code null}. */
+		public final Long nRowID ;
+
+		protected Target( String sTableName, Long nRowID )
+		{
+			this.sTableName = sTableName ;
+			this.nRowID = nRowID ;
+		}
+
+		/**
+		 * Combines the row restriction of the target, if any, with a
+		 * consumer's selection.
+		 * @param sWhere the consumer's selection, or {@code null}
+		 * @return the combined selection
+		 */
+		public String restrict( String sWhere )
+		{
+			if( nRowID == null ) return sWhere ;
+			final String sRow = SQLITE_ROWID + "=" + nRowID ;
+			if( sWhere == null || sWhere.isEmpty() ) return sRow ;
+			return (new StringBuilder())
+					.append( sRow ).append( " AND (" )
+					.append( sWhere ).append( ")" )
+					.toString()
+					;
+		}
+	}
+
+/// Static methods /////////////////////////////////////////////////////////////
+
+	/**
+	 * Constructs the URI at which a provider serves a table.
+	 * @param sAuthority the provider's authority
+	 * @param cls the table's schematic class
+	 * @return the URI of the table
+	 */
+	public static Uri getContentUri( String sAuthority,
+			Class<? extends SQLightable> cls )
+	{
+		return (new Uri.Builder())
+				.scheme( ContentResolver.SCHEME_CONTENT )
+				.authority( sAuthority )
+				.appendPath( SQLightable.Reflection.getTableName(cls) )
+				.build()
+				;
+	}
+
+/// Member fields //////////////////////////////////////////////////////////////
+
+	/** The {@link SQLiteHouse} implementation class. */
+	protected final Class<H> m_cls ;
+
+	/** The authority under which the provider is declared. */
+	protected final String m_sAuthority ;
+
+	/** The database helper instance, created in {@link #onCreate}. */
+	protected H m_house = null ;
+
+	/** The names of the served tables, indexed by match code. */
+	protected List<String> m_asTables = new ArrayList<>() ;
+
+	/**
+	 * Matches URIs to tables. The code for the table at index {@code i} of
+	 * {@link #m_asTables} is {@code 2*i}; for a row of that table, it is
+	 * {@code 2*i+1}.
+	 */
+	protected UriMatcher m_matcher = null ;
+
+	/**
+	 * While a batch is applied on a thread, collects the URIs whose observers
+	 * should be notified when the batch is complete.
+	 */
+	protected final ThreadLocal<Set<Uri>> m_tlPendingChanges =
+			new ThreadLocal<>() ;
+
+/// Constructors and initializers //////////////////////////////////////////////
+
+	/**
+	 * Descendants must provide a public default constructor which invokes this
+	 * constructor.
+	 * @param cls the {@link SQLiteHouse} implementation class
+	 * @param sAuthority the authority under which the provider is declared
+	 */
+	protected SQLiteHouseProvider( Class<H> cls, String sAuthority )
+	{
+		m_cls = cls ;
+		m_sAuthority = sAuthority ;
+	}
+
+	/**
+	 * Creates the database helper and maps the URIs of its tables. The
+	 * database itself is not opened until the first request.
+	 * @return {@code true} if the provider was initialized
+	 */
+	@Override
+	public boolean onCreate()
+	{
+		try { m_house = this.createHouse() ; }
+		catch( IntrospectionException x )
+		{
+			Log.e( LOG_TAG, (new StringBuilder())
+					.append( "Could not create database helper " )
+					.append( m_cls.getCanonicalName() )
+					.append( " for provider." )
+					.toString()
+				, x );
+			return false ;
+		}
+		this.mapTables() ;
+		return true ;
+	}
+
+	/**
+	 * Creates the database helper instance. The default implementation uses
+	 * {@link SQLiteHouse.Factory}; descendants may override this to supply a
+	 * custom instance.
+	 * @return the database helper
+	 * @throws IntrospectionException if the helper can't be created
+	 */
+	protected H createHouse()
+	throws IntrospectionException
+	{ return SQLiteHouse.Factory.init().getInstance( m_cls, this.getContext() ) ; }
+
+	/**
+	 * Maps the URIs of the tables of the database helper's schematic classes.
+	 * @return (fluid)
+	 */
+	protected SQLiteHouseProvider<H> mapTables()
+	{
+		m_asTables.clear() ;
+		m_matcher = new UriMatcher( UriMatcher.NO_MATCH ) ;
+		final List<Class<? extends SQLightable>> acls =
+				m_house.getSchemaClasses() ;
+		for( Class<? extends SQLightable> cls : acls )
+		{
+			final String sTableName = SQLightable.Reflection.getTableName(cls) ;
+			final int nCode = m_asTables.size() * 2 ;
+			m_matcher.addURI( m_sAuthority, sTableName, nCode ) ;
+			m_matcher.addURI( m_sAuthority, sTableName + "/#", nCode + 1 ) ;
+			m_asTables.add(sTableName) ;
+		}
+		return this ;
+	}
+
+	/**
+	 * Accesses the database helper instance.
+	 * @return the database helper
+	 */
+	public H getHouse()
+	{ return m_house ; }
+
+	/**
+	 * Accesses the authority under which the provider is declared.
+	 * @return the provider's authority
+	 */
+	public String getAuthority()
+	{ return m_sAuthority ; }
+
+/// Resolution /////////////////////////////////////////////////////////////////
+
+	/**
+	 * Resolves the table, and optionally the row, addressed by a URI.
+	 * @param uri the URI
+	 * @return the target of the URI
+	 * @throws IllegalArgumentException if the URI is not served by this
+	 *  provider
+	 */
+	protected Target resolve( Uri uri )
+	{
+		final int nCode = ( m_matcher == null ?
+				UriMatcher.NO_MATCH : m_matcher.match(uri) ) ;
+		if( nCode == UriMatcher.NO_MATCH )
+		{
+			throw new IllegalArgumentException( (new StringBuilder())
+					.append( "Unknown URI: " ).append( uri )
+					.toString()
+				);
+		}
+		final String sTableName = m_asTables.get( nCode / 2 ) ;
+		if( nCode % 2 == 0 )
+			return new Target( sTableName, null ) ;
+		else
+			return new Target( sTableName, ContentUris.parseId(uri) ) ;
+	}
+
+	/**
+	 * Notifies observers of a change at a URI. While a batch is being applied
+	 * on the calling thread, the notification is deferred until the batch is
+	 * complete.
+	 * @param uri the URI which has changed
+	 */
+	protected void notifyChange( Uri uri )
+	{
+		final Set<Uri> setPending = m_tlPendingChanges.get() ;
+		if( setPending != null )
+			setPending.add(uri) ;
+		else
+			this.getContext().getContentResolver().notifyChange( uri, null ) ;
+	}
+
+	/**
+	 * Begins deferring change notifications on the calling thread.
+	 * @return {@code true} if this call started deferral, and must therefore
+	 *  be matched by {@link #sendPendingChanges}
+	 */
+	protected boolean deferChanges()
+	{
+		if( m_tlPendingChanges.get() != null ) return false ;
+		m_tlPendingChanges.set( new LinkedHashSet<Uri>() ) ;
+		return true ;
+	}
+
+	/**
+	 * Stops deferring change notifications on the calling thread, and sends
+	 * the notifications that were deferred.
+	 * @param bSend whether to send the notifications; if {@code false}, they
+	 *  are discarded
+	 */
+	protected void sendPendingChanges( boolean bSend )
+	{
+		final Set<Uri> setPending = m_tlPendingChanges.get() ;
+		m_tlPendingChanges.remove() ;
+		if( ! bSend || setPending == null ) return ;
+		final ContentResolver rslv = this.getContext().getContentResolver() ;
+		for( Uri uri : setPending )
+			rslv.notifyChange( uri, null ) ;
+	}
+
+	/**
+	 * Sends the change notifications that have been deferred so far on the
+	 * calling thread, and continues deferring any later ones. This is called
+	 * whenever part of a batch has been committed, so that observers hear
+	 * about those changes even if a later part of the batch fails.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected void flushPendingChanges()
+	{
+		final Set<Uri> setPending = m_tlPendingChanges.get() ;
+		if( setPending == null || setPending.isEmpty() ) return ;
+		final ContentResolver rslv = this.getContext().getContentResolver() ;
+		for( Uri uri : setPending )
+			rslv.notifyChange( uri, null ) ;
+		setPending.clear() ;
+	}
+
+/// android.content.ContentProvider ////////////////////////////////////////////
+
+	@Override
+	public String getType( Uri uri )
+	{
+		final Target target = this.resolve(uri) ;
+		return (new StringBuilder())
+				.append(( target.nRowID == null ?
+						ContentResolver.CURSOR_DIR_BASE_TYPE :
+						ContentResolver.CURSOR_ITEM_BASE_TYPE ))
+				.append( "/vnd." ).append( m_sAuthority )
+				.append( "." ).append( target.sTableName )
+				.toString()
+				;
+	}
+
+	@Override
+	public Cursor query( Uri uri, String[] asColumns, String sWhere,
+			String[] asWhereParams, String sOrderBy )
+	{
+		final Target target = this.resolve(uri) ;
+		Cursor crs = m_house.getReadableDatabase().query(
+				target.sTableName, asColumns, target.restrict(sWhere),
+				asWhereParams, null, null, sOrderBy ) ;
+		return this.watch( crs, uri ) ;
+	}
+
+	@Override
+	@RequiresApi(16)
+	public Cursor query( Uri uri, String[] asColumns, String sWhere,
+			String[] asWhereParams, String sOrderBy, CancellationSignal sig )
+	{
+		if( sig == null )
+			return this.query( uri, asColumns, sWhere, asWhereParams, sOrderBy ) ;
+		final Target target = this.resolve(uri) ;
+		Cursor crs = m_house.getReadableDatabase().query( false,
+				target.sTableName, asColumns, target.restrict(sWhere),
+				asWhereParams, null, null, sOrderBy, null, sig ) ;
+		return this.watch( crs, uri ) ;
+	}
+
+	/**
+	 * <b><i>(API 26+)</i></b> Selects rows with Bundle arguments. The SQL
+	 * selection, selection arguments, and sort order are honored, as are
+	 * {@link ContentResolver#QUERY_ARG_LIMIT} and
+	 * {@link ContentResolver#QUERY_ARG_OFFSET}; the cursor's extras report
+	 * which of these were honored.
+	 */
+	@Override
+	@RequiresApi(26)
+	public Cursor query( Uri uri, String[] asColumns, Bundle bndlArgs,
+			CancellationSignal sig )
+	{
+		if( bndlArgs == null ) bndlArgs = Bundle.EMPTY ;
+		final Target target = this.resolve(uri) ;
+		final ArrayList<String> asHonored = new ArrayList<>() ;
+		final String sWhere = bndlArgs.getString(
+				ContentResolver.QUERY_ARG_SQL_SELECTION ) ;
+		if( sWhere != null )
+			asHonored.add( ContentResolver.QUERY_ARG_SQL_SELECTION ) ;
+		final String[] asWhereParams = bndlArgs.getStringArray(
+				ContentResolver.QUERY_ARG_SQL_SELECTION_ARGS ) ;
+		if( asWhereParams != null )
+			asHonored.add( ContentResolver.QUERY_ARG_SQL_SELECTION_ARGS ) ;
+		final String sOrderBy = bndlArgs.getString(
+				ContentResolver.QUERY_ARG_SQL_SORT_ORDER ) ;
+		if( sOrderBy != null )
+			asHonored.add( ContentResolver.QUERY_ARG_SQL_SORT_ORDER ) ;
+		final boolean bLimit =
+				bndlArgs.containsKey( ContentResolver.QUERY_ARG_LIMIT ) ;
+		final boolean bOffset =
+				bndlArgs.containsKey( ContentResolver.QUERY_ARG_OFFSET ) ;
+		String sLimit = null ;
+		if( bLimit || bOffset )
+		{ // SQLiteQueryBuilder accepts only non-negative "[offset,]limit" here.
+			long nLimit = bndlArgs.getInt( ContentResolver.QUERY_ARG_LIMIT, -1 ) ;
+			if( nLimit < 0 ) nLimit = Long.MAX_VALUE ;
+			final int nOffset = Math.max( 0,
+					bndlArgs.getInt( ContentResolver.QUERY_ARG_OFFSET, 0 ) ) ;
+			sLimit = ( nOffset > 0 ? nOffset + "," + nLimit :
+					Long.toString(nLimit) ) ;
+			if( bLimit ) asHonored.add( ContentResolver.QUERY_ARG_LIMIT ) ;
+			if( bOffset ) asHonored.add( ContentResolver.QUERY_ARG_OFFSET ) ;
+		}
+
+		Cursor crs = m_house.getReadableDatabase().query( false,
+				target.sTableName, asColumns, target.restrict(sWhere),
+				asWhereParams, null, null, sOrderBy, sLimit, sig ) ;
+		if( crs != null )
+		{
+			Bundle bndlExtras = new Bundle() ;
+			bndlExtras.putStringArray( ContentResolver.EXTRA_HONORED_ARGS,
+					asHonored.toArray( new String[asHonored.size()] ) ) ;
+			crs.setExtras( bndlExtras ) ;
+		}
+		return this.watch( crs, uri ) ;
+	}
+
+	/**
+	 * Registers a cursor to be notified of changes at the URI from which it
+	 * was selected.
+	 * @param crs the cursor
+	 * @param uri the URI of the query
+	 * @return the same cursor
+	 */
+	protected Cursor watch( Cursor crs, Uri uri )
+	{
+		if( crs != null )
+			crs.setNotificationUri( this.getContext().getContentResolver(), uri ) ;
+		return crs ;
+	}
+
+	@Override
+	public Uri insert( Uri uri, ContentValues vals )
+	{
+		final Target target = this.resolve(uri) ;
+		if( target.nRowID != null )
+		{
+			throw new IllegalArgumentException( (new StringBuilder())
+					.append( "Cannot insert at row URI: " ).append( uri )
+					.toString()
+				);
+		}
+		final long nRowID = m_house.getWritableDatabase().insert(
+				target.sTableName, null, vals ) ;
+		if( nRowID == INSERT_FAILED ) return null ;
+		final Uri uriRow = ContentUris.withAppendedId( uri, nRowID ) ;
+		this.notifyChange( uri ) ;
+		return uriRow ;
+	}
+
+	/**
+	 * Inserts all of the rows in a single transaction, and notifies observers
+	 * once.
+	 */
+	@Override
+	public int bulkInsert( Uri uri, ContentValues[] avals )
+	{
+		final Target target = this.resolve(uri) ;
+		if( target.nRowID != null )
+		{
+			throw new IllegalArgumentException( (new StringBuilder())
+					.append( "Cannot insert at row URI: " ).append( uri )
+					.toString()
+				);
+		}
+		if( avals == null || avals.length == 0 ) return 0 ;
+		final String sTableName = target.sTableName ;
+		final SQLiteDatabase db = m_house.getWritableDatabase() ;
+		int nInserted = 0 ;
+		db.beginTransaction() ;
+		try
+		{
+			for( ContentValues vals : avals )
+			{
+				if( db.insert( sTableName, null, vals ) != INSERT_FAILED )
+					++nInserted ;
+			}
+			db.setTransactionSuccessful() ;
+		}
+		finally
+		{ db.endTransaction() ; }
+		if( nInserted > 0 ) this.notifyChange( uri ) ;
+		return nInserted ;
+	}
+
+	@Override
+	public int update( Uri uri, ContentValues vals, String sWhere,
+			String[] asWhereParams )
+	{
+		final Target target = this.resolve(uri) ;
+		final int nUpdated = m_house.getWritableDatabase().update(
+				target.sTableName, vals, target.restrict(sWhere),
+				asWhereParams ) ;
+		if( nUpdated > 0 ) this.notifyChange( uri ) ;
+		return nUpdated ;
+	}
+
+	@Override
+	public int delete( Uri uri, String sWhere, String[] asWhereParams )
+	{
+		final Target target = this.resolve(uri) ;
+		final int nDeleted = m_house.getWritableDatabase().delete(
+				target.sTableName, target.restrict(sWhere),
+				asWhereParams ) ;
+		if( nDeleted > 0 ) this.notifyChange( uri ) ;
+		return nDeleted ;
+	}
+
+	/**
+	 * Applies all of the operations in a single transaction. If an operation
+	 * allows yielding, then the transaction is committed and restarted before
+	 * it, if another thread is waiting for the database. Change notifications
+	 * are sent once the batch is complete, and also whenever the transaction
+	 * yields, for the operations which that yield committed; if a later
+	 * operation fails, only the notifications for the uncommitted operations
+	 * are discarded.
+	 */
+	@Override
+	public ContentProviderResult[] applyBatch(
+			ArrayList<ContentProviderOperation> aOps )
+	throws OperationApplicationException
+	{
+		final SQLiteDatabase db = m_house.getWritableDatabase() ;
+		final ContentProviderResult[] aResults =
+				new ContentProviderResult[aOps.size()] ;
+		final boolean bDeferred = this.deferChanges() ;
+		boolean bSucceeded = false ;
+		db.beginTransaction() ;
+		try
+		{
+			for( int i = 0 ; i < aOps.size() ; i++ )
+			{
+				final ContentProviderOperation op = aOps.get(i) ;
+				if( i > 0 && op.isYieldAllowed()
+				 && db.yieldIfContendedSafely() && bDeferred )
+				{ this.flushPendingChanges() ; } // earlier ops were committed
+				aResults[i] = op.apply( this, aResults, i ) ;
+			}
+			db.setTransactionSuccessful() ;
+			bSucceeded = true ;
+		}
+		finally
+		{
+			db.endTransaction() ;
+			if( bDeferred ) this.sendPendingChanges( bSucceeded ) ;
+		}
+		return aResults ;
+	}
+}
@@ -4,7 +4,11 @@ import android.content.BroadcastReceiver;
 import android.content.ContentResolver;
 import android.content.Context;
 import android.content.Intent;
+import android.database.Cursor;
+import android.net.Uri;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.Parcelable;
 import android.util.Log;
 
@@ -15,22 +19,52 @@ import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLightable;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouse;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.content.exceptions.SQLiteContentException;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.Vector;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.DELETE_FAILED;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.INSERT_FAILED;
 import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.UPDATE_FAILED;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.ENCODING_PACKED;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_ACCEPT_ENCODINGS;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_ACCEPT_STREAM;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_BATCH_ID;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_BATCH_OPERATION;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_CHUNK_FINAL;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_CHUNK_OFFSET;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_CHUNK_SEQUENCE;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_INSERT_ROW_ID;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_INSERT_ROW_IDS;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_RESULT_ENCODING;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_RESULT_ROW_COUNT;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_RESULT_STREAM;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_SCHEMA_CLASS_DATA;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_SCHEMA_CLASS_NAME;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_SELECTION_ID;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.EXTRA_SELECTION_QUERY_SPEC;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_DELETE;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_DELETE_BATCH;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_INSERT;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_INSERT_BATCH;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_SELECT;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_UPDATE;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.KEEPER_UPDATE_BATCH;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_NOTIFY_BATCH;
+import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_NOTIFY_BATCH_FAILED;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_NOTIFY_DELETE;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_NOTIFY_DELETE_FAILED;
 import static net.zer0bandwidth.android.lib.database.sqlitehouse.content.SQLiteHouseSignalAPI.RELAY_NOTIFY_INSERT;
@@ -125,10 +159,132 @@ extends BroadcastReceiver
 		void onSelectFailed() ;
 	}
 
+	/**
+	 * A {@link Listener} which receives selection results incrementally, as
+	 * each chunk arrives from the keeper, rather than waiting for the relay to
+	 * reassemble the whole result set. Its
+	 * {@link Listener#onRowsSelected(Class, int, List)} method is not called
+	 * for chunked results.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public interface ChunkListener
+	extends Listener
+	{
+		/**
+		 * Called by {@link SQLiteHouseRelay#onRowsSelected} for each chunk of
+		 * the results of a successful selection.
+		 * @param cls the schematic class that will marshal the data
+		 * @param sSelectionID identifies the selection to which the chunk
+		 *  belongs
+		 * @param nTotalCount the total number of rows in the selection
+		 * @param nOffset the position of the chunk's first row in the
+		 *  selection
+		 * @param aoRows the rows in this chunk, already marshalled
+		 * @param bFinal whether this is the last chunk of the selection
+		 * @param <SC> the schematic class
+		 */
+		<SC extends SQLightable> void onRowsSelected( Class<SC> cls,
+				String sSelectionID, int nTotalCount, int nOffset,
+				List<SC> aoRows, boolean bFinal ) ;
+	}
+
+	/**
+	 * A {@link Listener} which receives a single summary of each batch of
+	 * insertions, updates, or deletions. Its row-by-row {@link Listener}
+	 * methods are not called for batches.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public interface BatchListener
+	extends Listener
+	{
+		/**
+		 * Called by {@link SQLiteHouseRelay#onBatchApplied(Intent)} when the
+		 * keeper has applied a batch of writes.
+		 * @param sOperation one of
+		 *  {@link SQLiteHouseSignalAPI#KEEPER_INSERT_BATCH},
+		 *  {@link SQLiteHouseSignalAPI#KEEPER_UPDATE_BATCH}, or
+		 *  {@link SQLiteHouseSignalAPI#KEEPER_DELETE_BATCH}
+		 * @param sBatchID the ID returned when the batch was sent
+		 * @param nCount the total number of rows inserted, updated, or deleted
+		 * @param anRowIDs for insertions, the row IDs of the inserted objects,
+		 *  in the order in which they were sent; otherwise {@code null}
+		 */
+		void onBatchApplied( String sOperation, String sBatchID, int nCount,
+				long[] anRowIDs ) ;
+
+		/**
+		 * Called by {@link SQLiteHouseRelay#onBatchFailed(Intent)} when the
+		 * keeper has failed to apply a batch of writes. None of the batch's
+		 * writes were kept.
+		 * @param sOperation the keeper action token of the batch
+		 * @param sBatchID the ID returned when the batch was sent
+		 */
+		void onBatchFailed( String sOperation, String sBatchID ) ;
+	}
+
+	/**
+	 * Collects the chunks of a selection until all of them have arrived.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected static class PendingSelection
+	{
+		/** The schematic class of the rows. */
+		public final Class<? extends SQLightable> cls ;
+
+		/** The total number of rows in the selection. */
+		public final int nTotalCount ;
+
+		/** The chunks received so far, indexed by sequence number. */
+		public final HashMap<Integer,List<? extends SQLightable>> mapChunks =
+				new HashMap<>() ;
+
+		/** The sequence number of the final chunk, once it has arrived. */
+		public int nFinalSequence = -1 ;
+
+		public PendingSelection( Class<? extends SQLightable> cls,
+				int nTotalCount )
+		{
+			this.cls = cls ;
+			this.nTotalCount = nTotalCount ;
+		}
+
+		/**
+		 * Indicates whether every chunk through the final one has arrived.
+		 * @return {@code true} if the selection can be reassembled
+		 */
+		public boolean isComplete()
+		{
+			return ( nFinalSequence >= 0
+					&& mapChunks.size() == nFinalSequence + 1 ) ;
+		}
+
+		/**
+		 * Concatenates the chunks in sequence.
+		 * @param <SC> the schematic class
+		 * @return all of the selected rows
+		 */
+		@SuppressWarnings( "unchecked" )
+		public <SC extends SQLightable> List<SC> reassemble()
+		{
+			ArrayList<SC> aoRows = new ArrayList<>( nTotalCount ) ;
+			for( int i = 0 ; i <= nFinalSequence ; i++ )
+				aoRows.addAll( ((List<SC>)( mapChunks.get(i) )) ) ;
+			return aoRows ;
+		}
+	}
+
 /// Static constants ///////////////////////////////////////////////////////////
 
 	public static final String LOG_TAG = SQLiteHouseRelay.class.getSimpleName();
 
+	/**
+	 * The maximum number of chunked selections that may be awaiting
+	 * reassembly at once. If chunks of another selection arrive, then the
+	 * oldest incomplete selection is abandoned.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final int MAX_PENDING_SELECTIONS = 8 ;
+
 /// Member fields //////////////////////////////////////////////////////////////
 
 	/** The context in which the relay will operate. */
@@ -140,6 +296,42 @@ extends BroadcastReceiver
 	/** The set of active listeners. */
 	protected Vector<Listener> m_vListeners = null ;
 
+	/**
+	 * Reads selection streams; created when the first stream is received.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected ExecutorService m_execStreams = null ;
+
+	/**
+	 * Delivers the rows of selection streams on the main thread; created when
+	 * the first stream is received.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected Handler m_hndlrMain = null ;
+
+	/**
+	 * Chunked selections awaiting reassembly, indexed by selection ID, in the
+	 * order in which they began to arrive.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected LinkedHashMap<String,PendingSelection> m_mapPendingSelections =
+			new LinkedHashMap<String,PendingSelection>()
+			{
+				@Override
+				protected boolean removeEldestEntry(
+						Map.Entry<String,PendingSelection> entry )
+				{
+					if( this.size() <= MAX_PENDING_SELECTIONS ) return false ;
+					Log.w( LOG_TAG, (new StringBuilder())
+							.append( "Abandoning incomplete selection [" )
+							.append( entry.getKey() )
+							.append( "]." )
+							.toString()
+						);
+					return true ;
+				}
+			};
+
 /// Constructors and initializers //////////////////////////////////////////////
 
 	/**
@@ -232,6 +424,12 @@ extends BroadcastReceiver
 			case RELAY_NOTIFY_SELECT_FAILED:
 				this.onSelectFailed( sig ) ;
 				break ;
+			case RELAY_NOTIFY_BATCH:
+				this.onBatchApplied( sig ) ;
+				break ;
+			case RELAY_NOTIFY_BATCH_FAILED:
+				this.onBatchFailed( sig ) ;
+				break ;
 			default:
 				this.handleCustomAction( ctx, sig, sActionToken ) ;
 		}
@@ -415,6 +613,39 @@ extends BroadcastReceiver
 			l.onDeleteFailed() ;
 	}
 
+	/**
+	 * Unpacks a block of rows that were packed by {@link PackedRowCodec}, and
+	 * marshals them into instances of the schematic class. Columns in the
+	 * block which the schematic class does not define are ignored.
+	 * @param cls the schematic class
+	 * @param abPacked the packed rows
+	 * @param <SC> the schematic class
+	 * @return the unpacked rows
+	 * @throws SQLiteContentException if the block can't be unpacked
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected <SC extends SQLightable> List<SC> unpackRows(
+			Class<SC> cls, byte[] abPacked )
+	throws SQLiteContentException
+	{
+		Cursor crs = PackedRowCodec.unpack( abPacked ) ;
+		try
+		{
+			SQLightable.Reflection<SC> tbl = m_api.reflect(cls) ;
+			List<SQLightable.Reflection<SC>.Column> aColumns =
+					tbl.getColumnsPresentIn(crs) ;
+			ArrayList<SC> aoRows = new ArrayList<>( crs.getCount() ) ;
+			if( crs.moveToFirst() )
+			{
+				do aoRows.add( tbl.fromCursor( crs, aColumns ) ) ;
+				while( crs.moveToNext() ) ;
+			}
+			return aoRows ;
+		}
+		finally
+		{ crs.close() ; }
+	}
+
 	/**
 	 * Handles a signal payload from the keeper, containing a set of selected
 	 * rows from the database.
@@ -444,26 +675,276 @@ extends BroadcastReceiver
 				, x );
 			this.onSelectFailed(sig) ;
 		}
+		String sStream = sig.getStringExtra(
+				m_api.getFormattedExtraTag( EXTRA_RESULT_STREAM ) ) ;
+		if( sStream != null && cls != null )
+		{ // The rows aren't in the signal; they must be read from a stream.
+			this.receiveStream( cls, sig.getStringExtra(
+						m_api.getFormattedExtraTag( EXTRA_SELECTION_ID ) ),
+					nCount, Uri.parse( sStream ) ) ;
+			return ;
+		}
 		String sExtra = m_api.getFormattedExtraTag( EXTRA_SCHEMA_CLASS_DATA ) ;
 		if( ! sig.hasExtra(sExtra) )
 		{ // Short-circuit; can't find the data extra.
 			Log.w( LOG_TAG, "Selection result signal had no data." ) ;
 			this.onSelectFailed(sig) ;
 		}
-		Parcelable[] apclRows = sig.getParcelableArrayExtra(sExtra) ;
-		if( apclRows == null )
+		List<SC> aoRows ;
+		if( ENCODING_PACKED.equals( sig.getStringExtra(
+				m_api.getFormattedExtraTag( EXTRA_RESULT_ENCODING ) ) ) )
+		{
+			byte[] abPacked = sig.getByteArrayExtra(sExtra) ;
+			if( abPacked == null )
+			{
+				if( nCount > 0 )
+					Log.w( LOG_TAG, "Could not extract data from signal." ) ;
+				return ;
+			}
+			try { aoRows = this.unpackRows( cls, abPacked ) ; }
+			catch( SQLiteContentException x )
+			{
+				Log.w( LOG_TAG, "Could not unpack rows from signal.", x ) ;
+				this.onSelectFailed(sig) ;
+				return ;
+			}
+		}
+		else
 		{
-			if( nCount > 0 )
-				Log.w( LOG_TAG, "Could not extract data from signal." ) ;
+			Parcelable[] apclRows = sig.getParcelableArrayExtra(sExtra) ;
+			if( apclRows == null )
+			{
+				if( nCount > 0 )
+					Log.w( LOG_TAG, "Could not extract data from signal." ) ;
+				return ;
+			}
+			aoRows = new ArrayList<>( apclRows.length ) ;
+			SQLightable.Reflection<SC> tbl = m_api.reflect(cls) ;
+			for( Parcelable pclRow : apclRows )
+				aoRows.add( tbl.fromBundle( ((Bundle)(pclRow)) ) ) ;
+		}
+
+		String sSelectionID = sig.getStringExtra(
+				m_api.getFormattedExtraTag( EXTRA_SELECTION_ID ) ) ;
+		if( sSelectionID == null )
+		{ // The whole result set is in this signal.
+			for( Listener l : m_vListeners )
+				l.onRowsSelected( cls, nCount, aoRows ) ;
 			return ;
 		}
-		ArrayList<SC> aoRows = new ArrayList<>( apclRows.length ) ;
-		SQLightable.Reflection<SC> tbl = m_api.reflect(cls) ;
-		for( Parcelable pclRow : apclRows )
-			aoRows.add( tbl.fromBundle( ((Bundle)(pclRow)) ) ) ;
+		this.onSelectionChunk( cls, sSelectionID, nCount,
+				sig.getIntExtra( m_api.getFormattedExtraTag(
+						EXTRA_CHUNK_SEQUENCE ), 0 ),
+				sig.getIntExtra( m_api.getFormattedExtraTag(
+						EXTRA_CHUNK_OFFSET ), 0 ),
+				aoRows,
+				sig.getBooleanExtra( m_api.getFormattedExtraTag(
+						EXTRA_CHUNK_FINAL ), true )
+			);
+	}
 
+	/**
+	 * Handles one chunk of a selection's results. The chunk is passed
+	 * immediately to any {@link ChunkListener}s. For other listeners, the
+	 * chunk is held until all chunks of the selection have arrived, and the
+	 * whole result set is then passed to
+	 * {@link Listener#onRowsSelected(Class, int, List)}.
+	 * @param cls the schematic class of the rows
+	 * @param sSelectionID the ID of the selection
+	 * @param nCount the total number of rows in the selection
+	 * @param nSequence the sequence number of the chunk
+	 * @param nOffset the position of the chunk's first row in the selection
+	 * @param aoRows the rows in the chunk
+	 * @param bFinal whether this is the last chunk of the selection
+	 * @param <SC> the schematic class
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected synchronized <SC extends SQLightable> void onSelectionChunk(
+			Class<SC> cls, String sSelectionID, int nCount, int nSequence,
+			int nOffset, List<SC> aoRows, boolean bFinal )
+	{
+		boolean bReassemble = false ;
+		for( Listener l : m_vListeners )
+		{
+			if( l instanceof ChunkListener )
+			{
+				((ChunkListener)(l)).onRowsSelected( cls, sSelectionID,
+						nCount, nOffset, aoRows, bFinal ) ;
+			}
+			else bReassemble = true ;
+		}
+		if( ! bReassemble ) return ;
+
+		List<SC> aoAll = null ;
+		if( nSequence == 0 && bFinal )
+			aoAll = aoRows ;                  // The only chunk; nothing to wait for.
+		else
+		{
+			PendingSelection sel = m_mapPendingSelections.get( sSelectionID ) ;
+			if( sel == null )
+			{
+				sel = new PendingSelection( cls, nCount ) ;
+				m_mapPendingSelections.put( sSelectionID, sel ) ;
+			}
+			sel.mapChunks.put( nSequence, aoRows ) ;
+			if( bFinal ) sel.nFinalSequence = nSequence ;
+			if( sel.isComplete() )
+			{
+				m_mapPendingSelections.remove( sSelectionID ) ;
+				aoAll = sel.reassemble() ;
+			}
+		}
+		if( aoAll == null ) return ;
 		for( Listener l : m_vListeners )
-			l.onRowsSelected( cls, nCount, aoRows ) ;
+		{
+			if( ! ( l instanceof ChunkListener ) )
+				l.onRowsSelected( cls, nCount, aoAll ) ;
+		}
+	}
+
+	/**
+	 * Starts to read the rows of a selection which the keeper has staged with
+	 * a {@link SelectionStreamProvider}. The stream is read by a worker
+	 * thread, but its rows are delivered to listeners on the main thread, as
+	 * if they had arrived in chunks of broadcasts.
+	 * @param cls the schematic class
+	 * @param sSelectionID the ID of the selection
+	 * @param nCount the number of rows in the selection
+	 * @param uri the URI of the stream
+	 * @param <SC> the schematic class
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected synchronized <SC extends SQLightable> void receiveStream(
+			final Class<SC> cls, final String sSelectionID, final int nCount,
+			final Uri uri )
+	{
+		if( m_hndlrMain == null )
+			m_hndlrMain = new Handler( Looper.getMainLooper() ) ;
+		if( m_execStreams == null )
+			m_execStreams = Executors.newCachedThreadPool() ;
+		m_execStreams.execute( new Runnable()
+			{
+				@Override
+				public void run()
+				{ SQLiteHouseRelay.this.readStream( cls, sSelectionID, nCount, uri ) ; }
+			});
+	}
+
+	/**
+	 * Reads the frames of a selection stream, and delivers each as a chunk of
+	 * the selection. This blocks until the stream ends or fails; it is called
+	 * on a worker thread by {@link #receiveStream}.
+	 * @param cls the schematic class
+	 * @param sSelectionID the ID of the selection
+	 * @param nCount the number of rows in the selection
+	 * @param uri the URI of the stream
+	 * @param <SC> the schematic class
+	 * @return the number of chunks that were delivered
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected <SC extends SQLightable> int readStream( final Class<SC> cls,
+			final String sSelectionID, final int nCount, Uri uri )
+	{
+		DataInputStream in = null ;
+		int nSequence = 0 ;
+		int nOffset = 0 ;
+		try
+		{
+			in = new DataInputStream(
+					new BufferedInputStream( this.openResultStream(uri) ) ) ;
+			byte[] abFrame = SelectionStreamProvider.readFrame(in) ;
+			while( abFrame != null )
+			{
+				final byte[] abNext = SelectionStreamProvider.readFrame(in) ;
+				final List<SC> aoRows = this.unpackRows( cls, abFrame ) ;
+				final int nChunkSequence = nSequence++ ;
+				final int nChunkOffset = nOffset ;
+				final boolean bFinal = ( abNext == null ) ;
+				this.post( new Runnable()
+					{
+						@Override
+						public void run()
+						{
+							SQLiteHouseRelay.this.onSelectionChunk( cls,
+									sSelectionID, nCount, nChunkSequence,
+									nChunkOffset, aoRows, bFinal ) ;
+						}
+					});
+				nOffset += aoRows.size() ;
+				abFrame = abNext ;
+			}
+			if( nSequence == 0 )
+				throw new IOException( "Selection stream contained no frames." ) ;
+		}
+		catch( IOException | SQLiteContentException | SecurityException x )
+		{
+			Log.w( LOG_TAG, (new StringBuilder())
+					.append( "Could not read selection stream [" )
+					.append( uri ).append( "]." )
+					.toString()
+				, x );
+			this.post( new Runnable()
+				{
+					@Override
+					public void run()
+					{ SQLiteHouseRelay.this.onStreamFailed( sSelectionID ) ; }
+				});
+		}
+		finally
+		{
+			if( in != null )
+			{
+				try { in.close() ; }
+				catch( IOException x )
+				{ Log.d( LOG_TAG, "Could not close selection stream.", x ) ; }
+			}
+		}
+		return nSequence ;
+	}
+
+	/**
+	 * Opens the stream from which the rows of a selection are read.
+	 * @param uri the URI of the stream
+	 * @return the stream
+	 * @throws IOException if the stream can't be opened
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected InputStream openResultStream( Uri uri )
+	throws IOException
+	{
+		InputStream in = m_ctx.getContentResolver().openInputStream(uri) ;
+		if( in == null )
+		{
+			throw new FileNotFoundException( (new StringBuilder())
+					.append( "Could not open selection stream [" )
+					.append( uri ).append( "]." )
+					.toString()
+				);
+		}
+		return in ;
+	}
+
+	/**
+	 * Runs a task on the main thread. Used to deliver the rows of selection
+	 * streams to listeners.
+	 * @param r the task
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected void post( Runnable r )
+	{ m_hndlrMain.post(r) ; }
+
+	/**
+	 * Discards any chunks of a selection stream which failed, and notifies
+	 * the listeners that the selection failed.
+	 * @param sSelectionID the ID of the selection
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected synchronized void onStreamFailed( String sSelectionID )
+	{
+		if( sSelectionID != null )
+			m_mapPendingSelections.remove( sSelectionID ) ;
+		for( Listener l : m_vListeners )
+			l.onSelectFailed() ;
 	}
 
 	/**
@@ -473,6 +954,12 @@ extends BroadcastReceiver
 	protected synchronized void onSelectFailed( Intent sig )
 	{
 		String sClass = m_api.getExtraSchemaClassName(sig) ;
+		String sSelectionID = sig.getStringExtra(
+				m_api.getFormattedExtraTag( EXTRA_SELECTION_ID ) ) ;
+		if( sSelectionID != null )
+			m_mapPendingSelections.remove( sSelectionID ) ;
+		else // The keeper didn't say which selection failed.
+			this.abandonPendingSelections( sClass ) ;
 		Log.e( LOG_TAG, (new StringBuilder())
 				.append( "Keeper failed to select rows of type [" )
 				.append(( sClass == null ? "(unknown)" : sClass ))
@@ -484,6 +971,113 @@ extends BroadcastReceiver
 			l.onSelectFailed() ;
 	}
 
+	/**
+	 * Handles a signal from the keeper that a batch of writes was applied.
+	 * A {@link BatchListener} receives the summary; other listeners are
+	 * notified as if each write had been requested separately, except that
+	 * updates and deletions are reported as one total.
+	 * @param sig the received signal
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected synchronized void onBatchApplied( Intent sig )
+	{
+		final String sOperation = sig.getStringExtra(
+				m_api.getFormattedExtraTag( EXTRA_BATCH_OPERATION ) ) ;
+		final String sBatchID = sig.getStringExtra(
+				m_api.getFormattedExtraTag( EXTRA_BATCH_ID ) ) ;
+		final int nCount = sig.getIntExtra(
+				m_api.getFormattedExtraTag( EXTRA_RESULT_ROW_COUNT ), 0 ) ;
+		final long[] anRowIDs = sig.getLongArrayExtra(
+				m_api.getFormattedExtraTag( EXTRA_INSERT_ROW_IDS ) ) ;
+		String sClass = m_api.getExtraSchemaClassName(sig) ;
+		Log.i( LOG_TAG, (new StringBuilder())
+				.append( "Batch [" )
+				.append(( sBatchID == null ? "(unknown)" : sBatchID ))
+				.append( "] of [" )
+				.append( sOperation )
+				.append( "] on class [" )
+				.append(( sClass == null ? "(unknown)" : sClass ))
+				.append( "] affected [" )
+				.append( nCount )
+				.append( "] rows." )
+				.toString()
+			);
+
+		for( Listener l : m_vListeners )
+		{
+			if( l instanceof BatchListener )
+			{
+				((BatchListener)(l)).onBatchApplied(
+						sOperation, sBatchID, nCount, anRowIDs ) ;
+			}
+			else if( KEEPER_INSERT_BATCH.equals( sOperation ) )
+			{
+				if( anRowIDs != null )
+					for( long nRowID : anRowIDs ) l.onRowInserted(nRowID) ;
+			}
+			else if( KEEPER_UPDATE_BATCH.equals( sOperation ) )
+				l.onRowsUpdated(nCount) ;
+			else if( KEEPER_DELETE_BATCH.equals( sOperation ) )
+				l.onRowsDeleted(nCount) ;
+		}
+	}
+
+	/**
+	 * Handles a signal from the keeper that a batch of writes failed, and was
+	 * rolled back.
+	 * @param sig the received signal
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected synchronized void onBatchFailed( Intent sig )
+	{
+		final String sOperation = sig.getStringExtra(
+				m_api.getFormattedExtraTag( EXTRA_BATCH_OPERATION ) ) ;
+		final String sBatchID = sig.getStringExtra(
+				m_api.getFormattedExtraTag( EXTRA_BATCH_ID ) ) ;
+		String sClass = m_api.getExtraSchemaClassName(sig) ;
+		Log.e( LOG_TAG, (new StringBuilder())
+				.append( "Keeper failed to apply batch [" )
+				.append(( sBatchID == null ? "(unknown)" : sBatchID ))
+				.append( "] of [" )
+				.append( sOperation )
+				.append( "] on class [" )
+				.append(( sClass == null ? "(unknown)" : sClass ))
+				.append( "]." )
+				.toString()
+			);
+
+		for( Listener l : m_vListeners )
+		{
+			if( l instanceof BatchListener )
+				((BatchListener)(l)).onBatchFailed( sOperation, sBatchID ) ;
+			else if( KEEPER_INSERT_BATCH.equals( sOperation ) )
+				l.onInsertFailed() ;
+			else if( KEEPER_UPDATE_BATCH.equals( sOperation ) )
+				l.onUpdateFailed() ;
+			else if( KEEPER_DELETE_BATCH.equals( sOperation ) )
+				l.onDeleteFailed() ;
+		}
+	}
+
+	/**
+	 * Discards the chunks of incomplete selections, after the keeper reports
+	 * that a selection failed without identifying it.
+	 * @param sClass the name of the schematic class whose selections should
+	 *  be discarded, or {@code null} to discard all of them
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected synchronized void abandonPendingSelections( String sClass )
+	{
+		Iterator<PendingSelection> itSelections =
+				m_mapPendingSelections.values().iterator() ;
+		while( itSelections.hasNext() )
+		{
+			PendingSelection sel = itSelections.next() ;
+			if( sClass == null || sClass.equals( sel.cls.getCanonicalName() ) )
+				itSelections.remove() ;
+		}
+	}
+
 /// Broadcasts to SQLiteHouseKeeper ////////////////////////////////////////////
 
 	/**
@@ -573,6 +1167,101 @@ extends BroadcastReceiver
 		return sig ;
 	}
 
+	/**
+	 * Requests insertion of a batch of schematic class instances into the
+	 * keeper's database. The keeper inserts all of them in one transaction,
+	 * and answers with a single summary.
+	 *
+	 * <p>All of the objects are sent in one {@link Intent}, so the batch
+	 * must fit within the binder's transaction limit; callers with very
+	 * large collections should send them as several batches.</p>
+	 *
+	 * @param cls the schematic class of the objects
+	 * @param aoRows the objects to be inserted
+	 * @param <SC> the schematic class
+	 * @return an ID for the batch, which will be passed back to
+	 *  {@link BatchListener#onBatchApplied} or
+	 *  {@link BatchListener#onBatchFailed}
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <SC extends SQLightable> String insertBatch( Class<SC> cls,
+			Collection<SC> aoRows )
+	{ return this.sendBatch( KEEPER_INSERT_BATCH, cls, aoRows ) ; }
+
+	/**
+	 * Requests an update of a batch of rows in the keeper's database,
+	 * corresponding to the schematic class instances supplied. The keeper
+	 * updates all of them in one transaction.
+	 * @param cls the schematic class of the objects
+	 * @param aoRows the objects to be used as update input
+	 * @param <SC> the schematic class
+	 * @return an ID for the batch
+	 * @see #insertBatch
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <SC extends SQLightable> String updateBatch( Class<SC> cls,
+			Collection<SC> aoRows )
+	{ return this.sendBatch( KEEPER_UPDATE_BATCH, cls, aoRows ) ; }
+
+	/**
+	 * Requests deletion of a batch of rows in the keeper's database,
+	 * corresponding to the schematic class instances supplied. The keeper
+	 * deletes all of them in one transaction.
+	 * @param cls the schematic class of the objects
+	 * @param aoRows the objects to be deleted
+	 * @param <SC> the schematic class
+	 * @return an ID for the batch
+	 * @see #insertBatch
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <SC extends SQLightable> String deleteBatch( Class<SC> cls,
+			Collection<SC> aoRows )
+	{ return this.sendBatch( KEEPER_DELETE_BATCH, cls, aoRows ) ; }
+
+	/**
+	 * Sends a batch signal to the keeper.
+	 * @return the ID of the batch
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected <SC extends SQLightable> String sendBatch( String sOperation,
+			Class<SC> cls, Collection<SC> aoRows )
+	{
+		final String sBatchID = UUID.randomUUID().toString() ;
+		m_ctx.sendBroadcast(
+				this.buildBatchSignal( sOperation, cls, aoRows, sBatchID ) ) ;
+		return sBatchID ;
+	}
+
+	/**
+	 * Constructs the {@link Intent} to be sent by {@link #insertBatch},
+	 * {@link #updateBatch}, or {@link #deleteBatch}.
+	 * This is a separate method only so that it can be unit-tested.
+	 * @param sOperation the keeper action token of the batch
+	 * @param cls the schematic class of the objects
+	 * @param aoRows the objects in the batch
+	 * @param sBatchID the ID of the batch
+	 * @param <SC> the schematic class
+	 * @return the intent to be sent to the keeper
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected <SC extends SQLightable> Intent buildBatchSignal(
+			String sOperation, Class<SC> cls, Collection<SC> aoRows,
+			String sBatchID )
+	{
+		Intent sig = new Intent( m_api.getFormattedKeeperAction( sOperation ) ) ;
+		SQLightable.Reflection<SC> tbl = m_api.reflect(cls) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_SCHEMA_CLASS_NAME ),
+				tbl.getTableClass().getCanonicalName() ) ;
+		Bundle[] abndlRows = new Bundle[aoRows.size()] ;
+		int i = 0 ;
+		for( SC o : aoRows )
+			abndlRows[i++] = tbl.toBundle(o) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_SCHEMA_CLASS_DATA ),
+				abndlRows ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_BATCH_ID ), sBatchID ) ;
+		return sig ;
+	}
+
 	/**
 	 * Requests the selection of a set of rows from the keeper's database.
 	 * @param cls the schematic class that would contain the rows
@@ -602,6 +1291,9 @@ extends BroadcastReceiver
 				tbl.getTableClass().getCanonicalName() ) ;
 		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_SELECTION_QUERY_SPEC ),
 				q.toBundle() ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_ACCEPT_ENCODINGS ),
+				m_api.getResultEncodings() ) ;
+		sig.putExtra( m_api.getFormattedExtraTag( EXTRA_ACCEPT_STREAM ), true ) ;
 		return sig ;
 	}
 
@@ -3,6 +3,7 @@ package net.zer0bandwidth.android.lib.database.sqlitehouse.content;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.os.Bundle;
+import android.os.Parcelable;
 
 import net.zer0bandwidth.android.lib.content.IntentUtils;
 import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLightable;
@@ -11,6 +12,9 @@ import net.zer0bandwidth.android.lib.database.sqlitehouse.exceptions.Introspecti
 import net.zer0bandwidth.android.lib.database.sqlitehouse.exceptions.SchematicException;
 import net.zer0bandwidth.android.lib.util.CollectionsZ;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Defines the contract of signals between implementations of
  * {@link SQLiteHouseKeeper} and {@link SQLiteHouseRelay}.
@@ -37,6 +41,99 @@ public abstract class SQLiteHouseSignalAPI
 	 * selection parameters.
 	 */
 	public static final String EXTRA_SELECTION_QUERY_SPEC = "SELECTION_SPEC" ;
+	/**
+	 * Name suffix for the extra that identifies the selection to which a chunk
+	 * of results belongs.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String EXTRA_SELECTION_ID = "SELECTION_ID" ;
+	/**
+	 * Name suffix for the extra that contains the sequence number of a chunk
+	 * of selection results, starting from zero.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String EXTRA_CHUNK_SEQUENCE = "CHUNK_SEQUENCE" ;
+	/**
+	 * Name suffix for the extra that contains the position, in the whole
+	 * result set, of the first row in a chunk of selection results.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String EXTRA_CHUNK_OFFSET = "CHUNK_OFFSET" ;
+	/**
+	 * Name suffix for the extra that marks the last chunk of a selection's
+	 * results.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String EXTRA_CHUNK_FINAL = "CHUNK_FINAL" ;
+	/**
+	 * Name suffix for the extra, in a selection request, which lists the
+	 * encodings of selection results that the relay can decode.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String EXTRA_ACCEPT_ENCODINGS = "ACCEPT_ENCODINGS" ;
+	/**
+	 * Name suffix for the extra which names the encoding of the rows in a
+	 * chunk of selection results. If absent, {@link #ENCODING_BUNDLE} is
+	 * assumed.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String EXTRA_RESULT_ENCODING = "RESULT_ENCODING" ;
+	/**
+	 * Name suffix for the extra, in a selection request, which indicates that
+	 * the relay can read results from a {@link SelectionStreamProvider}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String EXTRA_ACCEPT_STREAM = "ACCEPT_STREAM" ;
+	/**
+	 * Name suffix for the extra which contains the URI from which the relay
+	 * should read the rows of a selection, instead of from the signal itself.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String EXTRA_RESULT_STREAM = "RESULT_STREAM" ;
+	/**
+	 * Name suffix for the extra which identifies a batch of writes, so that
+	 * the relay can match the keeper's summary to its request.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String EXTRA_BATCH_ID = "BATCH_ID" ;
+	/**
+	 * Name suffix for the extra, in a batch summary, which contains the keeper
+	 * action token of the batch, such as {@link #KEEPER_INSERT_BATCH}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String EXTRA_BATCH_OPERATION = "BATCH_OPERATION" ;
+	/**
+	 * Name suffix for the extra, in a batch summary, which contains the number
+	 * of objects in the batch.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String EXTRA_BATCH_SIZE = "BATCH_SIZE" ;
+	/**
+	 * Name suffix for the extra, in the summary of a batch of insertions,
+	 * which contains the row IDs of the inserted objects, in batch order.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String EXTRA_INSERT_ROW_IDS = "ROW_IDS" ;
+
+	/**
+	 * Selection results are sent as an array of bundles, one per row.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String ENCODING_BUNDLE = "bundle" ;
+	/**
+	 * Selection results are sent as a byte array written by
+	 * {@link PackedRowCodec.Packer}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String ENCODING_PACKED = "packed" ;
+
+	/**
+	 * The encodings of selection results supported by the library, in order
+	 * of preference.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String[] RESULT_ENCODINGS =
+	{ ENCODING_PACKED, ENCODING_BUNDLE } ;
 
 	/** The default format string for constructing intent extra tags. */
 	public static final String DEFAULT_EXTRA_TAG_FORMAT = "%s.extra.%s" ;
@@ -49,10 +146,28 @@ public abstract class SQLiteHouseSignalAPI
 	public static final String KEEPER_UPDATE = "UPDATE" ;
 	/** Action suffix for deleting objects. */
 	public static final String KEEPER_DELETE = "DELETE" ;
+	/**
+	 * Action suffix for inserting a batch of objects in one transaction.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String KEEPER_INSERT_BATCH = "INSERT_BATCH" ;
+	/**
+	 * Action suffix for updating a batch of objects in one transaction.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String KEEPER_UPDATE_BATCH = "UPDATE_BATCH" ;
+	/**
+	 * Action suffix for deleting a batch of objects in one transaction.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String KEEPER_DELETE_BATCH = "DELETE_BATCH" ;
 
 	/** The set of actions which are supported by the keeper implementation. */
 	public static final String[] KEEPER_ACTIONS =
-	{ KEEPER_INSERT, KEEPER_SELECT, KEEPER_UPDATE, KEEPER_DELETE } ;
+	{
+		KEEPER_INSERT, KEEPER_SELECT, KEEPER_UPDATE, KEEPER_DELETE,
+		KEEPER_INSERT_BATCH, KEEPER_UPDATE_BATCH, KEEPER_DELETE_BATCH
+	};
 
 	/** The default format string for constructing keeper actions. */
 	public static final String DEFAULT_KEEPER_ACTION_FORMAT =
@@ -78,6 +193,18 @@ public abstract class SQLiteHouseSignalAPI
 	/** Action suffix for notifying a relay that a deletion failed. */
 	public static final String RELAY_NOTIFY_DELETE_FAILED =
 			"NOTIFY_DELETE_FAILED" ;
+	/**
+	 * Action suffix for notifying a relay that a batch of writes was applied.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String RELAY_NOTIFY_BATCH = "NOTIFY_BATCH" ;
+	/**
+	 * Action suffix for notifying a relay that a batch of writes failed, and
+	 * was rolled back.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static final String RELAY_NOTIFY_BATCH_FAILED =
+			"NOTIFY_BATCH_FAILED" ;
 
 	/** The set of actions which are supported by the relay implementation. */
 	public static final String[] RELAY_ACTIONS =
@@ -85,7 +212,8 @@ public abstract class SQLiteHouseSignalAPI
 		RELAY_NOTIFY_INSERT, RELAY_NOTIFY_INSERT_FAILED,
 		RELAY_RECEIVE_SELECTION, RELAY_NOTIFY_SELECT_FAILED,
 		RELAY_NOTIFY_UPDATE, RELAY_NOTIFY_UPDATE_FAILED,
-		RELAY_NOTIFY_DELETE, RELAY_NOTIFY_DELETE_FAILED
+		RELAY_NOTIFY_DELETE, RELAY_NOTIFY_DELETE_FAILED,
+		RELAY_NOTIFY_BATCH, RELAY_NOTIFY_BATCH_FAILED
 	};
 
 	/** The default format string for constructing relay actions. */
@@ -129,6 +257,14 @@ public abstract class SQLiteHouseSignalAPI
 	 */
 	protected String m_sExtraTagFormat = DEFAULT_EXTRA_TAG_FORMAT ;
 
+	/**
+	 * The encodings of selection results that this side of the API will
+	 * accept or send, in order of preference. Defaults to
+	 * {@link #RESULT_ENCODINGS}.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	protected String[] m_asResultEncodings = RESULT_ENCODINGS ;
+
 	/**
 	 * Reveals the "domain" under which the keeper and relay will operate.
 	 * This string forms the root segments of the {@code Intent} action tokens.
@@ -349,6 +485,54 @@ public abstract class SQLiteHouseSignalAPI
 				this.getIntentDomain(), sToken ) ;
 	}
 
+	/**
+	 * Accesses the encodings of selection results that this side of the API
+	 * will accept or send, in order of preference.
+	 * @return the supported result encodings
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public final String[] getResultEncodings()
+	{ return m_asResultEncodings ; }
+
+	/**
+	 * Restricts or reorders the encodings of selection results that this side
+	 * of the API will accept or send. {@link #ENCODING_BUNDLE} is always
+	 * supported, as the fallback, even if it is not in the list.
+	 * @param asEncodings the encodings, in order of preference, or
+	 *  {@code null} to restore the default
+	 * @return (fluid)
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public final SQLiteHouseSignalAPI setResultEncodings( String[] asEncodings )
+	{
+		m_asResultEncodings =
+				( asEncodings == null ? RESULT_ENCODINGS : asEncodings ) ;
+		return this ;
+	}
+
+	/**
+	 * Chooses the encoding in which a keeper will send selection results, in
+	 * response to a selection request from a relay. The first of this side's
+	 * encodings that is also accepted by the relay is chosen. A request which
+	 * does not list any encodings came from a relay which predates the
+	 * negotiation, and can decode only {@link #ENCODING_BUNDLE}.
+	 * @param sig the selection request
+	 * @return the encoding to be used for the selection results
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public String negotiateResultEncoding( Intent sig )
+	{
+		String[] asAccepted = sig.getStringArrayExtra(
+				this.getFormattedExtraTag( EXTRA_ACCEPT_ENCODINGS ) ) ;
+		if( asAccepted == null ) return ENCODING_BUNDLE ;
+		for( String sEncoding : m_asResultEncodings )
+		{
+			for( String sAccepted : asAccepted )
+				if( sEncoding.equals( sAccepted ) ) return sEncoding ;
+		}
+		return ENCODING_BUNDLE ;
+	}
+
 	/**
 	 * Shorthand to retrieve the schematic class name, which is used by almost
 	 * every keeper and relay function.
@@ -427,6 +611,38 @@ public abstract class SQLiteHouseSignalAPI
 		return tbl.fromBundle(bndl) ;
 	}
 
+	/**
+	 * Discovers and extracts a batch of schematic class instances from an
+	 * extra provided in an intent from a relay to a keeper.
+	 * @param sig the intent
+	 * @param cls the schematic class
+	 * @param <SC> the schematic class
+	 * @return the instances of the schematic class, in batch order
+	 * @throws SQLiteContentException if the intent is malformed, in that the
+	 *  data extra cannot be found
+	 * @throws IntrospectionException if an instance of the schematic class
+	 *  can't be constructed
+	 * @throws SchematicException if a problem occurs while processing the
+	 *  schematic class
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public <SC extends SQLightable> List<SC> getBatchFromBundles(
+			Intent sig, Class<SC> cls )
+	throws SQLiteContentException, IntrospectionException, SchematicException
+	{
+		if( cls == null )
+			throw SQLiteContentException.noClassSpecified(null) ;
+		String sExtra = this.getFormattedExtraTag( EXTRA_SCHEMA_CLASS_DATA ) ;
+		Parcelable[] apcl = sig.getParcelableArrayExtra( sExtra ) ;
+		if( apcl == null )
+			throw SQLiteContentException.expectedExtraNotFound( sExtra, null ) ;
+		SQLightable.Reflection<SC> tbl = this.reflect(cls) ;
+		ArrayList<SC> aoBatch = new ArrayList<>( apcl.length ) ;
+		for( Parcelable pcl : apcl )
+			aoBatch.add( tbl.fromBundle( ((Bundle)(pcl)) ) ) ;
+		return aoBatch ;
+	}
+
 	/**
 	 * Uses a cached {@link SQLightable.Reflection} if available; otherwise,
 	 * caches a new one, then returns it.
@@ -0,0 +1,434 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.content;
+
+import android.content.ContentProvider;
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams large selection results from a {@link SQLiteHouseKeeper} to a
+ * {@link SQLiteHouseRelay} through a pipe, rather than through broadcasts.
+ *
+ * <p>Android does not allow a broadcast {@code Intent} to carry a file
+ * descriptor, so the keeper can't send the pipe itself. Instead, the keeper
+ * stages its cursor here, under the selection's ID, and broadcasts only the
+ * stream's content URI. When the relay opens that URI, this provider creates
+ * a pipe with {@link ParcelFileDescriptor#createPipe()}, returns its read end
+ * to the relay, and writes the rows into the other end from a worker thread.
+ * The pipe's buffer limits how far the writer can run ahead of the reader, so
+ * neither side holds the whole result set at once, and its size is not
+ * limited by the binder buffer.</p>
+ *
+ * <p>The stream is a sequence of frames, each of which is a four-byte length
+ * followed by a block of rows written by {@link PackedRowCodec.Packer}. A
+ * frame of length zero ends the stream. No frame may be longer than
+ * {@link #MAX_FRAME_BYTES}.</p>
+ *
+ * <p>The provider must run in the same process as the keeper, and must be
+ * exported if the relay is in another app. A staged selection can be opened
+ * only once; if it is not opened before it expires, then its cursor is
+ * closed and discarded, even if nothing else is ever staged or opened.</p>
+ *
+ * <pre>
+ * &lt;provider
+ *     android:name="net.zer0bandwidth.android.lib.database.sqlitehouse.content.SelectionStreamProvider"
+ *     android:authorities="com.example.myapp.selections"
+ *     android:exported="true" /&gt;
+ * </pre>
+ *
+ * @see SQLiteHouseKeeper#streamResultsThrough(String, int)
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+@SuppressWarnings( "unused" ) // This is a library.
+public class SelectionStreamProvider
+extends ContentProvider
+{
+/// Static constants ///////////////////////////////////////////////////////////
+
+	public static final String LOG_TAG =
+			SelectionStreamProvider.class.getSimpleName() ;
+
+	/** The path segment under which staged selections are exposed. */
+	public static final String PATH_SELECTIONS = "selections" ;
+
+	/** The MIME type of a selection stream. */
+	public static final String STREAM_TYPE =
+			"application/vnd.zer0bandwidth.packed-rows" ;
+
+	/**
+	 * The default time, in milliseconds, for which a staged selection waits
+	 * to be opened.
+	 */
+	public static final long DEFAULT_STAGE_TIMEOUT = 60 * 1000L ;
+
+	/**
+	 * The maximum number of selections that may be staged at once. If
+	 * another is staged, then the oldest is discarded.
+	 */
+	public static final int MAX_STAGED_SELECTIONS = 8 ;
+
+	/**
+	 * The maximum length, in bytes, of a single frame. A reader treats any
+	 * longer frame as a corrupt stream, rather than trying to allocate it.
+	 */
+	public static final int MAX_FRAME_BYTES = 16 * 1024 * 1024 ;
+
+/// Inner classes //////////////////////////////////////////////////////////////
+
+	/**
+	 * A cursor that is waiting to be streamed, along with the parameters for
+	 * packing its rows.
+	 */
+	protected static class StagedSelection
+	{
+		public final Cursor crs ;
+		public final String[] asColumns ;
+		public final int nFrameRows ;
+		public final int nFrameBytes ;
+		public final long tsExpires ;
+
+		public StagedSelection( Cursor crs, String[] asColumns,
+				int nFrameRows, int nFrameBytes, long tsExpires )
+		{
+			this.crs = crs ;
+			this.asColumns = asColumns ;
+			this.nFrameRows = nFrameRows ;
+			this.nFrameBytes = nFrameBytes ;
+			this.tsExpires = tsExpires ;
+		}
+	}
+
+/// Static fields //////////////////////////////////////////////////////////////
+
+	/** Selections waiting to be streamed, indexed by selection ID. */
+	protected static final LinkedHashMap<String,StagedSelection> s_mapStaged =
+			new LinkedHashMap<>() ;
+
+	/**
+	 * Discards staged selections when they expire. Its single thread is a
+	 * daemon, so that it never keeps the process alive.
+	 */
+	protected static final ScheduledExecutorService s_execExpiry =
+		Executors.newSingleThreadScheduledExecutor( new ThreadFactory()
+			{
+				@Override
+				public Thread newThread( Runnable r )
+				{
+					Thread th = new Thread( r, LOG_TAG + "-expiry" ) ;
+					th.setDaemon( true ) ;
+					return th ;
+				}
+			});
+
+	/** Task which discards any expired selections. */
+	protected static final Runnable s_runDiscardExpired = new Runnable()
+		{
+			@Override
+			public void run()
+			{ discardExpired() ; }
+		};
+
+/// Static methods /////////////////////////////////////////////////////////////
+
+	/**
+	 * Constructs the URI from which a staged selection can be read.
+	 * @param sAuthority the authority of the provider
+	 * @param sSelectionID the ID of the selection
+	 * @return the selection's stream URI
+	 */
+	public static Uri getStreamUri( String sAuthority, String sSelectionID )
+	{
+		return (new Uri.Builder())
+				.scheme( ContentResolver.SCHEME_CONTENT )
+				.authority( sAuthority )
+				.appendPath( PATH_SELECTIONS )
+				.appendPath( sSelectionID )
+				.build()
+				;
+	}
+
+	/**
+	 * Stages a cursor to be streamed. The provider takes ownership of the
+	 * cursor, and will close it after it is streamed or discarded.
+	 * @param sSelectionID the ID of the selection
+	 * @param crs the cursor containing the selection's results
+	 * @param asColumns the columns to be streamed
+	 * @param nFrameRows the maximum number of rows in each frame
+	 * @param nFrameBytes the size, in bytes, after which a frame is closed
+	 * @param nTimeout the time, in milliseconds, after which the selection is
+	 *  discarded if it has not been opened; a task is scheduled to discard it
+	 *  then, so that its cursor is not held open indefinitely
+	 */
+	public static void stage( String sSelectionID, Cursor crs,
+			String[] asColumns, int nFrameRows, int nFrameBytes, long nTimeout )
+	{
+		StagedSelection sel = new StagedSelection( crs, asColumns,
+				Math.max( 1, nFrameRows ), Math.max( 1, nFrameBytes ),
+				SystemClock.elapsedRealtime() + nTimeout ) ;
+		synchronized( s_mapStaged )
+		{
+			discardExpired() ;
+			discard( s_mapStaged.put( sSelectionID, sel ) ) ;
+			Iterator<StagedSelection> itStaged = s_mapStaged.values().iterator() ;
+			while( s_mapStaged.size() > MAX_STAGED_SELECTIONS )
+			{
+				Log.w( LOG_TAG, "Discarding the oldest unopened selection." ) ;
+				discard( itStaged.next() ) ;
+				itStaged.remove() ;
+			}
+		}
+		s_execExpiry.schedule( s_runDiscardExpired,
+				Math.max( 0L, nTimeout ), TimeUnit.MILLISECONDS ) ;
+	}
+
+	/**
+	 * Removes a staged selection, so that it can be streamed.
+	 * @param sSelectionID the ID of the selection
+	 * @return the staged selection, or {@code null} if there is no unexpired
+	 *  selection with that ID, or if its cursor was closed
+	 */
+	protected static StagedSelection claim( String sSelectionID )
+	{
+		synchronized( s_mapStaged )
+		{
+			discardExpired() ;
+			StagedSelection sel = s_mapStaged.remove( sSelectionID ) ;
+			return ( sel == null || sel.crs.isClosed() ? null : sel ) ;
+		}
+	}
+
+	/** Discards any staged selections which have expired. */
+	protected static void discardExpired()
+	{
+		final long tsNow = SystemClock.elapsedRealtime() ;
+		synchronized( s_mapStaged )
+		{
+			Iterator<StagedSelection> itStaged = s_mapStaged.values().iterator() ;
+			while( itStaged.hasNext() )
+			{
+				StagedSelection sel = itStaged.next() ;
+				if( sel.tsExpires <= tsNow )
+				{
+					discard( sel ) ;
+					itStaged.remove() ;
+				}
+			}
+		}
+	}
+
+	protected static void discard( StagedSelection sel )
+	{
+		if( sel != null && ! sel.crs.isClosed() )
+			sel.crs.close() ;
+	}
+
+	/**
+	 * Writes the frames of a staged selection, then closes its cursor.
+	 * @param sel the selection to be written
+	 * @param out the stream to which frames are written; this is not closed
+	 * @return the number of rows written
+	 * @throws IOException if the stream can't be written, usually because the
+	 *  reader has closed it
+	 */
+	protected static int writeFrames( StagedSelection sel, OutputStream out )
+	throws IOException
+	{
+		final DataOutputStream dout = new DataOutputStream( out ) ;
+		int nRows = 0 ;
+		try
+		{
+			PackedRowCodec.Packer packer =
+					new PackedRowCodec.Packer( sel.crs, sel.asColumns ) ;
+			if( sel.crs.moveToFirst() )
+			{
+				do
+				{
+					if( packer.getRowCount() >= sel.nFrameRows
+					 || packer.size() >= sel.nFrameBytes )
+					{
+						writeFrame( dout, packer.toByteArray() ) ;
+						packer = new PackedRowCodec.Packer( sel.crs, sel.asColumns ) ;
+					}
+					packer.pack( sel.crs ) ;
+					++nRows ;
+				} while( sel.crs.moveToNext() ) ;
+			}
+			writeFrame( dout, packer.toByteArray() ) ;
+			dout.writeInt(0) ;
+			dout.flush() ;
+		}
+		finally
+		{ sel.crs.close() ; }
+		return nRows ;
+	}
+
+	/**
+	 * Writes a single frame.
+	 * @param out the stream
+	 * @param abBlock the block of packed rows
+	 * @throws IOException if the stream can't be written, or if the block is
+	 *  longer than {@link #MAX_FRAME_BYTES}
+	 */
+	protected static void writeFrame( DataOutputStream out, byte[] abBlock )
+	throws IOException
+	{
+		if( abBlock.length > MAX_FRAME_BYTES )
+		{
+			throw new IOException( (new StringBuilder())
+					.append( "Frame of " ).append( abBlock.length )
+					.append( " bytes exceeds the limit of " )
+					.append( MAX_FRAME_BYTES ).append( " bytes." )
+					.toString()
+				);
+		}
+		out.writeInt( abBlock.length ) ;
+		out.write( abBlock ) ;
+	}
+
+	/**
+	 * Reads the next frame of a selection stream.
+	 * @param in the stream
+	 * @return the block of packed rows in the frame, or {@code null} if the
+	 *  stream has ended
+	 * @throws IOException if the stream can't be read, ends without the
+	 *  terminating frame, or declares a frame length that is negative or
+	 *  greater than {@link #MAX_FRAME_BYTES}
+	 */
+	public static byte[] readFrame( DataInputStream in )
+	throws IOException
+	{
+		final int nLength = in.readInt() ;
+		if( nLength == 0 ) return null ;
+		if( nLength < 0 )
+			throw new IOException( "Negative frame length in selection stream." ) ;
+		if( nLength > MAX_FRAME_BYTES )
+		{
+			throw new IOException( (new StringBuilder())
+					.append( "Frame length " ).append( nLength )
+					.append( " in selection stream exceeds the limit of " )
+					.append( MAX_FRAME_BYTES ).append( " bytes." )
+					.toString()
+				);
+		}
+		final byte[] abBlock = new byte[nLength] ;
+		in.readFully( abBlock ) ;
+		return abBlock ;
+	}
+
+/// Member fields //////////////////////////////////////////////////////////////
+
+	/** Runs the writers of the streams that have been opened. */
+	protected final ExecutorService m_exec = Executors.newCachedThreadPool() ;
+
+/// android.content.ContentProvider ////////////////////////////////////////////
+
+	@Override
+	public boolean onCreate()
+	{ return true ; }
+
+	/**
+	 * Opens the stream of a staged selection. The selection is removed from
+	 * the stage, so it can be opened only once.
+	 * @param uri a URI from {@link #getStreamUri}
+	 * @param sMode must be {@code "r"}
+	 * @return the read end of a pipe, into which the rows will be written
+	 * @throws FileNotFoundException if no such selection is staged, or if the
+	 *  pipe can't be created
+	 */
+	@Override
+	public ParcelFileDescriptor openFile( Uri uri, String sMode )
+	throws FileNotFoundException
+	{
+		if( ! "r".equals( sMode ) )
+		{
+			throw new FileNotFoundException( (new StringBuilder())
+					.append( "Selection streams can't be opened in mode [" )
+					.append( sMode ).append( "]." )
+					.toString()
+				);
+		}
+		final StagedSelection sel = claim( uri.getLastPathSegment() ) ;
+		if( sel == null )
+		{
+			throw new FileNotFoundException( (new StringBuilder())
+					.append( "No selection is staged at [" )
+					.append( uri ).append( "]." )
+					.toString()
+				);
+		}
+		final ParcelFileDescriptor[] apfd ;
+		try { apfd = ParcelFileDescriptor.createPipe() ; }
+		catch( IOException x )
+		{
+			discard( sel ) ;
+			FileNotFoundException xNotFound = new FileNotFoundException(
+					"Could not create a pipe for the selection stream." ) ;
+			xNotFound.initCause(x) ;
+			throw xNotFound ;
+		}
+		m_exec.execute( new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					OutputStream out =
+						new ParcelFileDescriptor.AutoCloseOutputStream( apfd[1] ) ;
+					try { writeFrames( sel, out ) ; }
+					catch( IOException x )
+					{ Log.w( LOG_TAG, "Selection stream was abandoned.", x ) ; }
+					catch( RuntimeException x )
+					{ Log.e( LOG_TAG, "Could not write selection stream.", x ) ; }
+					finally
+					{
+						try { out.close() ; }
+						catch( IOException x )
+						{ Log.d( LOG_TAG, "Could not close selection stream.", x ) ; }
+					}
+				}
+			});
+		return apfd[0] ;
+	}
+
+	@Override
+	public String getType( Uri uri )
+	{ return STREAM_TYPE ; }
+
+	/** Not supported; selection streams can only be opened. */
+	@Override
+	public Cursor query( Uri uri, String[] asColumns, String sWhere,
+			String[] asWhereArgs, String sOrderBy )
+	{ throw new UnsupportedOperationException() ; }
+
+	/** Not supported; selection streams can only be opened. */
+	@Override
+	public Uri insert( Uri uri, ContentValues vals )
+	{ throw new UnsupportedOperationException() ; }
+
+	/** Not supported; selection streams can only be opened. */
+	@Override
+	public int update( Uri uri, ContentValues vals, String sWhere,
+			String[] asWhereArgs )
+	{ throw new UnsupportedOperationException() ; }
+
+	/** Not supported; selection streams can only be opened. */
+	@Override
+	public int delete( Uri uri, String sWhere, String[] asWhereArgs )
+	{ throw new UnsupportedOperationException() ; }
+}
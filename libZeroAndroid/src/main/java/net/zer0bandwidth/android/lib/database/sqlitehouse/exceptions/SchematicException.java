@@ -160,6 +160,46 @@ extends RuntimeException
 		return new SchematicException( sb.toString() ) ;
 	}
 
+	/**
+	 * Returns an exception to be thrown when a method tries to load rows of two
+	 * schematic classes together, but neither class declares a reference to
+	 * the other, or the referenced column can't be found.
+	 * @param clsFirst one of the schematic classes
+	 * @param clsSecond the other schematic class
+	 * @return a new exception with an informative error message
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static SchematicException noRelationship(
+			Class<? extends SQLightable> clsFirst,
+			Class<? extends SQLightable> clsSecond )
+	{
+		return new SchematicException( (new StringBuilder())
+				.append( "No usable foreign key relates class [" )
+				.append( clsFirst.getSimpleName() )
+				.append( "] to class [" )
+				.append( clsSecond.getSimpleName() )
+				.append( "]." )
+				.toString()
+			);
+	}
+
+	/**
+	 * Returns an exception to be thrown when a method tries to search the
+	 * full-text index of a schematic class that has no full-text columns.
+	 * @param cls the schematic class
+	 * @return a new exception with an informative error message
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static SchematicException noFullTextIndex(
+			Class<? extends SQLightable> cls )
+	{
+		return new SchematicException( (new StringBuilder())
+				.append( "Class [" ).append( cls.getSimpleName() )
+				.append( "] has no columns annotated as full-text." )
+				.toString()
+			);
+	}
+
 	public static final String DEFAULT_MESSAGE =
 			"Defined database schema does not support this operation." ;
 
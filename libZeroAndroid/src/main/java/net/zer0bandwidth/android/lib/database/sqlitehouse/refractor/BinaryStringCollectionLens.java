@@ -0,0 +1,309 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.refractor;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.os.Bundle;
+
+import net.zer0bandwidth.android.lib.database.SQLiteSyntax;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.COLUMN_NOT_FOUND;
+
+/**
+ * Marshals a collection of strings to/from a single {@code BLOB} column, using
+ * a compact, length-prefixed binary encoding rather than a delimited string.
+ * Unlike {@link StringCollectionLens}, decoding requires no regular
+ * expressions, the decoded collection is created with exactly the capacity it
+ * needs, and the items may contain any character (including what would have
+ * been the delimiter).
+ *
+ * <h3>Encoding</h3>
+ *
+ * <p>The value begins with the number of items, followed by each item in
+ * iteration order. Each item is written as its UTF-8 length plus one,
+ * followed by its UTF-8 bytes; a {@code null} item is written as a length of
+ * zero with no bytes. All lengths and counts are unsigned base-128 varints, so
+ * short items carry only one byte of overhead.</p>
+ *
+ * <h3>Migration</h3>
+ *
+ * <p>An implementation class may declare a
+ * {@link #getLegacyDelimiter() legacy delimiter}. If it does, then values that
+ * are still stored as delimited text (for example, by a
+ * {@link CommaDelimStringsListLens}) are still readable, and are rewritten in
+ * the binary format when the database schema is next upgraded. To migrate a
+ * column, change its {@code refractor} to such an implementation and
+ * increment the database's schema version.</p>
+ *
+ * @param <C> the type of collection
+ * @see BinaryStringsListLens
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+public abstract class BinaryStringCollectionLens<C extends Collection<String>>
+extends Lens<C>
+implements MigratingRefractor<C>
+{
+	/** The character set used to encode each item. */
+	protected static final Charset UTF8 = Charset.forName( "UTF-8" ) ;
+
+	/**
+	 * Implementation classes must provide a concrete override of this method to
+	 * generate instances of the collection class which contains the list items.
+	 * @param nCapacity the exact number of items that will be added
+	 * @return a collection capable of storing the list items
+	 */
+	protected abstract C getCollectionInstance( int nCapacity ) ;
+
+	/**
+	 * Implementation classes may override this method to declare the
+	 * delimiter of the text format from which values should be migrated.
+	 * @return the delimiter of the legacy format, or {@code null} (default) if
+	 *  there is no legacy format
+	 */
+	protected String getLegacyDelimiter()
+	{ return null ; }
+
+	/**
+	 * Encodes a collection of strings in the binary format.
+	 * @param asValues the collection
+	 * @return the encoded value, or {@code null} if the collection is null
+	 */
+	public byte[] encode( C asValues )
+	{
+		if( asValues == null ) return null ;
+
+		byte[][] aabItems = new byte[asValues.size()][] ;
+		int nSize = varintSize( aabItems.length ) ;
+		int i = 0 ;
+		for( String s : asValues )
+		{
+			byte[] ab = ( s == null ? null : s.getBytes(UTF8) ) ;
+			aabItems[i++] = ab ;
+			nSize += ( ab == null ? 1 :
+					varintSize( ab.length + 1 ) + ab.length ) ;
+		}
+
+		byte[] abEncoded = new byte[nSize] ;
+		int nPos = writeVarint( abEncoded, 0, aabItems.length ) ;
+		for( byte[] ab : aabItems )
+		{
+			if( ab == null )
+				nPos = writeVarint( abEncoded, nPos, 0 ) ;
+			else
+			{
+				nPos = writeVarint( abEncoded, nPos, ab.length + 1 ) ;
+				System.arraycopy( ab, 0, abEncoded, nPos, ab.length ) ;
+				nPos += ab.length ;
+			}
+		}
+		return abEncoded ;
+	}
+
+	/**
+	 * Decodes a collection of strings from the binary format.
+	 * @param abEncoded the encoded value
+	 * @return the collection, or {@code null} if the value is null
+	 * @throws IllegalArgumentException if the value is malformed
+	 */
+	public C decode( byte[] abEncoded )
+	{
+		if( abEncoded == null ) return null ;
+
+		int[] anPos = { 0 } ;
+		int nCount = readVarint( abEncoded, anPos ) ;
+		if( nCount > abEncoded.length ) throw malformed() ;
+		C asValues = this.getCollectionInstance( nCount ) ;
+		for( int i = 0 ; i < nCount ; i++ )
+		{
+			int nLength = readVarint( abEncoded, anPos ) - 1 ;
+			if( nLength < 0 )
+				asValues.add( null ) ;
+			else if( anPos[0] + nLength > abEncoded.length )
+				throw malformed() ;
+			else
+			{
+				asValues.add(
+						new String( abEncoded, anPos[0], nLength, UTF8 ) ) ;
+				anPos[0] += nLength ;
+			}
+		}
+		return asValues ;
+	}
+
+	/**
+	 * Splits a value stored in the legacy delimited-text format. The result
+	 * matches that of {@link StringCollectionLens}, except that the delimiter
+	 * is treated literally rather than as a regular expression.
+	 * @param sValues the delimited string
+	 * @return the collection, or {@code null} if the string is null
+	 */
+	public C fromLegacyString( String sValues )
+	{
+		if( sValues == null ) return null ;
+		String sDelim = this.getLegacyDelimiter() ;
+		if( sDelim == null || sDelim.isEmpty() )
+		{
+			C asValues = this.getCollectionInstance(1) ;
+			asValues.add( sValues ) ;
+			return asValues ;
+		}
+
+		ArrayList<String> asPieces = new ArrayList<>() ;
+		int nStart = 0 ;
+		int nFound ;
+		while( ( nFound = sValues.indexOf( sDelim, nStart ) ) != -1 )
+		{
+			asPieces.add( sValues.substring( nStart, nFound ) ) ;
+			nStart = nFound + sDelim.length() ;
+		}
+		asPieces.add( sValues.substring( nStart ) ) ;
+		if( ! sValues.isEmpty() )
+		{ // As with String.split(), discard trailing empty items.
+			int nLast = asPieces.size() - 1 ;
+			while( nLast >= 0 && asPieces.get(nLast).isEmpty() )
+				asPieces.remove( nLast-- ) ;
+		}
+
+		C asValues = this.getCollectionInstance( asPieces.size() ) ;
+		asValues.addAll( asPieces ) ;
+		return asValues ;
+	}
+
+	@Override
+	public String getSQLiteDataType()
+	{ return SQLiteSyntax.SQLITE_TYPE_BLOB ; }
+
+	@Override
+	public String toSQLiteString( C o )
+	{ return ByteArrayLens.toHexLiteral( this.encode(o) ) ; }
+
+	@Override
+	public BinaryStringCollectionLens<C> addToContentValues(
+			ContentValues vals, String sKey, C val )
+	{
+		vals.put( sKey, this.encode(val) ) ;
+		return this ;
+	}
+
+	/**
+	 * Adds the collection of strings to a {@link Bundle} as a string array,
+	 * exactly as {@link StringCollectionLens} would.
+	 */
+	@Override
+	public BinaryStringCollectionLens<C> addToBundle(
+			Bundle bndl, String sKey, C val )
+	{
+		bndl.putStringArray( sKey, ( val == null ? null :
+				val.toArray( new String[val.size()] ) ) ) ;
+		return this ;
+	}
+
+	/**
+	 * Reads the binary format, or, if the column still contains text, the
+	 * legacy delimited format.
+	 */
+	@Override
+	public C fromCursor( Cursor crs, String sKey )
+	{
+		int nIndex = crs.getColumnIndex( sKey ) ;
+		if( nIndex == COLUMN_NOT_FOUND || crs.isNull(nIndex) ) return null ;
+		if( crs.getType(nIndex) == Cursor.FIELD_TYPE_STRING )
+			return this.fromLegacyString( crs.getString(nIndex) ) ;
+		return this.decode( crs.getBlob(nIndex) ) ;
+	}
+
+	/**
+	 * Fetches a collection of strings from a {@link Bundle} as a string array,
+	 * exactly as {@link StringCollectionLens} would.
+	 */
+	@Override
+	public C fromBundle( Bundle bndl, String sKey )
+	{
+		String[] asBundled = bndl.getStringArray( sKey ) ;
+		if( asBundled == null || asBundled.length == 0 ) return null ;
+		C asValues = this.getCollectionInstance( asBundled.length ) ;
+		Collections.addAll( asValues, asBundled ) ;
+		return asValues ;
+	}
+
+	/** Selects rows that are still stored as text, if a legacy format exists. */
+	@Override
+	public String getMigrationFilter( String sColumn )
+	{
+		if( this.getLegacyDelimiter() == null ) return null ;
+		return String.format( "typeof(%s)='text'", sColumn ) ;
+	}
+
+	@Override
+	public BinaryStringCollectionLens<C> migrate(
+			Cursor crs, String sKey, ContentValues vals )
+	{
+		vals.put( sKey, this.encode( this.fromLegacyString(
+				crs.getString( crs.getColumnIndex( sKey ) ) ) ) ) ;
+		return this ;
+	}
+
+	/**
+	 * Calculates the number of bytes needed to encode a non-negative integer
+	 * as a varint.
+	 * @param n the integer
+	 * @return the number of bytes
+	 */
+	protected static int varintSize( int n )
+	{
+		int nBytes = 1 ;
+		while( ( n >>>= 7 ) != 0 ) ++nBytes ;
+		return nBytes ;
+	}
+
+	/**
+	 * Writes a non-negative integer as a varint.
+	 * @param ab the target array
+	 * @param nPos the position at which to write
+	 * @param n the integer
+	 * @return the position after the varint
+	 */
+	protected static int writeVarint( byte[] ab, int nPos, int n )
+	{
+		while( ( n & ~0x7F ) != 0 )
+		{
+			ab[nPos++] = (byte)( ( n & 0x7F ) | 0x80 ) ;
+			n >>>= 7 ;
+		}
+		ab[nPos++] = (byte)n ;
+		return nPos ;
+	}
+
+	/**
+	 * Reads a varint.
+	 * @param ab the source array
+	 * @param anPos a single-element array holding the read position, which is
+	 *  advanced past the varint
+	 * @return the integer
+	 * @throws IllegalArgumentException if the varint is truncated or too long
+	 */
+	protected static int readVarint( byte[] ab, int[] anPos )
+	{
+		int n = 0 ;
+		for( int nShift = 0 ; nShift < 32 ; nShift += 7 )
+		{
+			if( anPos[0] >= ab.length )
+				throw malformed() ;
+			byte b = ab[ anPos[0]++ ] ;
+			n |= ( b & 0x7F ) << nShift ;
+			if( ( b & 0x80 ) == 0 ) return n ;
+		}
+		throw malformed() ;
+	}
+
+	/**
+	 * Creates the exception thrown when an encoded value is malformed.
+	 * @return an exception
+	 */
+	protected static IllegalArgumentException malformed()
+	{ return new IllegalArgumentException( "Malformed string collection." ) ; }
+}
@@ -0,0 +1,47 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.refractor;
+
+import java.util.ArrayList;
+
+/**
+ * A canonical implementation of {@link BinaryStringCollectionLens} in which the
+ * collection type is an {@link ArrayList}.
+ *
+ * <p>The nested classes {@link FromCommaDelim} and {@link FromFormFeedDelim}
+ * additionally read, and migrate upon schema upgrade, columns that were
+ * previously marshalled by {@link CommaDelimStringsListLens} and
+ * {@link FormFeedDelimStringsListLens}, respectively.</p>
+ *
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+public class BinaryStringsListLens
+extends BinaryStringCollectionLens<ArrayList<String>>
+implements Refractor<ArrayList<String>>
+{
+	/**
+	 * Replaces {@link CommaDelimStringsListLens}, migrating its values.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static class FromCommaDelim
+	extends BinaryStringsListLens
+	{
+		@Override
+		protected String getLegacyDelimiter()
+		{ return "," ; }
+	}
+
+	/**
+	 * Replaces {@link FormFeedDelimStringsListLens}, migrating its values.
+	 * @since zer0bandwidth-net/android 1.1.0
+	 */
+	public static class FromFormFeedDelim
+	extends BinaryStringsListLens
+	{
+		@Override
+		protected String getLegacyDelimiter()
+		{ return "\f" ; }
+	}
+
+	@Override
+	protected ArrayList<String> getCollectionInstance( int nCapacity )
+	{ return new ArrayList<>( nCapacity ) ; }
+}
@@ -0,0 +1,88 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.refractor;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.os.Bundle;
+
+import net.zer0bandwidth.android.lib.database.SQLiteSyntax;
+
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.COLUMN_NOT_FOUND;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_NULL;
+
+/**
+ * Marshals byte arrays into SQLite {@code BLOB} columns, without any
+ * intermediate text encoding.
+ * @see ByteBufferLens
+ * @see ExternalFileLens
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+public class ByteArrayLens
+extends Lens<byte[]>
+implements Refractor<byte[]>
+{
+	/** Hexadecimal digits used by {@link #toHexLiteral(byte[])}. */
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray() ;
+
+	/**
+	 * Renders a byte array as an SQLite blob literal, e.g.
+	 * {@code X'0A1B2C'}.
+	 * @param ab the bytes to be rendered
+	 * @return an SQLite blob literal, or {@code NULL}
+	 */
+	public static String toHexLiteral( byte[] ab )
+	{
+		if( ab == null ) return SQLITE_NULL ;
+		char[] ac = new char[ ab.length * 2 + 3 ] ;
+		ac[0] = 'X' ;
+		ac[1] = '\'' ;
+		for( int i = 0 ; i < ab.length ; i++ )
+		{
+			ac[ 2 + i*2 ] = HEX_DIGITS[ ( ab[i] >> 4 ) & 0x0F ] ;
+			ac[ 3 + i*2 ] = HEX_DIGITS[ ab[i] & 0x0F ] ;
+		}
+		ac[ ac.length - 1 ] = '\'' ;
+		return new String(ac) ;
+	}
+
+	@Override
+	public String getSQLiteDataType()
+	{ return SQLiteSyntax.SQLITE_TYPE_BLOB ; }
+
+	/**
+	 * Defines the non-null default value as an empty array.
+	 * @return an empty byte array
+	 */
+	@Override
+	public byte[] getSQLiteDefaultValue()
+	{ return new byte[0] ; }
+
+	@Override
+	public String toSQLiteString( byte[] o )
+	{ return toHexLiteral(o) ; }
+
+	@Override
+	public ByteArrayLens addToContentValues( ContentValues vals, String sKey, byte[] val )
+	{
+		vals.put( sKey, val ) ;
+		return this ;
+	}
+
+	@Override
+	public ByteArrayLens addToBundle( Bundle bndl, String sKey, byte[] val )
+	{
+		bndl.putByteArray( sKey, val ) ;
+		return this ;
+	}
+
+	@Override
+	public byte[] fromCursor( Cursor crs, String sKey )
+	{
+		int nIndex = crs.getColumnIndex( sKey ) ;
+		if( nIndex == COLUMN_NOT_FOUND || crs.isNull(nIndex) ) return null ;
+		return crs.getBlob(nIndex) ;
+	}
+
+	@Override
+	public byte[] fromBundle( Bundle bndl, String sKey )
+	{ return bndl.getByteArray( sKey ) ; }
+}
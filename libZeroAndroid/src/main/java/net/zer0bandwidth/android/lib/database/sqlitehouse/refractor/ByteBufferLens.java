@@ -0,0 +1,91 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.refractor;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.os.Bundle;
+
+import net.zer0bandwidth.android.lib.database.SQLiteSyntax;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Marshals {@link ByteBuffer} objects into SQLite {@code BLOB} columns.
+ *
+ * <p>The lens stores the buffer's remaining bytes, i.e. those between its
+ * position and its limit, without disturbing the position of the buffer
+ * itself. When a buffer wraps an entire backing array, that array is written
+ * directly rather than being copied. Buffers read from the database wrap the
+ * array returned by the cursor.</p>
+ *
+ * @see ByteArrayLens
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+public class ByteBufferLens
+extends Lens<ByteBuffer>
+implements Refractor<ByteBuffer>
+{
+	/**
+	 * Extracts the remaining bytes of a buffer, avoiding a copy if the buffer
+	 * exactly spans its backing array.
+	 * @param buf the buffer
+	 * @return the buffer's remaining bytes, or {@code null} if the buffer is
+	 *  null
+	 */
+	public static byte[] toByteArray( ByteBuffer buf )
+	{
+		if( buf == null ) return null ;
+		if( buf.hasArray() && buf.arrayOffset() == 0 && buf.position() == 0
+		 && buf.remaining() == buf.array().length )
+		{ return buf.array() ; }
+		byte[] ab = new byte[ buf.remaining() ] ;
+		buf.duplicate().get(ab) ;
+		return ab ;
+	}
+
+	/** Used to delegate the cursor and bundle operations. */
+	protected final ByteArrayLens m_lensBytes = new ByteArrayLens() ;
+
+	@Override
+	public String getSQLiteDataType()
+	{ return SQLiteSyntax.SQLITE_TYPE_BLOB ; }
+
+	/**
+	 * Defines the non-null default value as an empty buffer.
+	 * @return an empty buffer
+	 */
+	@Override
+	public ByteBuffer getSQLiteDefaultValue()
+	{ return ByteBuffer.allocate(0) ; }
+
+	@Override
+	public String toSQLiteString( ByteBuffer o )
+	{ return ByteArrayLens.toHexLiteral( toByteArray(o) ) ; }
+
+	@Override
+	public ByteBufferLens addToContentValues( ContentValues vals, String sKey, ByteBuffer val )
+	{
+		vals.put( sKey, toByteArray(val) ) ;
+		return this ;
+	}
+
+	@Override
+	public ByteBufferLens addToBundle( Bundle bndl, String sKey, ByteBuffer val )
+	{
+		bndl.putByteArray( sKey, toByteArray(val) ) ;
+		return this ;
+	}
+
+	@Override
+	public ByteBuffer fromCursor( Cursor crs, String sKey )
+	{
+		byte[] ab = m_lensBytes.fromCursor( crs, sKey ) ;
+		return ( ab == null ? null : ByteBuffer.wrap(ab) ) ;
+	}
+
+	@Override
+	public ByteBuffer fromBundle( Bundle bndl, String sKey )
+	{
+		byte[] ab = bndl.getByteArray( sKey ) ;
+		return ( ab == null ? null : ByteBuffer.wrap(ab) ) ;
+	}
+}
@@ -0,0 +1,21 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.refractor;
+
+import java.util.GregorianCalendar;
+
+/**
+ * Provides a {@link CachedCalendarLens} for {@link GregorianCalendar}.
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+public class CachedGregorianCalendarLens
+extends CachedCalendarLens<GregorianCalendar>
+implements Refractor<GregorianCalendar>
+{
+	/**
+	 * Explicitly constructs a Gregorian calendar, since
+	 * {@link java.util.Calendar#getInstance()} might return some other kind
+	 * of calendar in some locales.
+	 */
+	@Override
+	protected GregorianCalendar createPrototype()
+	{ return new GregorianCalendar() ; }
+}
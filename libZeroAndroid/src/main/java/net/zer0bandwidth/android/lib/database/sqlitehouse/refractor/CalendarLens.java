@@ -28,6 +28,7 @@ import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_NULL;
  *    {@literal {}}
  * </pre>
  *
+ * @see CachedCalendarLens
  * @since zer0bandwidth-net/android 0.1.4 (#26)
  */
 public class CalendarLens<C extends Calendar>
@@ -0,0 +1,83 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.refractor;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.os.Bundle;
+
+import net.zer0bandwidth.android.lib.database.SQLiteSyntax;
+import net.zer0bandwidth.android.lib.database.sqlitehouse.SQLightable;
+
+import java.lang.reflect.Field;
+
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_NULL;
+
+/**
+ * Marshals timestamps held in {@code long} or {@link Long} fields, as epoch
+ * milliseconds. The stored format is identical to that of {@link DateLens},
+ * {@link SQLDateLens}, and {@link CalendarLens}, so a schematic class may
+ * change a field from one of those types to a {@code long} (annotated with
+ * this lens) without any change to the database. Rows are then loaded without
+ * constructing any date or calendar objects at all.
+ *
+ * <p>Because the field might be a primitive, an SQL {@code NULL} is read as
+ * zero, i.e., the start of the epoch. A {@code null} value in a {@code Long}
+ * field is written as an SQL {@code NULL}.</p>
+ *
+ * @see CachedCalendarLens
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+public class EpochMillisLens
+extends Lens<Long>
+implements Refractor<Long>
+{
+	@Override
+	public String getSQLiteDataType()
+	{ return SQLiteSyntax.SQLITE_TYPE_INT ; }
+
+	/**
+	 * Defines the default value as the start of the epoch.
+	 * @return {@code 0L}
+	 */
+	@Override
+	public Long getSQLiteDefaultValue()
+	{ return 0L ; }
+
+	@Override
+	public String toSQLiteString( Long o )
+	{ return ( o == null ? SQLITE_NULL : Long.toString(o) ) ; }
+
+	/**
+	 * Uses {@link Field#get} rather than {@link Field#getLong}, so that the
+	 * lens works with both {@code long} and {@code Long} fields.
+	 */
+	@Override
+	public Long getValueFrom( SQLightable o, Field fld )
+	throws IllegalAccessException
+	{
+		Object oValue = fld.get(o) ;
+		return ( oValue == null ? null : ((Number)oValue).longValue() ) ;
+	}
+
+	@Override
+	public EpochMillisLens addToContentValues( ContentValues vals, String sKey, Long val )
+	{
+		if( val == null ) vals.putNull( sKey ) ;
+		else vals.put( sKey, val ) ;
+		return this ;
+	}
+
+	@Override
+	public EpochMillisLens addToBundle( Bundle bndl, String sKey, Long val )
+	{
+		if( val != null ) bndl.putLong( sKey, val ) ;
+		return this ;
+	}
+
+	@Override
+	public Long fromCursor( Cursor crs, String sKey )
+	{ return crs.getLong( crs.getColumnIndex( sKey ) ) ; }
+
+	@Override
+	public Long fromBundle( Bundle bndl, String sKey )
+	{ return bndl.getLong( sKey ) ; }
+}
@@ -0,0 +1,159 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.refractor;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A binary value which is stored either inline, in a {@code BLOB} column of
+ * the database, or in an external file whose path is stored in that column.
+ * Fields of this type are marshalled by {@link ExternalFileLens}, which
+ * decides where each value should live based on its size.
+ *
+ * <p>Values that are read from external files are read lazily; the contents of
+ * the file are not loaded until the consumer calls {@link #getBytes()} or
+ * {@link #openStream()}. This keeps large payloads out of the cursor window
+ * and out of memory until they are actually needed.</p>
+ *
+ * <p>Files are <i>not</i> deleted automatically when a row is deleted or its
+ * value is replaced; consumers should call {@link #deleteFile()} when an
+ * external value is no longer referenced by any row.</p>
+ *
+ * @see ExternalFileLens
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+public class ExternalBlob
+{
+	/** The inline value, if the blob is not (yet) stored in a file. */
+	protected byte[] m_abInline = null ;
+
+	/** The file in which the value is stored, if it is external. */
+	protected File m_file = null ;
+
+	/**
+	 * Constructs a blob with an inline value. The lens will move the value to
+	 * an external file when it is written, if it is large enough.
+	 * @param ab the value
+	 */
+	public ExternalBlob( byte[] ab )
+	{ m_abInline = ab ; }
+
+	/**
+	 * Constructs a blob whose value is stored in the specified file.
+	 * @param f the file containing the value
+	 */
+	public ExternalBlob( File f )
+	{ m_file = f ; }
+
+	/**
+	 * Indicates whether the value is stored in an external file.
+	 * @return {@code true} iff the value is stored in a file
+	 */
+	public boolean isExternal()
+	{ return ( m_file != null ) ; }
+
+	/**
+	 * Accesses the external file, if any.
+	 * @return the file containing the value, or {@code null} if the value is
+	 *  inline
+	 */
+	public File getFile()
+	{ return m_file ; }
+
+	/**
+	 * Returns the length of the value, without reading an external file.
+	 * @return the number of bytes in the value
+	 */
+	public long length()
+	{
+		if( m_file != null ) return m_file.length() ;
+		return ( m_abInline == null ? 0 : m_abInline.length ) ;
+	}
+
+	/**
+	 * Returns the entire value. If the value is external, then the file is
+	 * read in full each time this method is called; consumers that merely
+	 * need to process the value should prefer {@link #openStream()}.
+	 * @return the bytes of the value
+	 * @throws IOException if the external file cannot be read, or is too
+	 *  large to be held in a single array
+	 */
+	public byte[] getBytes()
+	throws IOException
+	{
+		if( m_file == null ) return m_abInline ;
+		final long nLength = m_file.length() ;
+		if( nLength > Integer.MAX_VALUE )
+		{
+			throw new IOException( (new StringBuilder())
+					.append( "External value of [" )
+					.append( nLength )
+					.append( "] bytes is too large to read into an array; " )
+					.append( "use openStream() instead." )
+					.toString()
+				);
+		}
+		byte[] ab = new byte[ (int)(nLength) ] ;
+		DataInputStream in = null ;
+		try
+		{
+			in = new DataInputStream( new FileInputStream( m_file ) ) ;
+			in.readFully(ab) ;
+		}
+		finally
+		{ if( in != null ) in.close() ; }
+		return ab ;
+	}
+
+	/**
+	 * Opens a stream from which the value can be read.
+	 * @return a stream over the value; the consumer must close it
+	 * @throws IOException if the external file cannot be opened
+	 */
+	public InputStream openStream()
+	throws IOException
+	{
+		if( m_file != null ) return new FileInputStream( m_file ) ;
+		return new ByteArrayInputStream(
+				m_abInline == null ? new byte[0] : m_abInline ) ;
+	}
+
+	/**
+	 * Deletes the external file, if any. The instance is not usable after this
+	 * method returns {@code true}.
+	 * @return {@code true} iff an external file existed and was deleted
+	 */
+	public boolean deleteFile()
+	{ return ( m_file != null && m_file.delete() ) ; }
+
+	/**
+	 * Writes an inline value into the specified file, and thereafter refers to
+	 * that file instead of retaining the value in memory. Consumed by
+	 * {@link ExternalFileLens}.
+	 * @param f the file to be written
+	 * @return (fluid)
+	 * @throws IOException if the file cannot be written
+	 */
+	protected ExternalBlob externalize( File f )
+	throws IOException
+	{
+		if( m_file != null ) return this ; // already external
+		OutputStream out = null ;
+		try
+		{
+			out = new BufferedOutputStream( new FileOutputStream(f) ) ;
+			if( m_abInline != null ) out.write( m_abInline ) ;
+		}
+		finally
+		{ if( out != null ) out.close() ; }
+		m_file = f ;
+		m_abInline = null ;
+		return this ;
+	}
+}
@@ -0,0 +1,264 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.refractor;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.os.Bundle;
+import android.util.Log;
+
+import net.zer0bandwidth.android.lib.database.SQLiteSyntax;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.COLUMN_NOT_FOUND;
+import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_NULL;
+
+/**
+ * Marshals {@link ExternalBlob} values. Values no larger than the lens's
+ * {@link #getThreshold() threshold} are stored inline, as a {@code BLOB};
+ * larger values are written to a file in the lens's
+ * {@link #getStorageDirectory() storage directory}, and only the path to that
+ * file is stored in the column. Large payloads thus never pass through the
+ * cursor window, and are read only when the consumer asks for them.
+ *
+ * <p>Values are moved into files only when they are about to be inserted or
+ * updated, through {@link #prepareForWrite}; converting a value, such as into
+ * {@link ContentValues} or a {@link Bundle}, never writes a file. The stored
+ * path is relative to the storage directory, so that the data remains valid
+ * if the app's data directory is moved or restored.</p>
+ *
+ * <p>The default implementation stores files in a directory which must be set
+ * once by the app, typically when it creates its database:</p>
+ *
+ * <pre>
+ *     ExternalFileLens.setDefaultDirectory( ctx ) ;
+ * </pre>
+ *
+ * <p>Apps that need a different directory or threshold for a particular
+ * column may extend this class, override {@link #getStorageDirectory()} and/or
+ * {@link #getThreshold()}, and name the subclass in the {@code refractor}
+ * attribute of that column's
+ * {@link net.zer0bandwidth.android.lib.database.sqlitehouse.annotations.SQLiteColumn}
+ * annotation. If no directory is available, values are stored inline
+ * regardless of their size.</p>
+ *
+ * @see ExternalBlob
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+public class ExternalFileLens
+extends Lens<ExternalBlob>
+implements PreparingRefractor<ExternalBlob>
+{
+	public static final String LOG_TAG = ExternalFileLens.class.getSimpleName() ;
+
+	/**
+	 * The default size, in bytes, above which values are stored in files.
+	 * This is well below the size of a cursor window.
+	 */
+	public static final int DEFAULT_THRESHOLD = 128 * 1024 ;
+
+	/**
+	 * The name of the directory, under the app's files directory, used by
+	 * {@link #setDefaultDirectory(Context)}.
+	 */
+	public static final String DEFAULT_DIRECTORY_NAME = "sqlitehouse_blobs" ;
+
+	/** The extension given to each external file. */
+	public static final String FILE_EXTENSION = ".blob" ;
+
+	/** The directory in which instances of this class store files. */
+	protected static File s_dirDefault = null ;
+
+	/**
+	 * Sets the directory in which external values will be stored by default.
+	 * @param dir the directory
+	 */
+	public static synchronized void setDefaultDirectory( File dir )
+	{ s_dirDefault = dir ; }
+
+	/**
+	 * Sets the default storage directory to {@link #DEFAULT_DIRECTORY_NAME}
+	 * under the app's private files directory.
+	 * @param ctx the context in which the app operates
+	 */
+	public static void setDefaultDirectory( Context ctx )
+	{
+		setDefaultDirectory(
+				new File( ctx.getFilesDir(), DEFAULT_DIRECTORY_NAME ) ) ;
+	}
+
+	/**
+	 * Accesses the default storage directory.
+	 * @return the default storage directory, or {@code null} if none was set
+	 */
+	public static synchronized File getDefaultDirectory()
+	{ return s_dirDefault ; }
+
+	/**
+	 * Specifies the directory in which this lens stores external values.
+	 * Descendants may override this method.
+	 * @return the storage directory, or {@code null} if none is available
+	 */
+	protected File getStorageDirectory()
+	{ return getDefaultDirectory() ; }
+
+	/**
+	 * Specifies the size, in bytes, above which this lens stores values in
+	 * external files. Descendants may override this method.
+	 * @return the threshold size
+	 */
+	protected int getThreshold()
+	{ return DEFAULT_THRESHOLD ; }
+
+	/**
+	 * Moves a value to an external file if it exceeds the threshold and a
+	 * storage directory is available. If the file cannot be written, the
+	 * value remains inline.
+	 * @param blob the value
+	 * @return the same value, which may now be external
+	 */
+	protected ExternalBlob place( ExternalBlob blob )
+	{
+		if( blob.isExternal() || blob.length() <= this.getThreshold() )
+			return blob ;
+
+		File dir = this.getStorageDirectory() ;
+		if( dir == null )
+		{
+			Log.w( LOG_TAG,
+					"No storage directory; storing large value inline." ) ;
+			return blob ;
+		}
+
+		try
+		{
+			if( ! dir.isDirectory() && ! dir.mkdirs() )
+				throw new IOException( "Could not create " + dir.getPath() ) ;
+			blob.externalize( new File( dir,
+					UUID.randomUUID().toString() + FILE_EXTENSION ) ) ;
+		}
+		catch( IOException xIO )
+		{
+			Log.w( LOG_TAG,
+					"Could not write external value; storing inline.", xIO ) ;
+		}
+
+		return blob ;
+	}
+
+	/**
+	 * Moves a large value into an external file before it is written.
+	 * @param val the value
+	 * @return the same value, which may now be external
+	 */
+	@Override
+	public ExternalBlob prepareForWrite( ExternalBlob val )
+	{ return ( val == null ? null : this.place(val) ) ; }
+
+	/**
+	 * Renders the path of an external file as it should be stored. Files in
+	 * the storage directory are stored by a path relative to it; any other
+	 * file is stored by its absolute path.
+	 * @param f the external file
+	 * @return the path to be stored
+	 */
+	protected String toStoredPath( File f )
+	{
+		File dir = this.getStorageDirectory() ;
+		if( dir != null )
+		{
+			String sDir = dir.getAbsolutePath() + File.separator ;
+			String sFile = f.getAbsolutePath() ;
+			if( sFile.startsWith( sDir ) )
+				return sFile.substring( sDir.length() ) ;
+		}
+		return f.getAbsolutePath() ;
+	}
+
+	/**
+	 * Resolves a stored path to an external file. Relative paths are resolved
+	 * against the storage directory; absolute paths are used as they are.
+	 * @param sPath the stored path
+	 * @return the external file
+	 */
+	protected File fromStoredPath( String sPath )
+	{
+		File f = new File( sPath ) ;
+		File dir = this.getStorageDirectory() ;
+		if( f.isAbsolute() || dir == null ) return f ;
+		return new File( dir, sPath ) ;
+	}
+
+	/**
+	 * Stored values are either {@code BLOB}s or {@code TEXT} paths; SQLite's
+	 * dynamic typing allows both in a column declared as {@code BLOB}.
+	 */
+	@Override
+	public String getSQLiteDataType()
+	{ return SQLiteSyntax.SQLITE_TYPE_BLOB ; }
+
+	/**
+	 * Defines the non-null default value as an empty inline value.
+	 * @return an empty value
+	 */
+	@Override
+	public ExternalBlob getSQLiteDefaultValue()
+	{ return new ExternalBlob( new byte[0] ) ; }
+
+	@Override
+	public String toSQLiteString( ExternalBlob o )
+	{
+		if( o == null ) return SQLITE_NULL ;
+		if( o.isExternal() )
+			return DatabaseUtils.sqlEscapeString( this.toStoredPath( o.getFile() ) ) ;
+		return ByteArrayLens.toHexLiteral( o.m_abInline ) ;
+	}
+
+	@Override
+	public ExternalFileLens addToContentValues( ContentValues vals, String sKey, ExternalBlob val )
+	{
+		if( val == null )
+			vals.putNull( sKey ) ;
+		else if( val.isExternal() )
+			vals.put( sKey, this.toStoredPath( val.getFile() ) ) ;
+		else
+			vals.put( sKey, val.m_abInline ) ;
+		return this ;
+	}
+
+	@Override
+	public ExternalFileLens addToBundle( Bundle bndl, String sKey, ExternalBlob val )
+	{
+		if( val == null )
+			bndl.putByteArray( sKey, null ) ;
+		else if( val.isExternal() )
+			bndl.putString( sKey, this.toStoredPath( val.getFile() ) ) ;
+		else
+			bndl.putByteArray( sKey, val.m_abInline ) ;
+		return this ;
+	}
+
+	@Override
+	public ExternalBlob fromCursor( Cursor crs, String sKey )
+	{
+		int nIndex = crs.getColumnIndex( sKey ) ;
+		if( nIndex == COLUMN_NOT_FOUND || crs.isNull(nIndex) ) return null ;
+		if( crs.getType(nIndex) == Cursor.FIELD_TYPE_STRING )
+			return new ExternalBlob( this.fromStoredPath( crs.getString(nIndex) ) ) ;
+		return new ExternalBlob( crs.getBlob(nIndex) ) ;
+	}
+
+	@Override
+	public ExternalBlob fromBundle( Bundle bndl, String sKey )
+	{
+		Object o = bndl.get( sKey ) ;
+		if( o instanceof String )
+			return new ExternalBlob( this.fromStoredPath( (String)o ) ) ;
+		if( o instanceof byte[] )
+			return new ExternalBlob( (byte[])o ) ;
+		return null ;
+	}
+}
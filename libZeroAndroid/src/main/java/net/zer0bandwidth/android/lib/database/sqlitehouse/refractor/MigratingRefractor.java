@@ -0,0 +1,36 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.refractor;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+/**
+ * A {@link Refractor} which can recognize values that were stored in an older
+ * format, and convert them to its own format. When a schema is upgraded,
+ * {@link net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouse}
+ * examines each existing column whose refractor implements this interface,
+ * and rewrites any rows that are still in the older format.
+ * @param <T> the Java type marshalled by the refractor
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+public interface MigratingRefractor<T>
+extends Refractor<T>
+{
+	/**
+	 * Provides an SQLite condition which selects the rows whose values in the
+	 * specified column are stored in an older format.
+	 * @param sColumn the name of the column
+	 * @return an SQLite condition suitable for a {@code WHERE} clause, or
+	 *  {@code null} if the refractor has no older format to migrate
+	 */
+	String getMigrationFilter( String sColumn ) ;
+
+	/**
+	 * Reads a value in an older format from the cursor, and adds that value,
+	 * in the refractor's current format, to the supplied set of values.
+	 * @param crs a cursor pointing to a row selected by the migration filter
+	 * @param sKey the name of the column
+	 * @param vals the values into which the converted value is written
+	 * @return (fluid)
+	 */
+	MigratingRefractor<T> migrate( Cursor crs, String sKey, ContentValues vals ) ;
+}
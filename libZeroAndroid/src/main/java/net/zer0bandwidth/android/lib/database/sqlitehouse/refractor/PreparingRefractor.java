@@ -0,0 +1,28 @@
+package net.zer0bandwidth.android.lib.database.sqlitehouse.refractor;
+
+/**
+ * A {@link Refractor} whose values must be prepared, with some side effect,
+ * before they are written to the database; for example, by moving a large
+ * value into an external file.
+ *
+ * <p>Conversions such as {@link Refractor#addToContentValues} must not have
+ * side effects, since they are also used to compare and copy values that
+ * never reach the database. Instead,
+ * {@link net.zer0bandwidth.android.lib.database.sqlitehouse.SQLiteHouse}
+ * calls {@link #prepareForWrite} on each such column, only when the object
+ * is actually about to be inserted or updated.</p>
+ *
+ * @see ExternalFileLens
+ * @since zer0bandwidth-net/android 1.1.0
+ */
+public interface PreparingRefractor<T>
+extends Refractor<T>
+{
+	/**
+	 * Prepares a value to be written to the database.
+	 * @param val the value of the field, which may be {@code null}
+	 * @return the value that should be written; this is assigned back into
+	 *  the field from which the value was taken
+	 */
+	T prepareForWrite( T val ) ;
+}
@@ -2,6 +2,7 @@ package net.zer0bandwidth.android.lib.database.sqlitehouse.refractor;
 
 import net.zer0bandwidth.android.lib.database.sqlitehouse.exceptions.IntrospectionException;
 
+import java.nio.ByteBuffer;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 
@@ -47,6 +48,11 @@ extends HashMap<Class<?>,Class<? extends Refractor>>
 		DEFAULT_MAPPING.put( java.sql.Date.class, SQLDateLens.class ) ;
 		DEFAULT_MAPPING.put( GregorianCalendar.class, GregorianCalendarLens.class ) ;
 
+		// Binary types...
+		DEFAULT_MAPPING.put( byte[].class, ByteArrayLens.class ) ;
+		DEFAULT_MAPPING.put( ByteBuffer.class, ByteBufferLens.class ) ;
+		DEFAULT_MAPPING.put( ExternalBlob.class, ExternalFileLens.class ) ;
+
 		// Other types...
 	}
 
@@ -19,6 +19,7 @@ import static net.zer0bandwidth.android.lib.database.SQLiteSyntax.SQLITE_NULL;
  * about timezones).
  *
  * @see DateLens
+ * @see EpochMillisLens
  * @since zer0bandwidth-net/android 0.1.4 (#26)
  */
 public class SQLDateLens